@@ -0,0 +1,427 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.base.nodes.executor2;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.knime.dl.testing.DLTestUtil.TENSOR_FACTORY;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.junit.Test;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.filestore.internal.NotInWorkflowDataRepository;
+import org.knime.core.node.DefaultNodeProgressMonitor;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.Node;
+import org.knime.core.node.NodeFactory;
+import org.knime.core.node.NodeModel;
+import org.knime.core.node.NodeSettings;
+import org.knime.core.node.defaultnodesettings.SettingsModelStringArray;
+import org.knime.core.node.port.PortObjectSpec;
+import org.knime.core.node.port.PortType;
+import org.knime.core.node.streamable.InputPortRole;
+import org.knime.core.node.streamable.OutputPortRole;
+import org.knime.core.node.streamable.PartitionInfo;
+import org.knime.core.node.streamable.PortInput;
+import org.knime.core.node.streamable.PortObjectInput;
+import org.knime.core.node.streamable.PortOutput;
+import org.knime.core.node.streamable.RowInput;
+import org.knime.core.node.streamable.RowOutput;
+import org.knime.core.node.streamable.StreamableOperator;
+import org.knime.core.node.workflow.SingleNodeContainer.MemoryPolicy;
+import org.knime.core.node.workflow.virtual.parchunk.VirtualParallelizedChunkPortObjectInNodeFactory;
+import org.knime.dl.base.portobjects.DLNetworkPortObject;
+import org.knime.dl.core.DLAbstractNetworkSpec;
+import org.knime.dl.core.DLDefaultFixedTensorShape;
+import org.knime.dl.core.DLDefaultTensorId;
+import org.knime.dl.core.DLDefaultTensorSpec;
+import org.knime.dl.core.DLDimensionOrder;
+import org.knime.dl.core.DLExecutionSpecCreator;
+import org.knime.dl.core.DLMissingExtensionException;
+import org.knime.dl.core.DLNetwork;
+import org.knime.dl.core.DLNetworkInputPreparer;
+import org.knime.dl.core.DLNetworkSpec;
+import org.knime.dl.core.DLTensor;
+import org.knime.dl.core.DLTensorId;
+import org.knime.dl.core.DLTensorSpec;
+import org.knime.dl.core.data.DLReadableBuffer;
+import org.knime.dl.core.data.DLReadableFloatBuffer;
+import org.knime.dl.core.data.DLWritableBuffer;
+import org.knime.dl.core.data.DLWritableDoubleBuffer;
+import org.knime.dl.core.data.convert.DLDoubleTensorToDoubleCellConverterFactory;
+import org.knime.dl.core.data.convert.DLDoubleValueToFloatTensorConverterFactory;
+import org.knime.dl.core.data.convert.DLTensorToDataCellConverterFactory;
+import org.knime.dl.core.execution.DLAbstractNetworkExecutionSession;
+import org.knime.dl.core.execution.DLBatchExecutor;
+import org.knime.dl.core.execution.DLExecutionContext;
+import org.knime.dl.core.execution.DLExecutionMonitor;
+import org.knime.dl.core.execution.DLNetworkExecutionSession;
+import org.knime.dl.core.execution.DLNetworkOutputConsumer;
+import org.knime.dl.core.training.DLTrainingConfig;
+import org.knime.dl.util.DLUtils;
+
+/**
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ */
+public class DLAbstractExecutorNodeModelTest {
+
+    private static final int NUM_PARTITIONS = 3;
+
+    private static final int NUM_ROWS_PER_PARTITION = 5;
+
+    private static final int BATCH_SIZE = 2;
+
+    private static final DLTensorSpec IN_SPEC = new DLDefaultTensorSpec(new DLDefaultTensorId("in"), "in",
+        new DLDefaultFixedTensorShape(new long[]{1}), float.class, DLDimensionOrder.TDHWC);
+
+    private static final DLTensorSpec OUT_SPEC = new DLDefaultTensorSpec(new DLDefaultTensorId("out"), "out",
+        new DLDefaultFixedTensorShape(new long[]{1}), double.class, DLDimensionOrder.TDHWC);
+
+    private static final DLTestNetwork NETWORK = new DLTestNetwork();
+
+    private static final DataTableSpec TABLE_SPEC =
+        new DataTableSpec(new DataColumnSpecCreator("in", DoubleCell.TYPE).createSpec());
+
+    @Test
+    public void testInputAndOutputAreDistributed() {
+        final DLTestExecutorNodeModel model = new DLTestExecutorNodeModel(new CyclicBarrier(1));
+        assertArrayEquals(
+            new InputPortRole[]{InputPortRole.DISTRIBUTED_NONSTREAMABLE, InputPortRole.DISTRIBUTED_STREAMABLE},
+            model.getInputPortRoles());
+        assertArrayEquals(new OutputPortRole[]{OutputPortRole.DISTRIBUTED}, model.getOutputPortRoles());
+    }
+
+    @Test
+    public void testEachPartitionIsExecutedInItsOwnConcurrentSession() throws Exception {
+        // All sessions must reach the barrier at the same time, i.e. none may wait for another partition to finish.
+        final DLTestExecutorNodeModel model = createConfiguredModel(new CyclicBarrier(NUM_PARTITIONS));
+        final ExecutionContext exec = createExecutionContext();
+        final List<List<DataRow>> outputs = new ArrayList<>(NUM_PARTITIONS);
+        final ExecutorService executor = Executors.newFixedThreadPool(NUM_PARTITIONS);
+        try {
+            final List<Future<?>> futures = new ArrayList<>(NUM_PARTITIONS);
+            for (int i = 0; i < NUM_PARTITIONS; i++) {
+                final StreamableOperator operator =
+                    model.createStreamableOperator(new PartitionInfo(i, NUM_PARTITIONS), new PortObjectSpec[2]);
+                final RowInput input = new DLTestRowInput(createRows(i));
+                final DLTestRowOutput output = new DLTestRowOutput();
+                outputs.add(output.m_rows);
+                futures.add(executor.submit(() -> {
+                    operator.runFinal(new PortInput[]{new PortObjectInput(null), input}, new PortOutput[]{output},
+                        exec);
+                    return null;
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // one session per partition that only saw the rows of its partition
+        assertEquals(NUM_PARTITIONS, model.m_sessionInputs.size());
+        final List<List<Float>> sessionInputs = new ArrayList<>(model.m_sessionInputs);
+        sessionInputs.sort((a, b) -> Float.compare(a.get(0), b.get(0)));
+        for (int i = 0; i < NUM_PARTITIONS; i++) {
+            final List<Float> expected = new ArrayList<>(NUM_ROWS_PER_PARTITION);
+            for (final DataRow row : createRows(i)) {
+                expected.add((float)((DoubleCell)row.getCell(0)).getDoubleValue());
+            }
+            assertEquals(expected, sessionInputs.get(i));
+        }
+
+        // the merged outputs of all partitions are the results of all input rows in input order
+        final List<DataRow> merged = new ArrayList<>();
+        outputs.forEach(merged::addAll);
+        assertEquals(NUM_PARTITIONS * NUM_ROWS_PER_PARTITION, merged.size());
+        for (int i = 0; i < merged.size(); i++) {
+            final DataRow row = merged.get(i);
+            assertEquals(RowKey.createRowKey((long)i), row.getKey());
+            assertEquals(1, row.getNumCells());
+            assertEquals(i * 10d, ((DoubleCell)row.getCell(0)).getDoubleValue(), 0d);
+        }
+    }
+
+    /**
+     * @return the rows of the given partition, row <i>i</i> of the whole table holds the value <i>i</i>
+     */
+    private static List<DataRow> createRows(final int partition) {
+        final List<DataRow> rows = new ArrayList<>(NUM_ROWS_PER_PARTITION);
+        for (int i = 0; i < NUM_ROWS_PER_PARTITION; i++) {
+            final long index = (long)partition * NUM_ROWS_PER_PARTITION + i;
+            rows.add(new DefaultRow(RowKey.createRowKey(index), new DoubleCell(index)));
+        }
+        return rows;
+    }
+
+    /**
+     * Configures the model via its settings, as the dialog would, but without resolving a registered back end.
+     */
+    private static DLTestExecutorNodeModel createConfiguredModel(final CyclicBarrier barrier) throws Exception {
+        final DLTestExecutorNodeModel model = new DLTestExecutorNodeModel(barrier);
+        final NodeSettings settings = new NodeSettings("model");
+        final DLExecutorGeneralConfig generalCfg = DLAbstractExecutorNodeModel.createGeneralModelConfig();
+        generalCfg.getBatchSizeEntry().setValue(BATCH_SIZE);
+        generalCfg.saveToSettings(settings);
+
+        final DLDoubleValueToFloatTensorConverterFactory inputConverter =
+            new DLDoubleValueToFloatTensorConverterFactory();
+        final DLExecutorInputConfig inputCfg = DLAbstractExecutorNodeModel
+            .createInputTensorModelConfig(IN_SPEC.getIdentifier(), IN_SPEC.getName(), generalCfg);
+        inputCfg.getConverterEntry().setValue(inputConverter);
+        inputCfg.getInputColumnsEntry().getValue().loadDefault(TABLE_SPEC, null, true);
+        inputCfg.saveToSettings(settings.addNodeSettings(DLAbstractExecutorNodeModel.CFG_KEY_INPUTS));
+
+        final DLDoubleTensorToDoubleCellConverterFactory outputConverter =
+            new DLDoubleTensorToDoubleCellConverterFactory();
+        final DLExecutorOutputConfig outputCfg = DLAbstractExecutorNodeModel
+            .createOutputTensorModelConfig(OUT_SPEC.getIdentifier(), OUT_SPEC.getName(), generalCfg);
+        outputCfg.getConverterEntry().setValue(outputConverter);
+        outputCfg.saveToSettings(settings.addNodeSettings(DLAbstractExecutorNodeModel.CFG_KEY_OUTPUTS));
+
+        final SettingsModelStringArray outputOrder = DLAbstractExecutorNodeModel.createOutputOrderSettingsModel(1);
+        outputOrder.setStringArrayValue(new String[]{OUT_SPEC.getIdentifier().getIdentifierString()});
+        outputOrder.saveSettingsTo(settings);
+
+        model.validateSettings(settings);
+        model.loadValidatedSettingsFrom(settings);
+        // normally resolved against the network spec in configure
+        model.m_inputConverters = new LinkedHashMap<>(Collections.singletonMap(IN_SPEC, inputConverter));
+        model.m_outputConverters = new LinkedHashMap<>(Collections.singletonMap(OUT_SPEC, outputConverter));
+        return model;
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static ExecutionContext createExecutionContext() {
+        return new ExecutionContext(new DefaultNodeProgressMonitor(),
+            new Node((NodeFactory<NodeModel>)(NodeFactory)new VirtualParallelizedChunkPortObjectInNodeFactory(
+                new PortType[0])),
+            MemoryPolicy.CacheSmallInMemory, NotInWorkflowDataRepository.newInstance());
+    }
+
+    /**
+     * Executes each partition in a {@link DLTestSession} and records the inputs of each session.
+     */
+    private static final class DLTestExecutorNodeModel extends DLAbstractExecutorNodeModel<Object> {
+
+        private final CyclicBarrier m_barrier;
+
+        private final List<List<Float>> m_sessionInputs = Collections.synchronizedList(new ArrayList<>());
+
+        private DLTestExecutorNodeModel(final CyclicBarrier barrier) {
+            super(DLNetworkPortObject.TYPE);
+            m_barrier = barrier;
+        }
+
+        @Override
+        protected DLNetwork extractNetworkFromPortObject(final DLNetworkPortObject networkPortObject) {
+            return NETWORK;
+        }
+
+        @Override
+        protected Object getContext(final DLExecutionContext<?, ?> ctx) {
+            return null;
+        }
+
+        @Override
+        protected <N extends DLNetwork> DLNetworkExecutionSession createExecutionSession(final Object context,
+            final N network, final int batchSize, final Map<DLTensorId, int[]> columnsForTensorId,
+            final Map<DLTensorId, DLTensorToDataCellConverterFactory<?, ?>> outputConverterForTensorId,
+            final DataRow firstRow, final DLNetworkInputPreparer inputPreparer,
+            final DLNetworkOutputConsumer outputConsumer) throws DLMissingExtensionException {
+            final List<Float> inputs = Collections.synchronizedList(new ArrayList<>());
+            m_sessionInputs.add(inputs);
+            return new DLTestSession(DLExecutionSpecCreator.createExecutionSpecs(firstRow, TENSOR_FACTORY, batchSize,
+                columnsForTensorId, m_inputConverters), inputPreparer, outputConsumer, m_barrier, inputs);
+        }
+    }
+
+    /**
+     * Multiplies its inputs by ten. Waits at the given barrier before executing the first batch.
+     */
+    private static final class DLTestSession extends DLAbstractNetworkExecutionSession<DLTestNetwork> {
+
+        private final CyclicBarrier m_barrier;
+
+        private final List<Float> m_inputs;
+
+        private DLTestSession(final Set<DLTensorSpec> executionInputSpecs,
+            final DLNetworkInputPreparer inputPreparer, final DLNetworkOutputConsumer outputConsumer,
+            final CyclicBarrier barrier, final List<Float> inputs) {
+            super(NETWORK, executionInputSpecs, Collections.singleton(OUT_SPEC.getIdentifier()), inputPreparer,
+                outputConsumer, TENSOR_FACTORY);
+            m_barrier = barrier;
+            m_inputs = inputs;
+        }
+
+        @Override
+        protected void executeInternal(final DLExecutionMonitor monitor) throws Exception {
+            m_barrier.await(10, TimeUnit.SECONDS);
+            executeBatches(monitor, new DLBatchExecutor() {
+
+                private double[] m_result;
+
+                @Override
+                public void execute(final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> input,
+                    final long batchSize, final DLExecutionMonitor m) {
+                    final DLReadableFloatBuffer buffer =
+                        (DLReadableFloatBuffer)input.get(IN_SPEC.getIdentifier()).getBuffer();
+                    m_result = new double[(int)batchSize];
+                    for (int i = 0; i < m_result.length; i++) {
+                        final float value = buffer.readNextFloat();
+                        m_inputs.add(value);
+                        m_result[i] = value * 10d;
+                    }
+                }
+
+                @Override
+                public Map<DLTensorId, DLTensor<? extends DLReadableBuffer>> createOutput(final DLExecutionMonitor m) {
+                    final Map<DLTensorId, DLTensor<? extends DLReadableBuffer>> output = new HashMap<>(1);
+                    output.put(OUT_SPEC.getIdentifier(), m_tensorFactory.createReadableTensor(
+                        m_tensorFactory.createExecutionTensorSpec(OUT_SPEC, m_expectedBatchSize, new long[]{1})));
+                    return output;
+                }
+
+                @Override
+                public void fetchOutput(final Map<DLTensorId, DLTensor<? extends DLReadableBuffer>> output,
+                    final DLExecutionMonitor m) {
+                    ((DLWritableDoubleBuffer)output.get(OUT_SPEC.getIdentifier()).getBuffer()).putAll(m_result);
+                }
+            });
+        }
+    }
+
+    private static final class DLTestNetwork implements DLNetwork {
+
+        private final DLTestNetworkSpec m_spec = new DLTestNetworkSpec();
+
+        @Override
+        public DLNetworkSpec getSpec() {
+            return m_spec;
+        }
+    }
+
+    private static final class DLTestNetworkSpec extends DLAbstractNetworkSpec<DLTrainingConfig> {
+
+        private static final long serialVersionUID = 1L;
+
+        private DLTestNetworkSpec() {
+            super(DLUtils.Misc.getVersionOfSameBundle(DLTestNetworkSpec.class), new DLTensorSpec[]{IN_SPEC},
+                new DLTensorSpec[0], new DLTensorSpec[]{OUT_SPEC});
+        }
+
+        @Override
+        protected void hashCodeInternal(final HashCodeBuilder b) {
+            // no op
+        }
+
+        @Override
+        protected boolean equalsInternal(final DLNetworkSpec other) {
+            return true;
+        }
+    }
+
+    private static final class DLTestRowInput extends RowInput {
+
+        private final Queue<DataRow> m_rows;
+
+        private DLTestRowInput(final List<DataRow> rows) {
+            m_rows = new ArrayDeque<>(rows);
+        }
+
+        @Override
+        public DataTableSpec getDataTableSpec() {
+            return TABLE_SPEC;
+        }
+
+        @Override
+        public DataRow poll() {
+            return m_rows.poll();
+        }
+
+        @Override
+        public void close() {
+            // no op
+        }
+    }
+
+    private static final class DLTestRowOutput extends RowOutput {
+
+        private final List<DataRow> m_rows = new ArrayList<>();
+
+        @Override
+        public void push(final DataRow row) {
+            m_rows.add(row);
+        }
+
+        @Override
+        public void close() {
+            // no op
+        }
+    }
+}
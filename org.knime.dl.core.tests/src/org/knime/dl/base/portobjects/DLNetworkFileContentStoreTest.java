@@ -0,0 +1,142 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.base.portobjects;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ */
+public class DLNetworkFileContentStoreTest {
+
+    @Rule
+    public final TemporaryFolder m_folder = new TemporaryFolder();
+
+    @Test
+    public void testLinkSharesStoredContent() throws IOException {
+        final File store = m_folder.newFolder();
+        final DLNetworkFileContentStore contentStore = new DLNetworkFileContentStore(store);
+        final File source = newFile("network.h5", "weights");
+        final File destination1 = new File(m_folder.getRoot(), "fs1");
+        final File destination2 = new File(m_folder.getRoot(), "fs2");
+
+        assertTrue(contentStore.link(source.toURI().toURL(), destination1));
+        assertTrue(contentStore.link(source.toURI().toURL(), destination2));
+        assertEquals(1, store.listFiles().length);
+        assertArrayEquals(Files.readAllBytes(source.toPath()), Files.readAllBytes(destination1.toPath()));
+        assertArrayEquals(Files.readAllBytes(source.toPath()), Files.readAllBytes(destination2.toPath()));
+    }
+
+    @Test
+    public void testChangesToSourceDoNotAffectLinkedFiles() throws IOException {
+        final DLNetworkFileContentStore contentStore = new DLNetworkFileContentStore(m_folder.newFolder());
+        final File source = newFile("network.h5", "weights");
+        final File destination = new File(m_folder.getRoot(), "fs");
+        assertTrue(contentStore.link(source.toURI().toURL(), destination));
+
+        Files.write(source.toPath(), "changed".getBytes(StandardCharsets.UTF_8));
+        assertEquals("weights", new String(Files.readAllBytes(destination.toPath()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testLinkedFileCanBeDeletedAndEntryIsPruned() throws IOException {
+        final File store = m_folder.newFolder();
+        final DLNetworkFileContentStore contentStore = new DLNetworkFileContentStore(store);
+        final File destination = new File(m_folder.getRoot(), "fs");
+        assertTrue(contentStore.link(newFile("network.h5", "weights").toURI().toURL(), destination));
+        assertTrue(Files.isWritable(destination.toPath()));
+        // this is what the file store does on reset or when the workflow is closed
+        Files.delete(destination.toPath());
+        assertFalse(destination.exists());
+
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("unix"));
+        contentStore.prune();
+        assertEquals(0, store.listFiles().length);
+    }
+
+    @Test
+    public void testRecentlyModifiedSourceIsRehashed() throws IOException {
+        final DLNetworkFileContentStore contentStore = new DLNetworkFileContentStore(m_folder.newFolder());
+        final File source = newFile("network.h5", "weights");
+        final long lastModified = source.lastModified();
+        assertTrue(contentStore.link(source.toURI().toURL(), new File(m_folder.getRoot(), "fs1")));
+
+        // same size and modification time, as if modified within the file system's timestamp resolution
+        Files.write(source.toPath(), "WEIGHTS".getBytes(StandardCharsets.UTF_8));
+        assertTrue(source.setLastModified(lastModified));
+        final File destination = new File(m_folder.getRoot(), "fs2");
+        assertTrue(contentStore.link(source.toURI().toURL(), destination));
+        assertEquals("WEIGHTS", new String(Files.readAllBytes(destination.toPath()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testNonLocalSourceIsNotLinked() throws IOException {
+        final DLNetworkFileContentStore contentStore = new DLNetworkFileContentStore(m_folder.newFolder());
+        assertFalse(contentStore.link(new URL("http://localhost/network.h5"), new File(m_folder.getRoot(), "fs")));
+    }
+
+    private File newFile(final String name, final String content) throws IOException {
+        final File file = m_folder.newFile(name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
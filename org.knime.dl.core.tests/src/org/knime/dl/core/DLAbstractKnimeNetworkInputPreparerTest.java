@@ -0,0 +1,178 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.knime.dl.testing.DLTestUtil.TENSOR_FACTORY;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataValue;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.dl.core.data.DLWritableBuffer;
+import org.knime.dl.core.data.convert.DLDoubleValueToFloatTensorConverterFactory;
+
+/**
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ */
+public class DLAbstractKnimeNetworkInputPreparerTest {
+
+	private static final int BATCH_SIZE = 4;
+
+	private static final DLTensorSpec NUMBERS = new DLDefaultTensorSpec(new DLDefaultTensorId("numbers"), "numbers",
+			BATCH_SIZE, new DLDefaultFixedTensorShape(new long[] { 2 }), float.class, DLDimensionOrder.TDHWC);
+
+	private static final Map<DLTensorId, List<DataValue>> ROW = Collections.singletonMap(NUMBERS.getIdentifier(),
+			Arrays.asList(new DoubleCell(1), new DoubleCell(2)));
+
+	@Test
+	public void testWriteConvertsEagerlyEvenForBulkConverters() throws Exception {
+		try (final DLTestingInputPreparer preparer = new DLTestingInputPreparer()) {
+			final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> input = createInput();
+			preparer.writeDataValuesInTensors(ROW, input);
+			assertEquals(2, input.get(NUMBERS.getIdentifier()).getBuffer().size());
+			assertFalse(preparer.hasBufferedDataValues());
+		}
+	}
+
+	@Test
+	public void testBufferDefersConversionUntilFlush() throws Exception {
+		try (final DLTestingInputPreparer preparer = new DLTestingInputPreparer()) {
+			final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> input = createInput();
+			preparer.bufferDataValuesInTensors(ROW, input);
+			preparer.bufferDataValuesInTensors(ROW, input);
+			assertEquals(0, input.get(NUMBERS.getIdentifier()).getBuffer().size());
+			assertTrue(preparer.hasBufferedDataValues());
+			preparer.flushDataValuesInTensors(input);
+			assertEquals(4, input.get(NUMBERS.getIdentifier()).getBuffer().size());
+			assertFalse(preparer.hasBufferedDataValues());
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testWriteFailsIfBufferedValuesWereNotFlushed() throws Exception {
+		try (final DLTestingInputPreparer preparer = new DLTestingInputPreparer()) {
+			final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> input = createInput();
+			preparer.bufferDataValuesInTensors(ROW, input);
+			preparer.writeDataValuesInTensors(ROW, input);
+		}
+	}
+
+	private static Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> createInput() {
+		return Collections.singletonMap(NUMBERS.getIdentifier(), TENSOR_FACTORY.createWritableTensor(NUMBERS));
+	}
+
+	/**
+	 * Only exposes the conversion methods of the base class, the rows are passed in by the tests.
+	 */
+	private static final class DLTestingInputPreparer extends DLAbstractKnimeNetworkInputPreparer {
+
+		private DLTestingInputPreparer() {
+			super(new DLEmptyRowIterator(), BATCH_SIZE, Collections.singletonMap(NUMBERS.getIdentifier(),
+					new DLDoubleValueToFloatTensorConverterFactory()));
+		}
+
+		@Override
+		public boolean hasNext() {
+			return false;
+		}
+
+		@Override
+		public void prepareNext(final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> input) {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	private static final class DLEmptyRowIterator extends DLAbstractRowIterator {
+
+		private DLEmptyRowIterator() {
+			super(new DataTableSpec(new DataColumnSpecCreator("a", DoubleCell.TYPE).createSpec(),
+					new DataColumnSpecCreator("b", DoubleCell.TYPE).createSpec()),
+					Collections.singletonMap(NUMBERS.getIdentifier(), new int[] { 0, 1 }));
+		}
+
+		@Override
+		public long size() {
+			return 0;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return false;
+		}
+
+		@Override
+		public DataRow peek() {
+			throw new NoSuchElementException();
+		}
+
+		@Override
+		public DataRow next() {
+			throw new NoSuchElementException();
+		}
+
+		@Override
+		public void reset() {
+			// no op
+		}
+
+		@Override
+		public void close() {
+			// no op
+		}
+	}
+}
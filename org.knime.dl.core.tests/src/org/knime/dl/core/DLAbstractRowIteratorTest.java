@@ -0,0 +1,189 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.DataValue;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.StringCell;
+
+/**
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ */
+public class DLAbstractRowIteratorTest {
+
+	private static final DLTensorId FIRST = new DLDefaultTensorId("first");
+
+	private static final DLTensorId SECOND = new DLDefaultTensorId("second");
+
+	private static final DataTableSpec TABLE_SPEC = new DataTableSpec(
+			new DataColumnSpecCreator("a", IntCell.TYPE).createSpec(),
+			new DataColumnSpecCreator("b", IntCell.TYPE).createSpec(),
+			new DataColumnSpecCreator("c", IntCell.TYPE).createSpec(),
+			new DataColumnSpecCreator("d", StringCell.TYPE).createSpec());
+
+	@Test
+	public void testGroupByTensor() {
+		final DLAbstractRowIterator iterator = createIterator();
+		final Map<DLTensorId, List<DataValue>> grouped = iterator
+				.groupByTensor(new DefaultRow("Row0", new IntCell(1), new IntCell(2), new IntCell(3)));
+		assertEquals(Arrays.asList(new IntCell(3), new IntCell(1)), grouped.get(FIRST));
+		assertEquals(Arrays.asList(new IntCell(2)), grouped.get(SECOND));
+	}
+
+	@Test
+	public void testGroupByTensorReusesMapAndLists() {
+		final DLAbstractRowIterator iterator = createIterator();
+		final Map<DLTensorId, List<DataValue>> first = iterator
+				.groupByTensor(new DefaultRow("Row0", new IntCell(1), new IntCell(2), new IntCell(3)));
+		final List<DataValue> firstValues = first.get(FIRST);
+		final Map<DLTensorId, List<DataValue>> second = iterator
+				.groupByTensor(new DefaultRow("Row1", new IntCell(4), new IntCell(5), new IntCell(6)));
+		assertSame(first, second);
+		assertSame(firstValues, second.get(FIRST));
+		assertEquals(Arrays.asList(new IntCell(6), new IntCell(4)), firstValues);
+	}
+
+	@Test(expected = DLInvalidNetworkInputException.class)
+	public void testGroupByTensorFailsOnMissingCell() {
+		createIterator().groupByTensor(
+				new DefaultRow("Row0", new IntCell(1), DataType.getMissingCell(), new IntCell(3)));
+	}
+
+	@Test
+	public void testGroupByTensorSkipsRowWithMissingCell() {
+		final DLAbstractRowIterator iterator = createIterator();
+		iterator.setMissingValueStrategy(DLMissingValueStrategy.SKIP_ROW, 0);
+		assertNull(iterator.groupByTensor(
+				new DefaultRow("Row0", new IntCell(1), DataType.getMissingCell(), new IntCell(3))));
+		final Map<DLTensorId, List<DataValue>> grouped = iterator
+				.groupByTensor(new DefaultRow("Row1", new IntCell(4), new IntCell(5), new IntCell(6)));
+		assertEquals(Arrays.asList(new IntCell(6), new IntCell(4)), grouped.get(FIRST));
+		assertEquals(Arrays.asList(new IntCell(5)), grouped.get(SECOND));
+		assertNull(iterator.groupByTensor(
+				new DefaultRow("Row2", DataType.getMissingCell(), new IntCell(8), new IntCell(9))));
+		assertEquals(2, iterator.getNumSkippedRows());
+	}
+
+	@Test
+	public void testGroupByTensorFillsMissingCell() {
+		final DLAbstractRowIterator iterator = createIterator();
+		iterator.setMissingValueStrategy(DLMissingValueStrategy.FILL, 7.5);
+		final Map<DLTensorId, List<DataValue>> grouped = iterator.groupByTensor(
+				new DefaultRow("Row0", DataType.getMissingCell(), DataType.getMissingCell(), new IntCell(3)));
+		// the fill cell has the type of the column
+		assertEquals(Arrays.asList(new IntCell(3), new IntCell(7)), grouped.get(FIRST));
+		assertEquals(Arrays.asList(new IntCell(7)), grouped.get(SECOND));
+		assertEquals(0, iterator.getNumSkippedRows());
+	}
+
+	@Test(expected = DLInvalidNetworkInputException.class)
+	public void testGroupByTensorFailsToFillNonNumericColumn() {
+		final Map<DLTensorId, int[]> columns = new HashMap<>();
+		columns.put(FIRST, new int[] { 3 });
+		final DLAbstractRowIterator iterator = createIterator(columns);
+		iterator.setMissingValueStrategy(DLMissingValueStrategy.FILL, 0);
+		iterator.groupByTensor(new DefaultRow("Row0", new IntCell(1), new IntCell(2), new IntCell(3),
+				DataType.getMissingCell()));
+	}
+
+	private static DLAbstractRowIterator createIterator() {
+		final Map<DLTensorId, int[]> columns = new HashMap<>();
+		columns.put(FIRST, new int[] { 2, 0 });
+		columns.put(SECOND, new int[] { 1 });
+		return createIterator(columns);
+	}
+
+	private static DLAbstractRowIterator createIterator(final Map<DLTensorId, int[]> columns) {
+		return new DLAbstractRowIterator(TABLE_SPEC, columns) {
+
+			@Override
+			public long size() {
+				return 0;
+			}
+
+			@Override
+			public boolean hasNext() {
+				return false;
+			}
+
+			@Override
+			public DataRow peek() {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public DataRow next() {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public void reset() {
+				// no op
+			}
+
+			@Override
+			public void close() {
+				// no op
+			}
+		};
+	}
+}
@@ -0,0 +1,124 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.knime.dl.testing.DLTestUtil.DOUBLE_EPSILON;
+import static org.knime.dl.testing.DLTestUtil.TENSOR_FACTORY;
+
+import org.junit.Test;
+import org.knime.dl.core.data.DLOffHeapDoubleBuffer;
+import org.knime.dl.core.data.DLOffHeapFloatBuffer;
+import org.knime.dl.core.data.DLReadableBuffer;
+import org.knime.dl.core.data.DLReadableDoubleBuffer;
+import org.knime.dl.core.data.DLReadableFloatBuffer;
+import org.knime.dl.core.data.DLWritableBuffer;
+import org.knime.dl.core.data.DLWritableDoubleBuffer;
+import org.knime.dl.core.data.DLWritableFloatBuffer;
+import org.knime.dl.core.data.DLWritableIntBuffer;
+
+/**
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ */
+public class DLOffHeapTensorFactoryTest {
+
+	private static final DLOffHeapTensorFactory FACTORY = new DLOffHeapTensorFactory(TENSOR_FACTORY);
+
+	private static DLTensorSpec createSpec(final Class<?> elementType) {
+		return new DLDefaultTensorSpec(new DLDefaultTensorId("t0"), "t0", 2,
+				new DLDefaultFixedTensorShape(new long[] { 3, 2 }), elementType, DLDimensionOrder.TDHWC);
+	}
+
+	@Test
+	public void testFloatingPointTensorsAreOffHeap() throws Exception {
+		try (final DLTensor<? extends DLWritableBuffer> doubleTensor = FACTORY
+				.createWritableTensor(createSpec(double.class));
+				final DLTensor<? extends DLReadableBuffer> floatTensor = FACTORY
+						.createReadableTensor(createSpec(float.class))) {
+			assertTrue(doubleTensor.getBuffer() instanceof DLOffHeapDoubleBuffer);
+			assertEquals(12, ((DLOffHeapDoubleBuffer) doubleTensor.getBuffer()).getCapacity());
+			assertEquals(6, doubleTensor.getExampleSize());
+			assertTrue(floatTensor.getBuffer() instanceof DLOffHeapFloatBuffer);
+		}
+	}
+
+	@Test
+	public void testOtherTensorsAreDelegated() throws Exception {
+		try (final DLTensor<? extends DLWritableBuffer> intTensor = FACTORY.createWritableTensor(createSpec(int.class))) {
+			assertTrue(intTensor.getBuffer() instanceof DLWritableIntBuffer);
+			assertEquals(TENSOR_FACTORY.getWritableBufferType(createSpec(int.class)),
+					FACTORY.getWritableBufferType(createSpec(int.class)));
+		}
+	}
+
+	@Test
+	public void testBufferTypesMatchCreatedBuffers() throws Exception {
+		for (final Class<?> elementType : new Class<?>[] { float.class, double.class }) {
+			final DLTensorSpec spec = createSpec(elementType);
+			try (final DLTensor<? extends DLWritableBuffer> writable = FACTORY.createWritableTensor(spec);
+					final DLTensor<? extends DLReadableBuffer> readable = FACTORY.createReadableTensor(spec)) {
+				assertTrue(FACTORY.getWritableBufferType(spec).isInstance(writable.getBuffer()));
+				assertTrue(FACTORY.getReadableBufferType(spec).isInstance(readable.getBuffer()));
+			}
+		}
+		assertEquals(DLWritableDoubleBuffer.class, FACTORY.getWritableBufferType(createSpec(double.class)));
+		assertEquals(DLReadableFloatBuffer.class, FACTORY.getReadableBufferType(createSpec(float.class)));
+	}
+
+	@Test
+	public void testWriteAndRead() throws Exception {
+		try (final DLTensor<? extends DLWritableBuffer> tensor = FACTORY.createWritableTensor(createSpec(float.class))) {
+			final DLWritableFloatBuffer buffer = (DLWritableFloatBuffer) tensor.getBuffer();
+			buffer.putAll(new float[] { 1f, 2f, 3f, 4f, 5f, 6f });
+			final DLReadableDoubleBuffer readable = (DLReadableDoubleBuffer) tensor.getBuffer();
+			for (int i = 1; i <= 6; i++) {
+				assertEquals(i, readable.readNextDouble(), DOUBLE_EPSILON);
+			}
+		}
+	}
+}
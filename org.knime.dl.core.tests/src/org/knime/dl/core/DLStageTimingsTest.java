@@ -0,0 +1,131 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.knime.dl.testing.DLTestUtil.DOUBLE_EPSILON;
+import static org.knime.dl.testing.DLTestUtil.TENSOR_FACTORY;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Test;
+import org.knime.dl.core.DLStageTimings.DLStage;
+import org.knime.dl.core.data.DLWritableBuffer;
+import org.knime.dl.core.data.DLWritableFloatBuffer;
+
+/**
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ */
+public class DLStageTimingsTest {
+
+	private static final DLTensorSpec SPEC = new DLDefaultTensorSpec(new DLDefaultTensorId("in0"), "in0", 2,
+			new DLDefaultFixedTensorShape(new long[] { 3 }), float.class, DLDimensionOrder.TDHWC);
+
+	@Test
+	public void testRecordingIsAggregatedPerStage() {
+		final DLStageTimings timings = new DLStageTimings();
+		assertTrue(timings.isEnabled());
+		timings.record(DLStage.INPUT_PREPARATION, 2_000_000, 100);
+		timings.record(DLStage.INPUT_PREPARATION, 4_000_000, 50);
+		timings.record(DLStage.OUTPUT_CONSUMPTION, 1_000_000, 0);
+
+		assertEquals(2, timings.getNumBatches(DLStage.INPUT_PREPARATION));
+		assertEquals(6_000_000, timings.getTotalNanos(DLStage.INPUT_PREPARATION));
+		assertEquals(2_000_000, timings.getMinNanos(DLStage.INPUT_PREPARATION));
+		assertEquals(4_000_000, timings.getMaxNanos(DLStage.INPUT_PREPARATION));
+		assertEquals(150, timings.getNumBytes(DLStage.INPUT_PREPARATION));
+		assertEquals(1, timings.getNumBatches(DLStage.OUTPUT_CONSUMPTION));
+		assertEquals(0, timings.getNumBatches(DLStage.NETWORK_EXECUTION));
+		assertEquals(0, timings.getMinNanos(DLStage.NETWORK_EXECUTION));
+
+		final Map<String, Double> variables = timings.getFlowVariables();
+		// three variables per stage that was passed through
+		assertEquals(6, variables.size());
+		assertEquals(6.0, variables.get("dl_timing_input_preparation_total_ms"), DOUBLE_EPSILON);
+		assertEquals(3.0, variables.get("dl_timing_input_preparation_mean_ms"), DOUBLE_EPSILON);
+		assertEquals(150.0, variables.get("dl_timing_input_preparation_bytes"), DOUBLE_EPSILON);
+		assertEquals(1.0, variables.get("dl_timing_output_consumption_total_ms"), DOUBLE_EPSILON);
+		assertEquals(2, timings.getSummary().split("\n").length);
+	}
+
+	@Test
+	public void testStopRecordsElapsedTime() throws Exception {
+		final DLStageTimings timings = new DLStageTimings();
+		final long start = timings.start();
+		Thread.sleep(5);
+		timings.stop(DLStage.NETWORK_EXECUTION, start);
+		assertEquals(1, timings.getNumBatches(DLStage.NETWORK_EXECUTION));
+		assertTrue(timings.getTotalNanos(DLStage.NETWORK_EXECUTION) >= 5_000_000);
+	}
+
+	@Test
+	public void testSizeInBytesCountsBufferContents() {
+		final DLTensor<? extends DLWritableBuffer> tensor = TENSOR_FACTORY.createWritableTensor(SPEC);
+		final DLWritableFloatBuffer buffer = (DLWritableFloatBuffer) tensor.getBuffer();
+		buffer.putAll(new float[] { 1f, 2f, 3f, 4f });
+		final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> tensors = Collections
+				.singletonMap(SPEC.getIdentifier(), tensor);
+		assertEquals(4 * Float.BYTES, new DLStageTimings().getSizeInBytes(tensors));
+		assertEquals(0, DLStageTimings.DISABLED.getSizeInBytes(tensors));
+	}
+
+	@Test
+	public void testDisabledInstanceIgnoresRecordings() {
+		final DLStageTimings timings = DLStageTimings.DISABLED;
+		assertFalse(timings.isEnabled());
+		assertEquals(0, timings.start());
+		timings.stop(DLStage.INPUT_TRANSFER, 0, 100);
+		timings.record(DLStage.INPUT_TRANSFER, 1_000_000, 100);
+		assertEquals(0, timings.getNumBatches(DLStage.INPUT_TRANSFER));
+		assertEquals(0, timings.getNumBytes(DLStage.INPUT_TRANSFER));
+		assertTrue(timings.getFlowVariables().isEmpty());
+		assertEquals("", timings.getSummary());
+	}
+}
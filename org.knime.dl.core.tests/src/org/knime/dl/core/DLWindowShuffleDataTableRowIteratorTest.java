@@ -0,0 +1,162 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.container.CloseableRowIterator;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.IntCell;
+import org.knime.dl.core.DLWindowShuffleDataTableRowIterator.WindowShuffleRowIterator;
+
+/**
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ */
+public class DLWindowShuffleDataTableRowIteratorTest {
+
+	private static final int NUM_ROWS = 1000;
+
+	private static final int WINDOW_SIZE = 64;
+
+	@Test
+	public void testEachRowIsReturnedExactlyOnce() {
+		final List<Integer> shuffled = shuffle(42, WINDOW_SIZE);
+		assertEquals(NUM_ROWS, shuffled.size());
+		final Set<Integer> distinct = new HashSet<>(shuffled);
+		assertEquals(NUM_ROWS, distinct.size());
+		for (int i = 0; i < NUM_ROWS; i++) {
+			assertTrue(distinct.contains(i));
+		}
+		assertNotEquals(createRange(NUM_ROWS), shuffled);
+	}
+
+	@Test
+	public void testSameSeedYieldsSamePermutation() {
+		assertEquals(shuffle(42, WINDOW_SIZE), shuffle(42, WINDOW_SIZE));
+		assertNotEquals(shuffle(42, WINDOW_SIZE), shuffle(43, WINDOW_SIZE));
+	}
+
+	@Test
+	public void testWindowLargerThanTable() {
+		final List<Integer> shuffled = shuffle(7, 2 * NUM_ROWS);
+		assertEquals(NUM_ROWS, new HashSet<>(shuffled).size());
+	}
+
+	@Test
+	public void testSourceIsReadSequentiallyAndClosed() {
+		final DLListRowIterator source = new DLListRowIterator(NUM_ROWS);
+		final WindowShuffleRowIterator iterator = new WindowShuffleRowIterator(source, WINDOW_SIZE, new Random(1));
+		// only the window is read ahead
+		assertEquals(WINDOW_SIZE, source.m_numRead);
+		iterator.next();
+		assertEquals(WINDOW_SIZE + 1, source.m_numRead);
+		iterator.close();
+		assertFalse(iterator.hasNext());
+		assertTrue(source.m_closed);
+	}
+
+	private static List<Integer> shuffle(final long seed, final int windowSize) {
+		final List<Integer> result = new ArrayList<>(NUM_ROWS);
+		try (final WindowShuffleRowIterator iterator = new WindowShuffleRowIterator(new DLListRowIterator(NUM_ROWS),
+				windowSize, new Random(seed))) {
+			while (iterator.hasNext()) {
+				result.add(((IntCell) iterator.next().getCell(0)).getIntValue());
+			}
+		}
+		return result;
+	}
+
+	private static List<Integer> createRange(final int length) {
+		final List<Integer> range = new ArrayList<>(length);
+		for (int i = 0; i < length; i++) {
+			range.add(i);
+		}
+		return range;
+	}
+
+	private static final class DLListRowIterator extends CloseableRowIterator {
+
+		private final Iterator<Integer> m_values;
+
+		private int m_numRead = 0;
+
+		private boolean m_closed = false;
+
+		private DLListRowIterator(final int numRows) {
+			m_values = createRange(numRows).iterator();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return m_values.hasNext();
+		}
+
+		@Override
+		public DataRow next() {
+			final int value = m_values.next();
+			m_numRead++;
+			return new DefaultRow("Row" + value, new IntCell(value));
+		}
+
+		@Override
+		public void close() {
+			m_closed = true;
+		}
+	}
+}
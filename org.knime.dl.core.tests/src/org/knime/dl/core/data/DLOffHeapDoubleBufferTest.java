@@ -0,0 +1,205 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.core.data;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.knime.dl.testing.DLTestUtil.DOUBLE_EPSILON;
+import static org.knime.dl.testing.DLTestUtil.doubleRange;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ */
+public class DLOffHeapDoubleBufferTest {
+
+	private static final int SEGMENT_SIZE = 4;
+
+	@Test
+	public void testSegmentation() throws Exception {
+		try (DLOffHeapDoubleBuffer buffer = new DLOffHeapDoubleBuffer(10, SEGMENT_SIZE)) {
+			assertEquals(10, buffer.getCapacity());
+			assertEquals(3, buffer.getNumSegments());
+			assertEquals(SEGMENT_SIZE * Double.BYTES, buffer.getSegment(0).capacity());
+			assertEquals(2 * Double.BYTES, buffer.getSegment(2).capacity());
+			assertEquals(ByteOrder.nativeOrder(), buffer.getSegment(0).order());
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidSegmentSize() throws Exception {
+		try (DLOffHeapDoubleBuffer buffer = new DLOffHeapDoubleBuffer(10, 3)) {
+			// should fail
+		}
+	}
+
+	@Test
+	public void testPutAndReadNextAcrossSegments() throws Exception {
+		try (DLOffHeapDoubleBuffer buffer = new DLOffHeapDoubleBuffer(10, SEGMENT_SIZE)) {
+			for (int i = 0; i < 10; i++) {
+				buffer.put((double) i);
+			}
+			assertEquals(10, buffer.size());
+			for (int i = 0; i < 10; i++) {
+				assertEquals(i, buffer.readNextDouble(), DOUBLE_EPSILON);
+			}
+			assertEquals(10, buffer.getNextReadPosition());
+		}
+	}
+
+	@Test
+	public void testPutAllAndReadToArrayAcrossSegments() throws Exception {
+		try (DLOffHeapDoubleBuffer buffer = new DLOffHeapDoubleBuffer(10, SEGMENT_SIZE)) {
+			buffer.put(-1d);
+			buffer.putAll(doubleRange(9));
+			final double[] expected = new double[10];
+			expected[0] = -1d;
+			System.arraycopy(doubleRange(9), 0, expected, 1, 9);
+			assertArrayEquals(expected, buffer.toDoubleArray(), DOUBLE_EPSILON);
+			final double[] dest = new double[12];
+			buffer.readNextDouble();
+			buffer.readToDoubleArray(dest, 2, 9);
+			assertArrayEquals(doubleRange(9), Arrays.copyOfRange(dest, 2, 11), DOUBLE_EPSILON);
+		}
+	}
+
+	@Test
+	public void testPutConversions() throws Exception {
+		try (DLOffHeapDoubleBuffer buffer = new DLOffHeapDoubleBuffer(7, SEGMENT_SIZE)) {
+			buffer.put(true);
+			buffer.put(false);
+			buffer.put((byte) -3);
+			buffer.put((short) 300);
+			buffer.put(70000);
+			buffer.put(2.5f);
+			buffer.put(-1.25d);
+			assertArrayEquals(new double[] { 1d, 0d, -3d, 300d, 70000d, 2.5d, -1.25d }, buffer.toDoubleArray(),
+					DOUBLE_EPSILON);
+		}
+	}
+
+	@Test
+	public void testCommitWrite() throws Exception {
+		try (DLOffHeapDoubleBuffer buffer = new DLOffHeapDoubleBuffer(10, SEGMENT_SIZE)) {
+			buffer.put(-1d);
+			// fill the rest of the first and all of the second segment directly
+			buffer.getSegmentForWriting(0).asDoubleBuffer().put(1, 1d).put(2, 2d).put(3, 3d);
+			buffer.getSegmentForWriting(1).asDoubleBuffer().put(new double[] { 4d, 5d, 6d, 7d });
+			assertEquals(1, buffer.size());
+			buffer.commitWrite(7);
+			assertEquals(8, buffer.size());
+			assertEquals(-1d, buffer.readNextDouble(), DOUBLE_EPSILON);
+			for (int i = 1; i < 8; i++) {
+				assertEquals(i, buffer.readNextDouble(), DOUBLE_EPSILON);
+			}
+		}
+	}
+
+	@Test(expected = BufferOverflowException.class)
+	public void testCommitWriteOverflow() throws Exception {
+		try (DLOffHeapDoubleBuffer buffer = new DLOffHeapDoubleBuffer(10, SEGMENT_SIZE)) {
+			buffer.put(1d);
+			buffer.commitWrite(10);
+		}
+	}
+
+	@Test
+	public void testZeroPad() throws Exception {
+		try (DLOffHeapDoubleBuffer buffer = new DLOffHeapDoubleBuffer(10, SEGMENT_SIZE)) {
+			buffer.putAll(doubleRange(10));
+			buffer.resetWrite();
+			buffer.put(1d);
+			buffer.zeroPad(9);
+			assertEquals(10, buffer.size());
+			final double[] expected = new double[10];
+			expected[0] = 1d;
+			assertArrayEquals(expected, buffer.toDoubleArray(), DOUBLE_EPSILON);
+		}
+	}
+
+	@Test(expected = BufferOverflowException.class)
+	public void testPutAllOverflow() throws Exception {
+		try (DLOffHeapDoubleBuffer buffer = new DLOffHeapDoubleBuffer(10, SEGMENT_SIZE)) {
+			buffer.put(1d);
+			buffer.putAll(doubleRange(10));
+		}
+	}
+
+	@Test(expected = BufferUnderflowException.class)
+	public void testReadNextUnderflow() throws Exception {
+		try (DLOffHeapDoubleBuffer buffer = new DLOffHeapDoubleBuffer(10, SEGMENT_SIZE)) {
+			buffer.put(1d);
+			buffer.readNextDouble();
+			buffer.readNextDouble();
+		}
+	}
+
+	@Test(expected = BufferUnderflowException.class)
+	public void testReadToArrayUnderflow() throws Exception {
+		try (DLOffHeapDoubleBuffer buffer = new DLOffHeapDoubleBuffer(10, SEGMENT_SIZE)) {
+			buffer.putAll(doubleRange(5));
+			buffer.readToDoubleArray(new double[10], 0, 6);
+		}
+	}
+
+	@Test
+	public void testReset() throws Exception {
+		try (DLOffHeapDoubleBuffer buffer = new DLOffHeapDoubleBuffer(10, SEGMENT_SIZE)) {
+			buffer.putAll(doubleRange(10));
+			buffer.readNextDouble();
+			buffer.reset();
+			assertEquals(0, buffer.size());
+			assertEquals(0, buffer.getNextReadPosition());
+		}
+	}
+}
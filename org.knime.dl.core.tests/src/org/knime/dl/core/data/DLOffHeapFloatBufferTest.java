@@ -0,0 +1,179 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.core.data;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.knime.dl.testing.DLTestUtil.FLOAT_EPSILON;
+import static org.knime.dl.testing.DLTestUtil.floatRange;
+import static org.knime.dl.testing.DLTestUtil.toDouble;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ */
+public class DLOffHeapFloatBufferTest {
+
+	private static final int SEGMENT_SIZE = 4;
+
+	@Test
+	public void testSegmentation() throws Exception {
+		try (DLOffHeapFloatBuffer buffer = new DLOffHeapFloatBuffer(10, SEGMENT_SIZE)) {
+			assertEquals(10, buffer.getCapacity());
+			assertEquals(3, buffer.getNumSegments());
+			assertEquals(SEGMENT_SIZE * Float.BYTES, buffer.getSegment(0).capacity());
+			assertEquals(2 * Float.BYTES, buffer.getSegment(2).capacity());
+			assertEquals(ByteOrder.nativeOrder(), buffer.getSegment(0).order());
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidSegmentSize() throws Exception {
+		try (DLOffHeapFloatBuffer buffer = new DLOffHeapFloatBuffer(10, 3)) {
+			// should fail
+		}
+	}
+
+	@Test
+	public void testPutAndReadNextAcrossSegments() throws Exception {
+		try (DLOffHeapFloatBuffer buffer = new DLOffHeapFloatBuffer(10, SEGMENT_SIZE)) {
+			for (int i = 0; i < 10; i++) {
+				buffer.put((float) i);
+			}
+			assertEquals(10, buffer.size());
+			for (int i = 0; i < 10; i++) {
+				assertEquals(i, buffer.readNextFloat(), FLOAT_EPSILON);
+			}
+			assertEquals(10, buffer.getNextReadPosition());
+		}
+	}
+
+	@Test
+	public void testPutAllAndReadToArrayAcrossSegments() throws Exception {
+		try (DLOffHeapFloatBuffer buffer = new DLOffHeapFloatBuffer(10, SEGMENT_SIZE)) {
+			buffer.put(-1f);
+			buffer.putAll(floatRange(9));
+			final float[] expected = new float[10];
+			expected[0] = -1f;
+			System.arraycopy(floatRange(9), 0, expected, 1, 9);
+			assertArrayEquals(expected, buffer.toFloatArray(), FLOAT_EPSILON);
+			final float[] dest = new float[12];
+			buffer.readNextFloat();
+			buffer.readToFloatArray(dest, 2, 9);
+			assertArrayEquals(floatRange(9), Arrays.copyOfRange(dest, 2, 11), FLOAT_EPSILON);
+		}
+	}
+
+	@Test
+	public void testPutConversions() throws Exception {
+		try (DLOffHeapFloatBuffer buffer = new DLOffHeapFloatBuffer(5, SEGMENT_SIZE)) {
+			buffer.put(true);
+			buffer.put(false);
+			buffer.put((byte) -3);
+			buffer.put((short) 300);
+			buffer.put(2.5f);
+			assertArrayEquals(new float[] { 1f, 0f, -3f, 300f, 2.5f }, buffer.toFloatArray(), FLOAT_EPSILON);
+			assertArrayEquals(toDouble(buffer.toFloatArray()), buffer.toDoubleArray(), FLOAT_EPSILON);
+		}
+	}
+
+	@Test
+	public void testZeroPad() throws Exception {
+		try (DLOffHeapFloatBuffer buffer = new DLOffHeapFloatBuffer(10, SEGMENT_SIZE)) {
+			buffer.putAll(floatRange(10));
+			buffer.resetWrite();
+			buffer.put(1f);
+			buffer.zeroPad(9);
+			assertEquals(10, buffer.size());
+			final float[] expected = new float[10];
+			expected[0] = 1f;
+			assertArrayEquals(expected, buffer.toFloatArray(), FLOAT_EPSILON);
+		}
+	}
+
+	@Test(expected = BufferOverflowException.class)
+	public void testPutAllOverflow() throws Exception {
+		try (DLOffHeapFloatBuffer buffer = new DLOffHeapFloatBuffer(10, SEGMENT_SIZE)) {
+			buffer.put(1f);
+			buffer.putAll(floatRange(10));
+		}
+	}
+
+	@Test(expected = BufferUnderflowException.class)
+	public void testReadNextUnderflow() throws Exception {
+		try (DLOffHeapFloatBuffer buffer = new DLOffHeapFloatBuffer(10, SEGMENT_SIZE)) {
+			buffer.put(1f);
+			buffer.readNextFloat();
+			buffer.readNextFloat();
+		}
+	}
+
+	@Test(expected = BufferUnderflowException.class)
+	public void testReadToArrayUnderflow() throws Exception {
+		try (DLOffHeapFloatBuffer buffer = new DLOffHeapFloatBuffer(10, SEGMENT_SIZE)) {
+			buffer.putAll(floatRange(5));
+			buffer.readToFloatArray(new float[10], 0, 6);
+		}
+	}
+
+	@Test
+	public void testReset() throws Exception {
+		try (DLOffHeapFloatBuffer buffer = new DLOffHeapFloatBuffer(10, SEGMENT_SIZE)) {
+			buffer.putAll(floatRange(10));
+			buffer.readNextFloat();
+			buffer.reset();
+			assertEquals(0, buffer.size());
+			assertEquals(0, buffer.getNextReadPosition());
+		}
+	}
+}
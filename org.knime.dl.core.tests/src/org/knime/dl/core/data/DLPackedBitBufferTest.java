@@ -0,0 +1,202 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.core.data;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.knime.dl.testing.DLTestUtil.DOUBLE_EPSILON;
+import static org.knime.dl.testing.DLTestUtil.alternatingBooleanArray;
+import static org.knime.dl.testing.DLTestUtil.booleanRange;
+import static org.knime.dl.testing.DLTestUtil.toByte;
+import static org.knime.dl.testing.DLTestUtil.toDouble;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ */
+@SuppressWarnings("javadoc")
+public class DLPackedBitBufferTest {
+
+    @Test
+    public void testStorageIsPacked() throws Exception {
+        try (DLPackedBitBuffer buffer = new DLPackedBitBuffer(130)) {
+            assertEquals(3, buffer.m_storage.length);
+            buffer.put(true);
+            buffer.put(false);
+            buffer.put(true);
+            assertEquals(0b101L, buffer.m_storage[0]);
+        }
+    }
+
+    @Test
+    public void testPutAllBoolean() throws Exception {
+        try (DLPackedBitBuffer buffer = new DLPackedBitBuffer(100)) {
+            final boolean[] expected = booleanRange(100);
+            buffer.putAll(expected);
+            assertEquals(100, buffer.size());
+            assertArrayEquals(expected, buffer.toBitArray());
+        }
+    }
+
+    @Test(expected = BufferOverflowException.class)
+    public void testPutAllBooleanOverflow() throws Exception {
+        try (DLPackedBitBuffer buffer = new DLPackedBitBuffer(1)) {
+            buffer.putAll(alternatingBooleanArray(10));
+        }
+    }
+
+    @Test
+    public void testPutClearsBitsOfPreviousWrites() throws Exception {
+        try (DLPackedBitBuffer buffer = new DLPackedBitBuffer(70)) {
+            final boolean[] ones = new boolean[70];
+            Arrays.fill(ones, true);
+            buffer.putAll(ones);
+            buffer.reset();
+            final boolean[] expected = alternatingBooleanArray(70);
+            buffer.putAll(expected);
+            assertArrayEquals(expected, buffer.toBitArray());
+        }
+    }
+
+    @Test
+    public void testZeroPad() throws Exception {
+        try (DLPackedBitBuffer buffer = new DLPackedBitBuffer(10)) {
+            final boolean[] ones = new boolean[10];
+            Arrays.fill(ones, true);
+            buffer.putAll(ones);
+            buffer.reset();
+            buffer.put(true);
+            buffer.zeroPad(9);
+            final boolean[] expected = new boolean[10];
+            expected[0] = true;
+            assertArrayEquals(expected, buffer.toBitArray());
+        }
+    }
+
+    @Test
+    public void testReadToByteArray() throws Exception {
+        try (DLPackedBitBuffer buffer = new DLPackedBitBuffer(80)) {
+            final boolean[] values = booleanRange(80);
+            buffer.putAll(values);
+            final byte[] dest = new byte[80];
+            buffer.readToByteArray(dest, 0, 80);
+            assertArrayEquals(toByte(values), dest);
+        }
+    }
+
+    @Test
+    public void testToDoubleArray() throws Exception {
+        try (DLPackedBitBuffer buffer = new DLPackedBitBuffer(80)) {
+            final boolean[] values = booleanRange(80);
+            buffer.putAll(values);
+            assertArrayEquals(toDouble(values), buffer.toDoubleArray(), DOUBLE_EPSILON);
+        }
+    }
+
+    @Test(expected = BufferUnderflowException.class)
+    public void testReadNextBitUnderflow() throws Exception {
+        try (DLPackedBitBuffer buffer = new DLPackedBitBuffer(10)) {
+            buffer.put(true);
+            buffer.readNextBit();
+            buffer.readNextBit();
+        }
+    }
+
+    @Test
+    public void testReadToPackedByteArrayMatchesNumPyLayout() throws Exception {
+        try (DLPackedBitBuffer buffer = new DLPackedBitBuffer(10)) {
+            // numpy.packbits([1, 0, 1, 1, 0, 0, 0, 0, 1, 1]) == [0b10110000, 0b11000000]
+            buffer.putAll(new boolean[]{true, false, true, true, false, false, false, false, true, true});
+            final byte[] dest = new byte[2];
+            buffer.readToPackedByteArray(dest, 0, 10);
+            assertArrayEquals(new byte[]{(byte)0b10110000, (byte)0b11000000}, dest);
+            assertEquals(10, buffer.getNextReadPosition());
+        }
+    }
+
+    @Test
+    public void testPackedRoundTrip() throws Exception {
+        final Random random = new Random(42);
+        for (int i = 0; i < 100; i++) {
+            final int offset = random.nextInt(70);
+            final int length = random.nextInt(200);
+            final boolean[] values = new boolean[offset + length];
+            for (int j = 0; j < values.length; j++) {
+                values[j] = random.nextBoolean();
+            }
+            try (DLPackedBitBuffer source = new DLPackedBitBuffer(values.length);
+                    DLPackedBitBuffer target = new DLPackedBitBuffer(values.length)) {
+                source.putAll(values);
+                final boolean[] skipped = new boolean[offset];
+                if (offset > 0) {
+                    source.readToBitArray(skipped, 0, offset);
+                }
+                final byte[] packed = new byte[1 + DLPackedBitBuffer.getNumPackedBytes(length)];
+                source.readToPackedByteArray(packed, 1, length);
+                if (offset > 0) {
+                    target.putAll(skipped);
+                }
+                target.putAllPacked(packed, 1, length);
+                assertEquals(values.length, target.size());
+                assertArrayEquals(values, target.toBitArray());
+            }
+        }
+    }
+
+    @Test(expected = BufferOverflowException.class)
+    public void testPutAllPackedOverflow() throws Exception {
+        try (DLPackedBitBuffer buffer = new DLPackedBitBuffer(8)) {
+            buffer.putAllPacked(new byte[2], 0, 9);
+        }
+    }
+}
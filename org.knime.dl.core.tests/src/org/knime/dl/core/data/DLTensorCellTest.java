@@ -0,0 +1,152 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.core.data;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataCellDataInput;
+import org.knime.core.data.DataCellDataOutput;
+import org.knime.core.data.DataColumnSpec;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.vector.doublevector.DoubleVectorValue;
+import org.knime.dl.core.data.DLTensorCell.DLTensorCellSerializer;
+
+/**
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ */
+public class DLTensorCellTest {
+
+	@Test
+	public void testSerializationRoundTripFloat() throws IOException {
+		final DLTensorCell cell = new DLTensorCell(new float[] { 0.1f, -2f, Float.NaN, 1e30f });
+		final DLTensorCell deserialized = roundTrip(cell);
+		assertEquals(float.class, deserialized.getElementType());
+		assertEquals(cell, deserialized);
+		assertArrayEquals(cell.toFloatArray(), deserialized.toFloatArray(), 0f);
+	}
+
+	@Test
+	public void testSerializationRoundTripDouble() throws IOException {
+		final DLTensorCell cell = new DLTensorCell(new double[] { 0.1, -2, Double.MIN_VALUE, 1e300 });
+		final DLTensorCell deserialized = roundTrip(cell);
+		assertEquals(double.class, deserialized.getElementType());
+		assertEquals(cell, deserialized);
+		assertArrayEquals(cell.toDoubleArray(), deserialized.toDoubleArray(), 0);
+	}
+
+	@Test
+	public void testEqualityRespectsElementType() {
+		assertEquals(new DLTensorCell(new float[] { 1f, 2f }), new DLTensorCell(new float[] { 1f, 2f }));
+		assertNotEquals(new DLTensorCell(new float[] { 1f, 2f }), new DLTensorCell(new float[] { 1f, 3f }));
+		assertNotEquals(new DLTensorCell(new float[] { 1f, 2f }), new DLTensorCell(new double[] { 1, 2 }));
+	}
+
+	@Test
+	public void testShapeIsStoredInColumnProperties() {
+		final DataColumnSpecCreator creator = new DataColumnSpecCreator("out", DLTensorCell.TYPE);
+		assertFalse(DLTensorCell.getShape(creator.createSpec()).isPresent());
+		creator.setProperties(DLTensorCell.createColumnProperties(new long[] { 28, 28, 3 }));
+		final DataColumnSpec spec = creator.createSpec();
+		assertArrayEquals(new long[] { 28, 28, 3 }, DLTensorCell.getShape(spec).get());
+	}
+
+	@Test
+	public void testTensorCellIsDoubleVector() {
+		assertTrue(DLTensorCell.TYPE.isCompatible(DoubleVectorValue.class));
+		assertEquals(DLTensorValue.class, DLTensorCell.TYPE.getPreferredValueClass());
+		final DoubleVectorValue vector = new DLTensorCell(new float[] { 1f, 2.5f });
+		assertEquals(2, vector.getLength());
+		assertEquals(2.5, vector.getValue(1), 0);
+	}
+
+	private static DLTensorCell roundTrip(final DLTensorCell cell) throws IOException {
+		final DLTensorCellSerializer serializer = new DLTensorCellSerializer();
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (final DLTestDataCellDataOutput output = new DLTestDataCellDataOutput(bytes)) {
+			serializer.serialize(cell, output);
+		}
+		try (final DLTestDataCellDataInput input = new DLTestDataCellDataInput(bytes.toByteArray())) {
+			return serializer.deserialize(input);
+		}
+	}
+
+	private static final class DLTestDataCellDataOutput extends DataOutputStream implements DataCellDataOutput {
+
+		private DLTestDataCellDataOutput(final ByteArrayOutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void writeDataCell(final DataCell cell) throws IOException {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	private static final class DLTestDataCellDataInput extends DataInputStream implements DataCellDataInput {
+
+		private DLTestDataCellDataInput(final byte[] bytes) {
+			super(new ByteArrayInputStream(bytes));
+		}
+
+		@Override
+		public DataCell readDataCell() throws IOException {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -0,0 +1,112 @@
+package org.knime.dl.core.data.convert;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.knime.dl.testing.DLTestUtil.createTensor;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.knime.core.data.DataType;
+import org.knime.core.data.collection.CollectionCellFactory;
+import org.knime.core.data.collection.CollectionDataValue;
+import org.knime.core.data.collection.ListCell;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.vector.doublevector.DoubleVectorCellFactory;
+import org.knime.core.data.vector.doublevector.DoubleVectorValue;
+import org.knime.dl.core.DLTensor;
+import org.knime.dl.core.data.DLReadableFloatBuffer;
+import org.knime.dl.core.data.DLWritableFloatBuffer;
+
+/**
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ */
+public class DLBulkDataValueToTensorConverterTest {
+
+	@Test
+	public void testConvertDoubleVectorsBulk() {
+		final DLDoubleVectorToFloatTensorConverterFactory factory = new DLDoubleVectorToFloatTensorConverterFactory();
+		final DLBulkDataValueToTensorConverter<DoubleVectorValue, DLWritableFloatBuffer> converter =
+				factory.createConverter();
+		final List<List<DoubleVectorValue>> input = Arrays.asList(
+				Collections.singletonList((DoubleVectorValue) DoubleVectorCellFactory.createCell(new double[] { 1, 2, 3 })),
+				Collections.singletonList((DoubleVectorValue) DoubleVectorCellFactory.createCell(new double[] { 4, 5, 6 })));
+		final DLTensor<DLWritableFloatBuffer> output = (DLTensor<DLWritableFloatBuffer>) createTensor(Float.class, 2,
+				3);
+		converter.convertBulk(input, output);
+		assertArrayEquals(new float[] { 1, 2, 3, 4, 5, 6 }, read(output, 6), 0f);
+	}
+
+	@Test
+	public void testConvertBulkEqualsConvertPerRow() {
+		final DLDoubleVectorToFloatTensorConverterFactory factory = new DLDoubleVectorToFloatTensorConverterFactory();
+		final DoubleVectorValue first = (DoubleVectorValue) DoubleVectorCellFactory.createCell(new double[] { 1, 2 });
+		final DoubleVectorValue second = (DoubleVectorValue) DoubleVectorCellFactory.createCell(new double[] { 3, 4 });
+
+		final DLTensor<DLWritableFloatBuffer> bulk = (DLTensor<DLWritableFloatBuffer>) createTensor(Float.class, 2,
+				2);
+		factory.createConverter().convertBulk(
+				Arrays.asList(Collections.singletonList(first), Collections.singletonList(second)), bulk);
+
+		final DLTensor<DLWritableFloatBuffer> perRow = (DLTensor<DLWritableFloatBuffer>) createTensor(Float.class,
+				2, 2);
+		final DLDataValueToTensorConverter<DoubleVectorValue, DLWritableFloatBuffer> converter =
+				factory.createConverter();
+		converter.convert(Collections.singletonList(first), perRow);
+		converter.convert(Collections.singletonList(second), perRow);
+
+		assertArrayEquals(read(perRow, 4), read(bulk, 4), 0f);
+	}
+
+	@Test
+	public void testConvertNumericCollectionsBulk() {
+		final DLCollectionDataValueToTensorConverterFactory<?, DLWritableFloatBuffer> factory =
+				new DLCollectionDataValueToTensorConverterFactory<>(new DLIntValueToFloatTensorConverterFactory());
+		final DLBulkDataValueToTensorConverter<CollectionDataValue, DLWritableFloatBuffer> converter =
+				factory.createConverter();
+		final ListCell first = CollectionCellFactory.createListCell(Arrays.asList(new IntCell(1), new IntCell(2)));
+		final ListCell second = CollectionCellFactory.createListCell(Arrays.asList(new IntCell(3), new IntCell(4)));
+		final DLTensor<DLWritableFloatBuffer> output = (DLTensor<DLWritableFloatBuffer>) createTensor(Float.class, 2,
+				2);
+		converter.convertBulk(Arrays.asList(Collections.singletonList(first), Collections.singletonList(second)),
+				output);
+		assertArrayEquals(new float[] { 1, 2, 3, 4 }, read(output, 4), 0f);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testConvertDoubleVectorsBulkRejectsMultipleColumns() {
+		final DoubleVectorValue vector = (DoubleVectorValue) DoubleVectorCellFactory.createCell(new double[] { 1 });
+		final DLTensor<DLWritableFloatBuffer> output = (DLTensor<DLWritableFloatBuffer>) createTensor(Float.class, 1,
+				2);
+		new DLDoubleVectorToFloatTensorConverterFactory().createConverter()
+				.convertBulk(Collections.singletonList(Arrays.asList(vector, vector)), output);
+	}
+
+	@Test
+	public void testRegistryPrefersBulkConverters() {
+		final DLDataValueToTensorConverterRegistry registry = DLDataValueToTensorConverterRegistry.getInstance();
+		final DataType vectorType = DoubleVectorCellFactory.createCell(new double[] { 1 }).getType();
+		final DLDataValueToTensorConverterFactory<?, ?> vectorFactory = registry
+				.getPreferredConverterFactory(vectorType, DLWritableFloatBuffer.class).get();
+		assertTrue(vectorFactory instanceof DLBulkDataValueToTensorConverterFactory);
+		assertEquals(DLWritableFloatBuffer.class, vectorFactory.getBufferType());
+
+		final DLDataValueToTensorConverterFactory<?, ?> collectionFactory = registry.getPreferredConverterFactory(
+				DataType.getType(ListCell.class, DoubleCell.TYPE), DLWritableFloatBuffer.class).get();
+		assertTrue(collectionFactory instanceof DLCollectionDataValueToTensorConverterFactory);
+		assertTrue(((DLCollectionDataValueToTensorConverterFactory<?, ?>) collectionFactory)
+				.getElementConverterFactory() instanceof DLBulkDataValueToTensorConverterFactory);
+	}
+
+	private static float[] read(final DLTensor<DLWritableFloatBuffer> tensor, final int length) {
+		final DLReadableFloatBuffer buffer = (DLReadableFloatBuffer) tensor.getBuffer();
+		assertEquals(length, buffer.size());
+		final float[] values = new float[length];
+		buffer.readToFloatArray(values, 0, length);
+		return values;
+	}
+}
@@ -63,6 +63,7 @@
 import org.knime.core.data.def.IntCell;
 import org.knime.core.data.def.LongCell;
 import org.knime.dl.core.DLTensor;
+import org.knime.dl.core.data.DLTensorCell;
 import org.knime.dl.core.data.DLWritableBuffer;
 import org.knime.dl.core.data.DLWritableDoubleBuffer;
 import org.knime.dl.core.data.DLWritableFloatBuffer;
@@ -121,6 +122,16 @@ public void testMatching() {
 		testForSourceDestCombination(src, dest, "1");
 	}
 
+	@Test
+	public void testTensorCellMatching() {
+		final List<DLDataValueToTensorConverterFactory<? extends DataValue, ?>> toFloat = REGISTRY
+				.getConverterFactories(DLTensorCell.TYPE, DLWritableFloatBuffer.class);
+		Assert.assertTrue(toFloat.stream().anyMatch(DLTensorValueToFloatTensorConverterFactory.class::isInstance));
+		final List<DLDataValueToTensorConverterFactory<? extends DataValue, ?>> toDouble = REGISTRY
+				.getConverterFactories(DLTensorCell.TYPE, DLWritableDoubleBuffer.class);
+		Assert.assertTrue(toDouble.stream().anyMatch(DLTensorValueToDoubleTensorConverterFactory.class::isInstance));
+	}
+
 	private void testForSourceDestCombination(final DataType source, final Class<? extends DLWritableBuffer> dest,
 			final String input) {
 		final List<DLDataValueToTensorConverterFactory<? extends DataValue, ?>> converterFactories = REGISTRY
@@ -0,0 +1,104 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.core.data.convert;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.knime.dl.core.DLDefaultFixedTensorShape;
+import org.knime.dl.core.DLDefaultTensor;
+import org.knime.dl.core.DLDefaultTensorId;
+import org.knime.dl.core.DLDefaultTensorSpec;
+import org.knime.dl.core.DLDimensionOrder;
+import org.knime.dl.core.DLTensor;
+import org.knime.dl.core.data.DLDefaultFloatBuffer;
+import org.knime.dl.core.data.DLReadableFloatBuffer;
+import org.knime.dl.core.data.DLTensorCell;
+
+/**
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ */
+public class DLFloatTensorToTensorCellConverterFactoryTest {
+
+	private static final DLDefaultTensorSpec SPEC = new DLDefaultTensorSpec(new DLDefaultTensorId("1"), "Tspec", 2,
+			new DLDefaultFixedTensorShape(new long[] { 2, 3 }), float.class, DLDimensionOrder.TDHWC);
+
+	@Test
+	public void testGetDestCount() {
+		final DLFloatTensorToTensorCellConverterFactory factory = new DLFloatTensorToTensorCellConverterFactory();
+		// one cell per example regardless of the shape
+		assertEquals(1, factory.getDestCount(SPEC).getAsLong());
+	}
+
+	@Test
+	public void testGetBufferAndDestType() {
+		final DLFloatTensorToTensorCellConverterFactory factory = new DLFloatTensorToTensorCellConverterFactory();
+		assertEquals(DLReadableFloatBuffer.class, factory.getBufferType());
+		assertEquals(DLTensorCell.TYPE, factory.getDestType());
+		assertTrue(factory.getName().endsWith("(float)"));
+	}
+
+	@Test
+	public void testConvertCreatesOneCellPerExample() {
+		final DLFloatTensorToTensorCellConverterFactory factory = new DLFloatTensorToTensorCellConverterFactory();
+		final float[] values = { 1f, 2f, 3f, 4f, 5f, 6f, 7f, 8f, 9f, 10f, 11f, 12f };
+		try (final DLDefaultFloatBuffer buffer = new DLDefaultFloatBuffer(values.length);
+				final DLTensor<DLReadableFloatBuffer> tensor = new DLDefaultTensor<>(SPEC, buffer, 6)) {
+			buffer.putAll(values);
+			final DLTensorCell[] output = new DLTensorCell[2];
+			factory.createConverter().convert(tensor, output, null);
+			for (int i = 0; i < output.length; i++) {
+				assertEquals(float.class, output[i].getElementType());
+				assertEquals(6, output[i].size());
+				for (int j = 0; j < 6; j++) {
+					assertEquals(values[i * 6 + j], output[i].getDouble(j), 0);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package org.knime.dl.core.data.convert;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.knime.dl.testing.DLTestUtil.createTensor;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.knime.dl.core.DLTensor;
+import org.knime.dl.core.data.DLReadableDoubleBuffer;
+import org.knime.dl.core.data.DLTensorCell;
+import org.knime.dl.core.data.DLTensorValue;
+import org.knime.dl.core.data.DLWritableDoubleBuffer;
+
+/**
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ */
+public class DLTensorValueToDoubleTensorConverterFactoryTest {
+
+	@Test
+	public void testConvertBulkAndPerRow() {
+		final DLTensorValue first = new DLTensorCell(new double[] { 0.1, Double.MAX_VALUE });
+		final DLTensorValue second = new DLTensorCell(new float[] { 0.5f, -1f });
+		final DLTensorValueToDoubleTensorConverterFactory factory = new DLTensorValueToDoubleTensorConverterFactory();
+
+		final DLTensor<DLWritableDoubleBuffer> bulk = (DLTensor<DLWritableDoubleBuffer>) createTensor(Double.class,
+				2, 2);
+		final List<List<DLTensorValue>> input = Arrays.asList(Collections.singletonList(first),
+				Collections.singletonList(second));
+		factory.createConverter().convertBulk(input, bulk);
+
+		final DLTensor<DLWritableDoubleBuffer> perRow = (DLTensor<DLWritableDoubleBuffer>) createTensor(Double.class,
+				2, 2);
+		final DLDataValueToTensorConverter<DLTensorValue, DLWritableDoubleBuffer> converter = factory
+				.createConverter();
+		converter.convert(Collections.singletonList(first), perRow);
+		converter.convert(Collections.singletonList(second), perRow);
+
+		final double[] expected = { 0.1, Double.MAX_VALUE, 0.5, -1 };
+		assertArrayEquals(expected, read(bulk), 0);
+		assertArrayEquals(expected, read(perRow), 0);
+	}
+
+	@Test
+	public void testGetSourceType() {
+		assertEquals(DLTensorValue.class, new DLTensorValueToDoubleTensorConverterFactory().getSourceType());
+	}
+
+	private static double[] read(final DLTensor<DLWritableDoubleBuffer> tensor) {
+		final DLReadableDoubleBuffer buffer = (DLReadableDoubleBuffer) tensor.getBuffer();
+		final double[] values = new double[(int) buffer.size()];
+		buffer.readToDoubleArray(values, 0, values.length);
+		return values;
+	}
+}
@@ -0,0 +1,64 @@
+package org.knime.dl.core.data.convert;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.knime.dl.testing.DLTestUtil.createTensor;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.knime.dl.core.DLDefaultFixedTensorShape;
+import org.knime.dl.core.DLDefaultTensorId;
+import org.knime.dl.core.DLDefaultTensorSpec;
+import org.knime.dl.core.DLDimensionOrder;
+import org.knime.dl.core.DLTensor;
+import org.knime.dl.core.DLTensorSpec;
+import org.knime.dl.core.data.DLReadableFloatBuffer;
+import org.knime.dl.core.data.DLTensorCell;
+import org.knime.dl.core.data.DLTensorValue;
+import org.knime.dl.core.data.DLWritableFloatBuffer;
+
+/**
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ */
+public class DLTensorValueToFloatTensorConverterFactoryTest {
+
+	@Test
+	public void testConvertBulk() {
+		final List<List<DLTensorValue>> input = Arrays.asList(
+				Collections.singletonList(new DLTensorCell(new float[] { 1f, 2.5f, 3f })),
+				Collections.singletonList(new DLTensorCell(new double[] { 4, 5, 6 })));
+		final DLTensor<DLWritableFloatBuffer> output = (DLTensor<DLWritableFloatBuffer>) createTensor(Float.class, 2,
+				3);
+		new DLTensorValueToFloatTensorConverterFactory().createConverter().convertBulk(input, output);
+		final DLReadableFloatBuffer buffer = (DLReadableFloatBuffer) output.getBuffer();
+		assertEquals(6, buffer.size());
+		final float[] values = new float[6];
+		buffer.readToFloatArray(values, 0, 6);
+		assertArrayEquals(new float[] { 1f, 2.5f, 3f, 4f, 5f, 6f }, values, 0f);
+	}
+
+	@Test
+	public void testGetDataShape() {
+		final DLTensorValueToFloatTensorConverterFactory factory = new DLTensorValueToFloatTensorConverterFactory();
+		final DLTensorSpec spec = new DLDefaultTensorSpec(new DLDefaultTensorId("input"), "input", 1,
+				new DLDefaultFixedTensorShape(new long[] { 2, 3 }), float.class, DLDimensionOrder.TDHWC);
+		// the shape of the tensor spec is used if the sizes match, a vector otherwise
+		assertArrayEquals(new long[] { 2, 3 },
+				factory.getDataShape(Collections.singletonList(new DLTensorCell(new float[6])), spec));
+		assertArrayEquals(new long[] { 4 },
+				factory.getDataShape(Collections.singletonList(new DLTensorCell(new float[4])), spec));
+	}
+
+	@Test
+	public void testGetName() {
+		assertEquals("Tensor", new DLTensorValueToFloatTensorConverterFactory().getName());
+	}
+
+	@Test
+	public void testGetSourceType() {
+		assertEquals(DLTensorValue.class, new DLTensorValueToFloatTensorConverterFactory().getSourceType());
+	}
+}
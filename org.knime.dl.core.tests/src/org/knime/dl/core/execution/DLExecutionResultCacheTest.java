@@ -0,0 +1,283 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.core.execution;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.streamable.RowInput;
+import org.knime.core.node.streamable.RowOutput;
+import org.knime.dl.core.DLDefaultTensorId;
+import org.knime.dl.core.DLTensorId;
+import org.knime.dl.core.data.DLTensorCell;
+
+/**
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ */
+public class DLExecutionResultCacheTest {
+
+	private static final DataTableSpec INPUT_SPEC = new DataTableSpec(
+			new DataColumnSpecCreator("in", DoubleCell.TYPE).createSpec());
+
+	private static final DataTableSpec RESULT_SPEC = new DataTableSpec(
+			new DataColumnSpecCreator("out", DoubleCell.TYPE).createSpec());
+
+	private static final Map<DLTensorId, int[]> COLUMNS = Collections.singletonMap(new DLDefaultTensorId("in"),
+			new int[] { 0 });
+
+	@Rule
+	public final TemporaryFolder m_folder = new TemporaryFolder();
+
+	@Test
+	public void testCachedResultsAreMergedInInputOrder() throws Exception {
+		final File directory = m_folder.newFolder();
+		// first run: every row is computed, row 2 is skipped by the network
+		List<DataRow> output = execute(DLExecutionResultCache.open(directory, "key", RESULT_SPEC),
+				new double[] { 1, 2, 3, 4 }, 2);
+		assertRows(output, new String[] { "Row0", "Row1", "Row3" }, new double[] { 10, 20, 40 });
+
+		// second run: rows 0, 1 and 3 are cached, only the new and the skipped rows reach the network
+		final DLExecutionResultCache cache = DLExecutionResultCache.open(directory, "key", RESULT_SPEC);
+		output = execute(cache, new double[] { 4, 5, 1, 3, 2 }, -1);
+		assertRows(output, new String[] { "Row0", "Row1", "Row2", "Row3", "Row4" },
+				new double[] { 40, 50, 10, 30, 20 });
+		assertEquals(3, cache.getNumHits());
+		assertEquals(2, cache.getNumMisses());
+
+		// a different key does not share results
+		final DLExecutionResultCache other = DLExecutionResultCache.open(directory, "other", RESULT_SPEC);
+		execute(other, new double[] { 1 }, -1);
+		assertEquals(0, other.getNumHits());
+	}
+
+	@Test
+	public void testTensorCellsAreIdentifiedByContent() throws Exception {
+		final File directory = m_folder.newFolder();
+		final double[] values = new double[20];
+		final double[] other = values.clone();
+		other[15] = 1;
+		// the cells only differ after the elements that are included in their string representations
+		assertEquals(new DLTensorCell(values).toString(), new DLTensorCell(other).toString());
+		execute(DLExecutionResultCache.open(directory, "key", RESULT_SPEC),
+				new DataCell[] { new DLTensorCell(values) }, -1);
+
+		final DLExecutionResultCache cache = DLExecutionResultCache.open(directory, "key", RESULT_SPEC);
+		final List<DataRow> output = execute(cache,
+				new DataCell[] { new DLTensorCell(other), new DLTensorCell(values) }, -1);
+		assertRows(output, new String[] { "Row0", "Row1" }, new double[] { 10, 0 });
+		assertEquals(1, cache.getNumHits());
+		assertEquals(1, cache.getNumMisses());
+	}
+
+	@Test
+	public void testSavingAppendsSegmentWithoutRewritingExistingOnes() throws Exception {
+		final File directory = m_folder.newFolder();
+		execute(DLExecutionResultCache.open(directory, "key", RESULT_SPEC), new double[] { 1, 2 }, -1);
+		final File[] segments = segments(directory);
+		assertEquals(1, segments.length);
+		final byte[] content = Files.readAllBytes(segments[0].toPath());
+		age(directory);
+
+		execute(DLExecutionResultCache.open(directory, "key", RESULT_SPEC), new double[] { 1, 3 }, -1);
+		// only the new result is appended
+		assertEquals(2, segments(directory).length);
+		assertArrayEquals(content, Files.readAllBytes(segments[0].toPath()));
+
+		final DLExecutionResultCache cache = DLExecutionResultCache.open(directory, "key", RESULT_SPEC);
+		final List<DataRow> output = execute(cache, new double[] { 3, 2, 1 }, -1);
+		assertRows(output, new String[] { "Row0", "Row1", "Row2" }, new double[] { 30, 20, 10 });
+		assertEquals(3, cache.getNumHits());
+		// hits do not write a segment
+		assertEquals(2, segments(directory).length);
+	}
+
+	@Test
+	public void testOldestSegmentIsDroppedIfEntryBoundIsExceeded() throws Exception {
+		final File directory = m_folder.newFolder();
+		execute(DLExecutionResultCache.open(directory, "key", RESULT_SPEC, 3, 16), new double[] { 1, 2 }, -1);
+		age(directory);
+		execute(DLExecutionResultCache.open(directory, "key", RESULT_SPEC, 3, 16), new double[] { 3, 4 }, -1);
+		assertEquals(1, segments(directory).length);
+
+		final DLExecutionResultCache cache = DLExecutionResultCache.open(directory, "key", RESULT_SPEC, 3, 16);
+		execute(cache, new double[] { 1, 3 }, -1);
+		assertEquals(1, cache.getNumHits());
+		assertEquals(1, cache.getNumMisses());
+	}
+
+	@Test
+	public void testSegmentsAreCompactedIfSegmentBoundIsExceeded() throws Exception {
+		final File directory = m_folder.newFolder();
+		for (final double value : new double[] { 1, 2, 3 }) {
+			execute(DLExecutionResultCache.open(directory, "key", RESULT_SPEC, 16, 2), new double[] { value }, -1);
+			age(directory);
+		}
+		assertEquals(1, segments(directory).length);
+
+		final DLExecutionResultCache cache = DLExecutionResultCache.open(directory, "key", RESULT_SPEC, 16, 2);
+		final List<DataRow> output = execute(cache, new double[] { 3, 2, 1 }, -1);
+		assertRows(output, new String[] { "Row0", "Row1", "Row2" }, new double[] { 30, 20, 10 });
+		assertEquals(3, cache.getNumHits());
+	}
+
+	private static File[] segments(final File directory) {
+		final File[] segments = new File(directory, "key").listFiles((dir, name) -> name.endsWith(".segment"));
+		return segments != null ? segments : new File[0];
+	}
+
+	/**
+	 * Moves the modification times of the existing segments into the past such that they are ordered reliably with
+	 * respect to segments that are written afterwards.
+	 */
+	private static void age(final File directory) {
+		for (final File segment : segments(directory)) {
+			segment.setLastModified(segment.lastModified() - 60_000);
+		}
+	}
+
+	private static List<DataRow> execute(final DLExecutionResultCache cache, final double[] values,
+			final int skippedRow) throws Exception {
+		final DataCell[] cells = new DataCell[values.length];
+		for (int i = 0; i < values.length; i++) {
+			cells[i] = new DoubleCell(values[i]);
+		}
+		return execute(cache, cells, skippedRow);
+	}
+
+	/**
+	 * Simulates a network that multiplies its input (the sum of the elements in case of a tensor) by ten and skips
+	 * the row at the given index.
+	 */
+	private static List<DataRow> execute(final DLExecutionResultCache cache, final DataCell[] cells,
+			final int skippedRow) throws Exception {
+		try {
+			return executeAndSave(cache, cells, skippedRow);
+		} finally {
+			cache.close();
+		}
+	}
+
+	private static List<DataRow> executeAndSave(final DLExecutionResultCache cache, final DataCell[] cells,
+			final int skippedRow) throws Exception {
+		final Queue<DataRow> rows = new ArrayDeque<>();
+		for (int i = 0; i < cells.length; i++) {
+			rows.add(new DefaultRow(RowKey.createRowKey((long) i), cells[i]));
+		}
+		final List<DataRow> output = new ArrayList<>();
+		final RowOutput networkOutput = cache.wrapOutput(new RowOutput() {
+
+			@Override
+			public void push(final DataRow row) {
+				output.add(row);
+			}
+
+			@Override
+			public void close() {
+				// no op
+			}
+		}, false);
+		final RowInput networkInput = cache.wrapInput(new RowInput() {
+
+			@Override
+			public DataTableSpec getDataTableSpec() {
+				return INPUT_SPEC;
+			}
+
+			@Override
+			public DataRow poll() {
+				return rows.poll();
+			}
+
+			@Override
+			public void close() {
+				// no op
+			}
+		}, COLUMNS);
+		DataRow row;
+		while ((row = networkInput.poll()) != null) {
+			if (!row.getKey().equals(RowKey.createRowKey((long) skippedRow))) {
+				final DataCell cell = row.getCell(0);
+				final double value = cell instanceof DLTensorCell
+						? Arrays.stream(((DLTensorCell) cell).toDoubleArray()).sum()
+						: ((DoubleCell) cell).getDoubleValue();
+				networkOutput.push(new DefaultRow(row.getKey(), new DoubleCell(value * 10)));
+			}
+		}
+		networkOutput.close();
+		cache.save(new ExecutionMonitor());
+		return output;
+	}
+
+	private static void assertRows(final List<DataRow> rows, final String[] keys, final double[] values) {
+		assertEquals(keys.length, rows.size());
+		for (int i = 0; i < keys.length; i++) {
+			assertEquals(keys[i], rows.get(i).getKey().getString());
+			assertEquals(values[i], ((DoubleCell) rows.get(i).getCell(0)).getDoubleValue(), 0d);
+		}
+	}
+}
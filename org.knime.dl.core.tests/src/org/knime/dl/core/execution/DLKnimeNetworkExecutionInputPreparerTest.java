@@ -0,0 +1,246 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.core.execution;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.knime.dl.testing.DLTestUtil.TENSOR_FACTORY;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.dl.core.DLAbstractRowIterator;
+import org.knime.dl.core.DLDefaultFixedTensorShape;
+import org.knime.dl.core.DLDefaultTensorId;
+import org.knime.dl.core.DLDefaultTensorSpec;
+import org.knime.dl.core.DLDimensionOrder;
+import org.knime.dl.core.DLInvalidNetworkInputException;
+import org.knime.dl.core.DLMissingValueStrategy;
+import org.knime.dl.core.DLTensor;
+import org.knime.dl.core.DLTensorId;
+import org.knime.dl.core.DLTensorSpec;
+import org.knime.dl.core.data.DLReadableBitBuffer;
+import org.knime.dl.core.data.DLReadableFloatBuffer;
+import org.knime.dl.core.data.DLWritableBuffer;
+import org.knime.dl.core.data.convert.DLBooleanValueToBitTensorConverterFactory;
+import org.knime.dl.core.data.convert.DLDataValueToTensorConverterFactory;
+import org.knime.dl.core.data.convert.DLDoubleValueToFloatTensorConverterFactory;
+
+/**
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ */
+public class DLKnimeNetworkExecutionInputPreparerTest {
+
+	private static final int BATCH_SIZE = 7;
+
+	private static final DLTensorSpec NUMBERS = new DLDefaultTensorSpec(new DLDefaultTensorId("numbers"), "numbers",
+			BATCH_SIZE, new DLDefaultFixedTensorShape(new long[] { 2 }), float.class, DLDimensionOrder.TDHWC);
+
+	private static final DLTensorSpec BITS = new DLDefaultTensorSpec(new DLDefaultTensorId("bits"), "bits",
+			BATCH_SIZE, new DLDefaultFixedTensorShape(new long[] { 1 }), boolean.class, DLDimensionOrder.TDHWC);
+
+	private static final DataTableSpec TABLE_SPEC = new DataTableSpec(
+			new DataColumnSpecCreator("a", DoubleCell.TYPE).createSpec(),
+			new DataColumnSpecCreator("b", DoubleCell.TYPE).createSpec(),
+			new DataColumnSpecCreator("c", BooleanCell.TYPE).createSpec());
+
+	@Test
+	public void testParallelPreparationPreservesRowOrder() throws Exception {
+		final List<DataRow> rows = createRows(17);
+		for (final int numThreads : new int[] { 1, 2, 3, 4, 16 }) {
+			assertBatches(rows, numThreads);
+		}
+	}
+
+	@Test(expected = DLInvalidNetworkInputException.class)
+	public void testParallelPreparationReportsOverflow() throws Exception {
+		final Map<DLTensorId, int[]> columns = Collections.singletonMap(NUMBERS.getIdentifier(),
+				new int[] { 0, 1, 0 });
+		final Map<DLTensorId, DLDataValueToTensorConverterFactory<?, ?>> converters = Collections
+				.singletonMap(NUMBERS.getIdentifier(), new DLDoubleValueToFloatTensorConverterFactory());
+		try (final DLKnimeNetworkExecutionInputPreparer preparer = new DLKnimeNetworkExecutionInputPreparer(
+				new DLInMemoryRowIterator(createRows(BATCH_SIZE), columns), BATCH_SIZE, false, converters)) {
+			preparer.setNumPreparationThreads(3);
+			preparer.prepareNext(
+					Collections.singletonMap(NUMBERS.getIdentifier(), TENSOR_FACTORY.createWritableTensor(NUMBERS)));
+		}
+	}
+
+	@Test
+	public void testSkippedTrailingRowsDoNotYieldEmptyBatch() throws Exception {
+		final List<DataRow> rows = createRows(BATCH_SIZE);
+		for (int i = 0; i < 3; i++) {
+			rows.add(new DefaultRow(RowKey.createRowKey((long) BATCH_SIZE + i), DataType.getMissingCell(),
+					new DoubleCell(i), BooleanCell.TRUE));
+		}
+		final Map<DLTensorId, int[]> columns = Collections.singletonMap(NUMBERS.getIdentifier(), new int[] { 0, 1 });
+		final Map<DLTensorId, DLDataValueToTensorConverterFactory<?, ?>> converters = Collections
+				.singletonMap(NUMBERS.getIdentifier(), new DLDoubleValueToFloatTensorConverterFactory());
+		try (final DLKnimeNetworkExecutionInputPreparer preparer = new DLKnimeNetworkExecutionInputPreparer(
+				new DLInMemoryRowIterator(rows, columns), BATCH_SIZE, false, converters)) {
+			preparer.setMissingValueStrategy(DLMissingValueStrategy.SKIP_ROW, 0);
+			final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> input = Collections
+					.singletonMap(NUMBERS.getIdentifier(), TENSOR_FACTORY.createWritableTensor(NUMBERS));
+			assertTrue(preparer.hasNext());
+			preparer.prepareNext(input);
+			assertEquals(2 * BATCH_SIZE, input.get(NUMBERS.getIdentifier()).getBuffer().size());
+			assertEquals(BATCH_SIZE, preparer.getBaseRows().size());
+			assertFalse(preparer.hasNext());
+			assertEquals(3, preparer.getNumSkippedRows());
+		}
+	}
+
+	private static void assertBatches(final List<DataRow> rows, final int numThreads) throws Exception {
+		final Map<DLTensorId, int[]> columns = new HashMap<>();
+		columns.put(NUMBERS.getIdentifier(), new int[] { 0, 1 });
+		columns.put(BITS.getIdentifier(), new int[] { 2 });
+		final Map<DLTensorId, DLDataValueToTensorConverterFactory<?, ?>> converters = new HashMap<>();
+		converters.put(NUMBERS.getIdentifier(), new DLDoubleValueToFloatTensorConverterFactory());
+		// not a bulk converter
+		converters.put(BITS.getIdentifier(), new DLBooleanValueToBitTensorConverterFactory());
+		try (final DLKnimeNetworkExecutionInputPreparer preparer = new DLKnimeNetworkExecutionInputPreparer(
+				new DLInMemoryRowIterator(rows, columns), BATCH_SIZE, false, converters)) {
+			preparer.setNumPreparationThreads(numThreads);
+			final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> input = new HashMap<>();
+			input.put(NUMBERS.getIdentifier(), TENSOR_FACTORY.createWritableTensor(NUMBERS));
+			input.put(BITS.getIdentifier(), TENSOR_FACTORY.createWritableTensor(BITS));
+			int row = 0;
+			while (preparer.hasNext()) {
+				preparer.prepareNext(input);
+				final int batchRows = Math.min(BATCH_SIZE, rows.size() - row);
+				final DLReadableFloatBuffer numbers = (DLReadableFloatBuffer) input.get(NUMBERS.getIdentifier())
+						.getBuffer();
+				final DLReadableBitBuffer bits = (DLReadableBitBuffer) input.get(BITS.getIdentifier()).getBuffer();
+				assertEquals(2 * batchRows, numbers.size());
+				assertEquals(batchRows, bits.size());
+				final float[] actual = new float[2 * batchRows];
+				numbers.readToFloatArray(actual, 0, actual.length);
+				final float[] expected = new float[2 * batchRows];
+				for (int i = 0; i < batchRows; i++) {
+					expected[2 * i] = row + i;
+					expected[2 * i + 1] = -(row + i);
+					assertEquals((row + i) % 3 == 0, bits.readNextBit());
+				}
+				assertArrayEquals("Threads: " + numThreads, expected, actual, 0f);
+				input.values().forEach(t -> t.getBuffer().reset());
+				row += batchRows;
+			}
+			assertEquals(rows.size(), row);
+		}
+	}
+
+	private static List<DataRow> createRows(final int numRows) {
+		final List<DataRow> rows = new ArrayList<>(numRows);
+		for (int i = 0; i < numRows; i++) {
+			rows.add(new DefaultRow(RowKey.createRowKey((long) i), new DoubleCell(i), new DoubleCell(-i),
+					BooleanCell.get(i % 3 == 0)));
+		}
+		return rows;
+	}
+
+	private static final class DLInMemoryRowIterator extends DLAbstractRowIterator {
+
+		private final List<DataRow> m_rows;
+
+		private int m_next = 0;
+
+		private DLInMemoryRowIterator(final List<DataRow> rows, final Map<DLTensorId, int[]> columns) {
+			super(TABLE_SPEC, columns);
+			m_rows = rows;
+		}
+
+		@Override
+		public long size() {
+			return m_rows.size();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return m_next < m_rows.size();
+		}
+
+		@Override
+		public DataRow peek() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return m_rows.get(m_next);
+		}
+
+		@Override
+		public DataRow next() {
+			final DataRow row = peek();
+			m_next++;
+			return row;
+		}
+
+		@Override
+		public void reset() {
+			m_next = 0;
+		}
+
+		@Override
+		public void close() {
+			// no op
+		}
+	}
+}
@@ -0,0 +1,244 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.core.training;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.knime.dl.testing.DLTestUtil.DOUBLE_EPSILON;
+import static org.knime.dl.testing.DLTestUtil.TENSOR_FACTORY;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+import org.knime.dl.core.DLCanceledExecutionException;
+import org.knime.dl.core.DLDefaultFixedTensorShape;
+import org.knime.dl.core.DLDefaultTensorId;
+import org.knime.dl.core.DLDefaultTensorSpec;
+import org.knime.dl.core.DLDimensionOrder;
+import org.knime.dl.core.DLInvalidNetworkInputException;
+import org.knime.dl.core.DLNetworkFixedSizeInputPreparer;
+import org.knime.dl.core.DLTensor;
+import org.knime.dl.core.DLTensorId;
+import org.knime.dl.core.DLTensorSpec;
+import org.knime.dl.core.data.DLReadableDoubleBuffer;
+import org.knime.dl.core.data.DLWritableBuffer;
+import org.knime.dl.core.data.DLWritableDoubleBuffer;
+
+/**
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ */
+public class DLPrefetchingNetworkInputProviderTest {
+
+	private static final DLTensorSpec SPEC = new DLDefaultTensorSpec(new DLDefaultTensorId("in0"), "in0", 1,
+			new DLDefaultFixedTensorShape(new long[] { 2 }), double.class, DLDimensionOrder.TDHWC);
+
+	@Test
+	public void testBatchesAreProvidedInOrderAcrossEpochs() throws Exception {
+		final int numBatches = 3;
+		try (final DLPrefetchingNetworkInputProvider provider = new DLPrefetchingNetworkInputProvider(
+				new DLCountingInputPreparer(numBatches, -1), createInputs(3))) {
+			assertEquals(numBatches, provider.getNumBatches());
+			Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> previous = null;
+			for (int i = 0; i < 4 * numBatches; i++) {
+				final long batchIndex = i % numBatches;
+				final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> input = provider.get(batchIndex);
+				assertNotSame(previous, input);
+				final DLReadableDoubleBuffer buffer = (DLReadableDoubleBuffer) input.get(SPEC.getIdentifier())
+						.getBuffer();
+				assertEquals(batchIndex, buffer.readNextDouble(), DOUBLE_EPSILON);
+				// running count of prepared batches, verifies that no batch was skipped or prepared twice
+				assertEquals(i, buffer.readNextDouble(), DOUBLE_EPSILON);
+				// the back end resets the buffers after consuming them
+				input.values().forEach(t -> t.getBuffer().reset());
+				previous = input;
+			}
+		}
+	}
+
+	@Test(expected = DLInvalidNetworkInputException.class)
+	public void testPreparationFailureIsPropagated() throws Exception {
+		try (final DLPrefetchingNetworkInputProvider provider = new DLPrefetchingNetworkInputProvider(
+				new DLCountingInputPreparer(5, 2), createInputs(2))) {
+			for (int i = 0; i < 5; i++) {
+				provider.get(i).values().forEach(t -> t.getBuffer().reset());
+			}
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testOutOfOrderRequestFails() throws Exception {
+		try (final DLPrefetchingNetworkInputProvider provider = new DLPrefetchingNetworkInputProvider(
+				new DLCountingInputPreparer(5, -1), createInputs(2))) {
+			provider.get(1);
+		}
+	}
+
+	@Test
+	public void testCloseWaitsForRunningPreparation() throws Exception {
+		final DLSlowInputPreparer preparer = new DLSlowInputPreparer();
+		final DLPrefetchingNetworkInputProvider provider = new DLPrefetchingNetworkInputProvider(preparer,
+				createInputs(2));
+		provider.get(0);
+		// the producer is now preparing the second batch
+		assertTrue(preparer.m_secondPreparationStarted.await(10, TimeUnit.SECONDS));
+		provider.close();
+		assertFalse(preparer.m_preparing.get());
+	}
+
+	private static List<Map<DLTensorId, DLTensor<? extends DLWritableBuffer>>> createInputs(final int numInputs) {
+		final List<Map<DLTensorId, DLTensor<? extends DLWritableBuffer>>> inputs = new ArrayList<>(numInputs);
+		for (int i = 0; i < numInputs; i++) {
+			inputs.add(Collections.singletonMap(SPEC.getIdentifier(), TENSOR_FACTORY.createWritableTensor(SPEC)));
+		}
+		return inputs;
+	}
+
+	/**
+	 * Takes a while to prepare each batch and ignores interrupts while doing so.
+	 */
+	private static final class DLSlowInputPreparer implements DLNetworkFixedSizeInputPreparer {
+
+		private static final long PREPARATION_TIME_MS = 300;
+
+		private final CountDownLatch m_secondPreparationStarted = new CountDownLatch(2);
+
+		private final AtomicBoolean m_preparing = new AtomicBoolean();
+
+		@Override
+		public long getNumBatches() {
+			return 10;
+		}
+
+		@Override
+		public void prepare(final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> input, final long batchIndex) {
+			m_preparing.set(true);
+			m_secondPreparationStarted.countDown();
+			final long end = System.currentTimeMillis() + PREPARATION_TIME_MS;
+			long remaining;
+			while ((remaining = end - System.currentTimeMillis()) > 0) {
+				try {
+					Thread.sleep(remaining);
+				} catch (final InterruptedException e) {
+					// ignore, like a preparer that is stuck in an uninterruptible read
+				}
+			}
+			m_preparing.set(false);
+		}
+
+		@Override
+		public boolean hasNext() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void prepareNext(final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> input) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void close() throws Exception {
+			// no op
+		}
+	}
+
+	/**
+	 * Writes the batch index and the number of previously prepared batches into each batch.
+	 */
+	private static final class DLCountingInputPreparer implements DLNetworkFixedSizeInputPreparer {
+
+		private final long m_numBatches;
+
+		private final long m_failAt;
+
+		private long m_numPrepared = 0;
+
+		private DLCountingInputPreparer(final long numBatches, final long failAt) {
+			m_numBatches = numBatches;
+			m_failAt = failAt;
+		}
+
+		@Override
+		public long getNumBatches() {
+			return m_numBatches;
+		}
+
+		@Override
+		public void prepare(final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> input, final long batchIndex)
+				throws DLCanceledExecutionException, DLInvalidNetworkInputException {
+			if (m_numPrepared == m_failAt) {
+				throw new DLInvalidNetworkInputException("Preparation failed.");
+			}
+			final DLWritableDoubleBuffer buffer = (DLWritableDoubleBuffer) input.get(SPEC.getIdentifier())
+					.getBuffer();
+			buffer.put((double) batchIndex);
+			buffer.put((double) m_numPrepared++);
+		}
+
+		@Override
+		public boolean hasNext() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void prepareNext(final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> input) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void close() throws Exception {
+			// no op
+		}
+	}
+}
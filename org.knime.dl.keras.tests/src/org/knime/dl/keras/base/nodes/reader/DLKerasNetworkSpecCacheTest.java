@@ -0,0 +1,135 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.keras.base.nodes.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Optional;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.knime.dl.core.DLNetworkReferenceLocation;
+import org.knime.dl.keras.core.DLKerasNetwork;
+import org.knime.dl.keras.tensorflow.core.DLKerasTensorFlowNetwork;
+import org.knime.dl.keras.tensorflow.core.DLKerasTensorFlowNetworkSpec;
+import org.knime.dl.keras.testing.DLKerasTestUtil;
+
+/**
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ */
+public class DLKerasNetworkSpecCacheTest {
+
+    private static final String LOADER_ID = "org.knime.dl.keras.tensorflow.core.DLKerasTensorFlowNetworkLoader";
+
+    @Rule
+    public final TemporaryFolder m_folder = new TemporaryFolder();
+
+    @Test
+    public void testHit() throws IOException {
+        final URI uri = createNetworkFile("content").toURI();
+        final DLKerasTensorFlowNetwork network = createNetwork(uri);
+        final File cacheDir = new File(m_folder.getRoot(), "cache");
+        final DLKerasNetworkSpecCache cache = new DLKerasNetworkSpecCache(cacheDir);
+        cache.put(uri, LOADER_ID, network);
+        // a fresh instance must read the persisted entry
+        final Optional<DLKerasNetwork> cached = new DLKerasNetworkSpecCache(cacheDir).get(uri, LOADER_ID);
+        assertTrue(cached.isPresent());
+        assertEquals(network.getSpec(), cached.get().getSpec());
+        assertEquals(network.getSource(), cached.get().getSource());
+    }
+
+    @Test
+    public void testMissOnUnknownNetworkOrLoader() throws IOException {
+        final URI uri = createNetworkFile("content").toURI();
+        final DLKerasNetworkSpecCache cache = new DLKerasNetworkSpecCache(m_folder.newFolder());
+        assertFalse(cache.get(uri, LOADER_ID).isPresent());
+        cache.put(uri, LOADER_ID, createNetwork(uri));
+        assertFalse(cache.get(uri, "other.loader").isPresent());
+    }
+
+    @Test
+    public void testMissOnChangedContent() throws IOException {
+        final File file = createNetworkFile("content");
+        final URI uri = file.toURI();
+        final DLKerasNetworkSpecCache cache = new DLKerasNetworkSpecCache(m_folder.newFolder());
+        cache.put(uri, LOADER_ID, createNetwork(uri));
+        // same size, different content and modification time
+        Files.write(file.toPath(), "CONTENT".getBytes(StandardCharsets.UTF_8));
+        assertTrue(file.setLastModified(file.lastModified() + 10000));
+        assertFalse(cache.get(uri, LOADER_ID).isPresent());
+    }
+
+    @Test
+    public void testHitOnTouchedFile() throws IOException {
+        final File file = createNetworkFile("content");
+        final URI uri = file.toURI();
+        final DLKerasNetworkSpecCache cache = new DLKerasNetworkSpecCache(m_folder.newFolder());
+        cache.put(uri, LOADER_ID, createNetwork(uri));
+        assertTrue(file.setLastModified(file.lastModified() + 10000));
+        assertTrue(cache.get(uri, LOADER_ID).isPresent());
+    }
+
+    private File createNetworkFile(final String content) throws IOException {
+        final File file = m_folder.newFile("network.h5");
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static DLKerasTensorFlowNetwork createNetwork(final URI uri) {
+        final DLKerasTensorFlowNetworkSpec spec = DLKerasTestUtil.randomNetworkSpec(new Random(1234));
+        return new DLKerasTensorFlowNetwork(spec, new DLNetworkReferenceLocation(uri));
+    }
+}
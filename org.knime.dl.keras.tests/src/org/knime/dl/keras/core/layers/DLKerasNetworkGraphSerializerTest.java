@@ -46,6 +46,8 @@
  */
 package org.knime.dl.keras.core.layers;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 import static org.knime.dl.keras.core.layers.DLKerasLayerTestSetups.createMultiInputModelTestSetup;
 import static org.knime.dl.keras.core.layers.DLKerasLayerTestSetups.createMultiInputMultiOutputForkJoinModelTestSetup;
@@ -68,6 +70,8 @@
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.common.hash.HashCode;
+
 /**
  * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
  * @author Christian Dietz, KNIME GmbH, Konstanz, Germany
@@ -134,6 +138,23 @@ public void testSerializeMultiInputMultiOutputForkJoinModel() throws IOException
         testSerialize(createMultiInputMultiOutputForkJoinModelTestSetup());
     }
 
+    @Test
+    public void testHashIgnoresRuntimeIds() throws IOException {
+        final List<DLKerasLayer> outputLayers = createSequentialModelTestSetup();
+        final HashCode hash = DLKerasNetworkGraphSerializer.hashGraph(outputLayers);
+        outputLayers.get(0).setRuntimeId("renamed");
+        assertEquals(hash, DLKerasNetworkGraphSerializer.hashGraph(outputLayers));
+        assertEquals(hash, DLKerasNetworkGraphSerializer.hashGraph(createSequentialModelTestSetup()));
+    }
+
+    @Test
+    public void testHashDiffersForDifferentGraphs() throws IOException {
+        assertNotEquals(DLKerasNetworkGraphSerializer.hashGraph(createSequentialModelTestSetup()),
+            DLKerasNetworkGraphSerializer.hashGraph(createMultiInputModelTestSetup()));
+        assertNotEquals(DLKerasNetworkGraphSerializer.hashGraph(createSingleLayerTestSetup()),
+            DLKerasNetworkGraphSerializer.hashGraph(createSequentialModelTestSetup()));
+    }
+
     private void testSerialize(final List<DLKerasLayer> outputLayers) throws IOException, ClassNotFoundException {
         DLKerasNetworkGraphSerializer.writeGraphTo(outputLayers, m_outStream);
         m_inStream = outStreamToInStream();
@@ -139,6 +139,10 @@ class DLKerasNetwork(DLPythonNetwork):
     def __init__(self, model, compatibility_mode=False):
         super().__init__(DLKerasNetwork._convert_sequential_to_model(model, compatibility_mode))
         self._training_monitor = None
+        # Prediction models and output specs per requested tuple of output identifiers. Building a model for each
+        # batch is expensive and, in TensorFlow 1 sessions, keeps adding nodes to the graph.
+        self._prediction_models = {}
+        self._output_specs = {}
 
     @abc.abstractmethod
     def _extract_model_spec(self):
@@ -151,26 +155,9 @@ class DLKerasNetwork(DLPythonNetwork):
         return self._spec
 
     def execute(self, in_data, batch_size, output_identifiers):
-        model = self._model
         X = self._format_input(in_data, batch_size)
-
-        # Get the requested output tensors
-        outputs = []
-        for id in output_identifiers:
-            matcher = re.match(r'^(.*)_(\d+):(\d+)$', id)
-            layer_name = matcher.group(1)
-            node_idx = int(matcher.group(2))
-            tensor_idx = int(matcher.group(3))
-            output_tensors = model.get_layer(layer_name).get_output_at(node_idx)
-            if not isinstance(output_tensors, list):
-                output_tensors = [output_tensors]
-            if output_tensors[tensor_idx] in model.inputs:
-                output_tensors[tensor_idx] = Lambda(lambda x: x)(output_tensors[tensor_idx])
-            outputs.append(output_tensors[tensor_idx])
-
-        # Build the model with the requested outputs
-        intermediate_model = Model(inputs=model.inputs, outputs=outputs)
-        Y = intermediate_model.predict(X, batch_size=batch_size, verbose=0)
+        prediction_model = self._get_prediction_model(output_identifiers)
+        Y = prediction_model.predict(X, batch_size=batch_size, verbose=0)
         return self._format_output(Y, output_identifiers)
 
     def train(self, training_data_supplier, validation_data_supplier=None, send_to_java=None):
@@ -236,6 +223,33 @@ class DLKerasNetwork(DLPythonNetwork):
 
     # "Protected" helper methods:
 
+    def _get_prediction_model(self, output_identifiers):
+        key = tuple(output_identifiers)
+        prediction_model = self._prediction_models.get(key)
+        if prediction_model is None:
+            model = self._model
+            # Get the requested output tensors
+            outputs = []
+            for id in output_identifiers:
+                matcher = re.match(r'^(.*)_(\d+):(\d+)$', id)
+                layer_name = matcher.group(1)
+                node_idx = int(matcher.group(2))
+                tensor_idx = int(matcher.group(3))
+                output_tensors = model.get_layer(layer_name).get_output_at(node_idx)
+                if not isinstance(output_tensors, list):
+                    output_tensors = [output_tensors]
+                if output_tensors[tensor_idx] in model.inputs:
+                    output_tensors[tensor_idx] = Lambda(lambda x: x)(output_tensors[tensor_idx])
+                outputs.append(output_tensors[tensor_idx])
+            if len(outputs) == len(model.outputs) and all(o is mo for o, mo in zip(outputs, model.outputs)):
+                # The network's own outputs were requested, no need to build another model.
+                prediction_model = model
+            else:
+                # Build the model with the requested outputs
+                prediction_model = Model(inputs=model.inputs, outputs=outputs)
+            self._prediction_models[key] = prediction_model
+        return prediction_model
+
     def _format_input(self, in_data, batch_size):
         return self._format_tensor(in_data, self.spec.input_specs, batch_size)
 
@@ -243,8 +257,12 @@ class DLKerasNetwork(DLPythonNetwork):
         # some networks have multiple outputs, some do not
         if not isinstance(Y, (list, tuple)):
             Y = [Y]
-        out_and_hidden_specs = self.spec.output_specs + self.spec.intermediate_output_specs
-        output_specs = [[s for s in out_and_hidden_specs if s.identifier == id][0] for id in output_identifiers]
+        key = tuple(output_identifiers)
+        output_specs = self._output_specs.get(key)
+        if output_specs is None:
+            out_and_hidden_specs = self.spec.output_specs + self.spec.intermediate_output_specs
+            output_specs = [[s for s in out_and_hidden_specs if s.identifier == id][0] for id in output_identifiers]
+            self._output_specs[key] = output_specs
         output = {}
         for idx, output_spec in enumerate(output_specs):
             out = self._put_in_matching_buffer(Y[idx])
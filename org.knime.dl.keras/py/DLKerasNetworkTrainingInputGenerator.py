@@ -53,11 +53,11 @@ from DLPythonNetworkTrainingInputGenerator import DLPythonNetworkTrainingInputGe
 
 
 class DLKerasNetworkTrainingInputGenerator(DLPythonNetworkTrainingInputGenerator):
-    def __init__(self, network, steps, batch_size, message_category, is_validation_data=False):
+    def __init__(self, network, steps, batch_size, message_category, is_validation_data=False, window_size=1):
         assert network is not None
         input_names = [s.identifier for s in network.spec.input_specs]
         target_names = [s.identifier for s in network.spec.output_specs]
-        super().__init__(input_names, target_names, steps, batch_size)
+        super().__init__(input_names, target_names, steps, batch_size, window_size)
         self._network = network
         self._message_category = message_category
         self._request_from_java = None
@@ -72,16 +72,28 @@ class DLKerasNetworkTrainingInputGenerator(DLPythonNetworkTrainingInputGenerator
         self._request_from_java = request_from_java
 
     def _get_batch(self, batch_index):
-        self._request_from_java(self._message_category, batch_index)
-        # TODO: pre-allocate dictionaries
-        training_data = {}
+        return self._get_batches(batch_index, 1)[0]
+
+    def _get_batches(self, first_batch_index, num_batches):
+        if num_batches == 1:
+            # keep the single-index payload of earlier versions
+            self._request_from_java(self._message_category, first_batch_index)
+        else:
+            self._request_from_java(self._message_category, "%d;%d" % (first_batch_index, num_batches))
+        # each received table holds one row per batch of the window
+        inputs = {}
         for input_name in self._input_names:
             workspace_input_name = input_name + "_validation" if self._is_validation_data else input_name
-            training_data[input_name] = global_workspace()[workspace_input_name]
-        target_data = {}
+            inputs[input_name] = global_workspace()[workspace_input_name]
+        targets = {}
         for target_name in self._target_names:
             workspace_target_name = target_name + "_validation" if self._is_validation_data else target_name
-            target_data[target_name] = global_workspace()[workspace_target_name]
-        # TODO: move formatting logic from network to generator, remove dependency on network
-        return (self._network._format_input(training_data, self._batch_size),
-                self._network._format_target(target_data, self._batch_size))
+            targets[target_name] = global_workspace()[workspace_target_name]
+        batches = []
+        for k in range(num_batches):
+            training_data = {name: data.iloc[k:k + 1] for name, data in inputs.items()}
+            target_data = {name: data.iloc[k:k + 1] for name, data in targets.items()}
+            # TODO: move formatting logic from network to generator, remove dependency on network
+            batches.append((self._network._format_input(training_data, self._batch_size),
+                            self._network._format_target(target_data, self._batch_size)))
+        return batches
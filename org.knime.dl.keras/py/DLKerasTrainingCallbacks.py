@@ -50,6 +50,7 @@
 
 import abc
 import sys
+from timeit import default_timer
 
 from keras.callbacks import Callback
 from keras.callbacks import EarlyStopping
@@ -111,6 +112,7 @@ class DLKerasTrainingMonitor(Callback, DLKerasAbstractTrainingCallback):
         super().__init__()
         self._network = network
         self._stop_training = False
+        self._batch_begin_time = None
 
     def stop_early(self):
         self._stop_training = True
@@ -146,10 +148,13 @@ class DLKerasTrainingMonitor(Callback, DLKerasAbstractTrainingCallback):
             self.send_to_java('epoch_end', str(acc) + ';' + str(loss))
 
     def on_batch_begin(self, batch, logs=None):
+        self._batch_begin_time = default_timer()
         self.send_to_java('batch_begin')
 
     def on_batch_end(self, batch, logs=None):
         if logs:
+            # computation time of the batch in seconds, used for stage timings on Java side
+            elapsed = default_timer() - self._batch_begin_time if self._batch_begin_time is not None else -1
             loss = logs.get('loss')
             acc = logs.get('acc')
             if acc is None:
@@ -159,4 +164,4 @@ class DLKerasTrainingMonitor(Callback, DLKerasAbstractTrainingCallback):
                 accs = [v for k, v in logs.items() if k.endswith('_acc')]
                 acc = sum(accs) / len(accs)
 
-            self.send_to_java('batch_end', str(acc) + ';' + str(loss))
+            self.send_to_java('batch_end', str(acc) + ';' + str(loss) + ';' + str(elapsed))
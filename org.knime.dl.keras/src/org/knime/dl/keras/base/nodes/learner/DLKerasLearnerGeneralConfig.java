@@ -59,6 +59,7 @@
 import org.knime.dl.base.settings.ConfigEntry;
 import org.knime.dl.base.settings.DLGeneralConfig;
 import org.knime.dl.base.settings.DefaultConfigEntry;
+import org.knime.dl.core.DLMissingValueStrategy;
 import org.knime.dl.core.DLNetwork;
 import org.knime.dl.core.training.DLTrainingContextRegistry;
 import org.knime.dl.keras.core.training.DLKerasCallback.DLKerasEarlyStopping;
@@ -103,6 +104,41 @@ final class DLKerasLearnerGeneralConfig extends AbstractConfig implements DLGene
 
 	static final String CFG_KEY_RANDOM_SEED = "random_seed";
 
+	/**
+	 * @since 4.5
+	 */
+	static final String CFG_KEY_SHUFFLE_IN_WINDOW = "shuffle_in_window";
+
+	/**
+	 * @since 4.5
+	 */
+	static final String CFG_KEY_PREFETCH_DEPTH = "prefetch_depth";
+
+	/**
+	 * @since 4.5
+	 */
+	static final String CFG_KEY_TRAINING_DATA_WINDOW_SIZE = "training_data_window_size";
+
+	/**
+	 * @since 4.5
+	 */
+	static final String CFG_KEY_RECORD_STAGE_TIMINGS = "record_stage_timings";
+
+	/**
+	 * @since 4.5
+	 */
+	static final String CFG_KEY_PREPARATION_THREADS = "input_preparation_threads";
+
+	/**
+	 * @since 4.5
+	 */
+	static final String CFG_KEY_MISSING_VALUE_STRATEGY = "missing_value_strategy";
+
+	/**
+	 * @since 4.5
+	 */
+	static final String CFG_KEY_MISSING_VALUE_FILL = "missing_value_fill";
+
 	static Collection<DLKerasTrainingContext<?>> getAvailableTrainingContexts(
 			final Class<? extends DLNetwork> networkType) {
 		return DLTrainingContextRegistry.getInstance().getTrainingContextsForNetworkType((networkType)) //
@@ -216,6 +252,76 @@ protected boolean handleFailureToLoadConfigEntry(final NodeSettingsRO settings,
 			}
 		};
 		put(randomSeed);
+		put(new DefaultConfigEntry<Boolean>(CFG_KEY_SHUFFLE_IN_WINDOW, Boolean.class, false) {
+
+			@Override
+			protected boolean handleFailureToLoadConfigEntry(final NodeSettingsRO settings, final Exception cause) {
+				// backward compatibility (4.5): set to false as we previously always shuffled a full copy of the table
+				m_value = false;
+				return true;
+			}
+		});
+
+		put(new DefaultConfigEntry<Integer>(CFG_KEY_PREFETCH_DEPTH, Integer.class, 2) {
+
+			@Override
+			protected boolean handleFailureToLoadConfigEntry(final NodeSettingsRO settings, final Exception cause) {
+				// backward compatibility (4.5): set to zero as we previously prepared each batch on request
+				m_value = 0;
+				return true;
+			}
+		});
+
+		put(new DefaultConfigEntry<Integer>(CFG_KEY_TRAINING_DATA_WINDOW_SIZE, Integer.class, 4) {
+
+			@Override
+			protected boolean handleFailureToLoadConfigEntry(final NodeSettingsRO settings, final Exception cause) {
+				// backward compatibility (4.5): each batch was requested separately before
+				m_value = 1;
+				return true;
+			}
+		});
+
+		put(new DefaultConfigEntry<Boolean>(CFG_KEY_RECORD_STAGE_TIMINGS, Boolean.class, false) {
+
+			@Override
+			protected boolean handleFailureToLoadConfigEntry(final NodeSettingsRO settings, final Exception cause) {
+				// backward compatibility (4.5): stage timings were not recorded before
+				m_value = false;
+				return true;
+			}
+		});
+
+		put(new DefaultConfigEntry<Integer>(CFG_KEY_PREPARATION_THREADS, Integer.class, 1) {
+
+			@Override
+			protected boolean handleFailureToLoadConfigEntry(final NodeSettingsRO settings, final Exception cause) {
+				// backward compatibility (4.5): training data was always prepared on a single thread before
+				m_value = 1;
+				return true;
+			}
+		});
+
+		put(new DefaultConfigEntry<String>(CFG_KEY_MISSING_VALUE_STRATEGY, String.class,
+				DLMissingValueStrategy.FAIL.getLabel()) {
+
+			@Override
+			protected boolean handleFailureToLoadConfigEntry(final NodeSettingsRO settings, final Exception cause) {
+				// backward compatibility (4.5): missing cells always caused the training to fail before
+				m_value = DLMissingValueStrategy.FAIL.getLabel();
+				return true;
+			}
+		});
+
+		put(new DefaultConfigEntry<Double>(CFG_KEY_MISSING_VALUE_FILL, Double.class, 0d) {
+
+			@Override
+			protected boolean handleFailureToLoadConfigEntry(final NodeSettingsRO settings, final Exception cause) {
+				// backward compatibility (4.5): see missing value strategy
+				m_value = 0d;
+				return true;
+			}
+		});
 	}
 
 	@Override
@@ -276,6 +382,55 @@ ConfigEntry<Long> getRandomSeed() {
 		return get(CFG_KEY_RANDOM_SEED, Long.class);
 	}
 
+	/**
+	 * @since 4.5
+	 */
+	ConfigEntry<Boolean> getShuffleInWindowEntry() {
+		return get(CFG_KEY_SHUFFLE_IN_WINDOW, Boolean.class);
+	}
+
+	/**
+	 * @since 4.5
+	 */
+	ConfigEntry<Integer> getPrefetchDepthEntry() {
+		return get(CFG_KEY_PREFETCH_DEPTH, Integer.class);
+	}
+
+	/**
+	 * @since 4.5
+	 */
+	ConfigEntry<Integer> getTrainingDataWindowSizeEntry() {
+		return get(CFG_KEY_TRAINING_DATA_WINDOW_SIZE, Integer.class);
+	}
+
+	/**
+	 * @since 4.5
+	 */
+	ConfigEntry<Boolean> getRecordStageTimingsEntry() {
+		return get(CFG_KEY_RECORD_STAGE_TIMINGS, Boolean.class);
+	}
+
+	/**
+	 * @since 4.5
+	 */
+	ConfigEntry<Integer> getPreparationThreadsEntry() {
+		return get(CFG_KEY_PREPARATION_THREADS, Integer.class);
+	}
+
+	/**
+	 * @since 4.5
+	 */
+	ConfigEntry<String> getMissingValueStrategyEntry() {
+		return get(CFG_KEY_MISSING_VALUE_STRATEGY, String.class);
+	}
+
+	/**
+	 * @since 4.5
+	 */
+	ConfigEntry<Double> getMissingValueFillEntry() {
+		return get(CFG_KEY_MISSING_VALUE_FILL, Double.class);
+	}
+
 	void copyClipSettingsToOptimizer() {
 		final DLKerasOptimizer optimizer = getOptimizerEntry().getValue();
 		if (optimizer != null) {
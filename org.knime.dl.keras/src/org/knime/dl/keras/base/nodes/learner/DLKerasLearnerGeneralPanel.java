@@ -68,6 +68,7 @@
 import org.knime.dl.base.portobjects.DLNetworkPortObjectSpec;
 import org.knime.dl.base.settings.ConfigEntry;
 import org.knime.dl.base.settings.ConfigUtil;
+import org.knime.dl.core.DLMissingValueStrategy;
 import org.knime.dl.core.DLNetwork;
 import org.knime.dl.core.DLNetworkSpec;
 import org.knime.dl.core.DLTensorSpec;
@@ -107,6 +108,12 @@ class DLKerasLearnerGeneralPanel extends AbstractGridBagDialogComponentGroup {
 		addCheckboxRow(ConfigUtil.toSettingsModelBoolean(shuffleEntry),
 				"Shuffle training data before each epoch", true);
 		
+		final ConfigEntry<Boolean> shuffleInWindowEntry = m_cfg.getShuffleInWindowEntry();
+		shuffleInWindowEntry.setEnabled(shuffleEntry.getValue());
+		shuffleEntry.addValueChangeListener((e, oldValue) -> shuffleInWindowEntry.setEnabled(e.getValue()));
+		addCheckboxRow(ConfigUtil.toSettingsModelBoolean(shuffleInWindowEntry),
+				"Shuffle within a window without copying the training data", true);
+
 		ConfigEntry<Long> randomSeedConfig = m_cfg.getRandomSeed();
 		DialogComponentRandomSeed randomSeed = 
 				new DialogComponentRandomSeed(ConfigUtil.toSettingsModelLong(randomSeedConfig));
@@ -119,6 +126,28 @@ class DLKerasLearnerGeneralPanel extends AbstractGridBagDialogComponentGroup {
 			randomSeedConfig.setEnabled(!v);
 			toggleCheckBox.setEnabled(!v);
 		});
+
+		addNumberSpinnerRowComponent(
+				ConfigUtil.toSettingsModelIntegerBounded(m_cfg.getPrefetchDepthEntry(), 0, Integer.MAX_VALUE),
+				"Number of batches to prepare in advance", 1);
+
+		addNumberSpinnerRowComponent(
+				ConfigUtil.toSettingsModelIntegerBounded(m_cfg.getTrainingDataWindowSizeEntry(), 1, Integer.MAX_VALUE),
+				"Number of batches to transfer at once", 1);
+
+		addNumberSpinnerRowComponent(
+				ConfigUtil.toSettingsModelIntegerBounded(m_cfg.getPreparationThreadsEntry(), 1, Integer.MAX_VALUE),
+				"Number of threads for input preparation", 1);
+
+		addComboBoxRow(ConfigUtil.toSettingsModelString(m_cfg.getMissingValueStrategyEntry()),
+				"Missing value handling", Arrays.stream(DLMissingValueStrategy.values())
+						.map(DLMissingValueStrategy::getLabel).collect(Collectors.toList()));
+
+		addNumberEditRowComponent(ConfigUtil.toSettingsModelDouble(m_cfg.getMissingValueFillEntry()),
+				"Missing value fill constant");
+
+		addCheckboxRow(ConfigUtil.toSettingsModelBoolean(m_cfg.getRecordStageTimingsEntry()),
+				"Record stage timings", true);
 	}
 	
 	private JCheckBox getLastCheckBox() {
@@ -92,13 +92,16 @@
 import org.knime.dl.core.DLExecutionSpecCreator;
 import org.knime.dl.core.DLInstallationTestTimeoutException;
 import org.knime.dl.core.DLMissingDependencyException;
+import org.knime.dl.core.DLMissingValueStrategy;
 import org.knime.dl.core.DLNetwork;
 import org.knime.dl.core.DLNetworkSpec;
 import org.knime.dl.core.DLNotCancelable;
 import org.knime.dl.core.DLRowIterator;
 import org.knime.dl.core.DLShuffleDataTableRowIterator;
+import org.knime.dl.core.DLStageTimings;
 import org.knime.dl.core.DLTensorId;
 import org.knime.dl.core.DLTensorSpec;
+import org.knime.dl.core.DLWindowShuffleDataTableRowIterator;
 import org.knime.dl.core.data.convert.DLDataValueToTensorConverterFactory;
 import org.knime.dl.core.training.DLKnimeNetworkTrainingInputPreparer;
 import org.knime.dl.core.training.DLKnimeNetworkValidationInputPreparer;
@@ -704,7 +707,32 @@ private <N extends DLKerasNetwork> PortObject executeInternal(final PortObject i
                 if (!cudaVisibleDevices.isEmpty()) {
                     session.setKernelEnvironmentVariable("CUDA_VISIBLE_DEVICES", cudaVisibleDevices);
                 }
+                session.setPrefetchDepth(m_generalCfg.getPrefetchDepthEntry().getValue());
+                session.setTrainingDataWindowSize(m_generalCfg.getTrainingDataWindowSizeEntry().getValue());
+                final int preparationThreads = m_generalCfg.getPreparationThreadsEntry().getValue();
+                inputPreparer.setNumPreparationThreads(preparationThreads);
+                final DLMissingValueStrategy missingValueStrategy =
+                    DLMissingValueStrategy.fromLabel(m_generalCfg.getMissingValueStrategyEntry().getValue());
+                final double missingValueFill = m_generalCfg.getMissingValueFillEntry().getValue();
+                inputPreparer.setMissingValueStrategy(missingValueStrategy, missingValueFill);
+                if (validationPreparer != null) {
+                    validationPreparer.setNumPreparationThreads(preparationThreads);
+                    validationPreparer.setMissingValueStrategy(missingValueStrategy, missingValueFill);
+                }
+                final DLStageTimings stageTimings = m_generalCfg.getRecordStageTimingsEntry().getValue()
+                    ? new DLStageTimings() : DLStageTimings.DISABLED;
+                session.setStageTimings(stageTimings);
                 session.run(monitor);
+                final long numSkippedRows = inputPreparer.getNumSkippedRows()
+                    + (validationPreparer != null ? validationPreparer.getNumSkippedRows() : 0);
+                if (numSkippedRows > 0) {
+                    setWarningMessage(numSkippedRows + " training and validation row(s) containing missing values were "
+                        + "skipped. Rows are counted each time they are visited, i.e. in every epoch.");
+                }
+                if (stageTimings.isEnabled()) {
+                    LOGGER.info("Stage timings of network training:\n" + stageTimings.getSummary());
+                    stageTimings.getFlowVariables().forEach(this::pushFlowVariableDouble);
+                }
                 exec.setMessage("Saving trained Keras deep learning network...");
                 return session.getTrainedNetwork(exec);
             } catch (final CanceledExecutionException | DLCanceledExecutionException e) {
@@ -947,6 +975,10 @@ private DLRowIterator createRowIterator(final BufferedDataTable inTable,
 			final Map<DLTensorId, int[]> columnsForTensorId, final Random random, final ExecutionContext exec) {
 		final boolean doShuffle = m_generalCfg.getShuffleTrainingData().getValue();
 		if (doShuffle) {
+			if (m_generalCfg.getShuffleInWindowEntry().getValue()) {
+				return new DLWindowShuffleDataTableRowIterator(inTable, columnsForTensorId, random.nextLong(),
+						DLWindowShuffleDataTableRowIterator.DEFAULT_WINDOW_SIZE);
+			}
 			return new DLShuffleDataTableRowIterator(inTable, columnsForTensorId, random.nextLong(),
 					exec.createSubExecutionContext(0));
 		}
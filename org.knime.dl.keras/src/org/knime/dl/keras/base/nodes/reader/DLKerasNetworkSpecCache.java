@@ -0,0 +1,286 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.keras.base.nodes.reader;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.util.FileUtil;
+import org.knime.dl.core.DLNetworkReferenceLocation;
+import org.knime.dl.keras.core.DLKerasNetwork;
+import org.knime.dl.keras.core.DLKerasNetworkSpec;
+
+import com.google.common.hash.Hashing;
+
+/**
+ * Persistent cache of the specs of the Keras networks read by the Keras reader node. A spec is reused as long as the
+ * size and modification time of its network file do not change. If they do, the content hash of the file decides.
+ * Only networks that are stored in local files are cached.
+ * <P>
+ * Each entry is a separate file in the cache directory that holds a small binary header (the cache key and the file
+ * attributes) followed by the compressed serialized spec. Unreadable or outdated entries are ignored and overwritten.
+ *
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ */
+final class DLKerasNetworkSpecCache {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(DLKerasNetworkSpecCache.class);
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final String FILE_EXTENSION = ".spec";
+
+    private static DLKerasNetworkSpecCache instance;
+
+    /**
+     * @return the cache that is shared by all reader nodes, located in the KNIME home directory
+     */
+    static synchronized DLKerasNetworkSpecCache getInstance() {
+        if (instance == null) {
+            instance = new DLKerasNetworkSpecCache(
+                new File(KNIMEConstants.getKNIMEHomeDir(), "dl" + File.separator + "keras_network_spec_cache"));
+        }
+        return instance;
+    }
+
+    private final File m_directory;
+
+    /**
+     * In-memory copies of the entries that were read or written in this session, by entry file name.
+     */
+    private final Map<String, Entry> m_entries = new ConcurrentHashMap<>();
+
+    DLKerasNetworkSpecCache(final File directory) {
+        m_directory = directory;
+    }
+
+    /**
+     * @param uri the location of the network file
+     * @param loaderId the identifier of the network loader (back end) that reads the network
+     * @return the network with the cached spec, empty if the network is not cached or changed in the meantime
+     */
+    Optional<DLKerasNetwork> get(final URI uri, final String loaderId) {
+        try {
+            final File file = resolve(uri);
+            if (file == null) {
+                return Optional.empty();
+            }
+            final String name = getEntryName(uri, loaderId);
+            Entry entry = m_entries.get(name);
+            if (entry == null) {
+                final File entryFile = new File(m_directory, name);
+                if (!entryFile.isFile()) {
+                    return Optional.empty();
+                }
+                entry = read(entryFile);
+                if (entry == null || !entry.m_uri.equals(uri.toString()) || !entry.m_loaderId.equals(loaderId)) {
+                    return Optional.empty();
+                }
+                m_entries.put(name, entry);
+            }
+            final long size = file.length();
+            final long lastModified = file.lastModified();
+            if (entry.m_size != size) {
+                return Optional.empty();
+            }
+            if (entry.m_lastModified != lastModified) {
+                // e.g. touched or copied, reuse the spec if the content is still the same
+                if (!entry.m_contentHash.equals(hash(file))) {
+                    return Optional.empty();
+                }
+                entry = new Entry(entry.m_uri, entry.m_loaderId, size, lastModified, entry.m_contentHash,
+                    entry.m_spec);
+                write(name, entry);
+            }
+            final DLKerasNetworkSpec spec = deserializeSpec(entry.m_spec);
+            return Optional.of(spec.create(new DLNetworkReferenceLocation(uri), false));
+        } catch (final Exception e) {
+            // the cache is only an optimization
+            LOGGER.debug("Cached spec of Keras network '" + uri + "' could not be read: " + e.getMessage(), e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores the spec of the given network. Does nothing if the network is not stored in a local file.
+     *
+     * @param uri the location of the network file
+     * @param loaderId the identifier of the network loader (back end) that read the network
+     * @param network the network
+     */
+    void put(final URI uri, final String loaderId, final DLKerasNetwork network) {
+        try {
+            final File file = resolve(uri);
+            if (file == null) {
+                return;
+            }
+            final long size = file.length();
+            final long lastModified = file.lastModified();
+            final Entry entry = new Entry(uri.toString(), loaderId, size, lastModified, hash(file),
+                serializeSpec(network.getSpec()));
+            write(getEntryName(uri, loaderId), entry);
+        } catch (final Exception e) {
+            LOGGER.debug("Spec of Keras network '" + uri + "' could not be cached: " + e.getMessage(), e);
+        }
+    }
+
+    private void write(final String name, final Entry entry) throws IOException {
+        Files.createDirectories(m_directory.toPath());
+        final File tmpFile = File.createTempFile(name, ".tmp", m_directory);
+        try (final DataOutputStream out =
+            new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile.toPath())))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(entry.m_uri);
+            out.writeUTF(entry.m_loaderId);
+            out.writeLong(entry.m_size);
+            out.writeLong(entry.m_lastModified);
+            out.writeUTF(entry.m_contentHash);
+            out.writeInt(entry.m_spec.length);
+            out.write(entry.m_spec);
+        }
+        Files.move(tmpFile.toPath(), new File(m_directory, name).toPath(), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+        m_entries.put(name, entry);
+    }
+
+    private static Entry read(final File entryFile) throws IOException {
+        try (final DataInputStream in =
+            new DataInputStream(new BufferedInputStream(Files.newInputStream(entryFile.toPath())))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+            final String uri = in.readUTF();
+            final String loaderId = in.readUTF();
+            final long size = in.readLong();
+            final long lastModified = in.readLong();
+            final String contentHash = in.readUTF();
+            final byte[] spec = new byte[in.readInt()];
+            in.readFully(spec);
+            return new Entry(uri, loaderId, size, lastModified, contentHash, spec);
+        }
+    }
+
+    private static byte[] serializeSpec(final DLKerasNetworkSpec spec) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final ObjectOutputStream out = new ObjectOutputStream(new DeflaterOutputStream(bytes))) {
+            out.writeObject(spec);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static DLKerasNetworkSpec deserializeSpec(final byte[] spec) throws IOException, ClassNotFoundException {
+        try (final ObjectInputStream in =
+            new ObjectInputStream(new InflaterInputStream(new ByteArrayInputStream(spec)))) {
+            return (DLKerasNetworkSpec)in.readObject();
+        }
+    }
+
+    private static File resolve(final URI uri) throws IOException {
+        final File file;
+        try {
+            file = FileUtil.getFileFromURL(uri.toURL());
+        } catch (final IllegalArgumentException e) {
+            return null;
+        }
+        return file != null && file.isFile() ? file : null;
+    }
+
+    private static String getEntryName(final URI uri, final String loaderId) {
+        return Hashing.sha256().newHasher() //
+            .putString(uri.toString(), StandardCharsets.UTF_8) //
+            .putString(loaderId, StandardCharsets.UTF_8) //
+            .hash().toString() + FILE_EXTENSION;
+    }
+
+    private static String hash(final File file) throws IOException {
+        return com.google.common.io.Files.asByteSource(file).hash(Hashing.sha256()).toString();
+    }
+
+    private static final class Entry {
+
+        private final String m_uri;
+
+        private final String m_loaderId;
+
+        private final long m_size;
+
+        private final long m_lastModified;
+
+        private final String m_contentHash;
+
+        private final byte[] m_spec;
+
+        private Entry(final String uri, final String loaderId, final long size, final long lastModified,
+            final String contentHash, final byte[] spec) {
+            m_uri = uri;
+            m_loaderId = loaderId;
+            m_size = size;
+            m_lastModified = lastModified;
+            m_contentHash = contentHash;
+            m_spec = spec;
+        }
+    }
+}
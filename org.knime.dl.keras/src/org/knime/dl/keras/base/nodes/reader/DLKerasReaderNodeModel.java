@@ -56,6 +56,7 @@
 import java.net.URL;
 import java.nio.file.InvalidPathException;
 import java.util.List;
+import java.util.Optional;
 
 import org.knime.core.data.filestore.FileStore;
 import org.knime.core.node.CanceledExecutionException;
@@ -169,6 +170,17 @@ protected PortObjectSpec[] configure(final PortObjectSpec[] inSpecs) throws Inva
                 "File path '" + filePath + "' cannot be resolved to a valid URI. Message: " + e.getMessage(), e);
         }
         final DLKerasNetworkLoader<?> loader = getBackend(backendId);
+        try {
+            loader.validateSource(uri);
+        } catch (final DLInvalidSourceException e) {
+            throw new InvalidSettingsException(e.getMessage(), e);
+        }
+        // Reading the spec requires starting Python and loading the network. Skip this if the file did not change.
+        final Optional<DLKerasNetwork> cachedNetwork = DLKerasNetworkSpecCache.getInstance().get(uri, backendId);
+        if (cachedNetwork.isPresent()) {
+            m_network = cachedNetwork.get();
+            return new PortObjectSpec[]{new DLKerasNetworkPortObjectSpec(m_network.getSpec(), m_network.getClass())};
+        }
         try (final DLPythonContext context = new DLKerasPythonContext(m_pythonCommandConfig.getCommand())) {
             try {
                 DLPythonNetworkLoaderRegistry.getInstance();
@@ -180,11 +192,6 @@ protected PortObjectSpec[] configure(final PortObjectSpec[] inSpecs) throws Inva
                     "Selected Keras back end '" + loader.getName() + "' is not available anymore. "
                         + "Please check your local installation.\nDetails: " + e.getMessage());
             }
-            try {
-                loader.validateSource(uri);
-            } catch (final DLInvalidSourceException e) {
-                throw new InvalidSettingsException(e.getMessage(), e);
-            }
             try {
                 // TODO: We could allow the user to configure "loadTrainingConfig" flag.
                 m_network = new DLPythonDefaultNetworkReader<>(loader).read(new DLNetworkReferenceLocation(uri), true,
@@ -201,6 +208,7 @@ protected PortObjectSpec[] configure(final PortObjectSpec[] inSpecs) throws Inva
                 }
                 throw new InvalidSettingsException(message, e);
             }
+            DLKerasNetworkSpecCache.getInstance().put(uri, backendId, m_network);
             return new PortObjectSpec[]{new DLKerasNetworkPortObjectSpec(m_network.getSpec(), m_network.getClass())};
         }
     }
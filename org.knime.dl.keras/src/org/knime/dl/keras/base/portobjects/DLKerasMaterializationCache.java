@@ -0,0 +1,223 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.keras.base.portobjects;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+import org.knime.dl.core.DLNetworkLocation;
+import org.knime.dl.keras.core.DLKerasNetwork;
+import org.knime.dl.keras.core.DLKerasNetworkSpec;
+import org.knime.dl.keras.core.layers.DLKerasNetworkGraphSerializer;
+
+import com.google.common.hash.Hashing;
+
+/**
+ * Workspace-level store of Keras networks that were materialized from layer graphs. Materializing a graph requires
+ * generating, running and saving the network in Python, which takes several seconds. Graphs with the same architecture
+ * (as determined by {@link DLKerasNetworkGraphSerializer#hashGraph(java.util.List)}) and the same back end are
+ * materialized only once and copied from the store afterwards.
+ * <P>
+ * Note that a materialized network also contains the randomly initialized weights of its layers. Since the weights
+ * are not re-initialized on a cache hit, all networks that are copied from the same entry start training from the
+ * same initial weights. Caching is therefore opt-in and must be enabled via VM option
+ * {@link #MATERIALIZATION_CACHE_VM_OPT}.
+ * <P>
+ * Each entry consists of the saved network file and its compressed serialized spec. The spec is written last, so an
+ * entry is only visible once it is complete. Any failure to access the store is treated as a cache miss. The store
+ * keeps at most {@link #MAX_ENTRIES} entries, the least recently used ones are deleted first.
+ *
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ */
+final class DLKerasMaterializationCache {
+
+    /**
+     * @see #isEnabled()
+     */
+    static final String MATERIALIZATION_CACHE_VM_OPT = "knime.dl.keras.materializationcache";
+
+    static final int MAX_ENTRIES = 64;
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(DLKerasMaterializationCache.class);
+
+    private static final String NETWORK_FILE_EXTENSION = ".h5";
+
+    private static final String SPEC_FILE_EXTENSION = ".spec";
+
+    private static DLKerasMaterializationCache instance;
+
+    /**
+     * @return <code>true</code> if caching was enabled by the user via VM option {@link #MATERIALIZATION_CACHE_VM_OPT}
+     */
+    static boolean isEnabled() {
+        return Boolean.getBoolean(MATERIALIZATION_CACHE_VM_OPT);
+    }
+
+    static synchronized DLKerasMaterializationCache getInstance() {
+        if (instance == null) {
+            instance = new DLKerasMaterializationCache(
+                new File(KNIMEConstants.getKNIMEHomeDir(), "dl" + File.separator + "keras_materialization_cache"));
+        }
+        return instance;
+    }
+
+    private final File m_directory;
+
+    DLKerasMaterializationCache(final File directory) {
+        m_directory = directory;
+    }
+
+    /**
+     * Copies the cached network of the given layer graph to the given location.
+     *
+     * @param spec the spec of the unmaterialized network
+     * @param saveLocation the location to which to copy the materialized network, must be a local file
+     * @return the materialized network, empty if the graph has not been materialized before
+     */
+    Optional<DLKerasNetwork> get(final DLKerasUnmaterializedNetworkPortObjectSpec spec,
+        final DLNetworkLocation saveLocation) {
+        try {
+            final String key = createKey(spec);
+            final File specFile = new File(m_directory, key + SPEC_FILE_EXTENSION);
+            final File networkFile = new File(m_directory, key + NETWORK_FILE_EXTENSION);
+            if (!specFile.isFile() || !networkFile.isFile()) {
+                return Optional.empty();
+            }
+            final DLKerasNetworkSpec networkSpec;
+            try (final ObjectInputStream in = new ObjectInputStream(
+                new InflaterInputStream(new BufferedInputStream(Files.newInputStream(specFile.toPath()))))) {
+                networkSpec = (DLKerasNetworkSpec)in.readObject();
+            }
+            // The tensors of the cached network must be the ones the downstream nodes were configured with.
+            final DLKerasNetworkSpec inferredSpec = spec.getNetworkSpec();
+            if (!Arrays.equals(networkSpec.getInputSpecs(), inferredSpec.getInputSpecs())
+                || !Arrays.equals(networkSpec.getOutputSpecs(), inferredSpec.getOutputSpecs())) {
+                return Optional.empty();
+            }
+            Files.copy(networkFile.toPath(), new File(saveLocation.getURI()).toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+            // marks the entry as recently used, see prune()
+            specFile.setLastModified(System.currentTimeMillis());
+            return Optional.of(networkSpec.create(saveLocation, false));
+        } catch (final Exception e) {
+            // the cache is only an optimization
+            LOGGER.debug("Materialized Keras network could not be read from cache: " + e.getMessage(), e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores the given materialized network of the given layer graph.
+     *
+     * @param spec the spec of the unmaterialized network
+     * @param network the materialized network, must be stored in a local file
+     */
+    void put(final DLKerasUnmaterializedNetworkPortObjectSpec spec, final DLKerasNetwork network) {
+        try {
+            final String key = createKey(spec);
+            Files.createDirectories(m_directory.toPath());
+            final File tmpNetworkFile = File.createTempFile(key, ".tmp", m_directory);
+            Files.copy(new File(network.getSource().getURI()).toPath(), tmpNetworkFile.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+            Files.move(tmpNetworkFile.toPath(), new File(m_directory, key + NETWORK_FILE_EXTENSION).toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            final File tmpSpecFile = File.createTempFile(key, ".tmp", m_directory);
+            try (final ObjectOutputStream out = new ObjectOutputStream(
+                new DeflaterOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpSpecFile.toPath()))))) {
+                out.writeObject(network.getSpec());
+            }
+            Files.move(tmpSpecFile.toPath(), new File(m_directory, key + SPEC_FILE_EXTENSION).toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final Exception e) {
+            LOGGER.debug("Materialized Keras network could not be cached: " + e.getMessage(), e);
+        }
+        prune();
+    }
+
+    /**
+     * Deletes the least recently used entries that exceed {@link #MAX_ENTRIES}. The spec file of an entry is touched
+     * on each hit, so its modification time is the time of the last use of the entry.
+     */
+    synchronized void prune() {
+        final File[] specFiles = m_directory.listFiles((dir, name) -> name.endsWith(SPEC_FILE_EXTENSION));
+        if (specFiles == null || specFiles.length <= MAX_ENTRIES) {
+            return;
+        }
+        Arrays.sort(specFiles, Comparator.comparingLong(File::lastModified).reversed());
+        for (int i = MAX_ENTRIES; i < specFiles.length; i++) {
+            final String name = specFiles[i].getName();
+            final String key = name.substring(0, name.length() - SPEC_FILE_EXTENSION.length());
+            try {
+                // delete the spec first such that the entry is no longer visible
+                Files.deleteIfExists(specFiles[i].toPath());
+                Files.deleteIfExists(new File(m_directory, key + NETWORK_FILE_EXTENSION).toPath());
+            } catch (final IOException e) {
+                LOGGER.debug("Cached materialized Keras network could not be deleted: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private static String createKey(final DLKerasUnmaterializedNetworkPortObjectSpec spec) throws IOException {
+        return Hashing.sha256().newHasher() //
+            .putBytes(DLKerasNetworkGraphSerializer.hashGraph(spec.getOutputLayers()).asBytes()) //
+            .putUnencodedChars(spec.getNetworkType().getName()) //
+            .hash().toString();
+    }
+}
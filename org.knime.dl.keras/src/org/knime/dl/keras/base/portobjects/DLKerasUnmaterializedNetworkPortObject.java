@@ -51,6 +51,7 @@
 import java.io.ObjectOutputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.zip.ZipEntry;
 
 import org.knime.core.data.filestore.FileStore;
@@ -126,11 +127,27 @@ public DLKerasNetwork getNetwork() throws DLInvalidSourceException, IOException
     }
 
     @Override
-    public DLKerasNetwork getNetwork(final PythonCommand command) throws DLInvalidSourceException, IOException {
+    public synchronized DLKerasNetwork getNetwork(final PythonCommand command)
+        throws DLInvalidSourceException, IOException {
+        // Synchronized since the partitions of a streamed executor may request the network concurrently.
         if (m_content instanceof DLKerasUnmaterializedPortObjectContent) {
             final DLNetworkFileStoreLocation saveLocation = new DLNetworkFileStoreLocation(getFileStore(0));
-            try (final DLKerasPythonContext context = new DLKerasPythonContext(command)) {
-                m_content = ((DLKerasUnmaterializedPortObjectContent)m_content).materialize(context, saveLocation);
+            final DLKerasUnmaterializedPortObjectContent unmaterialized =
+                (DLKerasUnmaterializedPortObjectContent)m_content;
+            final DLKerasMaterializationCache cache =
+                DLKerasMaterializationCache.isEnabled() ? DLKerasMaterializationCache.getInstance() : null;
+            final Optional<DLKerasNetwork> cached =
+                cache != null ? cache.get(unmaterialized.getSpec(), saveLocation) : Optional.empty();
+            if (cached.isPresent()) {
+                m_content = new DLKerasMaterializedPortObjectContent(cached.get());
+            } else {
+                try (final DLKerasPythonContext context = new DLKerasPythonContext(command)) {
+                    m_content = unmaterialized.materialize(context, saveLocation);
+                }
+                if (cache != null) {
+                    cache.put(unmaterialized.getSpec(),
+                        ((DLKerasMaterializedPortObjectContent)m_content).getNetwork());
+                }
             }
         }
         final DLKerasMaterializedPortObjectContent materialized = (DLKerasMaterializedPortObjectContent)m_content;
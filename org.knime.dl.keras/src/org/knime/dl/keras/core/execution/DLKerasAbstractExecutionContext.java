@@ -70,7 +70,7 @@
 	protected DLKerasAbstractExecutionContext(final Class<N> networkType, final String name) {
 		m_networkType = networkType;
 		m_name = name;
-		m_layerDataFactory = new DLPythonDefaultTensorFactory();
+		m_layerDataFactory = DLPythonDefaultTensorFactory.createExecutionTensorFactory();
 	}
 
 	@Override
@@ -46,6 +46,7 @@
  */
 package org.knime.dl.keras.core.layers;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
@@ -65,6 +66,7 @@
 import org.knime.core.node.NodeSettings;
 import org.knime.core.node.NodeSettingsRO;
 import org.knime.core.node.NodeSettingsWO;
+import org.knime.core.util.FileUtil;
 import org.knime.dl.core.DLNetworkFileStoreLocation;
 import org.knime.dl.core.DLNetworkLocation;
 import org.knime.dl.core.DLNetworkReferenceLocation;
@@ -79,6 +81,12 @@
 import org.knime.dl.keras.core.struct.param.ParameterStructs;
 import org.knime.dl.keras.core.struct.param.ValidityException;
 
+import com.google.common.hash.Funnels;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+
 import gnu.trove.TIntArrayList;
 
 /**
@@ -159,99 +167,60 @@ public void visitBaseNetworkOutput(final DLKerasBaseNetworkTensorSpecOutput base
      */
     public static Map<Integer, DLKerasBaseNetworkTensorSpecOutput> writeGraphTo(final List<DLKerasLayer> outputLayers,
         final ObjectOutputStream objOut) throws IOException {
-        final NodeSettings graphSettings = new NodeSettings(CFG_KEY_GRAPH);
-        final AtomicInteger layerIndexCounter = new AtomicInteger();
-        final Map<DLKerasTensorSpecsOutput, Integer> layerIndices = new HashMap<>();
         try {
-            final TIntArrayList outputLayerIndices = new TIntArrayList(outputLayers.size());
-            // Collects all base network specs. We have to serialize them outside the node settings.
-            final LinkedHashMap<Integer, DLKerasNetworkSpec> baseNetworkSpecs = new LinkedHashMap<>(2);
-            // Collects all the base networks whose network location cannot be simply (de)serialized.
-            final LinkedHashMap<Integer, DLKerasBaseNetworkTensorSpecOutput> nonReferenceBaseNetworkLayers =
-                new LinkedHashMap<>(2);
-            new DLKerasNetworkGraphTopologicalOrderIterator(outputLayers).visitAll(new DLKerasLayerVisitor() {
-
-                @Override
-                public void visitOutput(final DLKerasInnerLayer outputLayer) throws Exception {
-                    visitHidden(outputLayer);
-                    outputLayerIndices.add(layerIndices.get(outputLayer));
-                }
-
-                @Override
-                public void visitHidden(final DLKerasInnerLayer innerLayer) throws Exception {
-                    final NodeSettingsWO layerSettings = saveLayer(innerLayer);
-                    final NodeSettingsWO parentSettings = layerSettings.addNodeSettings(CFG_KEY_LAYER_PARENTS);
-                    for (int i = 0; i < innerLayer.getNumParents(); i++) {
-                        final DLKerasTensorSpecsOutput parent = innerLayer.getParent(i);
-                        NodeSettingsWO parentSetting = parentSettings.addNodeSettings(Integer.toString(i));
-                        parentSetting.addInt(CFG_KEY_PARENT_INDEX, layerIndices.get(parent));
-                        parentSetting.addInt(CFG_KEY_INDEX_IN_PARENT, innerLayer.getTensorIndexInParent(i));
-                    }
-                }
-
-                @Override
-                public void visitInput(final DLKerasInputLayer inputLayer) throws Exception {
-                    saveLayer(inputLayer);
-                }
-
-                @Override
-                public void visitInputOutput(final DLKerasInputLayer inputOutputLayer) throws Exception {
-                    saveLayer(inputOutputLayer);
-                    outputLayerIndices.add(layerIndices.get(inputOutputLayer));
-                }
-
-                @Override
-                public void visitBaseNetworkOutput(final DLKerasBaseNetworkTensorSpecOutput baseNetworkOutput) {
-                    final NodeSettingsWO layerSettings = createLayerSettings(baseNetworkOutput);
-                    final int layerIndex = layerIndices.get(baseNetworkOutput);
-                    layerSettings.addInt(CFG_KEY_BASE_NETWORK_OUTPUT_INDEX,
-                        baseNetworkOutput.getBaseNetworkOutputIndex());
-                    final DLNetworkLocation baseNetworkSource = baseNetworkOutput.getBaseNetworkSource();
-                    if (baseNetworkSource instanceof DLNetworkReferenceLocation) {
-                        layerSettings.addString(CFG_KEY_BASE_NETWORK_SOURCE, baseNetworkSource.getURI().toString());
-                    } else {
-                        nonReferenceBaseNetworkLayers.put(layerIndex, baseNetworkOutput);
-                    }
-                    baseNetworkSpecs.put(layerIndex, baseNetworkOutput.getBaseNetworkSpec());
-                }
-
-                private NodeSettingsWO saveLayer(final DLKerasLayer layer)
-                    throws ValidityException, InvalidSettingsException {
-                    final NodeSettingsWO layerSettings = createLayerSettings(layer);
-                    // TODO: Avoid redundant creation of layer struct (not instance), should be cached somewhere.
-                    final StructInstance<MemberReadWriteInstance<?>, ?> layerInstance =
-                        ParameterStructs.createInstance(layer);
-                    final StructInstance<MemberWriteInstance<?>, ?> settingsInstance =
-                        NodeSettingsStructs.createNodeSettingsInstance(
-                            layerSettings.addNodeSettings(CFG_KEY_LAYER_PARAMS), layerInstance.struct());
-                    Structs.shallowCopyUnsafe(layerInstance, settingsInstance);
-                    layerSettings.addString(CFG_KEY_LAYER_RUNTIME_ID, layer.getRuntimeId());
-                    return layerSettings;
-                }
-
-                private NodeSettingsWO createLayerSettings(final DLKerasTensorSpecsOutput layer) {
-                    assert !layerIndices.containsKey(layer);
-                    final int layerIndex = layerIndexCounter.getAndIncrement();
-                    layerIndices.put(layer, layerIndex);
-                    final NodeSettingsWO layerSettings = graphSettings.addNodeSettings(Integer.toString(layerIndex));
-                    layerSettings.addString(CFG_KEY_LAYER_CLASS, layer.getClass().getCanonicalName());
-                    return layerSettings;
-                }
-            });
-            graphSettings.addIntArray(CFG_KEY_OUTPUT_LAYERS, outputLayerIndices.toNativeArray());
+            final DLKerasGraphSettingsWriter writer = new DLKerasGraphSettingsWriter(false);
+            new DLKerasNetworkGraphTopologicalOrderIterator(outputLayers).visitAll(writer);
+            final NodeSettings graphSettings = writer.getGraphSettings();
             // Write to stream.
-            objOut.writeInt(baseNetworkSpecs.size());
-            for (final Entry<Integer, DLKerasNetworkSpec> entry : baseNetworkSpecs.entrySet()) {
+            objOut.writeInt(writer.m_baseNetworkSpecs.size());
+            for (final Entry<Integer, DLKerasNetworkSpec> entry : writer.m_baseNetworkSpecs.entrySet()) {
                 objOut.writeInt(entry.getKey());
                 objOut.writeObject(entry.getValue());
             }
             objOut.writeObject(graphSettings);
-            return nonReferenceBaseNetworkLayers;
+            return writer.m_nonReferenceBaseNetworkLayers;
         } catch (final Exception e) {
             throw new IOException("An exception occurred while saving the Keras layer graph. See log for details.", e);
         }
     }
 
+    /**
+     * Computes a hash of the Keras network graph specified by the given output layers and their inputs (i.e.
+     * predecessor nodes). The hash only depends on the architecture of the graph, that is, the types, parameters and
+     * connections of its layers and the contents of its base networks. Runtime ids and the locations of base networks
+     * are not taken into account. Equal graphs therefore yield equal hashes across node resets and workflow sessions.
+     *
+     * @param outputLayers the output layers of the network to hash
+     * @return the hash of the network graph
+     * @throws IOException if failed to serialize the network graph or to read one of its base networks, e.g. because
+     *             it is not stored in a local file
+     * @since 4.5
+     */
+    public static HashCode hashGraph(final List<DLKerasLayer> outputLayers) throws IOException {
+        final Hasher hasher = Hashing.sha256().newHasher();
+        try {
+            final DLKerasGraphSettingsWriter writer = new DLKerasGraphSettingsWriter(true);
+            new DLKerasNetworkGraphTopologicalOrderIterator(outputLayers).visitAll(writer);
+            // Config entries are kept in insertion order, so their XML representation is deterministic.
+            writer.getGraphSettings().saveToXML(Funnels.asOutputStream(hasher));
+            for (final Entry<Integer, DLKerasBaseNetworkTensorSpecOutput> entry : writer.m_baseNetworkLayers
+                .entrySet()) {
+                final URI source = entry.getValue().getBaseNetworkSource().getURI();
+                final File file = FileUtil.getFileFromURL(source.toURL());
+                if (file == null || !file.isFile()) {
+                    throw new IOException("Base network '" + source + "' is not stored in a local file.");
+                }
+                hasher.putInt(entry.getKey());
+                hasher.putBytes(Files.asByteSource(file).hash(Hashing.sha256()).asBytes());
+            }
+        } catch (final IOException e) {
+            throw e;
+        } catch (final Exception e) {
+            throw new IOException("An exception occurred while hashing the Keras layer graph. See log for details.", e);
+        }
+        return hasher.hash();
+    }
+
     /**
      * Reads a Keras network graph from stream and returns its output layers. The entire graph can be accessed via the
      * layers' input (i.e. predecessor node) relationships.
@@ -366,4 +335,109 @@ private static void newLoadParentSettings(final DLKerasTensorSpecsOutput[] loade
             innerLayer.setTensorIndexInParent(j, indexInParent);
         }
     }
+
+    /**
+     * Collects the settings of a network graph while visiting its layers in topological order. In canonical mode,
+     * settings that identify a particular graph instance rather than its architecture (runtime ids, base network
+     * sources) are omitted.
+     */
+    private static final class DLKerasGraphSettingsWriter implements DLKerasLayerVisitor {
+
+        private final boolean m_canonical;
+
+        private final NodeSettings m_graphSettings = new NodeSettings(CFG_KEY_GRAPH);
+
+        private final AtomicInteger m_layerIndexCounter = new AtomicInteger();
+
+        private final Map<DLKerasTensorSpecsOutput, Integer> m_layerIndices = new HashMap<>();
+
+        private final TIntArrayList m_outputLayerIndices = new TIntArrayList();
+
+        // Collects all base network specs. We have to serialize them outside the node settings.
+        private final LinkedHashMap<Integer, DLKerasNetworkSpec> m_baseNetworkSpecs = new LinkedHashMap<>(2);
+
+        private final LinkedHashMap<Integer, DLKerasBaseNetworkTensorSpecOutput> m_baseNetworkLayers =
+            new LinkedHashMap<>(2);
+
+        // Collects all the base networks whose network location cannot be simply (de)serialized.
+        private final LinkedHashMap<Integer, DLKerasBaseNetworkTensorSpecOutput> m_nonReferenceBaseNetworkLayers =
+            new LinkedHashMap<>(2);
+
+        private DLKerasGraphSettingsWriter(final boolean canonical) {
+            m_canonical = canonical;
+        }
+
+        private NodeSettings getGraphSettings() {
+            m_graphSettings.addIntArray(CFG_KEY_OUTPUT_LAYERS, m_outputLayerIndices.toNativeArray());
+            return m_graphSettings;
+        }
+
+        @Override
+        public void visitOutput(final DLKerasInnerLayer outputLayer) throws Exception {
+            visitHidden(outputLayer);
+            m_outputLayerIndices.add(m_layerIndices.get(outputLayer));
+        }
+
+        @Override
+        public void visitHidden(final DLKerasInnerLayer innerLayer) throws Exception {
+            final NodeSettingsWO layerSettings = saveLayer(innerLayer);
+            final NodeSettingsWO parentSettings = layerSettings.addNodeSettings(CFG_KEY_LAYER_PARENTS);
+            for (int i = 0; i < innerLayer.getNumParents(); i++) {
+                final DLKerasTensorSpecsOutput parent = innerLayer.getParent(i);
+                NodeSettingsWO parentSetting = parentSettings.addNodeSettings(Integer.toString(i));
+                parentSetting.addInt(CFG_KEY_PARENT_INDEX, m_layerIndices.get(parent));
+                parentSetting.addInt(CFG_KEY_INDEX_IN_PARENT, innerLayer.getTensorIndexInParent(i));
+            }
+        }
+
+        @Override
+        public void visitInput(final DLKerasInputLayer inputLayer) throws Exception {
+            saveLayer(inputLayer);
+        }
+
+        @Override
+        public void visitInputOutput(final DLKerasInputLayer inputOutputLayer) throws Exception {
+            saveLayer(inputOutputLayer);
+            m_outputLayerIndices.add(m_layerIndices.get(inputOutputLayer));
+        }
+
+        @Override
+        public void visitBaseNetworkOutput(final DLKerasBaseNetworkTensorSpecOutput baseNetworkOutput) {
+            final NodeSettingsWO layerSettings = createLayerSettings(baseNetworkOutput);
+            final int layerIndex = m_layerIndices.get(baseNetworkOutput);
+            layerSettings.addInt(CFG_KEY_BASE_NETWORK_OUTPUT_INDEX, baseNetworkOutput.getBaseNetworkOutputIndex());
+            m_baseNetworkLayers.put(layerIndex, baseNetworkOutput);
+            if (!m_canonical) {
+                final DLNetworkLocation baseNetworkSource = baseNetworkOutput.getBaseNetworkSource();
+                if (baseNetworkSource instanceof DLNetworkReferenceLocation) {
+                    layerSettings.addString(CFG_KEY_BASE_NETWORK_SOURCE, baseNetworkSource.getURI().toString());
+                } else {
+                    m_nonReferenceBaseNetworkLayers.put(layerIndex, baseNetworkOutput);
+                }
+            }
+            m_baseNetworkSpecs.put(layerIndex, baseNetworkOutput.getBaseNetworkSpec());
+        }
+
+        private NodeSettingsWO saveLayer(final DLKerasLayer layer) throws ValidityException, InvalidSettingsException {
+            final NodeSettingsWO layerSettings = createLayerSettings(layer);
+            // TODO: Avoid redundant creation of layer struct (not instance), should be cached somewhere.
+            final StructInstance<MemberReadWriteInstance<?>, ?> layerInstance = ParameterStructs.createInstance(layer);
+            final StructInstance<MemberWriteInstance<?>, ?> settingsInstance = NodeSettingsStructs
+                .createNodeSettingsInstance(layerSettings.addNodeSettings(CFG_KEY_LAYER_PARAMS), layerInstance.struct());
+            Structs.shallowCopyUnsafe(layerInstance, settingsInstance);
+            if (!m_canonical) {
+                layerSettings.addString(CFG_KEY_LAYER_RUNTIME_ID, layer.getRuntimeId());
+            }
+            return layerSettings;
+        }
+
+        private NodeSettingsWO createLayerSettings(final DLKerasTensorSpecsOutput layer) {
+            assert !m_layerIndices.containsKey(layer);
+            final int layerIndex = m_layerIndexCounter.getAndIncrement();
+            m_layerIndices.put(layer, layerIndex);
+            final NodeSettingsWO layerSettings = m_graphSettings.addNodeSettings(Integer.toString(layerIndex));
+            layerSettings.addString(CFG_KEY_LAYER_CLASS, layer.getClass().getCanonicalName());
+            return layerSettings;
+        }
+    }
 }
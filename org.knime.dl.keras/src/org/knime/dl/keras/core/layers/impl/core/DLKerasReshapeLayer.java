@@ -58,6 +58,7 @@
 import org.knime.dl.keras.core.layers.dialog.tuple.DLKerasTuple;
 import org.knime.dl.keras.core.layers.dialog.tuple.DLKerasTuple.Constraint;
 import org.knime.dl.keras.core.struct.param.Parameter;
+import org.knime.dl.python.util.DLPythonUtils;
 
 /**
  * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
@@ -82,15 +83,29 @@ public void validateParameters() throws InvalidSettingsException {
 
     @Override
     protected void validateInputShape(Long[] inputShape) throws DLInvalidTensorSpecException {
-        //TODO instead of only checking the sizes if both shapes are fully defined we could calculate the unknown dimension and still check
         Long[] target = m_shape.getTuple();
-        if (DLLayerUtils.isShapeFullyDefined(target) && DLLayerUtils.isShapeFullyDefined(inputShape)) {
+        if (!DLLayerUtils.isShapeFullyDefined(target)) {
+            return;
+        }
+        Long targetNumElements = DLLayerUtils.numberOfElements(target);
+        if (DLLayerUtils.isShapeFullyDefined(inputShape)) {
             Long inputNumElems = DLLayerUtils.numberOfElements(inputShape);
-            Long targetNumElements = DLLayerUtils.numberOfElements(target);
             checkInputSpec(inputNumElems.equals(targetNumElements),
                 "The total number of elements of the input " + "shape must match"
                     + " the total number of elments of the target shape. Input shape was: "
                     + shapeAndElements(inputShape) + "; Target shape was: " + shapeAndElements(target) + ".");
+        } else {
+            // The unknown input dimensions must be able to make up for the remaining elements of the target shape.
+            long knownInputNumElems = 1;
+            for (Long l : inputShape) {
+                if (l != null) {
+                    knownInputNumElems *= l;
+                }
+            }
+            checkInputSpec(knownInputNumElems != 0 && targetNumElements % knownInputNumElems == 0,
+                "The total number of elements of the target shape must be a multiple of the number of elements of the"
+                    + " known dimensions of the input shape. Input shape was: " + DLPythonUtils.toPython(inputShape)
+                    + "; Target shape was: " + shapeAndElements(target) + ".");
         }
     }
 
@@ -100,7 +115,7 @@ private static String shapeAndElements(Long[] shape) {
 
     @Override
     protected Long[] inferOutputShape(Long[] inputShape) {
-        return m_shape.getTuple();
+        return m_shape.getTuple().clone();
     }
 
     @Override
@@ -162,7 +162,7 @@ protected void validateInputShape(final Long[] inputShape) throws DLInvalidTenso
     @Override
     protected Long[] inferOutputShape(final Long[] inputShape) {
         // Dosn't change the shape
-        return inputShape;
+        return inputShape.clone();
     }
 
     @Override
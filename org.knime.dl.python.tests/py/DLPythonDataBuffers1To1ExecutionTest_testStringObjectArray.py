@@ -0,0 +1,15 @@
+# -*- coding: utf-8 -*-
+
+import numpy as np
+from DLPythonDataBuffers import DLPythonStringBuffer
+
+def to_object_array(array):
+    # object arrays are serialized element-wise, trailing NUL bytes must be preserved
+    strings = np.empty(array.size, dtype=object)
+    strings[:] = [x + b'\x00' for x in array.ravel()]
+    return strings.reshape(array.shape)
+
+global test_out_data
+test_out_data = test_in_data.iloc[:,0].map(
+        lambda buff : DLPythonStringBuffer(to_object_array(buff.array))
+    ).to_frame('test_out_data')
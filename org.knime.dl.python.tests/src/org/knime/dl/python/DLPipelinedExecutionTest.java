@@ -0,0 +1,261 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.python;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.knime.dl.core.DLCanceledExecutionException;
+import org.knime.dl.core.DLDefaultFixedTensorShape;
+import org.knime.dl.core.DLDefaultTensorId;
+import org.knime.dl.core.DLDefaultTensorSpec;
+import org.knime.dl.core.DLDimensionOrder;
+import org.knime.dl.core.DLInvalidNetworkOutputException;
+import org.knime.dl.core.DLNetworkInputPreparer;
+import org.knime.dl.core.DLTensor;
+import org.knime.dl.core.DLTensorFactory;
+import org.knime.dl.core.DLTensorId;
+import org.knime.dl.core.DLTensorSpec;
+import org.knime.dl.core.data.DLReadableBuffer;
+import org.knime.dl.core.data.DLReadableDoubleBuffer;
+import org.knime.dl.core.data.DLReadableFloatBuffer;
+import org.knime.dl.core.data.DLWritableBuffer;
+import org.knime.dl.core.data.DLWritableDoubleBuffer;
+import org.knime.dl.core.data.DLWritableFloatBuffer;
+import org.knime.dl.core.execution.DLAbstractNetworkExecutionSession;
+import org.knime.dl.core.execution.DLBatchExecutor;
+import org.knime.dl.core.execution.DLExecutionMonitor;
+import org.knime.dl.core.execution.DLNetworkOutputConsumer;
+import org.knime.dl.testing.DLTestExecutionMonitor;
+import org.knime.dl.testing.DLTestingTensorFactory;
+import org.knime.dl.testing.backend.DLTestingBackendNetwork;
+import org.knime.dl.testing.backend.DLTestingBackendNetworkSpec;
+
+/**
+ * Tests that pipelined batch execution yields the same outputs in the same order as sequential execution.
+ *
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ */
+public class DLPipelinedExecutionTest {
+
+    private static final long BATCH_SIZE = 4;
+
+    private static final long EXAMPLE_SIZE = 3;
+
+    private static final DLTensorSpec IN_SPEC = new DLDefaultTensorSpec(new DLDefaultTensorId("in0"), "in0", BATCH_SIZE,
+        new DLDefaultFixedTensorShape(new long[]{EXAMPLE_SIZE}), float.class, DLDimensionOrder.TDHWC);
+
+    private static final DLTensorSpec OUT_SPEC = new DLDefaultTensorSpec(new DLDefaultTensorId("out0"), "out0",
+        BATCH_SIZE, new DLDefaultFixedTensorShape(new long[]{EXAMPLE_SIZE}), double.class, DLDimensionOrder.TDHWC);
+
+    @Test
+    public void testSequentialExecution() throws Exception {
+        testExecution(1, 18);
+    }
+
+    @Test
+    public void testPipelinedExecution() throws Exception {
+        testExecution(2, 18);
+        testExecution(3, 18);
+    }
+
+    @Test
+    public void testPipelinedExecutionOfSingleIncompleteBatch() throws Exception {
+        testExecution(2, 3);
+    }
+
+    @Test(expected = DLInvalidNetworkOutputException.class)
+    public void testPipelinedExecutionPropagatesConsumerFailure() throws Exception {
+        try (final DLTestingPipelineSession session = new DLTestingPipelineSession(new DLTestingInputPreparer(18),
+            new DLNetworkOutputConsumer() {
+
+                private int m_batches = 0;
+
+                @Override
+                public void accept(final Map<DLTensorId, DLTensor<? extends DLReadableBuffer>> output)
+                    throws DLCanceledExecutionException, DLInvalidNetworkOutputException {
+                    if (++m_batches == 2) {
+                        throw new DLInvalidNetworkOutputException("Consumer failure.");
+                    }
+                }
+
+                @Override
+                public void close() throws Exception {
+                    // no op
+                }
+            })) {
+            session.setPipelineDepth(2);
+            session.run(new DLTestExecutionMonitor());
+        }
+    }
+
+    private static void testExecution(final int pipelineDepth, final int numRows) throws Exception {
+        final List<Double> results = new ArrayList<>();
+        final List<Long> batchSizes = new ArrayList<>();
+        try (final DLTestingPipelineSession session =
+            new DLTestingPipelineSession(new DLTestingInputPreparer(numRows), new DLNetworkOutputConsumer() {
+
+                @Override
+                public void accept(final Map<DLTensorId, DLTensor<? extends DLReadableBuffer>> output)
+                    throws DLCanceledExecutionException, DLInvalidNetworkOutputException {
+                    final DLTensor<? extends DLReadableBuffer> tensor = output.get(OUT_SPEC.getIdentifier());
+                    final DLReadableDoubleBuffer buffer = (DLReadableDoubleBuffer)tensor.getBuffer();
+                    final long size = buffer.size();
+                    batchSizes.add(size / tensor.getExampleSize());
+                    for (long i = 0; i < size; i++) {
+                        results.add(buffer.readNextDouble());
+                    }
+                }
+
+                @Override
+                public void close() throws Exception {
+                    // no op
+                }
+            })) {
+            session.setPipelineDepth(pipelineDepth);
+            session.run(new DLTestExecutionMonitor());
+        }
+        Assert.assertEquals(numRows * EXAMPLE_SIZE, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            Assert.assertEquals(i / EXAMPLE_SIZE * 5.0, results.get(i), 0.0);
+        }
+        final long numBatches = (numRows + BATCH_SIZE - 1) / BATCH_SIZE;
+        Assert.assertEquals(numBatches, batchSizes.size());
+        Assert.assertEquals(numRows - (numBatches - 1) * BATCH_SIZE, (long)batchSizes.get(batchSizes.size() - 1));
+    }
+
+    /**
+     * Writes the index of each row into all of its elements.
+     */
+    private static final class DLTestingInputPreparer implements DLNetworkInputPreparer {
+
+        private final int m_numRows;
+
+        private int m_nextRow = 0;
+
+        private DLTestingInputPreparer(final int numRows) {
+            m_numRows = numRows;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return m_nextRow < m_numRows;
+        }
+
+        @Override
+        public void prepareNext(final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> input)
+            throws DLCanceledExecutionException {
+            final DLWritableFloatBuffer buffer = (DLWritableFloatBuffer)input.get(IN_SPEC.getIdentifier()).getBuffer();
+            for (int i = 0; i < BATCH_SIZE && hasNext(); i++, m_nextRow++) {
+                for (int j = 0; j < EXAMPLE_SIZE; j++) {
+                    buffer.put((float)m_nextRow);
+                }
+            }
+        }
+
+        @Override
+        public void close() throws Exception {
+            // no op
+        }
+    }
+
+    /**
+     * Multiplies its inputs by five.
+     */
+    private static final class DLTestingPipelineSession
+        extends DLAbstractNetworkExecutionSession<DLTestingBackendNetwork> {
+
+        private static final DLTestingBackendNetwork NETWORK = new DLTestingBackendNetwork(new DLTestingBackendNetworkSpec(
+            new DLTensorSpec[]{IN_SPEC}, new DLTensorSpec[0], new DLTensorSpec[]{OUT_SPEC}));
+
+        private static final DLTensorFactory TENSOR_FACTORY = new DLTestingTensorFactory();
+
+        private DLTestingPipelineSession(final DLNetworkInputPreparer inputPreparer,
+            final DLNetworkOutputConsumer outputConsumer) {
+            super(NETWORK, Set.of(IN_SPEC), Set.of(OUT_SPEC.getIdentifier()), inputPreparer, outputConsumer,
+                TENSOR_FACTORY);
+        }
+
+        @Override
+        protected void executeInternal(final DLExecutionMonitor monitor)
+            throws DLCanceledExecutionException, Exception {
+            executeBatches(monitor, new DLBatchExecutor() {
+
+                private double[] m_result;
+
+                @Override
+                public void execute(final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> input,
+                    final long batchSize, final DLExecutionMonitor m) {
+                    final DLReadableFloatBuffer buffer =
+                        (DLReadableFloatBuffer)input.get(IN_SPEC.getIdentifier()).getBuffer();
+                    m_result = new double[(int)(batchSize * EXAMPLE_SIZE)];
+                    for (int i = 0; i < m_result.length; i++) {
+                        m_result[i] = buffer.readNextFloat() * 5.0;
+                    }
+                }
+
+                @Override
+                public Map<DLTensorId, DLTensor<? extends DLReadableBuffer>> createOutput(final DLExecutionMonitor m) {
+                    final Map<DLTensorId, DLTensor<? extends DLReadableBuffer>> output = new HashMap<>(1);
+                    output.put(OUT_SPEC.getIdentifier(), m_tensorFactory.createReadableTensor(OUT_SPEC));
+                    return output;
+                }
+
+                @Override
+                public void fetchOutput(final Map<DLTensorId, DLTensor<? extends DLReadableBuffer>> output,
+                    final DLExecutionMonitor m) {
+                    ((DLWritableDoubleBuffer)output.get(OUT_SPEC.getIdentifier()).getBuffer()).putAll(m_result);
+                }
+            });
+        }
+    }
+}
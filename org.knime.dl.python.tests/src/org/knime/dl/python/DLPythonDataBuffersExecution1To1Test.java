@@ -55,6 +55,7 @@
 import java.util.Random;
 
 import org.apache.commons.lang3.RandomStringUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -427,4 +428,40 @@ public void testString() throws Exception {
             Assert.assertEquals(inputData.readNext() + "_suffix", outputData.readNext());
         }
     }
+
+    @Test
+    public void testStringObjectArrayWithLongString() throws Exception {
+        final DLTensorSpec spec = new DLDefaultTensorSpec(IN_TENSOR_ID, IN_TENSOR_NAME, IN_TENSOR_SHAPE, String.class,
+            DLDimensionOrder.TDHWC);
+        final long exampleSize = DLUtils.Shapes.getSize(DLUtils.Shapes.getFixedShape(spec.getShape()).get());
+        final DLPythonStringBuffer buff = new DLPythonStringBuffer(exampleSize);
+        // a single long string must not blow up the memory needed to deserialize the whole tensor in Python
+        buff.put(StringUtils.repeat('x', 100_000));
+        for (int j = 1; j < buff.getCapacity(); j++) {
+            buff.put(RandomStringUtils.random(m_rng.nextInt(MAX_STRING_LENGTH)));
+        }
+        final HashMap<DLTensorId, DLTensor<? extends DLWritableBuffer>> networkInput = new HashMap<>();
+        networkInput.put(spec.getIdentifier(), new DLDefaultTensor<>(spec, buff, exampleSize));
+
+        m_commands.setNetworkInputs(HANDLE, networkInput, CANCELABLE);
+        final String code = DLUtils.Files.readAllUTF8(DLUtils.Files.getFileFromBundle(BUNDLE_ID,
+            "py/DLPythonDataBuffers1To1ExecutionTest_testStringObjectArray.py"));
+        m_commands.getContext(CANCELABLE).executeInKernel(code, CANCELABLE);
+
+        final DLDefaultTensorSpec outputSpec = new DLDefaultTensorSpec(OUT_TENSOR_ID, REQUESTED_OUT_TENSORS[0],
+            OUT_TENSOR_SHAPE, String.class, DLDimensionOrder.TDHWC);
+        final HashMap<DLTensorId, DLTensor<? extends DLReadableBuffer>> networkOutput = new HashMap<>();
+        networkOutput.put(outputSpec.getIdentifier(),
+            new DLDefaultTensor<>(outputSpec, new DLPythonStringBuffer(exampleSize), exampleSize));
+        m_commands.getNetworkOutputs(HANDLE, networkOutput, CANCELABLE);
+
+        final DLReadableStringBuffer inputData = (DLReadableStringBuffer)networkInput.get(spec.getIdentifier())
+            .getBuffer();
+        final DLReadableStringBuffer outputData = (DLReadableStringBuffer)networkOutput
+            .get(outputSpec.getIdentifier()).getBuffer();
+        for (int i = 0; i < inputData.size(); i++) {
+            // the trailing NUL byte of each string must survive the serialization of object arrays
+            Assert.assertEquals(inputData.readNext() + "\0", outputData.readNext());
+        }
+    }
 }
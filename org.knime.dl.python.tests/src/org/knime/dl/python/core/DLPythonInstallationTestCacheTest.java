@@ -0,0 +1,126 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.python.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ */
+public class DLPythonInstallationTestCacheTest {
+
+	@Rule
+	public TemporaryFolder m_folder = new TemporaryFolder();
+
+	@Test
+	public void testHitAcrossInstances() throws IOException {
+		final File file = new File(m_folder.getRoot(), "tests");
+		final String key = createKey(m_folder.newFile("python"));
+		assertFalse(new DLPythonInstallationTestCache(file).contains(key));
+		new DLPythonInstallationTestCache(file).add(key);
+		// a new instance corresponds to a new session
+		assertTrue(new DLPythonInstallationTestCache(file).contains(key));
+	}
+
+	@Test
+	public void testRemoveAndClear() throws IOException {
+		final File file = new File(m_folder.getRoot(), "tests");
+		final DLPythonInstallationTestCache cache = new DLPythonInstallationTestCache(file);
+		final String key1 = createKey(m_folder.newFile("python1"));
+		final String key2 = createKey(m_folder.newFile("python2"));
+		cache.add(key1);
+		cache.add(key2);
+		cache.remove(key1);
+		assertFalse(new DLPythonInstallationTestCache(file).contains(key1));
+		assertTrue(new DLPythonInstallationTestCache(file).contains(key2));
+		cache.clear();
+		assertFalse(cache.contains(key2));
+		assertFalse(new DLPythonInstallationTestCache(file).contains(key2));
+	}
+
+	@Test
+	public void testKeyChangesWithExecutable() throws IOException {
+		final File executable = m_folder.newFile("python");
+		final String key = createKey(executable);
+		assertNotNull(key);
+		assertEquals(key, createKey(executable));
+		assertTrue(executable.setLastModified(executable.lastModified() - 10000));
+		assertNotEquals(key, createKey(executable));
+		assertNotEquals(key, DLPythonInstallationTestCache.createKey("other", "python", executable, "serializer"));
+		assertNotEquals(key, DLPythonInstallationTestCache.createKey("network", "python", executable, "other"));
+	}
+
+	@Test
+	public void testUnknownExecutableIsNotCached() {
+		assertNull(createKey(new File(m_folder.getRoot(), "missing" + File.separator + "python")));
+	}
+
+	@Test
+	public void testInvalidateAvailabilityCache() throws IOException {
+		final String key = createKey(m_folder.newFile("python"));
+		DLPythonInstallationTestCache.getInstance().add(key);
+		assertTrue(DLPythonInstallationTestCache.getInstance().contains(key));
+		DLPythonAbstractNetworkLoader.invalidateAvailabilityCache();
+		assertFalse(DLPythonInstallationTestCache.getInstance().contains(key));
+	}
+
+	private static String createKey(final File executable) {
+		return DLPythonInstallationTestCache.createKey("network", "python", executable, "serializer");
+	}
+}
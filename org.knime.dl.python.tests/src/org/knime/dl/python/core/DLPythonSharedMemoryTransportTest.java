@@ -0,0 +1,196 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.python.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+import org.knime.dl.core.DLDefaultFixedTensorShape;
+import org.knime.dl.core.DLDefaultTensorId;
+import org.knime.dl.core.DLDefaultTensorSpec;
+import org.knime.dl.core.DLDimensionOrder;
+import org.knime.dl.core.DLOffHeapTensorFactory;
+import org.knime.dl.core.DLTensor;
+import org.knime.dl.core.DLTensorSpec;
+import org.knime.dl.core.data.DLReadableBuffer;
+import org.knime.dl.core.data.DLReadableDoubleBuffer;
+import org.knime.dl.core.data.DLReadableFloatBuffer;
+import org.knime.dl.core.data.DLWritableBuffer;
+import org.knime.dl.core.data.DLWritableDoubleBuffer;
+import org.knime.dl.core.data.DLWritableFloatBuffer;
+import org.knime.dl.core.data.DLWritableLongBuffer;
+
+/**
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ */
+public class DLPythonSharedMemoryTransportTest {
+
+	private static final int HEADER_SIZE = 64;
+
+	private static final DLPythonDefaultTensorFactory TENSOR_FACTORY = new DLPythonDefaultTensorFactory();
+
+	private static DLTensorSpec createSpec(final String name, final Class<?> elementType) {
+		return new DLDefaultTensorSpec(new DLDefaultTensorId(name), name, 2, new DLDefaultFixedTensorShape(new long[] { 3 }),
+				elementType, DLDimensionOrder.TDHWC);
+	}
+
+	@Test
+	public void testWriteTensor() throws Exception {
+		try (final DLPythonSharedMemoryTransport transport = new DLPythonSharedMemoryTransport();
+				final DLTensor<? extends DLWritableBuffer> tensor = TENSOR_FACTORY
+						.createWritableTensor(createSpec("in0", float.class))) {
+			final float[] values = { 1f, -2.5f, 3f, 4f, 5.25f, Float.MAX_VALUE };
+			((DLWritableFloatBuffer) tensor.getBuffer()).putAll(values);
+			final String code = transport.writeTensor("in0", tensor);
+			assertTrue(code.startsWith("DLPythonSharedMemory.read_tensor("));
+			assertTrue(code.contains("'float32'"));
+			final Path path = transport.getRegionPath("in0");
+			final ByteBuffer written = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+			written.position(HEADER_SIZE);
+			final float[] actual = new float[values.length];
+			written.asFloatBuffer().get(actual);
+			assertArrayEquals(values, actual, 0f);
+		}
+	}
+
+	@Test
+	public void testReadTensor() throws Exception {
+		try (final DLPythonSharedMemoryTransport transport = new DLPythonSharedMemoryTransport();
+				final DLTensor<? extends DLReadableBuffer> tensor = TENSOR_FACTORY
+						.createReadableTensor(createSpec("out0", float.class))) {
+			final String code = transport.prepareReadTensor("out0", tensor);
+			assertTrue(code.startsWith("DLPythonSharedMemory.write_tensor("));
+			// emulate Python side: write four elements and the header
+			final float[] values = { 0.5f, 1.5f, 2.5f, 3.5f };
+			try (RandomAccessFile file = new RandomAccessFile(transport.getRegionPath("out0").toFile(), "rw")) {
+				final ByteBuffer bytes = ByteBuffer.allocate(HEADER_SIZE + values.length * Float.BYTES)
+						.order(ByteOrder.LITTLE_ENDIAN);
+				bytes.putLong(0, values.length);
+				bytes.position(HEADER_SIZE);
+				bytes.asFloatBuffer().put(values);
+				file.write(bytes.array());
+			}
+			transport.readTensor("out0", tensor);
+			final DLReadableFloatBuffer buffer = (DLReadableFloatBuffer) tensor.getBuffer();
+			assertEquals(values.length, buffer.size());
+			for (final float value : values) {
+				assertEquals(value, buffer.readNextFloat(), 0f);
+			}
+		}
+	}
+
+	@Test
+	public void testOffHeapTensors() throws Exception {
+		final DLOffHeapTensorFactory factory = new DLOffHeapTensorFactory(TENSOR_FACTORY);
+		try (final DLPythonSharedMemoryTransport transport = new DLPythonSharedMemoryTransport();
+				final DLTensor<? extends DLWritableBuffer> input = factory
+						.createWritableTensor(createSpec("in0", double.class));
+				final DLTensor<? extends DLReadableBuffer> output = factory
+						.createReadableTensor(createSpec("out0", double.class))) {
+			assertTrue(DLPythonSharedMemoryTransport.supports(input));
+			final double[] values = { 1d, -2.5d, 3d, 4d, 5.25d, Double.MAX_VALUE };
+			((DLWritableDoubleBuffer) input.getBuffer()).putAll(values);
+			assertTrue(transport.writeTensor("in0", input).contains("'float64'"));
+			final byte[] written = Files.readAllBytes(transport.getRegionPath("in0"));
+			final ByteBuffer bytes = ByteBuffer.wrap(written).order(ByteOrder.LITTLE_ENDIAN);
+			bytes.position(HEADER_SIZE);
+			final double[] actual = new double[values.length];
+			bytes.asDoubleBuffer().get(actual);
+			assertArrayEquals(values, actual, 0d);
+			// emulate Python side: echo the input into the output region
+			transport.prepareReadTensor("out0", output);
+			bytes.putLong(0, values.length);
+			try (RandomAccessFile file = new RandomAccessFile(transport.getRegionPath("out0").toFile(), "rw")) {
+				file.write(written, 0, HEADER_SIZE + values.length * Double.BYTES);
+			}
+			transport.readTensor("out0", output);
+			final DLReadableDoubleBuffer buffer = (DLReadableDoubleBuffer) output.getBuffer();
+			assertEquals(values.length, buffer.size());
+			for (final double value : values) {
+				assertEquals(value, buffer.readNextDouble(), 0d);
+			}
+		}
+	}
+
+	@Test
+	public void testRegionIsReusedAndDeletedOnClose() throws Exception {
+		final Path path;
+		try (final DLPythonSharedMemoryTransport transport = new DLPythonSharedMemoryTransport();
+				final DLTensor<? extends DLWritableBuffer> tensor = TENSOR_FACTORY
+						.createWritableTensor(createSpec("in0", long.class))) {
+			((DLWritableLongBuffer) tensor.getBuffer()).putAll(new long[] { 1, 2, 3 });
+			transport.writeTensor("in0", tensor);
+			path = transport.getRegionPath("in0");
+			tensor.getBuffer().reset();
+			((DLWritableLongBuffer) tensor.getBuffer()).putAll(new long[] { 4, 5, 6, 7, 8, 9 });
+			transport.writeTensor("in0", tensor);
+			assertEquals(path, transport.getRegionPath("in0"));
+			assertTrue(Files.exists(path));
+		}
+		assertFalse(Files.exists(path));
+	}
+
+	@Test
+	public void testSupports() throws Exception {
+		try (final DLTensor<? extends DLWritableBuffer> floatTensor = TENSOR_FACTORY
+				.createWritableTensor(createSpec("in0", float.class));
+				final DLTensor<? extends DLWritableBuffer> stringTensor = TENSOR_FACTORY
+						.createWritableTensor(createSpec("in1", String.class))) {
+			assertTrue(DLPythonSharedMemoryTransport.supports(floatTensor));
+			assertFalse(DLPythonSharedMemoryTransport.supports(stringTensor));
+		}
+	}
+}
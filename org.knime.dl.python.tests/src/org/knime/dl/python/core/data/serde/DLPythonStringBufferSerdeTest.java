@@ -0,0 +1,109 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.python.core.data.serde;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+import org.knime.dl.python.core.data.DLPythonStringBuffer;
+import org.knime.python.typeextension.Serializer;
+
+/**
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ */
+@SuppressWarnings("javadoc")
+public class DLPythonStringBufferSerdeTest {
+
+    private static final String[] VALUES = {"a", "", "Grüße", "漢字", "last"};
+
+    @Test
+    public void testSerializedLayoutIsColumnar() throws Exception {
+        final byte[] bytes = serialize(VALUES);
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(VALUES.length, buffer.getInt());
+        int expectedOffset = 0;
+        assertEquals(expectedOffset, buffer.getInt());
+        for (final String value : VALUES) {
+            expectedOffset += value.getBytes(StandardCharsets.UTF_8).length;
+            assertEquals(expectedOffset, buffer.getInt());
+        }
+        assertEquals(expectedOffset, buffer.remaining());
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        final DLPythonStringBuffer deserialized = (DLPythonStringBuffer)new DLPythonStringBufferDeserializerFactory()
+            .createDeserializer().deserialize(serialize(VALUES), null);
+        assertEquals(VALUES.length, deserialized.size());
+        for (final String value : VALUES) {
+            assertEquals(value, deserialized.readNext());
+        }
+    }
+
+    @Test
+    public void testRoundTripEmpty() throws Exception {
+        final DLPythonStringBuffer deserialized = (DLPythonStringBuffer)new DLPythonStringBufferDeserializerFactory()
+            .createDeserializer().deserialize(serialize(new String[0]), null);
+        assertEquals(0, deserialized.size());
+    }
+
+    private static byte[] serialize(final String[] values) throws Exception {
+        try (final DLPythonStringBuffer buffer = new DLPythonStringBuffer(values.length)) {
+            for (final String value : values) {
+                buffer.put(value);
+            }
+            @SuppressWarnings("unchecked")
+            final Serializer<DLPythonStringBuffer> serializer =
+                (Serializer<DLPythonStringBuffer>)new DLPythonStringBufferSerializerFactory().createSerializer();
+            return serializer.serialize(buffer);
+        }
+    }
+}
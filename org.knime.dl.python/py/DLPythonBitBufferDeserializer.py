@@ -52,5 +52,7 @@ sys.path.insert(0, os.path.dirname(os.path.abspath(__file__)))
 from DLPythonDataBuffers import DLPythonBitBuffer
 
 def deserialize(bytes):
-	return DLPythonBitBuffer(np.frombuffer(bytes, dtype=np.bool_))
-
+	# bits are packed eight to a byte (see numpy.packbits), preceded by their number as the last byte may be padded
+	size = int(np.frombuffer(bytes, dtype='<i8', count=1)[0])
+	packed = np.frombuffer(bytes, dtype=np.uint8, offset=8)
+	return DLPythonBitBuffer(np.unpackbits(packed)[:size].view(np.bool_))
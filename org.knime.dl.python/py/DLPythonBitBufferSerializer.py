@@ -52,9 +52,9 @@ sys.path.insert(0, os.path.dirname(os.path.abspath(__file__)))
 from DLPythonDataBuffers import DLPythonBitBuffer
 
 def serialize(value):
-	if not value.array.dtype == np.bool_:
-		value = DLPythonBitBuffer(value.array.astype(np.bool_))
+	# bits are packed eight to a byte (see numpy.packbits), preceded by their number as the last byte may be padded
+	array = np.asarray(value.array, dtype=np.bool_).reshape(-1)
 	buffer = BytesIO(bytes())
-	buffer.write(value.array.tobytes())
+	buffer.write(np.array([array.size], dtype='<i8').tobytes())
+	buffer.write(np.packbits(array).tobytes())
 	return buffer.getvalue()
-
@@ -57,6 +57,12 @@ _networks = {}
 
 _network_id_suffix = 0
 
+# Durations (in seconds) of network executions that were recorded since the last call of pop_execution_times.
+_execution_times = []
+
+# Network execution functions that were registered via register_execution, by key.
+_executions = {}
+
 def get_network(identifier):
     return _networks[identifier]
 
@@ -77,6 +83,55 @@ def remove_network(identifier):
     else:
         return False
 
+def record_execution_time(seconds):
+    _execution_times.append(seconds)
+
+def pop_execution_times():
+    times = list(_execution_times)
+    del _execution_times[:]
+    return times
+
+def register_execution(key, network_identifier, output_identifiers, output_shapes_name, record_time=False):
+    """
+    Compiles the execution of the given network into a function that can be invoked per batch via run_execution.
+    The inputs are read from and the outputs are written to the global workspace. The shapes of the outputs are only
+    written (as a DataFrame under the given name) if they differ from those of the previous invocation.
+    """
+    from timeit import default_timer
+    from DLPythonKernelGateway import global_workspace
+
+    network = get_network(network_identifier)
+    input_identifiers = [spec.identifier for spec in network.spec.input_specs]
+    previous_shapes = [None]
+
+    def execute(batch_size):
+        workspace = global_workspace()
+        in_data = {identifier: workspace[identifier] for identifier in input_identifiers}
+        if record_time:
+            execution_start = default_timer()
+        out_data = network.execute(in_data, batch_size, output_identifiers)
+        if record_time:
+            record_execution_time(default_timer() - execution_start)
+        shapes = {}
+        for name, data in out_data.items():
+            workspace[name] = data
+            # replace unknown dimensions with -1
+            shapes[name] = [-1 if d is None else d for d in data.iloc[0][0].array.shape]
+        if shapes == previous_shapes[0]:
+            return False
+        import pandas as pd
+        previous_shapes[0] = shapes
+        workspace[output_shapes_name] = pd.DataFrame({name: [shape] for name, shape in shapes.items()})
+        return True
+
+    _executions[key] = execute
+
+def run_execution(key, batch_size):
+    """
+    Returns True if the output shapes changed, i.e. if they need to be fetched again.
+    """
+    return _executions[key](batch_size)
+
 def _get_next_network_id():
     global _network_id_suffix
     identifier = 'network_' + str(_network_id_suffix)
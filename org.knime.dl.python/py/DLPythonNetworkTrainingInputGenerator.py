@@ -49,22 +49,27 @@
 """
 
 import abc
+import collections
 import warnings
 
 
 class DLPythonNetworkTrainingInputGenerator(object):
     __metaclass__ = abc.ABCMeta
 
-    def __init__(self, input_names, target_names, steps, batch_size):
+    def __init__(self, input_names, target_names, steps, batch_size, window_size=1):
         assert len(input_names) > 0
         assert len(target_names) > 0
         assert steps > 0
         assert batch_size > 0
+        assert window_size > 0
         self._input_names = input_names
         self._target_names = target_names
         self._size = steps * batch_size
         self._batch_size = batch_size
         self._steps = steps
+        self._window_size = window_size
+        # (batch index, batch) pairs that were fetched ahead as part of the current window
+        self._window = collections.deque(maxlen=window_size)
 
     @property
     def input_names(self):
@@ -86,13 +91,17 @@ class DLPythonNetworkTrainingInputGenerator(object):
     def steps(self):
         return self._steps
 
+    @property
+    def window_size(self):
+        return self._window_size
+
     def get_generator(self):
         i = 0
         while True:
             if i == self._steps:
                 i = 0
             try:
-                batch = self._get_batch(i)
+                batch = self._next_batch(i)
             except Exception as e:
                 warnings.warn("An exception of type " + str(type(e)) +
                               " occurred while fetching the next network input batch.\nCause: " + str(e))
@@ -100,6 +109,21 @@ class DLPythonNetworkTrainingInputGenerator(object):
             i += 1
             yield batch
 
+    def _next_batch(self, batch_index):
+        if not self._window or self._window[0][0] != batch_index:
+            self._window.clear()
+            # windows do not wrap around the end of an epoch
+            num_batches = min(self._window_size, self._steps - batch_index)
+            batches = self._get_batches(batch_index, num_batches)
+            self._window.extend(zip(range(batch_index, batch_index + num_batches), batches))
+        return self._window.popleft()[1]
+
+    def _get_batches(self, first_batch_index, num_batches):
+        """
+        Fetches the given number of consecutive batches. Subclasses may override this to fetch all of them at once.
+        """
+        return [self._get_batch(batch_index) for batch_index in range(first_batch_index, first_batch_index + num_batches)]
+
     @abc.abstractmethod
     def _get_batch(self, batch_index):
         raise NotImplementedError()
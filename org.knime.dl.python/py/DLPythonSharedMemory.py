@@ -0,0 +1,128 @@
+# -*- coding: utf-8 -*-
+
+# ------------------------------------------------------------------------
+#  Copyright by KNIME AG, Zurich, Switzerland
+#  Website: http://www.knime.com; Email: contact@knime.com
+#
+#  This program is free software; you can redistribute it and/or modify
+#  it under the terms of the GNU General Public License, Version 3, as
+#  published by the Free Software Foundation.
+#
+#  This program is distributed in the hope that it will be useful, but
+#  WITHOUT ANY WARRANTY; without even the implied warranty of
+#  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+#  GNU General Public License for more details.
+#
+#  You should have received a copy of the GNU General Public License
+#  along with this program; if not, see <http://www.gnu.org/licenses>.
+#
+#  Additional permission under GNU GPL version 3 section 7:
+#
+#  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+#  Hence, KNIME and ECLIPSE are both independent programs and are not
+#  derived from each other. Should, however, the interpretation of the
+#  GNU GPL Version 3 ("License") under any applicable laws result in
+#  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+#  you the additional permission to use and propagate KNIME together with
+#  ECLIPSE with only the license terms in place for ECLIPSE applying to
+#  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+#  license terms of ECLIPSE themselves allow for the respective use and
+#  propagation of ECLIPSE together with KNIME.
+#
+#  Additional permission relating to nodes for KNIME that extend the Node
+#  Extension (and in particular that are based on subclasses of NodeModel,
+#  NodeDialog, and NodeView) and that only interoperate with KNIME through
+#  standard APIs ("Nodes"):
+#  Nodes are deemed to be separate and independent programs and to not be
+#  covered works.  Notwithstanding anything to the contrary in the
+#  License, the License does not apply to Nodes, you are not required to
+#  license Nodes under the License, and you are granted a license to
+#  prepare and propagate Nodes, in each case even if such Nodes are
+#  propagated with or for interoperation with KNIME.  The owner of a Node
+#  may freely choose the license terms applicable to such Node, including
+#  when such Node is propagated with or for interoperation with KNIME.
+
+'''
+Counterpart of org.knime.dl.python.core.DLPythonSharedMemoryTransport. Wraps tensors that were written into
+memory-mapped files by the JVM and writes network outputs into such files. Each file starts with a header that holds
+the number of elements written by Python, followed by the tensor data in little-endian byte order.
+
+@author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+'''
+
+import os
+import sys
+
+import numpy as np
+import pandas as pd
+
+sys.path.insert(0, os.path.dirname(os.path.abspath(__file__)))
+from DLPythonDataBuffers import DLPythonBitBuffer
+from DLPythonDataBuffers import DLPythonByteBuffer
+from DLPythonDataBuffers import DLPythonDoubleBuffer
+from DLPythonDataBuffers import DLPythonFloatBuffer
+from DLPythonDataBuffers import DLPythonIntBuffer
+from DLPythonDataBuffers import DLPythonLongBuffer
+from DLPythonDataBuffers import DLPythonShortBuffer
+from DLPythonDataBuffers import DLPythonUnsignedByteBuffer
+from DLPythonKernelGateway import global_workspace
+
+_BUFFER_TYPES = {
+    'float32': DLPythonFloatBuffer,
+    'float64': DLPythonDoubleBuffer,
+    'int32': DLPythonIntBuffer,
+    'int64': DLPythonLongBuffer,
+    'int16': DLPythonShortBuffer,
+    'int8': DLPythonByteBuffer,
+    'uint8': DLPythonUnsignedByteBuffer,
+    'bits': DLPythonBitBuffer
+}
+
+# bit tensors are transmitted eight to a byte (see numpy.packbits)
+_PACKED_BITS = 'bits'
+
+
+def _dtype(dtype):
+    return np.dtype(dtype).newbyteorder('<')
+
+
+def read_tensor(name, path, offset, dtype, size, shape):
+    """
+    Wraps the tensor in the given file without copying it and puts it into the global workspace. The entry has the
+    same structure as the ones created by the table based transport.
+    The file is overwritten by the JVM when the next batch is transmitted, consumers must not hold on to the array.
+    """
+    if size > 0 and dtype == _PACKED_BITS:
+        packed = np.memmap(path, dtype=np.uint8, mode='r', offset=offset, shape=((size + 7) // 8,))
+        array = np.unpackbits(packed)[:size].view(np.bool_)
+    elif size > 0:
+        array = np.memmap(path, dtype=_dtype(dtype), mode='r', offset=offset, shape=(size,))
+    elif dtype == _PACKED_BITS:
+        array = np.empty((0,), dtype=np.bool_)
+    else:
+        array = np.empty((0,), dtype=_dtype(dtype))
+    buffer = _BUFFER_TYPES[dtype](array)
+    global_workspace()[name] = pd.DataFrame({name: [buffer], 'shape': [list(shape)]}, columns=[name, 'shape'])
+
+
+def write_tensor(name, path, offset, dtype, capacity):
+    """
+    Writes the tensor of the given global workspace entry into the given file.
+    """
+    array = global_workspace()[name].values[0][0].array
+    size = np.size(array)
+    if size > capacity:
+        raise ValueError("Tensor '{}' has {} elements but only {} elements were expected.".format(
+            name, size, capacity))
+    if dtype == _PACKED_BITS:
+        array = np.packbits(np.asarray(array, dtype=np.bool_).reshape(-1))
+        dtype = np.uint8
+    else:
+        array = np.ascontiguousarray(array, dtype=_dtype(dtype)).reshape(-1)
+    if array.size > 0:
+        region = np.memmap(path, dtype=_dtype(dtype), mode='r+', offset=offset, shape=(array.size,))
+        region[:] = array
+        del region
+    header = np.memmap(path, dtype='<i8', mode='r+', offset=0, shape=(1,))
+    header[0] = size
+    del header
@@ -52,16 +52,20 @@ sys.path.insert(0, os.path.dirname(os.path.abspath(__file__)))
 from DLPythonDataBuffers import DLPythonStringBuffer
 
 def deserialize(bytes):
-	n_values = np.frombuffer(bytes, dtype=np.int32, count=1)[0]
-	lengths = np.frombuffer(bytes, dtype=np.int32, count=n_values, offset=4) # first 4 bytes encode n_values
-	strings = []
-	offset = (n_values + 1) * 4 # an integer occupies 4 byte
-	for i in range(n_values):
-		length = lengths[i]
-		str = bytes[offset:offset + length]
-		strings.append(str)
-		offset += length
-
-	buffer = DLPythonStringBuffer(np.array(strings))
-	return buffer
-
+	# columnar layout: number of strings, offsets into the data block (number of strings + 1 entries), data block
+	n_values = int(np.frombuffer(bytes, dtype='<i4', count=1)[0])
+	offsets = np.frombuffer(bytes, dtype='<i4', count=n_values + 1, offset=4).astype(np.int64)
+	data = np.frombuffer(bytes, dtype=np.uint8, offset=(n_values + 2) * 4)
+	lengths = np.diff(offsets)
+	max_length = int(lengths.max()) if n_values > 0 else 0
+	if max_length == 0:
+		return DLPythonStringBuffer(np.zeros(n_values, dtype='S1'))
+	# scatter the data block into a zero-padded fixed width matrix at once, its rows are the (byte) strings. The index has
+	# one entry per byte of data, so its size does not depend on the length of the longest string.
+	total_length = int(offsets[-1])
+	shifts = np.arange(n_values, dtype=np.int64) * max_length - offsets[:-1]
+	indices = np.repeat(shifts, lengths)
+	indices += np.arange(total_length, dtype=np.int64)
+	padded = np.zeros(n_values * max_length, dtype=np.uint8)
+	padded[indices] = data[:total_length]
+	return DLPythonStringBuffer(padded.view('S' + str(max_length)))
@@ -52,15 +52,38 @@ sys.path.insert(0, os.path.dirname(os.path.abspath(__file__)))
 from DLPythonDataBuffers import DLPythonStringBuffer
 
 def serialize(value):
-	if not value.array.dtype == np.object:
-		value = DLPythonStringBuffer(value.array.astype(np.object))
-	array = value.array
-	array = array.ravel()
+	# columnar layout: number of strings, offsets into the data block (number of strings + 1 entries), data block
+	array = value.array.ravel()
+	n_values = array.size
+	if array.dtype == object:
+		# element-wise: converting into a fixed width array would strip trailing NUL bytes of the strings
+		strings = [s.encode('utf-8') if isinstance(s, str) else bytes(s) for s in array]
+		lengths = np.fromiter((len(s) for s in strings), dtype=np.int64, count=n_values)
+		data = np.frombuffer(b''.join(strings), dtype=np.uint8)
+	else:
+		# elements of fixed width arrays do not have trailing NUL bytes, they are indistinguishable from the padding
+		array = _to_utf8(array)
+		lengths = np.char.str_len(array).astype(np.int64) if n_values > 0 else np.zeros(0, dtype=np.int64)
+		if n_values > 0 and array.itemsize > 0:
+			# the strings are the rows of a zero-padded fixed width matrix, drop the padding at once
+			padded = array.view(np.uint8).reshape(n_values, array.itemsize)
+			data = padded[np.arange(array.itemsize) < lengths[:, np.newaxis]]
+		else:
+			data = np.zeros(0, dtype=np.uint8)
+	offsets = np.zeros(n_values + 1, dtype='<i4')
+	offsets[1:] = np.cumsum(lengths)
 	buffer = BytesIO(bytes())
-	buffer.write(len(array).to_bytes(4, 'little'))
-	lengths = np.array([len(s) for s in array], dtype=np.int32)
-	buffer.write(lengths.tobytes())
-	for str in array:
-		buffer.write(str)
+	buffer.write(np.array([n_values], dtype='<i4').tobytes())
+	buffer.write(offsets.tobytes())
+	buffer.write(data.tobytes())
 	return buffer.getvalue()
 
+def _to_utf8(array):
+	"""
+	Converts the given non-object array into a fixed width bytes array of UTF-8 encoded strings.
+	"""
+	if array.dtype.kind == 'S':
+		return array
+	if array.dtype.kind == 'U':
+		return np.char.encode(array, 'utf-8')
+	return array.astype(np.bytes_)
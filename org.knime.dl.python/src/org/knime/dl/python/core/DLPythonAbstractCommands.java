@@ -48,6 +48,9 @@
  */
 package org.knime.dl.python.core;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -80,6 +83,8 @@
 import org.knime.dl.core.DLCanceledExecutionException;
 import org.knime.dl.core.DLInvalidEnvironmentException;
 import org.knime.dl.core.DLNetworkInputProvider;
+import org.knime.dl.core.DLStageTimings;
+import org.knime.dl.core.DLStageTimings.DLStage;
 import org.knime.dl.core.DLTensor;
 import org.knime.dl.core.DLTensorId;
 import org.knime.dl.core.DLTensorSpec;
@@ -168,6 +173,14 @@ public abstract class DLPythonAbstractCommands implements DLPythonCommands {
     /** Name of the 'python version' DataFrame in python */
     public static final String PYTHON_VERSION_NAME = "python_version";
 
+    /** Name of the DataFrame in python that holds the measured network execution times */
+    public static final String EXECUTION_TIMES_NAME = "execution_times";
+
+    /**
+     * Printed by the per-batch execution call if the output shapes differ from those of the previous batch.
+     */
+    private static final String OUTPUT_SHAPES_CHANGED_MSG = "[DL Python output shapes changed]";
+
     private static final String INSTALLATION_TEST_OK_MSG = "[DL Python installation test: OK]";
 
     private static final String INSTALLATION_TEST_FAIL_MSG = "[DL Python installation test: FAIL]";
@@ -184,11 +197,34 @@ public abstract class DLPythonAbstractCommands implements DLPythonCommands {
 
     private final Map<DLTensorId, DLPythonTableChunker> m_tableChunkers = new HashMap<>();
 
+    /**
+     * Non-null if numeric tensors are transferred via shared memory instead of the kernel connection.
+     */
+    private final DLPythonSharedMemoryTransport m_sharedMemoryTransport =
+        DLPythonSharedMemoryTransport.isEnabled() ? new DLPythonSharedMemoryTransport() : null;
+
     /**
      * Set to <code>true</code> if the setup steps in {@link #getContext()} were successful.
      */
     private boolean m_contextSetup = false;
 
+    private DLStageTimings m_stageTimings = DLStageTimings.DISABLED;
+
+    private int m_trainingDataWindowSize = 1;
+
+    /**
+     * Keys of the execution functions that were registered in Python, by network, requested outputs and whether
+     * execution times are recorded.
+     */
+    private final Map<String, String> m_registeredExecutions = new HashMap<>();
+
+    /**
+     * The output shapes that were last fetched from Python, stay valid until Python reports a change.
+     */
+    private final Map<String, long[]> m_outputShapes = new HashMap<>();
+
+    private boolean m_outputShapesChanged = true;
+
     /**
      * Creates a new instance of this commands class that uses the given context to communicate with Python.
      *
@@ -339,10 +375,25 @@ public void saveNetwork(final DLPythonNetworkHandle network, final String path,
     public void setNetworkInputs(final DLPythonNetworkHandle network,
         final Map<? extends DLTensorId, ? extends DLTensor<? extends DLWritableBuffer>> inputs,
         final DLCancelable cancelable) throws DLInvalidEnvironmentException, IOException, DLCanceledExecutionException {
+        final long start = m_stageTimings.start();
+        final long numBytes = m_stageTimings.getSizeInBytes(inputs);
+        final DLPythonSourceCodeBuilder sharedMemoryCode =
+            DLPythonUtils.createSourceCodeBuilder().a("import DLPythonSharedMemory");
+        boolean usesSharedMemory = false;
         for (final Entry<? extends DLTensorId, ? extends DLTensor<? extends DLWritableBuffer>> input : inputs
             .entrySet()) {
             final DLTensorId tensorIdentifier = input.getKey();
             final DLTensor<? extends DLWritableBuffer> tensor = input.getValue();
+            if (usesSharedMemoryTransport(tensor)) {
+                try {
+                    sharedMemoryCode
+                        .n(m_sharedMemoryTransport.writeTensor(tensorIdentifier.getIdentifierString(), tensor));
+                } catch (final IOException ex) {
+                    throw new RuntimeException("Transmitting input data to Python failed.", ex);
+                }
+                usesSharedMemory = true;
+                continue;
+            }
             final TableChunker tableChunker = createSingleTensorTableChunker(tensorIdentifier, tensor);
             try {
                 getContext(cancelable).putDataInKernel(tensorIdentifier.getIdentifierString(), tableChunker, 1,
@@ -351,6 +402,10 @@ public void setNetworkInputs(final DLPythonNetworkHandle network,
                 throw new RuntimeException("Transmitting input data to Python failed.", ex);
             }
         }
+        if (usesSharedMemory) {
+            getContext(cancelable).executeInKernel(sharedMemoryCode.toString(), cancelable);
+        }
+        m_stageTimings.stop(DLStage.INPUT_TRANSFER, start, numBytes);
     }
 
     @Override
@@ -359,21 +414,42 @@ public void executeNetwork(final DLPythonNetworkHandle network, final Set<? exte
         throws DLInvalidEnvironmentException, IOException, DLCanceledExecutionException {
         final String outputIdentifiers = requestedOutputs.stream().map((id) -> "'" + id.getIdentifierString() + "'")
             .collect(Collectors.joining(", ", "[", "]"));
-        final DLPythonSourceCodeBuilder b = DLPythonUtils.createSourceCodeBuilder() //
+        final String executionKey = getExecutionKey(network, outputIdentifiers, cancelable);
+        // the execution itself is registered once, per batch we only invoke it
+        final String executionCode = DLPythonUtils.createSourceCodeBuilder() //
             .a("import DLPythonNetwork") //
-            .n("network = DLPythonNetwork.get_network(").as(network.getIdentifier()).a(")") //
-            .n("in_data = {}") //
-            .n("for input_spec in network.spec.input_specs:") //
-            .n().t().a("in_data[input_spec.identifier] = globals()[input_spec.identifier]") //
-            .n("out_data = network.execute(in_data, ").a(batchSize).a(", ").a(outputIdentifiers).a(")") //
-            .n("import pandas as pd") //
-            .n("output_shapes = {}") //
-            .n("for name, data in out_data.items():") //
-            .n().t().a("shape = [list(data.iloc[0][0].array.shape)]").n().t()
-            .a("output_shapes[name] = [-1 if d is None else d for d in shape]") // replace None with -1
-            .n().t().a("globals()[name] = data").n("globals()[").as(OUTPUT_SHAPES_NAME)
-            .a("] = pd.DataFrame(output_shapes)");
-        getContext(cancelable).executeInKernel(b.toString(), cancelable);
+            .n("if DLPythonNetwork.run_execution(").as(executionKey).a(", ").a(batchSize).a("):") //
+            .n().t().a("print(").as(OUTPUT_SHAPES_CHANGED_MSG).a(")").toString();
+        final long start = m_stageTimings.start();
+        final String output = getContext(cancelable).executeInKernel(executionCode, cancelable)[0];
+        m_stageTimings.stop(DLStage.NETWORK_EXECUTION, start);
+        if (output.contains(OUTPUT_SHAPES_CHANGED_MSG)) {
+            m_outputShapesChanged = true;
+        }
+    }
+
+    private String getExecutionKey(final DLPythonNetworkHandle network, final String outputIdentifiers,
+        final DLCancelable cancelable)
+        throws DLInvalidEnvironmentException, IOException, DLCanceledExecutionException {
+        final boolean recordTime = m_stageTimings.isEnabled();
+        final String registrationId = network.getIdentifier() + outputIdentifiers + recordTime;
+        String executionKey = m_registeredExecutions.get(registrationId);
+        if (executionKey == null) {
+            executionKey = "execution_" + m_registeredExecutions.size();
+            final DLPythonSourceCodeBuilder b = DLPythonUtils.createSourceCodeBuilder() //
+                .a("import DLPythonNetwork") //
+                .n("DLPythonNetwork.register_execution(").as(executionKey).a(", ").as(network.getIdentifier())
+                /**/ .a(", ").a(outputIdentifiers).a(", ").as(OUTPUT_SHAPES_NAME).a(", record_time=").a(recordTime)
+                /**/ .a(")");
+            final String error = getContext(cancelable).executeInKernel(b.toString(), cancelable)[1];
+            if (!error.isEmpty()) {
+                throw new IOException("Network execution could not be set up in Python.\nCause: " + error);
+            }
+            m_registeredExecutions.put(registrationId, executionKey);
+            // a new execution function has not reported any shapes yet
+            m_outputShapesChanged = true;
+        }
+        return executionKey;
     }
 
     @Override
@@ -381,6 +457,18 @@ public <T extends DLTensorId> Map<T, long[]> getNetworkOutputShapes(final DLPyth
         final Set<T> outputs, final DLCancelable cancelable)
         throws DLInvalidEnvironmentException, IOException, DLCanceledExecutionException {
         final Map<T, long[]> shapes = new HashMap<>(outputs.size());
+        if (!m_outputShapesChanged) {
+            for (final T output : outputs) {
+                final long[] shape = m_outputShapes.get(output.getIdentifierString());
+                if (shape != null) {
+                    shapes.put(output, shape.clone());
+                }
+            }
+            if (shapes.size() == outputs.size()) {
+                return shapes;
+            }
+            shapes.clear();
+        }
         final Map<String, T> idMap =
             outputs.stream().collect(Collectors.toMap(DLTensorId::getIdentifierString, Function.identity()));
         getContext(cancelable).getDataFromKernel(OUTPUT_SHAPES_NAME,
@@ -393,9 +481,10 @@ public void addRow(final Row row) {
                         final Cell shapeCell = row.getCell(i);
                         try {
                             final int[] intShape = shapeCell.getIntegerArrayValue();
+                            final long[] shape = Arrays.stream(intShape).mapToLong(d -> d).toArray();
+                            m_outputShapes.put(tensorNames[i], shape);
                             if (idMap.containsKey(tensorNames[i])) {
-                                shapes.put(idMap.get(tensorNames[i]),
-                                    Arrays.stream(intShape).mapToLong(d -> d).toArray());
+                                shapes.put(idMap.get(tensorNames[i]), shape.clone());
                             }
                         } catch (final IllegalStateException e) {
                             LOGGER.error(
@@ -422,6 +511,7 @@ public Object getTable() {
                 "Python didn't return a shape for each output. The shape is missing for outputs "
                     + Sets.difference(outputs, shapes.keySet()) + ".");
         }
+        m_outputShapesChanged = false;
         return shapes;
     }
 
@@ -430,10 +520,37 @@ public Object getTable() {
     public void getNetworkOutputs(final DLPythonNetworkHandle network,
         final Map<? extends DLTensorId, ? extends DLTensor<? extends DLReadableBuffer>> outputs,
         final DLCancelable cancelable) throws DLInvalidEnvironmentException, IOException, DLCanceledExecutionException {
+        final long start = m_stageTimings.start();
+        if (m_sharedMemoryTransport != null) {
+            final DLPythonSourceCodeBuilder b =
+                DLPythonUtils.createSourceCodeBuilder().a("import DLPythonSharedMemory");
+            boolean usesSharedMemory = false;
+            for (final Entry<? extends DLTensorId, ? extends DLTensor<? extends DLReadableBuffer>> output : outputs
+                .entrySet()) {
+                if (usesSharedMemoryTransport(output.getValue())) {
+                    b.n(m_sharedMemoryTransport.prepareReadTensor(output.getKey().getIdentifierString(),
+                        output.getValue()));
+                    usesSharedMemory = true;
+                }
+            }
+            if (usesSharedMemory) {
+                getContext(cancelable).executeInKernel(b.toString(), cancelable);
+                for (final Entry<? extends DLTensorId, ? extends DLTensor<? extends DLReadableBuffer>> output : outputs
+                    .entrySet()) {
+                    if (usesSharedMemoryTransport(output.getValue())) {
+                        m_sharedMemoryTransport.readTensor(output.getKey().getIdentifierString(), output.getValue());
+                    }
+                }
+            }
+        }
         for (final Entry<? extends DLTensorId, ? extends DLTensor<? extends DLReadableBuffer>> output : outputs
             .entrySet()) {
             final DLTensorId tensorIdentifier = output.getKey();
             final DLTensor<? extends DLReadableBuffer> tensor = output.getValue();
+            if (usesSharedMemoryTransport(tensor)) {
+                // already read above
+                continue;
+            }
 
             getContext(cancelable).getDataFromKernel(tensorIdentifier.getIdentifierString(),
                 (tableSpec, tableSize) -> new TableCreator<DLTensor<? extends DLReadableBuffer>>() {
@@ -477,6 +594,7 @@ public DLTensor<? extends DLReadableBuffer> getTable() {
                     }
                 }, cancelable);
         }
+        m_stageTimings.stop(DLStage.OUTPUT_TRANSFER, start, m_stageTimings.getSizeInBytes(outputs));
     }
 
     @Override
@@ -517,11 +635,12 @@ public void trainNetwork(final DLPythonNetworkHandle network, final DLNetworkInp
             .n("from DLKerasNetworkTrainingInputGenerator import DLKerasNetworkTrainingInputGenerator") //
             .n("training_data_supplier = DLKerasNetworkTrainingInputGenerator(network, ")
             /**/ .a(trainingInputProvider.getNumBatches()).a(", network.spec.training_config.batch_size, ")
-            /**/ .as("request_training_data").a(")");
+            /**/ .as("request_training_data").a(", window_size=").a(m_trainingDataWindowSize).a(")");
         if (validationInputProvider != null) {
             b.n("validation_data_supplier = DLKerasNetworkTrainingInputGenerator(network, ")
                 .a(validationInputProvider.getNumBatches()).a(", network.spec.training_config.validation_batch_size, ")
-                .as("request_validation_data").a(", is_validation_data=True)");
+                .as("request_validation_data").a(", is_validation_data=True, window_size=")
+                .a(m_trainingDataWindowSize).a(")");
         } else {
             b.n("validation_data_supplier = None");
         }
@@ -534,6 +653,8 @@ public void trainNetwork(final DLPythonNetworkHandle network, final DLNetworkInp
         try {
             final DLPythonNetworkTrainingTaskHandler trainingTaskHandler = createNetworkTrainingTaskHandler(context,
                 monitor, trainingInputProvider, validationInputProvider, this::createSingleTensorTableChunker);
+            trainingTaskHandler.setStageTimings(m_stageTimings);
+            trainingTaskHandler.setTableChunkerAppender(this::appendToSingleTensorTableChunker);
             // NB: We use our own DLTrainingTask to make sure the message handler is not unregistered.
             // Unregistering the handler can cause errors if requests for training data come in after the training is done.
             @SuppressWarnings("resource") // Closed by the kernel
@@ -563,12 +684,50 @@ public void trainNetwork(final DLPythonNetworkHandle network, final DLNetworkInp
         }
     }
 
+    @Override
+    public void setStageTimings(final DLStageTimings stageTimings) {
+        m_stageTimings = checkNotNull(stageTimings);
+    }
+
+    @Override
+    public void setTrainingDataWindowSize(final int windowSize) {
+        checkArgument(windowSize > 0, "Training data window size must be positive.");
+        m_trainingDataWindowSize = windowSize;
+    }
+
+    @Override
+    public void fetchBackendStageTimings(final DLCancelable cancelable)
+        throws DLInvalidEnvironmentException, IOException, DLCanceledExecutionException {
+        if (!m_stageTimings.isEnabled()) {
+            return;
+        }
+        final DLPythonSourceCodeBuilder b = DLPythonUtils.createSourceCodeBuilder() //
+            .a("import DLPythonNetwork") //
+            .n("import pandas as pd") //
+            .n("global ").a(EXECUTION_TIMES_NAME) //
+            .n(EXECUTION_TIMES_NAME).a(" = pd.DataFrame.from_dict({").as(EXECUTION_TIMES_NAME)
+            .a(":[';'.join(str(t) for t in DLPythonNetwork.pop_execution_times())]})");
+        final DLPythonContext context = getContext(cancelable);
+        context.executeInKernel(b.toString(), cancelable);
+        final String executionTimes = (String)context.getDataFromKernel(EXECUTION_TIMES_NAME,
+            (s, ts) -> new SingleValueTableCreator<>(s, Cell::getStringValue), cancelable).getTable();
+        if (executionTimes.isEmpty()) {
+            return;
+        }
+        for (final String seconds : executionTimes.split(";")) {
+            m_stageTimings.record(DLStage.BACKEND_COMPUTATION, (long)(Double.parseDouble(seconds) * 1e9), 0);
+        }
+    }
+
     /**
      * Closes the underlying {@link DLPythonContext Python context}.
      */
     @Override
     public synchronized void close() {
         m_context.close();
+        if (m_sharedMemoryTransport != null) {
+            m_sharedMemoryTransport.close();
+        }
     }
 
     protected String getRegisterNetworkCode(final String networkVariable, final String networkIdentifier) {
@@ -633,6 +792,10 @@ protected Version getPythonVersion(final DLCancelable cancelable)
         return new Version(pythonVersion);
     }
 
+    private boolean usesSharedMemoryTransport(final DLTensor<?> tensor) {
+        return m_sharedMemoryTransport != null && DLPythonSharedMemoryTransport.supports(tensor);
+    }
+
     private TableChunker createSingleTensorTableChunker(final DLTensorId tensorId,
         final DLTensor<? extends DLWritableBuffer> tensor) throws IOException {
         DLPythonTableChunker tableChunker = m_tableChunkers.get(tensorId);
@@ -644,6 +807,20 @@ private TableChunker createSingleTensorTableChunker(final DLTensorId tensorId,
         return tableChunker;
     }
 
+    /**
+     * Adds the given tensor as another row to the table chunker that was last
+     * {@link #createSingleTensorTableChunker(DLTensorId, DLTensor) created} for the given tensor identifier.
+     */
+    private TableChunker appendToSingleTensorTableChunker(final DLTensorId tensorId,
+        final DLTensor<? extends DLWritableBuffer> tensor) throws IOException {
+        final DLPythonTableChunker tableChunker = m_tableChunkers.get(tensorId);
+        if (tableChunker == null) {
+            return createSingleTensorTableChunker(tensorId, tensor);
+        }
+        tableChunker.appendTensor(tensor);
+        return tableChunker;
+    }
+
     private static byte[] getNotMissingForLength(final int length) {
         final int entries = length / 8 + 1;
         final byte[] missings = new byte[entries];
@@ -651,6 +828,10 @@ private static byte[] getNotMissingForLength(final int length) {
         return missings;
     }
 
+    /**
+     * Transmits one or more tensors of the same identifier, one per row. Each tensor is serialized as soon as it is
+     * added, so its buffer can be reused right away.
+     */
     private static final class DLPythonTableChunker implements TableChunker {
 
         private final DLPythonResettableTableIterator m_iterator;
@@ -661,7 +842,14 @@ private static final class DLPythonTableChunker implements TableChunker {
 
         private final TableSpec m_tableSpec;
 
-        private final Row m_row;
+        private final String m_identifier;
+
+        private final Cell m_shapeCell;
+
+        /**
+         * Rows are reused, only the first {@link DLPythonResettableTableIterator#m_numRows} are transmitted.
+         */
+        private final List<Row> m_rows = new ArrayList<>(1);
 
         private DLPythonTableChunker(final DLTensor<? extends DLWritableBuffer> tensor) {
             // Create the serializer
@@ -679,17 +867,14 @@ private DLPythonTableChunker(final DLTensor<? extends DLWritableBuffer> tensor)
             // Create the shape cell (the same every time)
             final long[] shape = DLUtils.Shapes.getFixedShape(tensor.getSpec().getShape())
                 .orElseThrow(() -> new IllegalStateException("Execution spec does not contain fixed shape."));
-            final Cell shapeCell = new CellImpl(shape, getNotMissingForLength(shape.length));
+            m_shapeCell = new CellImpl(shape, getNotMissingForLength(shape.length));
 
             // Create the table spec
-            final String identifier = tensor.getSpec().getIdentifier().getIdentifierString();
-            m_tableSpec = new TableSpecImpl(new Type[]{Type.BYTES, Type.LONG_LIST}, new String[]{identifier, "shape"},
-                Collections.singletonMap(identifier, extension.getId()));
-
-            // Create the row
-            m_row = new RowImpl(identifier, 2);
-            m_row.setCell(shapeCell, 1);
-            m_iterator = new DLPythonResettableTableIterator(m_tableSpec, m_row);
+            m_identifier = tensor.getSpec().getIdentifier().getIdentifierString();
+            m_tableSpec = new TableSpecImpl(new Type[]{Type.BYTES, Type.LONG_LIST},
+                new String[]{m_identifier, "shape"}, Collections.singletonMap(m_identifier, extension.getId()));
+
+            m_iterator = new DLPythonResettableTableIterator(m_tableSpec, m_rows);
         }
 
         @Override
@@ -716,9 +901,21 @@ public TableSpec getTableSpec() {
         }
 
         private void resetWithNextTensor(final DLTensor<? extends DLWritableBuffer> tensor) throws IOException {
+            m_iterator.reset(0);
+            appendTensor(tensor);
+        }
+
+        private void appendTensor(final DLTensor<? extends DLWritableBuffer> tensor) throws IOException {
+            final int rowIndex = m_iterator.m_numRows;
+            if (rowIndex == m_rows.size()) {
+                // NB: rows are keyed by the tensor identifier for backward compatibility, keys need not be unique
+                final Row row = new RowImpl(m_identifier, 2);
+                row.setCell(m_shapeCell, 1);
+                m_rows.add(row);
+            }
             final Cell cell = new CellImpl(m_serializer.serialize((DLPythonDataBuffer<?>)tensor.getBuffer()));
-            m_row.setCell(cell, 0);
-            m_iterator.reset();
+            m_rows.get(rowIndex).setCell(cell, 0);
+            m_iterator.reset(rowIndex + 1);
             m_hasNextChunk = true;
         }
     }
@@ -727,29 +924,30 @@ private static final class DLPythonResettableTableIterator implements TableItera
 
         private final TableSpec m_tableSpec;
 
-        private final Row m_row;
+        private final List<Row> m_rows;
 
-        private boolean m_hasNext = true;
+        private int m_numRows = 0;
 
-        private DLPythonResettableTableIterator(final TableSpec tableSpec, final Row row) {
+        private int m_nextRow = 0;
+
+        private DLPythonResettableTableIterator(final TableSpec tableSpec, final List<Row> rows) {
             m_tableSpec = tableSpec;
-            m_row = row;
+            m_rows = rows;
         }
 
         @Override
         public Row next() {
-            m_hasNext = false;
-            return m_row;
+            return m_rows.get(m_nextRow++);
         }
 
         @Override
         public boolean hasNext() {
-            return m_hasNext;
+            return m_nextRow < m_numRows;
         }
 
         @Override
         public int getNumberRemainingRows() {
-            return m_hasNext ? 1 : 0;
+            return m_numRows - m_nextRow;
         }
 
         @Override
@@ -757,8 +955,9 @@ public TableSpec getTableSpec() {
             return m_tableSpec;
         }
 
-        private void reset() {
-            m_hasNext = true;
+        private void reset(final int numRows) {
+            m_numRows = numRows;
+            m_nextRow = 0;
         }
     }
 
@@ -970,6 +1169,14 @@ protected static class DLPythonNetworkTrainingTaskHandler extends AbstractTaskHa
         protected final DLThrowingBiFunction<DLTensorId, DLTensor<? extends DLWritableBuffer>, TableChunker, //
                 IOException> m_singleTensorTableChunkerCreator;
 
+        /**
+         * <code>null</code> if batches are transmitted one at a time.
+         */
+        protected DLThrowingBiFunction<DLTensorId, DLTensor<? extends DLWritableBuffer>, TableChunker, //
+                IOException> m_singleTensorTableChunkerAppender;
+
+        protected DLStageTimings m_stageTimings = DLStageTimings.DISABLED;
+
         protected DLPythonNetworkTrainingTaskHandler(final DLPythonContext context,
             final DLTrainingMonitor<? extends DLPythonTrainingStatus> monitor,
             final DLNetworkInputProvider trainingInputProvider, final DLNetworkInputProvider validationInputProvider,
@@ -989,6 +1196,26 @@ protected DLPythonNetworkTrainingTaskHandler(final DLPythonContext context,
             batchMetrics.put("loss", new DLReportedMetric("loss", 0f));
         }
 
+        /**
+         * @param stageTimings records the time and data spent on transferring the training data to Python and on
+         *            processing the individual batches there
+         * @since 4.5
+         */
+        protected void setStageTimings(final DLStageTimings stageTimings) {
+            m_stageTimings = checkNotNull(stageTimings);
+        }
+
+        /**
+         * @param singleTensorTableChunkerAppender adds a tensor as another row to the table chunker that was last
+         *            created for the same tensor identifier, enables requests for several consecutive batches at once
+         * @since 4.5
+         */
+        protected void setTableChunkerAppender(
+            final DLThrowingBiFunction<DLTensorId, DLTensor<? extends DLWritableBuffer>, TableChunker, //
+                    IOException> singleTensorTableChunkerAppender) {
+            m_singleTensorTableChunkerAppender = singleTensorTableChunkerAppender;
+        }
+
         @Override
         protected Void handleSuccessMessage(final Message message) throws Exception {
             // TODO: This is a workaround. We have to change knime-python's PythonKernelBase.py#execute to raise a real
@@ -1011,10 +1238,12 @@ protected boolean handleCustomMessage(final Message message, final IntSupplier r
                 Message response = null;
                 switch (messageType) {
                     case "request_training_data":
-                        response = handleTrainingDataRequest(message, responseMessageIdSupplier);
+                        response = handleDataRequest(message, responseMessageIdSupplier, m_trainingInputProvider,
+                            "", "training");
                         break;
                     case "request_validation_data":
-                        response = handleValidationDataRequest(message, responseMessageIdSupplier);
+                        response = handleDataRequest(message, responseMessageIdSupplier, m_validationInputProvider,
+                            "_validation", "validation");
                         break;
                     case "epoch_begin":
                         handleEpochBegin(message);
@@ -1040,45 +1269,55 @@ protected boolean handleCustomMessage(final Message message, final IntSupplier r
             return true;
         }
 
-        private Message handleTrainingDataRequest(final Message message, final IntSupplier responseMessageIdSupplier)
+        /**
+         * The payload of a request is either a single batch index or a window of consecutive batches in the form
+         * <code>start;count</code>. All batches of a window are transmitted as rows of one table per tensor.
+         */
+        private Message handleDataRequest(final Message message, final IntSupplier responseMessageIdSupplier,
+            final DLNetworkInputProvider inputProvider, final String nameSuffix, final String dataKind)
             throws Exception {
-            final long batchIndex = Long.parseLong(new PayloadDecoder(message.getPayload()).getNextString());
-            final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> input = m_trainingInputProvider.get(batchIndex);
-            for (final Entry<DLTensorId, DLTensor<? extends DLWritableBuffer>> entry : input.entrySet()) {
-                final DLTensor<? extends DLWritableBuffer> tensor = entry.getValue();
-                final TableChunker tableChunker = m_singleTensorTableChunkerCreator.apply(entry.getKey(), tensor);
-                try {
-                    m_context.putDataInKernel(entry.getKey().getIdentifierString(), tableChunker, 1, m_monitor);
-                } catch (final IOException ex) {
-                    throw new IOException("Transmitting training data to Python failed.", ex);
-                } finally {
-                    tensor.getBuffer().reset();
+            final String[] request = new PayloadDecoder(message.getPayload()).getNextString().split(";");
+            final long firstBatchIndex = Long.parseLong(request[0]);
+            final int numBatches = request.length > 1 ? Integer.parseInt(request[1]) : 1;
+            if (numBatches > 1 && m_singleTensorTableChunkerAppender == null) {
+                throw new IllegalStateException(
+                    "Requesting several batches of " + dataKind + " data at once is not supported.");
+            }
+            final Map<DLTensorId, TableChunker> tableChunkers = new LinkedHashMap<>();
+            long duration = 0;
+            long numBytes = 0;
+            for (int i = 0; i < numBatches; i++) {
+                final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> input =
+                    inputProvider.get(firstBatchIndex + i);
+                final long start = m_stageTimings.start();
+                numBytes += m_stageTimings.getSizeInBytes(input);
+                for (final Entry<DLTensorId, DLTensor<? extends DLWritableBuffer>> entry : input.entrySet()) {
+                    final DLTensor<? extends DLWritableBuffer> tensor = entry.getValue();
+                    try {
+                        // the tensor is serialized right away, so its buffer can be refilled by the next batch
+                        tableChunkers.put(entry.getKey(),
+                            i == 0 ? m_singleTensorTableChunkerCreator.apply(entry.getKey(), tensor)
+                                : m_singleTensorTableChunkerAppender.apply(entry.getKey(), tensor));
+                    } finally {
+                        tensor.getBuffer().reset();
+                    }
                 }
+                duration += m_stageTimings.isEnabled() ? System.nanoTime() - start : 0;
             }
-
-            final HashMap<String, String> options = new HashMap<>(1);
-            options.put(FIELD_KEY_MESSAGE_TYPE, MESSAGE_TYPE_SUCCESS);
-            return new DefaultMessage(responseMessageIdSupplier.getAsInt(), Integer.toString(message.getId()), null,
-                options);
-        }
-
-        private Message handleValidationDataRequest(final Message message, final IntSupplier responseMessageIdSupplier)
-            throws Exception {
-            final long batchIndex = Long.parseLong(new PayloadDecoder(message.getPayload()).getNextString());
-            final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> input =
-                m_validationInputProvider.get(batchIndex);
-            for (final Entry<DLTensorId, DLTensor<? extends DLWritableBuffer>> entry : input.entrySet()) {
-                final DLTensor<? extends DLWritableBuffer> tensor = entry.getValue();
-                final TableChunker tableChunker = m_singleTensorTableChunkerCreator.apply(entry.getKey(), tensor);
+            final long start = m_stageTimings.start();
+            for (final Entry<DLTensorId, TableChunker> entry : tableChunkers.entrySet()) {
                 try {
-                    m_context.putDataInKernel(entry.getKey().getIdentifierString() + "_validation", tableChunker, 1,
-                        m_monitor);
+                    m_context.putDataInKernel(entry.getKey().getIdentifierString() + nameSuffix, entry.getValue(),
+                        1, m_monitor);
                 } catch (final IOException ex) {
-                    throw new IOException("Transmitting validation data to Python failed.", ex);
-                } finally {
-                    tensor.getBuffer().reset();
+                    throw new IOException("Transmitting " + dataKind + " data to Python failed.", ex);
                 }
             }
+            if (m_stageTimings.isEnabled()) {
+                // fetching the batches from the provider is not part of the transfer
+                duration += System.nanoTime() - start;
+                m_stageTimings.record(DLStage.INPUT_TRANSFER, duration, numBytes);
+            }
 
             final HashMap<String, String> options = new HashMap<>(1);
             options.put(FIELD_KEY_MESSAGE_TYPE, MESSAGE_TYPE_SUCCESS);
@@ -1121,6 +1360,17 @@ private void handleBatchEnd(final Message message) {
                 }
                 i++;
             }
+            // an additional trailing field holds the computation time of the batch in seconds
+            if (m_stageTimings.isEnabled() && metricsStr.length > batchMetrics.size()) {
+                try {
+                    final double seconds = Double.parseDouble(metricsStr[batchMetrics.size()]);
+                    if (seconds >= 0) {
+                        m_stageTimings.record(DLStage.BACKEND_COMPUTATION, (long)(seconds * 1e9), 0);
+                    }
+                } catch (final NumberFormatException e) {
+                    LOGGER.debug("Received invalid batch computation time: " + metricsStr[batchMetrics.size()] + ".");
+                }
+            }
             m_status.batchEnded().raise(batchMetrics);
             // Start validation phase if validation is enabled and we finished the last training batch of the
             // epoch.
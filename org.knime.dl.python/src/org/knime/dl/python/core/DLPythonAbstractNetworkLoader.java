@@ -51,6 +51,7 @@
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
@@ -67,6 +68,8 @@
 import org.knime.dl.core.DLInvalidDestinationException;
 import org.knime.dl.core.DLInvalidEnvironmentException;
 import org.knime.dl.core.DLMissingDependencyException;
+import org.knime.dl.python.prefs.DLPythonPreferences;
+import org.knime.python2.PythonCommand;
 import org.knime.python2.util.PythonUtils;
 
 import com.google.common.base.Strings;
@@ -77,21 +80,61 @@
  */
 public abstract class DLPythonAbstractNetworkLoader<N extends DLPythonNetwork> implements DLPythonNetworkLoader<N> {
 
+    /**
+     * Discards all cached results of {@link #checkAvailability(DLPythonContext, boolean, int, DLCancelable)
+     * installation tests}. Must be called if the Python configuration may have changed.
+     *
+     * @since 4.5
+     */
+    public static void invalidateAvailabilityCache() {
+        DLPythonInstallationTestCache.getInstance().clear();
+    }
+
     protected abstract DLPythonAbstractCommands createCommands(DLPythonContext context)
         throws DLInvalidEnvironmentException;
 
     /**
-     * This implementation performs no caching of any test results. The value of {@code forceRefresh} has no effect.
+     * This implementation caches successful test results per back end, Python environment (command, executable and
+     * its modification time) and serialization library across sessions. Failed tests are not cached. The cached
+     * result is discarded if {@code forceRefresh} is <code>true</code>, all results are discarded if
+     * {@link #invalidateAvailabilityCache()} is called.
      * <P>
      * {@inheritDoc}
-     *
-     * @param forceRefresh Has no effect.
      */
     @Override
     public final void checkAvailability(final DLPythonContext context, final boolean forceRefresh,
         final int timeout, final DLCancelable cancelable)
         throws DLMissingDependencyException, DLInstallationTestTimeoutException {
+        final DLPythonInstallationTestCache cache = DLPythonInstallationTestCache.getInstance();
+        final String key = getAvailabilityCacheKey(context);
+        if (key != null) {
+            if (forceRefresh) {
+                cache.remove(key);
+            } else if (cache.contains(key)) {
+                return;
+            }
+        }
         new DLPythonInstallationTester().testInstallation(context, timeout, this, cancelable);
+        if (key != null) {
+            cache.add(key);
+        }
+    }
+
+    /**
+     * @return the key of the installation test in the given context, <code>null</code> if the Python environment of
+     *         the context is unknown and the test result must therefore not be cached
+     */
+    private String getAvailabilityCacheKey(final DLPythonContext context) {
+        if (!(context instanceof DLPythonAbstractContext)) {
+            return null;
+        }
+        final PythonCommand command = ((DLPythonAbstractContext)context).getPythonCommand();
+        final List<String> commandLine = command.createProcessBuilder().command();
+        if (commandLine.isEmpty()) {
+            return null;
+        }
+        return DLPythonInstallationTestCache.createKey(getNetworkType().getName(), command.toString(),
+            new File(commandLine.get(0)), DLPythonPreferences.getSerializerPreference());
     }
 
     @Override
@@ -55,6 +55,7 @@
 import org.knime.dl.core.DLInvalidEnvironmentException;
 import org.knime.dl.core.DLNetworkInputProvider;
 import org.knime.dl.core.DLNetworkSpec;
+import org.knime.dl.core.DLStageTimings;
 import org.knime.dl.core.DLTensor;
 import org.knime.dl.core.DLTensorId;
 import org.knime.dl.core.data.DLReadableBuffer;
@@ -124,4 +125,40 @@ void getNetworkOutputs(DLPythonNetworkHandle network,
 	void trainNetwork(DLPythonNetworkHandle network, DLNetworkInputProvider trainingInputProvider,
 			DLNetworkInputProvider validationInputProvider, DLTrainingMonitor<? extends DLPythonTrainingStatus> monitor)
 			throws DLInvalidEnvironmentException, IOException, DLCanceledExecutionException;
+
+	/**
+	 * Sets the instance that records how much time and data the calls of this commands instance spend in the transfer
+	 * and execution stages. The default implementation does nothing, i.e. nothing is recorded.
+	 *
+	 * @param stageTimings the stage timings, {@link DLStageTimings#DISABLED} to not record anything (default)
+	 * @since 4.5
+	 */
+	default void setStageTimings(final DLStageTimings stageTimings) {
+		// no op
+	}
+
+	/**
+	 * Sets the number of consecutive batches that Python requests at once during training. Larger windows save round
+	 * trips between Python and Java at the cost of holding the serialized batches of a window in memory.
+	 * The default implementation does nothing, i.e. the window size remains 1.
+	 *
+	 * @param windowSize the number of batches per request, must be positive, 1 by default
+	 * @since 4.5
+	 */
+	default void setTrainingDataWindowSize(final int windowSize) {
+		// no op
+	}
+
+	/**
+	 * Fetches the network execution times that were measured on Python side since the last call of this method and
+	 * records them as {@link DLStageTimings.DLStage#BACKEND_COMPUTATION back end computation} in the stage timings of
+	 * this commands instance. Does nothing if stage timings are disabled. The default implementation fetches nothing.
+	 *
+	 * @param cancelable to check if the execution has been canceled
+	 * @since 4.5
+	 */
+	default void fetchBackendStageTimings(final DLCancelable cancelable)
+			throws DLInvalidEnvironmentException, IOException, DLCanceledExecutionException {
+		// no op
+	}
 }
@@ -51,6 +51,7 @@
 import org.knime.dl.core.DLDefaultFixedTensorShape;
 import org.knime.dl.core.DLDefaultTensor;
 import org.knime.dl.core.DLDefaultTensorSpec;
+import org.knime.dl.core.DLOffHeapTensorFactory;
 import org.knime.dl.core.DLTensor;
 import org.knime.dl.core.DLTensorFactory;
 import org.knime.dl.core.DLTensorSpec;
@@ -94,6 +95,30 @@
  */
 public final class DLPythonDefaultTensorFactory implements DLTensorFactory {
 
+	/**
+	 * VM option that makes {@link #createExecutionTensorFactory()} back floating point tensors by off-heap buffers.
+	 * Only takes effect if the shared memory transport is enabled as well since the table based transport requires
+	 * the Python buffer implementations.
+	 *
+	 * @since 4.5
+	 */
+	public static final String OFF_HEAP_TENSORS_VM_OPT = "knime.dl.python.offheaptensors";
+
+	/**
+	 * Returns the tensor factory for network execution. This is an instance of this class unless off-heap tensors
+	 * were enabled via VM option {@link #OFF_HEAP_TENSORS_VM_OPT}, in which case an {@link DLOffHeapTensorFactory}
+	 * that delegates to an instance of this class is returned.
+	 *
+	 * @return the tensor factory for network execution
+	 * @since 4.5
+	 */
+	public static DLTensorFactory createExecutionTensorFactory() {
+		final DLPythonDefaultTensorFactory factory = new DLPythonDefaultTensorFactory();
+		return Boolean.getBoolean(OFF_HEAP_TENSORS_VM_OPT) && DLPythonSharedMemoryTransport.isEnabled()
+				? new DLOffHeapTensorFactory(factory)
+				: factory;
+	}
+
 	@Override
 	public Class<? extends DLWritableBuffer> getWritableBufferType(final DLTensorSpec spec) {
 		final Class<?> t = spec.getElementType();
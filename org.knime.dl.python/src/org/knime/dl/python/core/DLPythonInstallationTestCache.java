@@ -0,0 +1,216 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.python.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+
+import com.google.common.hash.Hashing;
+
+/**
+ * Persistent record of the Python back end installation tests that succeeded. A test is identified by a key that
+ * covers the back end, the Python command, the path and modification time of its executable and the serialization
+ * library, see {@link #createKey(String, String, File, String)}. Replacing the executable (e.g. by recreating or
+ * updating the environment) therefore invalidates its entries.
+ * <P>
+ * The keys are stored hashed, one per line, in a single file in the KNIME home directory. An unreadable file is treated
+ * as empty.
+ *
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ */
+final class DLPythonInstallationTestCache {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(DLPythonInstallationTestCache.class);
+
+    private static DLPythonInstallationTestCache instance;
+
+    /**
+     * @return the cache that is shared by all network loaders, located in the KNIME home directory
+     */
+    static synchronized DLPythonInstallationTestCache getInstance() {
+        if (instance == null) {
+            instance = new DLPythonInstallationTestCache(
+                new File(KNIMEConstants.getKNIMEHomeDir(), "dl" + File.separator + "python_installation_tests"));
+        }
+        return instance;
+    }
+
+    /**
+     * @param networkType the name of the network type (back end) that is tested
+     * @param command the Python command in which the test runs
+     * @param executable the executable of the Python command, may be a plain program name that is resolved against
+     *            the <code>PATH</code>
+     * @param serializer the identifier of the serialization library
+     * @return the key of the test, <code>null</code> if the executable cannot be located, in which case changes of the
+     *         environment cannot be detected and the test result must not be cached
+     */
+    static String createKey(final String networkType, final String command, final File executable,
+        final String serializer) {
+        final File resolved = resolveExecutable(executable);
+        if (resolved == null) {
+            return null;
+        }
+        return Hashing.sha256().newHasher() //
+            .putString(networkType, StandardCharsets.UTF_8).putChar('\n') //
+            .putString(command, StandardCharsets.UTF_8).putChar('\n') //
+            .putString(resolved.getAbsolutePath(), StandardCharsets.UTF_8).putChar('\n') //
+            .putLong(resolved.lastModified()).putChar('\n') //
+            .putString(String.valueOf(serializer), StandardCharsets.UTF_8) //
+            .hash().toString();
+    }
+
+    private static File resolveExecutable(final File executable) {
+        if (executable.isFile()) {
+            return executable;
+        }
+        if (executable.getParent() == null) {
+            final String path = System.getenv("PATH");
+            if (path != null) {
+                for (final String dir : path.split(File.pathSeparator)) {
+                    final File candidate = new File(dir, executable.getName());
+                    if (candidate.isFile()) {
+                        return candidate;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private final File m_file;
+
+    private Set<String> m_keys;
+
+    DLPythonInstallationTestCache(final File file) {
+        m_file = file;
+    }
+
+    /**
+     * @param key the key of the test
+     * @return <code>true</code> if the test succeeded before
+     */
+    synchronized boolean contains(final String key) {
+        return getKeys().contains(key);
+    }
+
+    /**
+     * Records that the test succeeded.
+     *
+     * @param key the key of the test
+     */
+    synchronized void add(final String key) {
+        if (getKeys().add(key)) {
+            write();
+        }
+    }
+
+    /**
+     * Discards the result of the test.
+     *
+     * @param key the key of the test
+     */
+    synchronized void remove(final String key) {
+        if (getKeys().remove(key)) {
+            write();
+        }
+    }
+
+    /**
+     * Discards the results of all tests.
+     */
+    synchronized void clear() {
+        m_keys = new HashSet<>();
+        try {
+            Files.deleteIfExists(m_file.toPath());
+        } catch (final IOException e) {
+            LOGGER.debug("Cached installation test results could not be deleted: " + e.getMessage(), e);
+        }
+    }
+
+    private Set<String> getKeys() {
+        if (m_keys == null) {
+            m_keys = new HashSet<>();
+            if (m_file.isFile()) {
+                try {
+                    for (final String line : Files.readAllLines(m_file.toPath(), StandardCharsets.UTF_8)) {
+                        if (!line.isEmpty()) {
+                            m_keys.add(line);
+                        }
+                    }
+                } catch (final IOException e) {
+                    // the cache is only an optimization
+                    LOGGER.debug("Cached installation test results could not be read: " + e.getMessage(), e);
+                }
+            }
+        }
+        return m_keys;
+    }
+
+    private void write() {
+        try {
+            final File directory = m_file.getParentFile();
+            Files.createDirectories(directory.toPath());
+            final File tmpFile = File.createTempFile(m_file.getName(), ".tmp", directory);
+            final List<String> lines = new ArrayList<>(m_keys);
+            Files.write(tmpFile.toPath(), lines, StandardCharsets.UTF_8);
+            Files.move(tmpFile.toPath(), m_file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        } catch (final IOException e) {
+            LOGGER.debug("Installation test results could not be cached: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,394 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.python.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.knime.core.node.NodeLogger;
+import org.knime.core.util.FileUtil;
+import org.knime.dl.core.DLCancelable;
+import org.knime.dl.core.DLCanceledExecutionException;
+import org.knime.dl.core.DLInvalidEnvironmentException;
+import org.knime.dl.core.cache.DLMemoryAlertAwareGuavaCache;
+import org.knime.python2.extensions.serializationlibrary.interfaces.TableChunker;
+import org.knime.python2.extensions.serializationlibrary.interfaces.TableCreator;
+import org.knime.python2.extensions.serializationlibrary.interfaces.TableCreatorFactory;
+import org.knime.python2.kernel.PythonKernel;
+
+import com.google.common.cache.RemovalNotification;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+
+/**
+ * JVM-wide pool of warm Python kernels that keep a network loaded between node executions. Kernels are keyed by the
+ * type, location and file content of the network they hold as well as by the Python environment they run in. Idle
+ * kernels are kept in a {@link DLMemoryAlertAwareGuavaCache} and are closed when they are evicted from it, e.g. on a
+ * memory alert.
+ * <P>
+ * Pooling is opt-in and must be enabled via VM option {@link #KERNEL_POOL_VM_OPT}. Only networks that are stored in
+ * local files can be pooled.
+ *
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ * @since 4.5
+ */
+public final class DLPythonKernelPool {
+
+    /**
+     * @see #isEnabled()
+     */
+    public static final String KERNEL_POOL_VM_OPT = "knime.dl.python.kernelpool";
+
+    private static final int MAX_IDLE_KERNELS = 4;
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(DLPythonKernelPool.class);
+
+    private static final DLPythonKernelPool INSTANCE = new DLPythonKernelPool();
+
+    /**
+     * @return <code>true</code> if pooling was enabled by the user via VM option {@link #KERNEL_POOL_VM_OPT}
+     */
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(KERNEL_POOL_VM_OPT);
+    }
+
+    /**
+     * @return the singleton instance of this pool
+     */
+    public static DLPythonKernelPool getInstance() {
+        return INSTANCE;
+    }
+
+    private final DLMemoryAlertAwareGuavaCache m_idleKernels =
+        new DLMemoryAlertAwareGuavaCache(MAX_IDLE_KERNELS, DLPythonKernelPool::onRemoval);
+
+    private final Map<File, FileHash> m_fileHashes = new ConcurrentHashMap<>();
+
+    private DLPythonKernelPool() {
+        // singleton
+    }
+
+    /**
+     * Leases a kernel for the given network. If an idle kernel that already holds the network is available, it is
+     * handed out. Otherwise a lease for a new kernel is created, whose network handle must be
+     * {@link Lease#setNetworkHandle(DLPythonNetworkHandle) set} once the network was loaded.
+     *
+     * @param network the network to execute
+     * @param context the context the network would be executed in without pooling. Only used to determine the Python
+     *            environment, the pooled kernel runs in a separate context.
+     * @param environmentVariables environment variables that will be set in the kernel, part of the pool key
+     * @return a lease, or an empty optional if the network or context cannot be pooled
+     */
+    public Optional<Lease> lease(final DLPythonNetwork network, final DLPythonContext context,
+        final Map<String, String> environmentVariables) {
+        if (!(context instanceof DLPythonAbstractContext)) {
+            return Optional.empty();
+        }
+        final DLPythonAbstractContext abstractContext = (DLPythonAbstractContext)context;
+        final UUID key;
+        try {
+            key = createKey(network, abstractContext, environmentVariables);
+        } catch (final IOException e) {
+            LOGGER.debug("Network '" + network.getSource() + "' cannot be pooled: " + e.getMessage(), e);
+            return Optional.empty();
+        }
+        final Optional<Object> idle = m_idleKernels.get(key);
+        if (idle.isPresent()) {
+            final PooledKernel kernel = (PooledKernel)idle.get();
+            if (kernel.tryLease()) {
+                m_idleKernels.remove(key);
+                return Optional.of(new Lease(key, kernel));
+            }
+        }
+        return Optional.of(new Lease(key,
+            new PooledKernel(new DLPythonDefaultContext(abstractContext.getPythonCommand()))));
+    }
+
+    private UUID createKey(final DLPythonNetwork network, final DLPythonAbstractContext context,
+        final Map<String, String> environmentVariables) throws IOException {
+        final URI source = network.getSource().getURI();
+        final File file;
+        try {
+            file = FileUtil.getFileFromURL(source.toURL());
+        } catch (final IllegalArgumentException e) {
+            throw new IOException("Network source could not be resolved to a local file.", e);
+        }
+        if (file == null || !file.isFile()) {
+            throw new IOException("Network source is not a local file.");
+        }
+        final String keyString = network.getClass().getName() + "\n" //
+            + source + "\n" //
+            + getContentHash(file) + "\n" //
+            + context.getPythonCommand() + "\n" //
+            + new TreeMap<>(environmentVariables);
+        return UUID.nameUUIDFromBytes(keyString.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String getContentHash(final File file) throws IOException {
+        final long lastModified = file.lastModified();
+        final long length = file.length();
+        final FileHash cached = m_fileHashes.get(file);
+        if (cached != null && cached.m_lastModified == lastModified && cached.m_length == length) {
+            return cached.m_hash;
+        }
+        final String hash = Files.asByteSource(file).hash(Hashing.sha256()).toString();
+        m_fileHashes.put(file, new FileHash(lastModified, length, hash));
+        return hash;
+    }
+
+    private void release(final UUID key, final PooledKernel kernel) {
+        if (kernel.tryRelease()) {
+            m_idleKernels.put(key, kernel);
+        }
+    }
+
+    private static void onRemoval(final RemovalNotification<UUID, Object> notification) {
+        final Object value = notification.getValue();
+        if (value != null) {
+            // Kernels that were removed to be leased stay open.
+            ((PooledKernel)value).closeIfIdle();
+        }
+    }
+
+    /**
+     * A kernel that is leased from the pool. The kernel is returned to the pool when the lease is closed unless the
+     * lease was {@link #invalidate() invalidated} or no network handle was set. In that case the kernel is closed.
+     */
+    public final class Lease implements AutoCloseable {
+
+        private final UUID m_key;
+
+        private final PooledKernel m_kernel;
+
+        private boolean m_valid = true;
+
+        private boolean m_closed = false;
+
+        private Lease(final UUID key, final PooledKernel kernel) {
+            m_key = key;
+            m_kernel = kernel;
+        }
+
+        /**
+         * @return the context of the leased kernel. Closing it has no effect, the kernel's life cycle is managed via
+         *         this lease.
+         */
+        public DLPythonContext getContext() {
+            return m_kernel.m_nonClosingContext;
+        }
+
+        /**
+         * @return the handle of the network that is loaded in the leased kernel, empty if the kernel was newly created
+         */
+        public Optional<DLPythonNetworkHandle> getNetworkHandle() {
+            return Optional.ofNullable(m_kernel.m_networkHandle);
+        }
+
+        /**
+         * @param handle the handle of the network that was loaded into the newly created kernel
+         */
+        public void setNetworkHandle(final DLPythonNetworkHandle handle) {
+            m_kernel.m_networkHandle = handle;
+        }
+
+        /**
+         * Marks the leased kernel as unusable, e.g. because an execution failed or was canceled. The kernel is closed
+         * instead of being returned to the pool.
+         */
+        public void invalidate() {
+            m_valid = false;
+        }
+
+        @Override
+        public void close() {
+            if (m_closed) {
+                return;
+            }
+            m_closed = true;
+            if (m_valid && m_kernel.m_networkHandle != null) {
+                release(m_key, m_kernel);
+            } else {
+                m_kernel.close();
+            }
+        }
+    }
+
+    private static final class PooledKernel {
+
+        private static final int LEASED = 0;
+
+        private static final int IDLE = 1;
+
+        private static final int CLOSED = 2;
+
+        private final AtomicInteger m_state = new AtomicInteger(LEASED);
+
+        private final DLPythonContext m_context;
+
+        private final DLPythonContext m_nonClosingContext;
+
+        private volatile DLPythonNetworkHandle m_networkHandle;
+
+        private PooledKernel(final DLPythonContext context) {
+            m_context = context;
+            m_nonClosingContext = new NonClosingContext(context);
+        }
+
+        private boolean tryLease() {
+            return m_state.compareAndSet(IDLE, LEASED);
+        }
+
+        private boolean tryRelease() {
+            return m_state.compareAndSet(LEASED, IDLE);
+        }
+
+        private void closeIfIdle() {
+            if (m_state.compareAndSet(IDLE, CLOSED)) {
+                closeContext();
+            }
+        }
+
+        private void close() {
+            m_state.set(CLOSED);
+            closeContext();
+        }
+
+        private void closeContext() {
+            try {
+                m_context.close();
+            } catch (final Exception e) {
+                LOGGER.debug("An exception occurred while closing a pooled Python kernel.", e);
+            }
+        }
+    }
+
+    private static final class FileHash {
+
+        private final long m_lastModified;
+
+        private final long m_length;
+
+        private final String m_hash;
+
+        private FileHash(final long lastModified, final long length, final String hash) {
+            m_lastModified = lastModified;
+            m_length = length;
+            m_hash = hash;
+        }
+    }
+
+    private static final class NonClosingContext implements DLPythonContext {
+
+        private final DLPythonContext m_delegate;
+
+        private NonClosingContext(final DLPythonContext delegate) {
+            m_delegate = Objects.requireNonNull(delegate);
+        }
+
+        @Override
+        public boolean isKernelOpen() {
+            return m_delegate.isKernelOpen();
+        }
+
+        @Override
+        public PythonKernel getKernel() throws DLInvalidEnvironmentException {
+            return m_delegate.getKernel();
+        }
+
+        @Override
+        public String[] execute(final DLCancelable cancelable, final File script, final String... args)
+            throws IOException, DLCanceledExecutionException {
+            return m_delegate.execute(cancelable, script, args);
+        }
+
+        @Override
+        public String[] executeInKernel(final String code, final DLCancelable cancelable)
+            throws DLCanceledExecutionException, DLInvalidEnvironmentException, IOException {
+            return m_delegate.executeInKernel(code, cancelable);
+        }
+
+        @Override
+        public String[] executeAsyncInKernel(final String code, final DLCancelable cancelable)
+            throws DLCanceledExecutionException, DLInvalidEnvironmentException, IOException {
+            return m_delegate.executeAsyncInKernel(code, cancelable);
+        }
+
+        @Override
+        public void putDataInKernel(final String name, final TableChunker tableChunker, final int rowsPerChunk,
+            final DLCancelable cancelable)
+            throws IOException, DLCanceledExecutionException, DLInvalidEnvironmentException {
+            m_delegate.putDataInKernel(name, tableChunker, rowsPerChunk, cancelable);
+        }
+
+        @Override
+        public TableCreator<?> getDataFromKernel(final String name, final TableCreatorFactory tcf,
+            final DLCancelable cancelable)
+            throws IOException, DLCanceledExecutionException, DLInvalidEnvironmentException {
+            return m_delegate.getDataFromKernel(name, tcf, cancelable);
+        }
+
+        @Override
+        public void setEnvironmentVariable(final String name, final String value, final DLCancelable cancelable)
+            throws DLCanceledExecutionException, DLInvalidEnvironmentException, IOException {
+            m_delegate.setEnvironmentVariable(name, value, cancelable);
+        }
+
+        @Override
+        public void close() {
+            // life cycle is managed by the pool
+        }
+    }
+}
@@ -0,0 +1,461 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.python.core;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.knime.core.node.NodeLogger;
+import org.knime.dl.core.DLTensor;
+import org.knime.dl.core.data.DLAbstractOffHeapBuffer;
+import org.knime.dl.core.data.DLBuffer;
+import org.knime.dl.core.data.DLOffHeapDoubleBuffer;
+import org.knime.dl.core.data.DLOffHeapFloatBuffer;
+import org.knime.dl.core.data.DLPackedBitBuffer;
+import org.knime.dl.python.core.data.DLPythonBitBuffer;
+import org.knime.dl.python.core.data.DLPythonByteBuffer;
+import org.knime.dl.python.core.data.DLPythonDataBuffer;
+import org.knime.dl.python.core.data.DLPythonDoubleBuffer;
+import org.knime.dl.python.core.data.DLPythonFloatBuffer;
+import org.knime.dl.python.core.data.DLPythonIntBuffer;
+import org.knime.dl.python.core.data.DLPythonLongBuffer;
+import org.knime.dl.python.core.data.DLPythonShortBuffer;
+import org.knime.dl.python.core.data.DLPythonUnsignedByteBuffer;
+import org.knime.dl.python.util.DLPythonSourceCodeBuilder;
+import org.knime.dl.python.util.DLPythonUtils;
+import org.knime.dl.util.DLUtils;
+
+/**
+ * Transfers numeric tensors between the JVM and the Python kernel via memory-mapped files instead of serializing them
+ * through the kernel's socket connection. Each tensor gets its own region (file) which is reused for all subsequent
+ * batches of the tensor. Only a descriptor of the region is passed through the kernel, NumPy directly wraps the mapped
+ * memory.
+ * <P>
+ * Regions are placed in <code>/dev/shm</code> if available (i.e. in POSIX shared memory) and in the default temporary
+ * directory otherwise. Each region starts with a header that holds the number of elements written by Python, followed
+ * by the tensor data in little-endian byte order. Bit tensors are stored in the packed byte format of
+ * {@link DLPackedBitBuffer}. Tensors that are backed by {@link DLAbstractOffHeapBuffer off-heap buffers} are copied
+ * segment-wise between their buffers and the regions.
+ * <P>
+ * The transport is disabled by default and can be enabled via VM option {@link #SHARED_MEMORY_VM_OPT}.
+ *
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ */
+final class DLPythonSharedMemoryTransport implements AutoCloseable {
+
+    /**
+     * @see #isEnabled()
+     */
+    static final String SHARED_MEMORY_VM_OPT = "knime.dl.python.sharedmemorytransport";
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(DLPythonSharedMemoryTransport.class);
+
+    /**
+     * Size of the region header in bytes. Also keeps the data 8-byte aligned.
+     */
+    private static final int HEADER_SIZE = 64;
+
+    /**
+     * Regions larger than this are mapped in multiple segments (a single mapping is limited to 2^31-1 bytes).
+     */
+    private static final int SEGMENT_SIZE = 1 << 30;
+
+    private static final Path SHARED_MEMORY_DIR = Paths.get("/dev/shm");
+
+    /**
+     * @return <code>true</code> if the transport was enabled by the user via VM option
+     *         {@link #SHARED_MEMORY_VM_OPT}
+     */
+    static boolean isEnabled() {
+        return Boolean.getBoolean(SHARED_MEMORY_VM_OPT);
+    }
+
+    /**
+     * @param tensor the tensor to check
+     * @return <code>true</code> if the given tensor can be transferred by this transport, i.e. if it is backed by a
+     *         numeric Python data buffer or an off-heap floating point buffer
+     */
+    static boolean supports(final DLTensor<?> tensor) {
+        return getNumPyType(tensor.getBuffer()) != null;
+    }
+
+    private static String getNumPyType(final DLBuffer buffer) {
+        if (buffer instanceof DLPythonFloatBuffer || buffer instanceof DLOffHeapFloatBuffer) {
+            return "float32";
+        } else if (buffer instanceof DLPythonDoubleBuffer || buffer instanceof DLOffHeapDoubleBuffer) {
+            return "float64";
+        } else if (buffer instanceof DLPythonIntBuffer) {
+            return "int32";
+        } else if (buffer instanceof DLPythonLongBuffer) {
+            return "int64";
+        } else if (buffer instanceof DLPythonShortBuffer) {
+            return "int16";
+        } else if (buffer instanceof DLPythonByteBuffer) {
+            return "int8";
+        } else if (buffer instanceof DLPythonUnsignedByteBuffer) {
+            return "uint8";
+        } else if (buffer instanceof DLPythonBitBuffer) {
+            return "bits";
+        } else {
+            return null;
+        }
+    }
+
+    private static long getCapacity(final DLBuffer buffer) {
+        return buffer instanceof DLAbstractOffHeapBuffer ? ((DLAbstractOffHeapBuffer)buffer).getCapacity()
+            : ((DLPythonDataBuffer<?>)buffer).getCapacity();
+    }
+
+    private static long getDataSize(final DLBuffer buffer, final long numElements) {
+        if (buffer instanceof DLPythonBitBuffer) {
+            return DLPackedBitBuffer.getNumPackedBytes(numElements);
+        }
+        return numElements * getElementSize(buffer);
+    }
+
+    private static int getElementSize(final DLBuffer buffer) {
+        if (buffer instanceof DLPythonDoubleBuffer || buffer instanceof DLOffHeapDoubleBuffer
+            || buffer instanceof DLPythonLongBuffer) {
+            return 8;
+        } else if (buffer instanceof DLPythonFloatBuffer || buffer instanceof DLOffHeapFloatBuffer
+            || buffer instanceof DLPythonIntBuffer) {
+            return 4;
+        } else if (buffer instanceof DLPythonShortBuffer) {
+            return 2;
+        } else {
+            return 1;
+        }
+    }
+
+    private final Map<String, DLPythonSharedMemoryRegion> m_regions = new HashMap<>();
+
+    /**
+     * Writes the given tensor into its region and returns the code that makes it available in the Python workspace.
+     * The workspace entry is structured like the one created by the table based transport.
+     *
+     * @param name the name of the tensor in the Python workspace
+     * @param tensor the tensor to write, must be {@link #supports(DLTensor) supported}
+     * @return the Python code that wraps the written region in the workspace
+     * @throws IOException if writing the tensor failed
+     */
+    String writeTensor(final String name, final DLTensor<?> tensor) throws IOException {
+        final DLBuffer buffer = tensor.getBuffer();
+        final int elementSize = getElementSize(buffer);
+        final long offset = buffer instanceof DLAbstractOffHeapBuffer
+            ? ((DLAbstractOffHeapBuffer)buffer).getNextReadPosition()
+            : ((DLPythonDataBuffer<?>)buffer).getNextReadPosition();
+        final long length = buffer.size() - offset;
+        // size the region by capacity, not by size, to avoid reallocations for subsequent (larger) batches
+        final DLPythonSharedMemoryRegion region = getRegion(name, getDataSize(buffer, getCapacity(buffer)));
+        if (buffer instanceof DLAbstractOffHeapBuffer) {
+            region.copyOffHeap((DLAbstractOffHeapBuffer)buffer, offset, length, elementSize, true);
+        } else if (buffer instanceof DLPythonBitBuffer) {
+            region.copyBits(((DLPythonBitBuffer)buffer).getStorageForReading(offset, length), offset, length, true);
+        } else {
+            region.copy(((DLPythonDataBuffer<?>)buffer).getStorageForReading(offset, length), offset, length,
+                elementSize, true);
+        }
+        final long[] shape = DLUtils.Shapes.getFixedShape(tensor.getSpec().getShape())
+            .orElseThrow(() -> new IllegalStateException("Execution spec does not contain fixed shape."));
+        final DLPythonSourceCodeBuilder b = DLPythonUtils.createSourceCodeBuilder() //
+            .a("DLPythonSharedMemory.read_tensor(").as(name).a(", ").asr(region.m_path.toString()).a(", ")
+            .a(HEADER_SIZE).a(", ").as(getNumPyType(buffer)).a(", ").a(length).a(", ").a(shape).a(")");
+        return b.toString();
+    }
+
+    /**
+     * Returns the code that writes the given tensor from the Python workspace into its region. The region is
+     * (re)allocated to fit the capacity of the given tensor.
+     *
+     * @param name the name of the tensor in the Python workspace
+     * @param tensor the tensor that will receive the data, must be {@link #supports(DLTensor) supported}
+     * @return the Python code that writes the workspace entry into the region
+     * @throws IOException if allocating the region failed
+     */
+    String prepareReadTensor(final String name, final DLTensor<?> tensor) throws IOException {
+        final DLBuffer buffer = tensor.getBuffer();
+        final long capacity = getCapacity(buffer);
+        final DLPythonSharedMemoryRegion region = getRegion(name, getDataSize(buffer, capacity));
+        final DLPythonSourceCodeBuilder b = DLPythonUtils.createSourceCodeBuilder() //
+            .a("DLPythonSharedMemory.write_tensor(").as(name).a(", ").asr(region.m_path.toString()).a(", ")
+            .a(HEADER_SIZE).a(", ").as(getNumPyType(buffer)).a(", ").a(capacity).a(")");
+        return b.toString();
+    }
+
+    /**
+     * Reads the tensor that was written by the code returned by {@link #prepareReadTensor(String, DLTensor)} from its
+     * region into the given tensor.
+     *
+     * @param name the name of the tensor in the Python workspace
+     * @param tensor the tensor that receives the data
+     */
+    void readTensor(final String name, final DLTensor<?> tensor) {
+        final DLBuffer buffer = tensor.getBuffer();
+        final DLPythonSharedMemoryRegion region = m_regions.get(name);
+        if (region == null) {
+            throw new IllegalStateException("No shared memory region was prepared for tensor '" + name + "'.");
+        }
+        final long length = region.m_header.getLong(0);
+        final long writeStart = buffer.size();
+        if (buffer instanceof DLAbstractOffHeapBuffer) {
+            region.copyOffHeap((DLAbstractOffHeapBuffer)buffer, writeStart, length, getElementSize(buffer), false);
+            ((DLAbstractOffHeapBuffer)buffer).commitWrite(length);
+        } else if (buffer instanceof DLPythonBitBuffer) {
+            region.copyBits(((DLPythonBitBuffer)buffer).getStorageForWriting(writeStart, length), writeStart, length,
+                false);
+        } else {
+            region.copy(((DLPythonDataBuffer<?>)buffer).getStorageForWriting(writeStart, length), writeStart, length,
+                getElementSize(buffer), false);
+        }
+    }
+
+    /**
+     * @param name the name of the tensor in the Python workspace
+     * @return the path of the file that backs the region of the given tensor, <code>null</code> if no region was
+     *         allocated for the tensor yet
+     */
+    Path getRegionPath(final String name) {
+        final DLPythonSharedMemoryRegion region = m_regions.get(name);
+        return region != null ? region.m_path : null;
+    }
+
+    @Override
+    public void close() {
+        for (final DLPythonSharedMemoryRegion region : m_regions.values()) {
+            region.close();
+        }
+        m_regions.clear();
+    }
+
+    private DLPythonSharedMemoryRegion getRegion(final String name, final long dataSize) throws IOException {
+        DLPythonSharedMemoryRegion region = m_regions.get(name);
+        if (region == null || region.m_dataSize < dataSize) {
+            if (region != null) {
+                region.close();
+            }
+            region = new DLPythonSharedMemoryRegion(dataSize);
+            m_regions.put(name, region);
+        }
+        return region;
+    }
+
+    private static final class DLPythonSharedMemoryRegion {
+
+        private final Path m_path;
+
+        private final long m_dataSize;
+
+        private final MappedByteBuffer m_header;
+
+        private final List<MappedByteBuffer> m_segments;
+
+        private DLPythonSharedMemoryRegion(final long dataSize) throws IOException {
+            final Path dir = Files.isDirectory(SHARED_MEMORY_DIR) && Files.isWritable(SHARED_MEMORY_DIR)
+                ? SHARED_MEMORY_DIR : null;
+            m_path = dir != null ? Files.createTempFile(dir, "knime-dl-", ".tensor")
+                : Files.createTempFile("knime-dl-", ".tensor");
+            m_dataSize = dataSize;
+            try (final RandomAccessFile file = new RandomAccessFile(m_path.toFile(), "rw");
+                    final FileChannel channel = file.getChannel()) {
+                file.setLength(HEADER_SIZE + dataSize);
+                m_header = channel.map(MapMode.READ_WRITE, 0, HEADER_SIZE);
+                m_header.order(ByteOrder.LITTLE_ENDIAN);
+                m_segments = new ArrayList<>((int)(dataSize / SEGMENT_SIZE) + 1);
+                for (long pos = 0; pos < dataSize; pos += SEGMENT_SIZE) {
+                    final MappedByteBuffer segment =
+                        channel.map(MapMode.READ_WRITE, HEADER_SIZE + pos, Math.min(SEGMENT_SIZE, dataSize - pos));
+                    segment.order(ByteOrder.LITTLE_ENDIAN);
+                    m_segments.add(segment);
+                }
+            } catch (final IOException e) {
+                delete();
+                throw e;
+            }
+        }
+
+        /**
+         * Copies the given range of the given storage array into (<code>toRegion</code>) or out of this region. The
+         * region's data always starts at the first element of the range.
+         */
+        private void copy(final Object storage, final long start, final long length, final int elementSize,
+            final boolean toRegion) {
+            final long elementsPerSegment = SEGMENT_SIZE / elementSize;
+            long i = 0;
+            while (i < length) {
+                final int segmentIndex = (int)(i / elementsPerSegment);
+                final int inSegment = (int)(i % elementsPerSegment);
+                final int n = (int)Math.min(length - i, elementsPerSegment - inSegment);
+                final ByteBuffer segment = m_segments.get(segmentIndex).duplicate().order(ByteOrder.LITTLE_ENDIAN);
+                segment.position(inSegment * elementSize);
+                final int pos = (int)(start + i);
+                if (storage instanceof float[]) {
+                    if (toRegion) {
+                        segment.asFloatBuffer().put((float[])storage, pos, n);
+                    } else {
+                        segment.asFloatBuffer().get((float[])storage, pos, n);
+                    }
+                } else if (storage instanceof double[]) {
+                    if (toRegion) {
+                        segment.asDoubleBuffer().put((double[])storage, pos, n);
+                    } else {
+                        segment.asDoubleBuffer().get((double[])storage, pos, n);
+                    }
+                } else if (storage instanceof int[]) {
+                    if (toRegion) {
+                        segment.asIntBuffer().put((int[])storage, pos, n);
+                    } else {
+                        segment.asIntBuffer().get((int[])storage, pos, n);
+                    }
+                } else if (storage instanceof long[]) {
+                    if (toRegion) {
+                        segment.asLongBuffer().put((long[])storage, pos, n);
+                    } else {
+                        segment.asLongBuffer().get((long[])storage, pos, n);
+                    }
+                } else if (storage instanceof short[]) {
+                    if (toRegion) {
+                        segment.asShortBuffer().put((short[])storage, pos, n);
+                    } else {
+                        segment.asShortBuffer().get((short[])storage, pos, n);
+                    }
+                } else if (storage instanceof byte[]) {
+                    if (toRegion) {
+                        segment.put((byte[])storage, pos, n);
+                    } else {
+                        segment.get((byte[])storage, pos, n);
+                    }
+                } else {
+                    throw new IllegalArgumentException(
+                        "Storage type '" + storage.getClass().getSimpleName() + "' is not supported.");
+                }
+                i += n;
+            }
+        }
+
+        /**
+         * Copies the given range of the given off-heap buffer into (<code>toRegion</code>) or out of this region,
+         * segment by segment and without an intermediate copy on the Java heap. The region's data always starts at
+         * the first element of the range. Copying out of the region does not update the buffer's size.
+         */
+        private void copyOffHeap(final DLAbstractOffHeapBuffer buffer, final long start, final long length,
+            final int elementSize, final boolean toRegion) {
+            final long elementsPerSegment = SEGMENT_SIZE / elementSize;
+            final int elementsPerBufferSegment = buffer.getSegmentSize();
+            long i = 0;
+            while (i < length) {
+                final long pos = start + i;
+                final int inSegment = (int)(i % elementsPerSegment);
+                final int inBufferSegment = (int)(pos % elementsPerBufferSegment);
+                final int n = (int)Math.min(length - i,
+                    Math.min(elementsPerSegment - inSegment, elementsPerBufferSegment - inBufferSegment));
+                final ByteBuffer segment = m_segments.get((int)(i / elementsPerSegment)).duplicate();
+                segment.position(inSegment * elementSize).limit((inSegment + n) * elementSize);
+                final int bufferSegmentIndex = (int)(pos / elementsPerBufferSegment);
+                final ByteBuffer bufferSegment = toRegion ? buffer.getSegment(bufferSegmentIndex)
+                    : buffer.getSegmentForWriting(bufferSegmentIndex);
+                bufferSegment.position(inBufferSegment * elementSize).limit((inBufferSegment + n) * elementSize);
+                // slicing drops the byte order, typed views convert between the buffer's native and our byte order
+                final ByteBuffer regionSlice = segment.slice().order(ByteOrder.LITTLE_ENDIAN);
+                final ByteBuffer bufferSlice = bufferSegment.slice().order(ByteOrder.nativeOrder());
+                final ByteBuffer src = toRegion ? bufferSlice : regionSlice;
+                final ByteBuffer dst = toRegion ? regionSlice : bufferSlice;
+                if (elementSize == Double.BYTES) {
+                    dst.asDoubleBuffer().put(src.asDoubleBuffer());
+                } else {
+                    dst.asFloatBuffer().put(src.asFloatBuffer());
+                }
+                i += n;
+            }
+        }
+
+        /**
+         * Packs the given range of bits of the given packed bit storage into (<code>toRegion</code>) or unpacks it out
+         * of this region. A bit tensor's packed bytes always fit into the first segment.
+         */
+        private void copyBits(final long[] words, final long start, final long length, final boolean toRegion) {
+            if (length == 0) {
+                return;
+            }
+            final byte[] packed = new byte[DLPackedBitBuffer.getNumPackedBytes(length)];
+            final ByteBuffer segment = m_segments.get(0).duplicate();
+            if (toRegion) {
+                DLPackedBitBuffer.pack(words, start, length, packed, 0);
+                segment.put(packed);
+            } else {
+                segment.get(packed);
+                DLPackedBitBuffer.unpack(packed, 0, length, words, start);
+            }
+        }
+
+        private void close() {
+            // NB: mappings are released once the buffers are garbage collected. Deleting the file is still possible
+            // on POSIX systems, otherwise the file is deleted on exit.
+            delete();
+        }
+
+        private void delete() {
+            try {
+                Files.deleteIfExists(m_path);
+            } catch (final IOException e) {
+                LOGGER.debug("Failed to delete shared memory file '" + m_path + "'. Deleting it on exit.", e);
+                m_path.toFile().deleteOnExit();
+            }
+        }
+    }
+}
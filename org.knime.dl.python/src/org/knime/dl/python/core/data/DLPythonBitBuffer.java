@@ -52,19 +52,20 @@
 import java.nio.BufferUnderflowException;
 
 import org.knime.core.data.DataType;
-import org.knime.dl.core.data.DLDefaultBitBuffer;
+import org.knime.dl.core.data.DLPackedBitBuffer;
 import org.knime.dl.core.data.DLReadableBitBuffer;
 import org.knime.dl.core.data.DLWritableBitBuffer;
 
 /**
- * Bit type implementation of {@link DLPythonAbstractDataBuffer}.
+ * Bit type implementation of {@link DLPythonAbstractDataBuffer}. Bits are stored {@link DLPackedBitBuffer packed} and
+ * are transmitted to and from Python in packed byte format.
  *
  * @author Benjamin Wilhelm, KNIME GmbH, Konstanz, Germany
  * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
  * @author Christian Dietz, KNIME GmbH, Konstanz, Germany
  */
 @SuppressWarnings("serial") // not intended for serialization
-public class DLPythonBitBuffer extends DLPythonAbstractDataBuffer<DLDefaultBitBuffer, boolean[]>
+public class DLPythonBitBuffer extends DLPythonAbstractDataBuffer<DLPackedBitBuffer, long[]>
     implements DLWritableBitBuffer, DLReadableBitBuffer {
 
     /**
@@ -78,7 +79,22 @@ public class DLPythonBitBuffer extends DLPythonAbstractDataBuffer<DLDefaultBitBu
      * @param capacity the immutable capacity of the buffer
      */
     public DLPythonBitBuffer(final long capacity) {
-        super(new DLDefaultBitBuffer(capacity));
+        super(new DLPackedBitBuffer(capacity));
+    }
+
+    /**
+     * @see DLPackedBitBuffer#readToPackedByteArray(byte[], int, int)
+     */
+    public void readToPackedByteArray(final byte[] dest, final int destPos, final int length)
+        throws BufferUnderflowException {
+        m_buffer.readToPackedByteArray(dest, destPos, length);
+    }
+
+    /**
+     * @see DLPackedBitBuffer#putAllPacked(byte[], int, int)
+     */
+    public void putAllPacked(final byte[] src, final int srcPos, final int length) throws BufferOverflowException {
+        m_buffer.putAllPacked(src, srcPos, length);
     }
 
     @Override
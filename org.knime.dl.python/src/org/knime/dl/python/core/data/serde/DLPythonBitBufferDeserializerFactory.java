@@ -49,6 +49,8 @@
 package org.knime.dl.python.core.data.serde;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 import org.knime.core.data.DataCell;
 import org.knime.core.data.filestore.FileStoreFactory;
@@ -92,9 +94,9 @@ public DataCell deserialize(final byte[] bytes, final FileStoreFactory fileStore
                 // for (int i = 0; i < numDimensions; i++) {
                 // shape[i] = buffer.getLong();
                 // }
-                final DLPythonBitBuffer value = new DLPythonBitBuffer(bytes.length);
-                final boolean[] storage = value.getStorageForWriting(0, bytes.length);
-                writeToStorage(bytes, storage, 0, bytes.length);
+                final int size = getSize(bytes);
+                final DLPythonBitBuffer value = new DLPythonBitBuffer(size);
+                value.putAllPacked(bytes, Long.BYTES, size);
                 return value;
             }
 
@@ -106,17 +108,14 @@ public void deserialize(final byte[] bytes, final DLTensor<DLPythonBitBuffer> da
                 // for (int i = 0; i < numDimensions; i++) {
                 // shape[i] = buffer.getLong();
                 // }
-                final DLPythonBitBuffer tensorBuffer = data.getBuffer();
-                final int writeStart = (int)tensorBuffer.size();
-                final boolean[] storage = tensorBuffer.getStorageForWriting(writeStart, bytes.length);
-                writeToStorage(bytes, storage, writeStart, bytes.length);
+                data.getBuffer().putAllPacked(bytes, Long.BYTES, getSize(bytes));
             }
 
-            private void writeToStorage(final byte[] bytes, final boolean[] storage, final int start,
-                final int length) {
-                for (int i = start; i < start + length; i++) {
-                    storage[i] = bytes[i] != 0;
-                }
+            /**
+             * The number of bits precedes the packed bits as the last byte may be padded.
+             */
+            private int getSize(final byte[] bytes) {
+                return (int)ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).getLong();
             }
         };
     }
@@ -49,8 +49,11 @@
 package org.knime.dl.python.core.data.serde;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 import org.knime.dl.core.data.DLBuffer;
+import org.knime.dl.core.data.DLPackedBitBuffer;
 import org.knime.dl.python.core.data.DLPythonBitBuffer;
 import org.knime.python.typeextension.Serializer;
 import org.knime.python.typeextension.SerializerFactory;
@@ -82,15 +85,17 @@ public Serializer<? extends DLPythonBitBuffer> createSerializer() {
             // TODO: we serialize to flat buffers for now
             // final int numDimensions = value.getNumDimensions();
             // final long[] shape = value.getShape();
+            // the number of bits precedes the packed bits as the last byte may be padded
             final long size = value.size() - value.getNextReadPosition();
-            final long numBytes = size;
+            final long numBytes = Long.BYTES + (long)DLPackedBitBuffer.getNumPackedBytes(size);
             if (numBytes > Integer.MAX_VALUE) {
                 throw new IOException(
                     "Transmitting data to Python failed. Buffer size exceeds the limit of 2^31-1 bytes.");
             }
             // Create the target array
             final byte[] target = new byte[(int)numBytes];
-            value.readToByteArray(target, 0, (int)size);
+            ByteBuffer.wrap(target).order(ByteOrder.LITTLE_ENDIAN).putLong(size);
+            value.readToPackedByteArray(target, Long.BYTES, (int)size);
             // TODO: we serialize to flat buffers for now
             // buffer.putInt(numDimensions);
             // for (final long dim : shape) {
@@ -49,18 +49,16 @@
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
 
 import org.knime.core.data.DataCell;
 import org.knime.core.data.filestore.FileStoreFactory;
 import org.knime.dl.core.DLTensor;
 import org.knime.dl.python.core.data.DLPythonDataBuffer;
-import org.knime.dl.python.core.data.DLPythonFloatBuffer;
 import org.knime.dl.python.core.data.DLPythonStringBuffer;
 import org.knime.python.typeextension.Deserializer;
 import org.knime.python.typeextension.DeserializerFactory;
 
-import com.google.common.base.Charsets;
-
 /**
  * @author Adrian Nembach, KNIME GmbH, Konstanz, Germany
  */
@@ -81,7 +79,7 @@ public DLPythonStringBufferDeserializerFactory() {
 
     @Override
     public Class<? extends DLPythonDataBuffer<?>> getBufferType() {
-        return DLPythonFloatBuffer.class;
+        return DLPythonStringBuffer.class;
     }
 
     @Override
@@ -89,39 +87,35 @@ public Deserializer createDeserializer() {
         return new DLPythonDeserializer<DLPythonStringBuffer>() {
 
             @Override
-            public DataCell deserialize(byte[] bytes, FileStoreFactory fileStoreFactory) throws IOException {
-                final int[] lengths = getLengths(bytes);
-                final DLPythonStringBuffer buffer = new DLPythonStringBuffer(lengths.length);
-                readStrings(bytes, buffer, lengths);
+            public DataCell deserialize(final byte[] bytes, final FileStoreFactory fileStoreFactory)
+                throws IOException {
+                final DLPythonStringBuffer buffer = new DLPythonStringBuffer(getSize(bytes));
+                readStrings(bytes, buffer);
                 return buffer;
             }
 
             @Override
-            public void deserialize(byte[] bytes, DLTensor<DLPythonStringBuffer> data) {
-                final int[] lengths = getLengths(bytes);
-                final DLPythonStringBuffer buffer = data.getBuffer();
-                readStrings(bytes, buffer, lengths);
+            public void deserialize(final byte[] bytes, final DLTensor<DLPythonStringBuffer> data) {
+                readStrings(bytes, data.getBuffer());
             }
 
-            private void readStrings(byte[] bytes, DLPythonStringBuffer buffer, int[] lengths) {
-                int nValues = lengths.length;
-                int offset = Integer.BYTES * (nValues + 1);
-                for (int i = 0; i < nValues; i++) {
-                    int length = lengths[i];
-                    buffer.put(new String(bytes, offset, length, Charsets.UTF_8));
-                    offset += length;
-                }
+            private int getSize(final byte[] bytes) {
+                return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).getInt();
             }
 
-            private int[] getLengths(byte[] bytes) {
-                final ByteBuffer buffer = ByteBuffer.wrap(bytes);
-                buffer.order(ByteOrder.LITTLE_ENDIAN);
-                int nValues = buffer.getInt();
-                int[] lengths = new int[nValues];
-                for (int i = 0; i < nValues; i++) {
-                    lengths[i] = buffer.getInt();
+            /**
+             * See {@link DLPythonStringBufferSerializerFactory} for the format.
+             */
+            private void readStrings(final byte[] bytes, final DLPythonStringBuffer buffer) {
+                final ByteBuffer offsets = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+                final int size = offsets.getInt();
+                final int dataStart = (size + 2) * Integer.BYTES;
+                int start = offsets.getInt();
+                for (int i = 0; i < size; i++) {
+                    final int end = offsets.getInt();
+                    buffer.put(new String(bytes, dataStart + start, end - start, StandardCharsets.UTF_8));
+                    start = end;
                 }
-                return lengths;
             }
         };
     }
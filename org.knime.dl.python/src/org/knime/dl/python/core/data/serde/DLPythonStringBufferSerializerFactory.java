@@ -46,18 +46,21 @@
  */
 package org.knime.dl.python.core.data.serde;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.util.Arrays;
+import java.nio.charset.StandardCharsets;
 
 import org.knime.dl.core.data.DLBuffer;
 import org.knime.dl.python.core.data.DLPythonStringBuffer;
 import org.knime.python.typeextension.Serializer;
 import org.knime.python.typeextension.SerializerFactory;
 
-import com.google.common.base.Charsets;
-
 /**
+ * Strings are transmitted in columnar form: the number of strings, the offsets of the strings in the data block (number
+ * of strings + 1 entries, the first one being zero) and the data block of all UTF-8 encoded strings. All integers are
+ * little-endian <code>int</code>s.
+ *
  * @author Adrian Nembach, KNIME GmbH, Konstanz, Germany
  */
 public class DLPythonStringBufferSerializerFactory extends SerializerFactory<DLPythonStringBuffer>
@@ -84,24 +87,33 @@ public Serializer<? extends DLPythonStringBuffer> createSerializer() {
         return DLPythonStringBufferSerializerFactory::createBytes;
     }
 
-    private static byte[] createBytes(DLPythonStringBuffer value) {
+    private static byte[] createBytes(final DLPythonStringBuffer value) throws IOException {
         // Note that casting to int should be fine because the data is stored in a array which is indexed by int
         final int nextRead = (int)value.getNextReadPosition();
         final int size = (int)(value.size() - nextRead);
-        String[] storage = value.getStorageForReading(nextRead, size);
+        final String[] storage = value.getStorageForReading(nextRead, size);
         final byte[][] values = new byte[size][];
-        final int[] lengths = new int[size];
-        int totalLength = (size + 1) * Integer.BYTES;
+        long numBytes = (size + 2L) * Integer.BYTES;
         for (int i = 0; i < size; i++) {
-            values[i] = storage[nextRead + i].getBytes(Charsets.UTF_8);
-            lengths[i] = values[i].length;
-            totalLength += lengths[i];
+            values[i] = storage[nextRead + i].getBytes(StandardCharsets.UTF_8);
+            numBytes += values[i].length;
+        }
+        if (numBytes > Integer.MAX_VALUE) {
+            throw new IOException(
+                "Transmitting data to Python failed. Buffer size exceeds the limit of 2^31-1 bytes.");
         }
-        ByteBuffer buffer = ByteBuffer.allocate(totalLength);
+        final ByteBuffer buffer = ByteBuffer.allocate((int)numBytes);
         buffer.order(ByteOrder.LITTLE_ENDIAN);
         buffer.putInt(size);
-        Arrays.stream(lengths).forEachOrdered(buffer::putInt);
-        Arrays.stream(values).forEachOrdered(buffer::put);
+        int offset = 0;
+        buffer.putInt(offset);
+        for (final byte[] v : values) {
+            offset += v.length;
+            buffer.putInt(offset);
+        }
+        for (final byte[] v : values) {
+            buffer.put(v);
+        }
         return buffer.array();
     }
 
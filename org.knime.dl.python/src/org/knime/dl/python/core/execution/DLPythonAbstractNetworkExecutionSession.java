@@ -62,14 +62,16 @@
 import org.knime.dl.core.DLTensorFactory;
 import org.knime.dl.core.DLTensorId;
 import org.knime.dl.core.DLTensorSpec;
+import org.knime.dl.core.data.DLReadableBuffer;
 import org.knime.dl.core.data.DLWritableBuffer;
 import org.knime.dl.core.execution.DLAbstractNetworkExecutionSession;
+import org.knime.dl.core.execution.DLBatchExecutor;
 import org.knime.dl.core.execution.DLExecutionMonitor;
-import org.knime.dl.core.execution.DLExecutionStatus;
 import org.knime.dl.core.execution.DLNetworkOutputConsumer;
 import org.knime.dl.core.training.DLTrainingMonitor;
 import org.knime.dl.python.core.DLPythonCommands;
 import org.knime.dl.python.core.DLPythonContext;
+import org.knime.dl.python.core.DLPythonKernelPool;
 import org.knime.dl.python.core.DLPythonNetwork;
 import org.knime.dl.python.core.DLPythonNetworkHandle;
 import org.knime.dl.python.core.DLPythonNetworkLoaderRegistry;
@@ -91,6 +93,11 @@
 
 	private DLPythonNetworkHandle m_handle;
 
+	/**
+	 * Non-null if the network is executed in a kernel of the {@link DLPythonKernelPool}.
+	 */
+	private DLPythonKernelPool.Lease m_lease;
+
     private final Map<String, String> m_additionalEnvVars;
 
     protected DLPythonAbstractNetworkExecutionSession(final DLPythonContext context, final N network,
@@ -113,43 +120,70 @@ public void close() throws Exception {
 		if (m_commands != null) {
 			m_commands.close();
 		}
+		if (m_lease != null) {
+			m_lease.close();
+		}
 	}
 
 	@Override
 	protected void executeInternal(final DLExecutionMonitor monitor) throws DLCanceledExecutionException, Exception {
 		if (m_commands == null) {
-			m_commands = createCommands(m_context);
+			if (DLPythonKernelPool.isEnabled()) {
+				m_lease = DLPythonKernelPool.getInstance().lease(m_network, m_context, m_additionalEnvVars)
+					.orElse(null);
+			}
+			m_commands = createCommands(m_lease != null ? m_lease.getContext() : m_context);
             @SuppressWarnings("resource") // Closed in #close
             final DLPythonContext context = m_commands.getContext(monitor);
-            for (final Entry<String, String> var : m_additionalEnvVars.entrySet()) {
-                context.setEnvironmentVariable(var.getKey(), var.getValue(), monitor);
+            if (m_lease != null && m_lease.getNetworkHandle().isPresent()) {
+                // warm kernel, environment variables are already set and the network is already loaded
+                m_handle = m_lease.getNetworkHandle().get();
+            } else {
+                for (final Entry<String, String> var : m_additionalEnvVars.entrySet()) {
+                    context.setEnvironmentVariable(var.getKey(), var.getValue(), monitor);
+                }
+                m_handle = DLPythonNetworkLoaderRegistry.getInstance()
+                    .getNetworkLoader((Class<N>)m_network.getClass())
+                    .orElseThrow(() -> new DLMissingExtensionException(
+                        "Python back end '" + m_network.getClass().getCanonicalName()
+                            + "' could not be found. Are you missing a KNIME Deep Learning extension?"))
+                    .load(m_network, context, false, monitor);
+                if (m_lease != null) {
+                    m_lease.setNetworkHandle(m_handle);
+                }
             }
-            m_handle = DLPythonNetworkLoaderRegistry.getInstance().getNetworkLoader((Class<N>)m_network.getClass())
-                .orElseThrow(
-                    () -> new DLMissingExtensionException("Python back end '" + m_network.getClass().getCanonicalName()
-                        + "' could not be found. Are you missing a KNIME Deep Learning extension?"))
-                .load(m_network, m_commands.getContext(monitor), false, monitor);
 		}
-		final DLExecutionStatus status = monitor.getExecutionStatus();
-		long currentInBatchSize = m_expectedBatchSize;
-        while (m_inputPreparer.hasNext()) {
-			monitor.checkCanceled();
-            m_inputPreparer.prepareNext(m_input);
-			monitor.checkCanceled();
-            if (!m_inputPreparer.hasNext()) {
-				// last batch might be incomplete
-				final DLTensor<? extends DLWritableBuffer> tensor = m_input.values().stream().findAny().get();
-				currentInBatchSize = tensor.getBuffer().size() / tensor.getExampleSize();
+		m_commands.setStageTimings(m_stageTimings);
+		try {
+			executeBatchesInternal(monitor);
+			m_commands.fetchBackendStageTimings(monitor);
+		} catch (final Exception e) {
+			// the kernel may be in an inconsistent state, do not return it to the pool
+			if (m_lease != null) {
+				m_lease.invalidate();
 			}
-			m_commands.setNetworkInputs(m_handle, m_input, monitor);
-			monitor.checkCanceled();
-			m_commands.executeNetwork(m_handle, m_requestedOutputs, currentInBatchSize, monitor);
-			monitor.checkCanceled();
-			for (final DLTensor<?> input : m_input.values()) {
-				input.getBuffer().reset();
+			throw e;
+		}
+	}
+
+	private void executeBatchesInternal(final DLExecutionMonitor monitor)
+		throws DLCanceledExecutionException, Exception {
+		executeBatches(monitor, new DLBatchExecutor() {
+
+			@Override
+			public void execute(final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> input,
+					final long batchSize, final DLExecutionMonitor monitor)
+					throws DLCanceledExecutionException, Exception {
+				m_commands.setNetworkInputs(m_handle, input, monitor);
+				monitor.checkCanceled();
+				m_commands.executeNetwork(m_handle, m_requestedOutputs, batchSize, monitor);
 			}
-			if (m_output == null) {
-				m_output = new HashMap<>(m_requestedOutputs.size());
+
+			@Override
+			public Map<DLTensorId, DLTensor<? extends DLReadableBuffer>> createOutput(
+					final DLExecutionMonitor monitor) throws DLCanceledExecutionException, Exception {
+				final Map<DLTensorId, DLTensor<? extends DLReadableBuffer>> output = new HashMap<>(
+						m_requestedOutputs.size());
 				final DLTensorSpec[] outputSpecs = ArrayUtils.addAll(m_network.getSpec().getOutputSpecs(),
 						m_network.getSpec().getHiddenOutputSpecs());
 				final Map<DLTensorId, long[]> outputShapes = m_commands.getNetworkOutputShapes(m_handle,
@@ -162,18 +196,18 @@ protected void executeInternal(final DLExecutionMonitor monitor) throws DLCancel
 						System.arraycopy(outShape, 1, outShapeWithoutBatchSize, 0, outShapeWithoutBatchSize.length);
 						final DLTensorSpec executionSpec = m_tensorFactory.createExecutionTensorSpec(spec, outBatchSize,
 								outShapeWithoutBatchSize);
-						m_output.put(spec.getIdentifier(), m_tensorFactory.createReadableTensor(executionSpec));
+						output.put(spec.getIdentifier(), m_tensorFactory.createReadableTensor(executionSpec));
 					}
 				}
+				return output;
 			}
-			m_commands.getNetworkOutputs(m_handle, m_output, monitor);
-			monitor.checkCanceled();
-			m_outputConsumer.accept(m_output);
-			for (final DLTensor<?> output : m_output.values()) {
-				output.getBuffer().reset();
+
+			@Override
+			public void fetchOutput(final Map<DLTensorId, DLTensor<? extends DLReadableBuffer>> output,
+					final DLExecutionMonitor monitor) throws DLCanceledExecutionException, Exception {
+				m_commands.getNetworkOutputs(m_handle, output, monitor);
 			}
-			status.batchEnded().raise(null);
-		}
+		});
 	}
 
     @Override
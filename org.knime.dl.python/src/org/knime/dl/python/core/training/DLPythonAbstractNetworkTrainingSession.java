@@ -46,6 +46,8 @@
  */
 package org.knime.dl.python.core.training;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
@@ -101,6 +103,8 @@
 
     private final Map<String, String> m_additionalEnvVars;
 
+    private int m_trainingDataWindowSize = 1;
+
 
 	/**
 	 * @param network the network to train
@@ -178,6 +182,8 @@ protected void trainInternal(final DLTrainingMonitor<? extends S> monitor)
                 .load(m_network, m_commands.getContext(monitor), true, monitor);
 			setNetworkTrainingConfig(m_handle, m_trainingConfig, monitor);
 		}
+		m_commands.setStageTimings(m_stageTimings);
+		m_commands.setTrainingDataWindowSize(m_trainingDataWindowSize);
 		m_commands.trainNetwork(m_handle, m_trainingInputProvider, m_validationInputProvider, monitor);
 	}
 
@@ -185,4 +191,10 @@ protected void trainInternal(final DLTrainingMonitor<? extends S> monitor)
     public void setKernelEnvironmentVariable(final String name, final String value) {
         m_additionalEnvVars.put(name, value);
     }
+
+    @Override
+    public void setTrainingDataWindowSize(final int windowSize) {
+        checkArgument(windowSize > 0, "Training data window size must be positive.");
+        m_trainingDataWindowSize = windowSize;
+    }
 }
@@ -62,4 +62,14 @@
      * @param value value of the environment variable
      */
     void setKernelEnvironmentVariable(final String name, final String value);
+
+    /**
+     * Sets the number of consecutive batches that are transmitted to Python per request.
+     *
+     * @param windowSize the number of batches per request, must be positive
+     * @since 4.5
+     */
+    default void setTrainingDataWindowSize(final int windowSize) {
+        // no op
+    }
 }
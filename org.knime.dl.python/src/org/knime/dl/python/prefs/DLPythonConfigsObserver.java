@@ -55,6 +55,7 @@
 
 import org.knime.core.node.defaultnodesettings.SettingsModelString;
 import org.knime.core.util.Version;
+import org.knime.dl.python.core.DLPythonAbstractNetworkLoader;
 import org.knime.dl.python.core.DLPythonModuleDependencyRegistry;
 import org.knime.dl.python.prefs.DLTestStatusChangeListenerCollection.DLPythonConfigsInstallationTestStatusChangeListener;
 import org.knime.python2.PythonCommand;
@@ -147,6 +148,7 @@ final class DLPythonConfigsObserver {
 
     /** Check the currently configured preferences. All of them */
     public void testCurrentPreferences() {
+        DLPythonAbstractNetworkLoader.invalidateAvailabilityCache();
         if (isPythonEnvironmentSelected()) {
             //
             // Using the python config
@@ -273,6 +275,7 @@ private void setDefaultPythonTestResult(final PythonKernelTestResult testResult)
     }
 
     private void testDLPythonEnvironment(final boolean isConda, final DLPythonLibrarySelection library) {
+        DLPythonAbstractNetworkLoader.invalidateAvailabilityCache();
         // Conda or manual
         final PythonEnvironmentType environmentType;
         final DLPythonEnvironmentsConfig environmentsConfig;
@@ -69,6 +69,7 @@
 import org.eclipse.ui.PartInitException;
 import org.eclipse.ui.PlatformUI;
 import org.knime.core.node.NodeLogger;
+import org.knime.dl.python.core.DLPythonAbstractNetworkLoader;
 import org.knime.dl.python.prefs.DLTestStatusChangeListenerCollection.DLPythonConfigsInstallationTestStatusChangeListener;
 import org.knime.python2.PythonKernelTester.PythonKernelTestResult;
 import org.knime.python2.config.PythonConfigStorage;
@@ -293,6 +294,8 @@ private void updateDisplayMinSize() {
     @Override
     public boolean performOk() {
         m_config.save();
+        // the tests are not rerun here, discard their cached results instead
+        DLPythonAbstractNetworkLoader.invalidateAvailabilityCache();
         return true;
     }
 
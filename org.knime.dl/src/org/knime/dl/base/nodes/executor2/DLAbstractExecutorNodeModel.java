@@ -63,6 +63,7 @@
 import java.util.stream.Collectors;
 
 import org.knime.core.data.DataColumnSpec;
+import org.knime.core.data.DataColumnSpecCreator;
 import org.knime.core.data.DataRow;
 import org.knime.core.data.DataTableSpec;
 import org.knime.core.data.DataValue;
@@ -91,6 +92,7 @@
 import org.knime.core.node.streamable.RowOutput;
 import org.knime.core.node.streamable.StreamableOperator;
 import org.knime.core.node.util.filter.column.DataColumnSpecFilterConfiguration;
+import org.knime.core.util.FileUtil;
 import org.knime.core.util.UniqueNameGenerator;
 import org.knime.dl.base.nodes.DLConfigurationUtility;
 import org.knime.dl.base.nodes.DLTensorRole;
@@ -105,18 +107,22 @@
 import org.knime.dl.core.DLInstallationTestTimeoutException;
 import org.knime.dl.core.DLMissingDependencyException;
 import org.knime.dl.core.DLMissingExtensionException;
+import org.knime.dl.core.DLMissingValueStrategy;
 import org.knime.dl.core.DLNetwork;
 import org.knime.dl.core.DLNetworkInputPreparer;
 import org.knime.dl.core.DLNetworkSpec;
+import org.knime.dl.core.DLStageTimings;
 import org.knime.dl.core.DLNotCancelable;
 import org.knime.dl.core.DLRowInputRowIterator;
 import org.knime.dl.core.DLTensorId;
 import org.knime.dl.core.DLTensorSpec;
 import org.knime.dl.core.data.DLReadableBuffer;
+import org.knime.dl.core.data.DLTensorCell;
 import org.knime.dl.core.data.convert.DLDataValueToTensorConverterFactory;
 import org.knime.dl.core.data.convert.DLTensorToDataCellConverterFactory;
 import org.knime.dl.core.execution.DLDefaultExecutionStatus;
 import org.knime.dl.core.execution.DLExecutionContext;
+import org.knime.dl.core.execution.DLExecutionResultCache;
 import org.knime.dl.core.execution.DLExecutionStatus;
 import org.knime.dl.core.execution.DLKnimeExecutionMonitor;
 import org.knime.dl.core.execution.DLKnimeNetworkExecutionInputPreparer;
@@ -149,6 +155,13 @@
 
     private static final NodeLogger LOGGER = NodeLogger.getLogger(DLAbstractExecutorNodeModel.class);
 
+    /**
+     * The number of batches per stage that are in flight at once if execution is pipelined: one batch is being
+     * prepared while the other one is being executed (input side), one batch is being fetched while the other one is
+     * being converted (output side).
+     */
+    private static final int PIPELINE_DEPTH = 2;
+
     static DLExecutorGeneralConfig createGeneralModelConfig() {
         return new DLExecutorGeneralConfig("<none>", null, 100);
     }
@@ -204,12 +217,13 @@ public DLAbstractExecutorNodeModel(final PortType networkPortType) {
 
     @Override
     public InputPortRole[] getInputPortRoles() {
-        return new InputPortRole[]{InputPortRole.NONDISTRIBUTED_NONSTREAMABLE, InputPortRole.NONDISTRIBUTED_STREAMABLE};
+        // Each partition of the input data is executed in its own session. The network is shared read-only.
+        return new InputPortRole[]{InputPortRole.DISTRIBUTED_NONSTREAMABLE, InputPortRole.DISTRIBUTED_STREAMABLE};
     }
 
     @Override
     public OutputPortRole[] getOutputPortRoles() {
-        return new OutputPortRole[]{OutputPortRole.NONDISTRIBUTED};
+        return new OutputPortRole[]{OutputPortRole.DISTRIBUTED};
     }
 
     @Override
@@ -224,7 +238,9 @@ public void runFinal(final PortInput[] inputs, final PortOutput[] outputs, final
                 final RowInput rowInput = (RowInput)inputs[IN_DATA_PORT_IDX];
                 final RowOutput rowOutput = (RowOutput)outputs[OUT_DATA_PORT_IDX];
 
-                executeInternal(portObject, rowInput, rowOutput, exec);
+                // The number of partitions determines the number of concurrent sessions.
+                final boolean partitioned = partitionInfo.getPartitionCount() > 1;
+                executeInternal(portObject, rowInput, rowOutput, partitioned, exec);
             }
         };
     }
@@ -287,7 +303,7 @@ protected PortObject[] execute(final PortObject[] inObjects, final ExecutionCont
         final BufferedDataTableRowOutput rowOutput =
             new BufferedDataTableRowOutput(exec.createDataContainer(createOutputSpec(inDataSpec)));
 
-        executeInternal(portObject, rowInput, rowOutput, exec);
+        executeInternal(portObject, rowInput, rowOutput, false, exec);
 
         return new PortObject[]{rowOutput.getDataTable()};
     }
@@ -505,16 +521,30 @@ private DataTableSpec createOutputSpec(final DataTableSpec inDataSpec) {
                 // converters.
                 return null;
             }
+            final Optional<long[]> shape = DLUtils.Shapes.getFixedShape(outputSpec.getShape());
             for (int i = 0; i < count.getAsLong(); i++) {
-                outputSpecs.add(nameGenerator.newColumn(prefix + Integer.toString(i), converter.getDestType()));
+                final DataColumnSpec columnSpec =
+                    nameGenerator.newColumn(prefix + Integer.toString(i), converter.getDestType());
+                if (converter.getDestType().equals(DLTensorCell.TYPE) && shape.isPresent()) {
+                    // tensor cells only hold the elements, the shape is stored once per column
+                    final DataColumnSpecCreator columnSpecCreator = new DataColumnSpecCreator(columnSpec);
+                    columnSpecCreator.setProperties(DLTensorCell.createColumnProperties(shape.get()));
+                    outputSpecs.add(columnSpecCreator.createSpec());
+                } else {
+                    outputSpecs.add(columnSpec);
+                }
             }
         }
         final DataTableSpec outDataSpec = new DataTableSpec(outputSpecs.toArray(new DataColumnSpec[0]));
         return keepInputColumns ? new DataTableSpec(inDataSpec, outDataSpec) : outDataSpec;
     }
 
+    /**
+     * @param partitioned whether the row input is only one of several partitions of the input table that are executed
+     *            concurrently
+     */
     private <N extends DLNetwork> void executeInternal(final PortObject portObject, final RowInput rowInput,
-        final RowOutput rowOutput, final ExecutionContext exec) throws Exception {
+        final RowOutput rowOutput, final boolean partitioned, final ExecutionContext exec) throws Exception {
         @SuppressWarnings("unchecked")
         final N network = (N)extractNetworkFromPortObject((DLNetworkPortObject)portObject);
         final DLNetworkSpec networkSpec = network.getSpec();
@@ -543,28 +573,150 @@ private <N extends DLNetwork> void executeInternal(final PortObject portObject,
         final LinkedHashMap<DLTensorId, DLTensorToDataCellConverterFactory<?, ?>> outputConverterForTensorId =
             createOutputConverterMap();
 
+        final boolean useResultCache = m_generalCfg.getResultCacheEntry().getValue();
+        if (useResultCache && partitioned) {
+            // partitions would compete for the same cache file
+            setWarningMessage("The result cache is not used if the input table is partitioned.");
+        }
+        final DLExecutionResultCache resultCache = useResultCache && !partitioned
+            ? openResultCache(network, inDataSpec, columnsForTensorId, inputConverterForTensorId,
+                outputConverterForTensorId)
+            : null;
+        final RowInput networkInput;
+        final RowOutput networkOutput;
+        if (resultCache != null) {
+            // the output must be wrapped first, cache hits are forwarded to it while polling the input
+            networkOutput = resultCache.wrapOutput(rowOutput, keepInputColumns);
+            networkInput = resultCache.wrapInput(rowInput, columnsForTensorId);
+        } else {
+            networkOutput = rowOutput;
+            networkInput = rowInput;
+        }
+
         final C context = getContext(m_generalCfg.getContextEntry().getValue());
-        try (final DLRowInputRowIterator rowIterator = new DLRowInputRowIterator(rowInput, columnsForTensorId);
+        final DLStageTimings stageTimings =
+            m_generalCfg.getRecordStageTimingsEntry().getValue() ? new DLStageTimings() : DLStageTimings.DISABLED;
+        try (final DLRowInputRowIterator rowIterator = new DLRowInputRowIterator(networkInput, columnsForTensorId);
                 final DLKnimeNetworkExecutionInputPreparer inputPreparer = new DLKnimeNetworkExecutionInputPreparer(
                     rowIterator, batchSize, isPredefinedBatchSize, inputConverterForTensorId);
-                final DLKnimeNetworkOutputConsumer outputConsumer = new DLKnimeNetworkOutputConsumer(rowOutput,
+                final DLKnimeNetworkOutputConsumer outputConsumer = new DLKnimeNetworkOutputConsumer(networkOutput,
                     inputPreparer.getBaseRows()::remove, keepInputColumns, outputConverterForTensorId, exec);
-                final DLNetworkExecutionSession session =
-                    createExecutionSession(context, network, batchSize, columnsForTensorId, outputConverterForTensorId,
-                        rowIterator.peek(), inputPreparer, outputConsumer)) {
-            final DLKnimeExecutionMonitor monitor = createExecutionMonitor(exec, inputPreparer.getNumBatches());
-            session.run(monitor);
+                // null if no rows are left to execute, e.g. if all results are cached; closing the output consumer then
+                // forwards them
+                final DLNetworkExecutionSession session = rowIterator.hasNext()
+                    ? createExecutionSession(context, network, batchSize, columnsForTensorId,
+                        outputConverterForTensorId, rowIterator.peek(), inputPreparer, outputConsumer)
+                    : null) {
+            if (session == null) {
+                if (resultCache != null) {
+                    LOGGER.debug("All results of the network execution were served from the result cache.");
+                }
+            } else {
+                runExecutionSession(session, inputPreparer, stageTimings, exec);
+            }
+            if (resultCache != null) {
+                saveResultCache(resultCache, exec);
+            }
         } catch (final CanceledExecutionException | DLCanceledExecutionException e) {
             throw e;
         } catch (final Exception e) {
             handleGeneralException(e);
         } finally {
+            if (resultCache != null) {
+                resultCache.close();
+            }
             if (context instanceof AutoCloseable) {
                 ((AutoCloseable)context).close();
             }
         }
     }
 
+    private void runExecutionSession(final DLNetworkExecutionSession session,
+        final DLKnimeNetworkExecutionInputPreparer inputPreparer, final DLStageTimings stageTimings,
+        final ExecutionContext exec) throws Exception {
+        if (m_generalCfg.getPipelinedExecutionEntry().getValue()) {
+            session.setPipelineDepth(PIPELINE_DEPTH);
+        }
+        inputPreparer.setNumPreparationThreads(m_generalCfg.getPreparationThreadsEntry().getValue());
+        inputPreparer.setMissingValueStrategy(
+            DLMissingValueStrategy.fromLabel(m_generalCfg.getMissingValueStrategyEntry().getValue()),
+            m_generalCfg.getMissingValueFillEntry().getValue());
+        session.setStageTimings(stageTimings);
+        final DLKnimeExecutionMonitor monitor = createExecutionMonitor(exec, inputPreparer.getNumBatches());
+        session.run(monitor);
+        final long numSkippedRows = inputPreparer.getNumSkippedRows();
+        if (numSkippedRows > 0) {
+            setWarningMessage(numSkippedRows + " input row(s) containing missing values were skipped.");
+        }
+        if (stageTimings.isEnabled()) {
+            LOGGER.info("Stage timings of network execution:\n" + stageTimings.getSummary());
+            stageTimings.getFlowVariables().forEach(this::pushFlowVariableDouble);
+        }
+    }
+
+    /**
+     * @return the result cache, <code>null</code> if the network or the cache location do not support caching
+     */
+    private DLExecutionResultCache openResultCache(final DLNetwork network, final DataTableSpec inDataSpec,
+        final Map<DLTensorId, int[]> columnsForTensorId,
+        final Map<DLTensorId, DLDataValueToTensorConverterFactory<?, ?>> inputConverterForTensorId,
+        final Map<DLTensorId, DLTensorToDataCellConverterFactory<?, ?>> outputConverterForTensorId) {
+        // everything besides the network and the input cells that affects the output cells
+        final StringBuilder configuration =
+            new StringBuilder(m_generalCfg.getContextEntry().getValue().getIdentifier());
+        for (final Entry<DLTensorId, int[]> entry : columnsForTensorId.entrySet()) {
+            configuration.append('\n').append(entry.getKey().getIdentifierString()).append(':')
+                .append(inputConverterForTensorId.get(entry.getKey()).getIdentifier());
+            for (final int column : entry.getValue()) {
+                configuration.append(':').append(inDataSpec.getColumnSpec(column).getName());
+            }
+        }
+        for (final Entry<DLTensorId, DLTensorToDataCellConverterFactory<?, ?>> entry : outputConverterForTensorId
+            .entrySet()) {
+            configuration.append('\n').append(entry.getKey().getIdentifierString()).append(':')
+                .append(entry.getValue().getIdentifier());
+        }
+        configuration.append('\n').append(m_generalCfg.getMissingValueStrategyEntry().getValue()).append(':')
+            .append(m_generalCfg.getMissingValueFillEntry().getValue());
+        try {
+            final Optional<String> key = DLExecutionResultCache.createKey(network, configuration.toString());
+            if (!key.isPresent()) {
+                setWarningMessage("The input network is not backed by a local file. Results are not cached.");
+                return null;
+            }
+            final File directory = FileUtil.getFileFromURL(
+                FileUtil.toURL(m_generalCfg.getResultCacheLocationEntry().getValue()));
+            if (directory == null) {
+                setWarningMessage("The result cache location is not a local directory. Results are not cached.");
+                return null;
+            }
+            final DataTableSpec outDataSpec = createOutputSpec(inDataSpec);
+            final int numInputColumns =
+                m_generalCfg.getKeepInputColumnsEntry().getValue() ? inDataSpec.getNumColumns() : 0;
+            final DataColumnSpec[] resultColumns = new DataColumnSpec[outDataSpec.getNumColumns() - numInputColumns];
+            for (int i = 0; i < resultColumns.length; i++) {
+                resultColumns[i] = outDataSpec.getColumnSpec(numInputColumns + i);
+            }
+            return DLExecutionResultCache.open(directory, key.get(), new DataTableSpec(resultColumns));
+        } catch (final Exception e) {
+            LOGGER.warn("The network execution result cache could not be opened: " + e.getMessage(), e);
+            setWarningMessage("The result cache could not be opened. Results are not cached. See log for details.");
+            return null;
+        }
+    }
+
+    private void saveResultCache(final DLExecutionResultCache resultCache, final ExecutionContext exec)
+        throws CanceledExecutionException {
+        LOGGER.info(resultCache.getNumHits() + " of " + (resultCache.getNumHits() + resultCache.getNumMisses())
+            + " row(s) were served from the network execution result cache.");
+        try {
+            resultCache.save(exec.createSubProgress(0));
+        } catch (final IOException e) {
+            LOGGER.warn("The network execution result cache could not be written: " + e.getMessage(), e);
+            setWarningMessage("The result cache could not be written. See log for details.");
+        }
+    }
+
     protected abstract DLNetwork extractNetworkFromPortObject(DLNetworkPortObject networkPortObject) throws Exception;
 
     protected abstract C getContext(final DLExecutionContext<?, ?> ctx);
@@ -57,7 +57,9 @@
 import org.knime.dl.base.settings.AbstractConfigEntry;
 import org.knime.dl.base.settings.ConfigEntry;
 import org.knime.dl.base.settings.DLGeneralConfig;
+import org.knime.dl.base.settings.DefaultConfigEntry;
 import org.knime.dl.base.settings.SettingsModelConfigEntries;
+import org.knime.dl.core.DLMissingValueStrategy;
 import org.knime.dl.core.DLNetwork;
 import org.knime.dl.core.execution.DLExecutionContext;
 import org.knime.dl.core.execution.DLExecutionContextRegistry;
@@ -81,6 +83,43 @@ class DLExecutorGeneralConfig extends AbstractConfig implements DLGeneralConfig<
 
     private static final String CFG_KEY_KEEP_INPUT_COLS = "keep_input_columns";
 
+    /**
+     * @since 4.5
+     */
+    private static final String CFG_KEY_PIPELINED_EXECUTION = "pipelined_execution";
+
+    /**
+     * @since 4.5
+     */
+    private static final String CFG_KEY_RECORD_STAGE_TIMINGS = "record_stage_timings";
+
+    /**
+     * @since 4.5
+     */
+    private static final String CFG_KEY_PREPARATION_THREADS = "input_preparation_threads";
+
+    /**
+     * @since 4.5
+     */
+    private static final String CFG_KEY_MISSING_VALUE_STRATEGY = "missing_value_strategy";
+
+    /**
+     * @since 4.5
+     */
+    private static final String CFG_KEY_MISSING_VALUE_FILL = "missing_value_fill";
+
+    /**
+     * @since 4.5
+     */
+    private static final String CFG_KEY_RESULT_CACHE = "result_cache";
+
+    /**
+     * @since 4.5
+     */
+    private static final String CFG_KEY_RESULT_CACHE_LOCATION = "result_cache_location";
+
+    private static final String DEFAULT_RESULT_CACHE_LOCATION = "knime://knime.workflow/data/dl_executor_cache";
+
     @SuppressWarnings("rawtypes") // java limitation
     DLExecutorGeneralConfig(final String defaultBackendName, final String defaultBackendId,
         final int defaultBatchSize) {
@@ -114,6 +153,71 @@ public void loadSettingsFrom(final NodeSettingsRO settings) throws InvalidSettin
         put(SettingsModelConfigEntries.createIntegerBoundedConfigEntry(CFG_KEY_BATCH_SIZE, defaultBatchSize, 1,
             Integer.MAX_VALUE));
         put(SettingsModelConfigEntries.createBooleanConfigEntry(CFG_KEY_KEEP_INPUT_COLS, false));
+        put(new DefaultConfigEntry<Boolean>(CFG_KEY_PIPELINED_EXECUTION, Boolean.class, false) {
+
+            @Override
+            protected boolean handleFailureToLoadConfigEntry(final NodeSettingsRO settings, final Exception cause) {
+                // backward compatibility (4.5): execution was not pipelined before
+                m_value = false;
+                return true;
+            }
+        });
+        put(new DefaultConfigEntry<Boolean>(CFG_KEY_RECORD_STAGE_TIMINGS, Boolean.class, false) {
+
+            @Override
+            protected boolean handleFailureToLoadConfigEntry(final NodeSettingsRO settings, final Exception cause) {
+                // backward compatibility (4.5): stage timings were not recorded before
+                m_value = false;
+                return true;
+            }
+        });
+        put(new DefaultConfigEntry<Integer>(CFG_KEY_PREPARATION_THREADS, Integer.class, 1) {
+
+            @Override
+            protected boolean handleFailureToLoadConfigEntry(final NodeSettingsRO settings, final Exception cause) {
+                // backward compatibility (4.5): input was always prepared on a single thread before
+                m_value = 1;
+                return true;
+            }
+        });
+        put(new DefaultConfigEntry<String>(CFG_KEY_MISSING_VALUE_STRATEGY, String.class,
+            DLMissingValueStrategy.FAIL.getLabel()) {
+
+            @Override
+            protected boolean handleFailureToLoadConfigEntry(final NodeSettingsRO settings, final Exception cause) {
+                // backward compatibility (4.5): missing cells always caused the execution to fail before
+                m_value = DLMissingValueStrategy.FAIL.getLabel();
+                return true;
+            }
+        });
+        put(new DefaultConfigEntry<Double>(CFG_KEY_MISSING_VALUE_FILL, Double.class, 0d) {
+
+            @Override
+            protected boolean handleFailureToLoadConfigEntry(final NodeSettingsRO settings, final Exception cause) {
+                // backward compatibility (4.5): see missing value strategy
+                m_value = 0d;
+                return true;
+            }
+        });
+        put(new DefaultConfigEntry<Boolean>(CFG_KEY_RESULT_CACHE, Boolean.class, false) {
+
+            @Override
+            protected boolean handleFailureToLoadConfigEntry(final NodeSettingsRO settings, final Exception cause) {
+                // backward compatibility (4.5): results were not cached before
+                m_value = false;
+                return true;
+            }
+        });
+        put(new DefaultConfigEntry<String>(CFG_KEY_RESULT_CACHE_LOCATION, String.class,
+            DEFAULT_RESULT_CACHE_LOCATION) {
+
+            @Override
+            protected boolean handleFailureToLoadConfigEntry(final NodeSettingsRO settings, final Exception cause) {
+                // backward compatibility (4.5): see result cache
+                m_value = DEFAULT_RESULT_CACHE_LOCATION;
+                return true;
+            }
+        });
     }
 
     ConfigEntry<Integer> getBatchSizeEntry() {
@@ -130,6 +234,55 @@ public ConfigEntry<Boolean> getKeepInputColumnsEntry() {
         return get(CFG_KEY_KEEP_INPUT_COLS, Boolean.class);
     }
 
+    /**
+     * @since 4.5
+     */
+    ConfigEntry<Boolean> getPipelinedExecutionEntry() {
+        return get(CFG_KEY_PIPELINED_EXECUTION, Boolean.class);
+    }
+
+    /**
+     * @since 4.5
+     */
+    ConfigEntry<Boolean> getRecordStageTimingsEntry() {
+        return get(CFG_KEY_RECORD_STAGE_TIMINGS, Boolean.class);
+    }
+
+    /**
+     * @since 4.5
+     */
+    ConfigEntry<Integer> getPreparationThreadsEntry() {
+        return get(CFG_KEY_PREPARATION_THREADS, Integer.class);
+    }
+
+    /**
+     * @since 4.5
+     */
+    ConfigEntry<String> getMissingValueStrategyEntry() {
+        return get(CFG_KEY_MISSING_VALUE_STRATEGY, String.class);
+    }
+
+    /**
+     * @since 4.5
+     */
+    ConfigEntry<Double> getMissingValueFillEntry() {
+        return get(CFG_KEY_MISSING_VALUE_FILL, Double.class);
+    }
+
+    /**
+     * @since 4.5
+     */
+    ConfigEntry<Boolean> getResultCacheEntry() {
+        return get(CFG_KEY_RESULT_CACHE, Boolean.class);
+    }
+
+    /**
+     * @since 4.5
+     */
+    ConfigEntry<String> getResultCacheLocationEntry() {
+        return get(CFG_KEY_RESULT_CACHE_LOCATION, String.class);
+    }
+
     static Collection<DLExecutionContext<?, ?>> // NOSONAR Internal API. Types will be checked at a later point in time.
     getAvailableExecutionContexts(final Class<? extends DLNetwork> networkType) {
         return DLExecutionContextRegistry.getInstance().getExecutionContextsForNetworkType(networkType);
@@ -46,6 +46,7 @@
  */
 package org.knime.dl.base.nodes.executor2;
 
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -59,7 +60,9 @@
 import org.knime.dl.base.nodes.AbstractGridBagDialogComponentGroup;
 import org.knime.dl.base.nodes.DialogComponentObjectSelection;
 import org.knime.dl.base.portobjects.DLNetworkPortObjectSpec;
+import org.knime.dl.base.settings.ConfigEntry;
 import org.knime.dl.base.settings.ConfigUtil;
+import org.knime.dl.core.DLMissingValueStrategy;
 import org.knime.dl.core.DLNetwork;
 import org.knime.dl.core.DLNetworkSpec;
 import org.knime.dl.core.DLTensorSpec;
@@ -94,6 +97,25 @@ class DLExecutorGeneralPanel extends AbstractGridBagDialogComponentGroup {
             "Input batch size", 100);
         addCheckboxRow(ConfigUtil.toSettingsModelBoolean(m_cfg.getKeepInputColumnsEntry()),
             "Keep input columns in output table", true);
+        addCheckboxRow(ConfigUtil.toSettingsModelBoolean(m_cfg.getPipelinedExecutionEntry()),
+            "Prepare next batch and convert previous outputs while executing", true);
+        addNumberSpinnerRowComponent(
+            ConfigUtil.toSettingsModelIntegerBounded(m_cfg.getPreparationThreadsEntry(), 1, Integer.MAX_VALUE),
+            "Number of threads for input preparation", 1);
+        addComboBoxRow(ConfigUtil.toSettingsModelString(m_cfg.getMissingValueStrategyEntry()),
+            "Missing value handling", Arrays.stream(DLMissingValueStrategy.values())
+                .map(DLMissingValueStrategy::getLabel).collect(Collectors.toList()));
+        addNumberEditRowComponent(ConfigUtil.toSettingsModelDouble(m_cfg.getMissingValueFillEntry()),
+            "Missing value fill constant");
+        final ConfigEntry<Boolean> resultCacheEntry = m_cfg.getResultCacheEntry();
+        final ConfigEntry<String> resultCacheLocationEntry = m_cfg.getResultCacheLocationEntry();
+        addCheckboxRow(ConfigUtil.toSettingsModelBoolean(resultCacheEntry), "Cache results of unchanged rows", true);
+        addStringEditRowComponent(ConfigUtil.toSettingsModelString(resultCacheLocationEntry), "Result cache location");
+        resultCacheLocationEntry.setEnabled(resultCacheEntry.getValue());
+        resultCacheEntry.addValueChangeListener((e, v) -> resultCacheLocationEntry.setEnabled(e.getValue()));
+        resultCacheEntry.addLoadListener(e -> resultCacheLocationEntry.setEnabled(e.getValue()));
+        addCheckboxRow(ConfigUtil.toSettingsModelBoolean(m_cfg.getRecordStageTimingsEntry()),
+            "Record stage timings", true);
     }
 
     @Override
@@ -0,0 +1,207 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.base.portobjects;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.util.FileUtil;
+
+import com.google.common.hash.Hashing;
+
+/**
+ * Content-addressed store of network files that allows file stores to share a single copy of a network file via hard
+ * links. Each distinct file content is copied into the store once and then linked into any number of file stores,
+ * which makes populating a file store with a large network a constant-time operation after the first time.
+ * <P>
+ * Only files that are never modified in place may be linked, since all links share the same content. This holds for
+ * file stores, which are immutable once their owning port object was created. Stored files are deliberately kept
+ * writable: attributes belong to the file content shared by all links, and file stores must be able to delete their
+ * links (read-only files cannot be deleted on Windows). Files outside of the store are never
+ * linked directly, so later changes to them do not leak into file stores. The store is located in the KNIME temp
+ * directory which is where file stores are created during execution. Hard links cannot cross file systems, clients
+ * have to fall back to copying if linking fails.
+ *
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ */
+final class DLNetworkFileContentStore {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(DLNetworkFileContentStore.class);
+
+    /**
+     * The coarsest modification time resolution of common file systems (FAT).
+     */
+    private static final long TIMESTAMP_RESOLUTION_MS = 2000;
+
+    private static DLNetworkFileContentStore instance;
+
+    static synchronized DLNetworkFileContentStore getInstance() {
+        if (instance == null) {
+            instance = new DLNetworkFileContentStore(new File(KNIMEConstants.getKNIMETempDir(), "knime_dl_networks"));
+            instance.prune();
+        }
+        return instance;
+    }
+
+    private final File m_directory;
+
+    /**
+     * Content hashes of the source files linked in this session, by path. A hash is reused as long as the size and
+     * modification time of its file do not change and the file was not modified shortly before it was hashed.
+     */
+    private final Map<String, ContentHash> m_contentHashes = new ConcurrentHashMap<>();
+
+    DLNetworkFileContentStore(final File directory) {
+        m_directory = directory;
+    }
+
+    /**
+     * Makes the given destination file a hard link to the stored copy of the content of the given source file. The
+     * source content is copied to the store if it is not already present.
+     *
+     * @param source the source file, must be a local file
+     * @param destination the destination file, overwritten if it exists
+     * @return <code>true</code> if the destination was linked, <code>false</code> if linking is not possible (e.g.
+     *         the source is not a local file or the file system does not support hard links) in which case clients
+     *         have to copy the source themselves
+     */
+    boolean link(final URL source, final File destination) {
+        try {
+            final File sourceFile;
+            try {
+                sourceFile = FileUtil.getFileFromURL(source);
+            } catch (final IllegalArgumentException e) {
+                return false;
+            }
+            if (sourceFile == null || !sourceFile.isFile()) {
+                return false;
+            }
+            final Path storeFile = new File(m_directory, getContentHash(sourceFile)).toPath();
+            if (!Files.isRegularFile(storeFile)) {
+                Files.createDirectories(m_directory.toPath());
+                final Path tmpFile = File.createTempFile(storeFile.getFileName().toString(), ".tmp", m_directory)
+                    .toPath();
+                Files.copy(sourceFile.toPath(), tmpFile, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(tmpFile, storeFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            final Path destinationFile = destination.toPath();
+            Files.deleteIfExists(destinationFile);
+            Files.createLink(destinationFile, storeFile);
+            return true;
+        } catch (final Exception e) {
+            LOGGER.debug("Network file '" + source + "' could not be linked to '" + destination
+                + "', it will be copied instead: " + e.getMessage(), e);
+            return false;
+        }
+    }
+
+    private String getContentHash(final File file) throws IOException {
+        final long size = file.length();
+        final long lastModified = file.lastModified();
+        final ContentHash cached = m_contentHashes.get(file.getAbsolutePath());
+        if (cached != null && cached.m_size == size && cached.m_lastModified == lastModified) {
+            return cached.m_hash;
+        }
+        final long hashTime = System.currentTimeMillis();
+        final String hash = com.google.common.io.Files.asByteSource(file).hash(Hashing.sha256()).toString();
+        // A modification within the timestamp resolution of the last one could go unnoticed, only reuse the hash if
+        // the file had already been stable for longer than that when it was hashed.
+        if (hashTime - lastModified > TIMESTAMP_RESOLUTION_MS) {
+            m_contentHashes.put(file.getAbsolutePath(), new ContentHash(size, lastModified, hash));
+        } else {
+            m_contentHashes.remove(file.getAbsolutePath());
+        }
+        return hash;
+    }
+
+    /**
+     * Deletes stored files that are not linked by any file store anymore. Only supported on file systems that expose
+     * the link count of files.
+     */
+    void prune() {
+        final File[] files = m_directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (final File file : files) {
+            try {
+                final Object numLinks = Files.getAttribute(file.toPath(), "unix:nlink");
+                if (numLinks instanceof Integer && (Integer)numLinks <= 1) {
+                    Files.delete(file.toPath());
+                }
+            } catch (final UnsupportedOperationException | IllegalArgumentException e) {
+                // link counts are not available on this file system
+                return;
+            } catch (final IOException e) {
+                LOGGER.debug("Stored network file '" + file + "' could not be pruned: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private static final class ContentHash {
+
+        private final long m_size;
+
+        private final long m_lastModified;
+
+        private final String m_hash;
+
+        private ContentHash(final long size, final long lastModified, final String hash) {
+            m_size = size;
+            m_lastModified = lastModified;
+            m_hash = hash;
+        }
+    }
+}
@@ -151,7 +151,8 @@ public static FileStore createFileStoreForSaving(final String ext, final Executi
 	}
 
 	/**
-	 * Copies a single file (no directory) from a source URL to a destination file store.
+	 * Copies a single file (no directory) from a source URL to a destination file store. Local files are not copied
+	 * each time but hard-linked to a single stored copy of their content where the file system supports it.
 	 *
 	 * @param fileSource the source URL
 	 * @param destination the file store
@@ -160,7 +161,8 @@ public static FileStore createFileStoreForSaving(final String ext, final Executi
     public static void copyFileToFileStore(final URI fileSource, final FileStore destination) throws IOException {
 		final File file = destination.getFile();
         final URL fileSourceURL = fileSource.toURL();
-        if (!file.toURI().toURL().equals(fileSourceURL)) {
+        if (!file.toURI().toURL().equals(fileSourceURL)
+            && !DLNetworkFileContentStore.getInstance().link(fileSourceURL, file)) {
             try (InputStream in = fileSourceURL.openStream(); FileOutputStream out = new FileOutputStream(file)) {
 				FileUtil.copy(in, out);
 			}
@@ -49,13 +49,16 @@
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.nio.BufferOverflowException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
 import org.knime.core.data.DataValue;
 import org.knime.dl.core.data.DLWritableBuffer;
+import org.knime.dl.core.data.convert.DLBulkDataValueToTensorConverter;
 import org.knime.dl.core.data.convert.DLDataValueToTensorConverter;
 import org.knime.dl.core.data.convert.DLDataValueToTensorConverterFactory;
 
@@ -71,6 +74,18 @@ public abstract class DLAbstractKnimeNetworkInputPreparer implements DLNetworkIn
 
 	protected final Map<DLTensorId, DLDataValueToTensorConverter<?, ?>> m_converters;
 
+	/**
+	 * The data values of the current batch, per tensor. Only populated for tensors whose converters support bulk
+	 * conversion or, if parallel preparation is enabled, for all tensors. Filled by
+	 * {@link #bufferDataValuesInTensors(Map, Map)}, written into the tensors and cleared by
+	 * {@link #flushDataValuesInTensors(Map)}.
+	 */
+	private final Map<DLTensorId, DLDataValueBlock> m_blocks;
+
+	private final Map<DLTensorId, DLDataValueToTensorConverterFactory<?, ?>> m_converterFactories;
+
+	private DLParallelDataValueConversion m_parallelConversion;
+
 	/**
 	 * @param iterator provides the input data rows that are used by this instance to prepare (fill) the network tensors
 	 *            fed to {@link #prepare(Map, long)}.
@@ -83,27 +98,119 @@ public DLAbstractKnimeNetworkInputPreparer(final DLRowIterator iterator, final i
 		m_iterator = checkNotNull(iterator);
 		m_batchSize = batchSize;
 		m_converters = new HashMap<>(checkNotNull(converters).size());
+		m_blocks = new HashMap<>(converters.size());
+		m_converterFactories = new LinkedHashMap<>(converters);
 		for (final Entry<DLTensorId, DLDataValueToTensorConverterFactory<?, ?>> converter : converters.entrySet()) {
-			m_converters.put(converter.getKey(), converter.getValue().createConverter());
+			final DLDataValueToTensorConverter<?, ?> created = converter.getValue().createConverter();
+			m_converters.put(converter.getKey(), created);
+			if (created instanceof DLBulkDataValueToTensorConverter) {
+				m_blocks.put(converter.getKey(), new DLDataValueBlock(batchSize));
+			}
+		}
+	}
+
+	/**
+	 * Sets the number of threads that convert the rows of a batch. If greater than one, each batch is split into
+	 * contiguous row ranges which are converted concurrently, each by its own converter instances. The order of the
+	 * rows is preserved. Tensors whose buffers do not support this are still filled sequentially. Must be called
+	 * before the first batch is prepared.
+	 *
+	 * @param numThreads the number of threads, values smaller than two disable parallel preparation
+	 * @since 4.5
+	 */
+	public void setNumPreparationThreads(final int numThreads) {
+		if (m_parallelConversion != null) {
+			m_parallelConversion.close();
+			m_parallelConversion = null;
+		}
+		if (numThreads > 1) {
+			m_parallelConversion = new DLParallelDataValueConversion(numThreads, m_converterFactories);
+			for (final DLTensorId identifier : m_converters.keySet()) {
+				m_blocks.computeIfAbsent(identifier, id -> new DLDataValueBlock(m_batchSize));
+			}
+		} else {
+			m_blocks.keySet().removeIf(id -> !(m_converters.get(id) instanceof DLBulkDataValueToTensorConverter));
 		}
 	}
 
+	/**
+	 * Sets how the underlying row iterator treats missing cells. Rows that are skipped do not occupy a slot in a batch.
+	 * Must be called before the first batch is prepared.
+	 *
+	 * @param strategy the missing value strategy
+	 * @param fillValue the constant that replaces missing cells if the strategy is {@link DLMissingValueStrategy#FILL}
+	 * @see DLRowIterator#setMissingValueStrategy(DLMissingValueStrategy, double)
+	 * @since 4.5
+	 */
+	public void setMissingValueStrategy(final DLMissingValueStrategy strategy, final double fillValue) {
+		m_iterator.setMissingValueStrategy(strategy, fillValue);
+	}
+
+	/**
+	 * @return the number of rows that were skipped so far because of missing cells
+	 * @see DLRowIterator#getNumSkippedRows()
+	 * @since 4.5
+	 */
+	public long getNumSkippedRows() {
+		return m_iterator.getNumSkippedRows();
+	}
+
 	@Override
 	public void close() throws Exception {
+		if (m_parallelConversion != null) {
+			m_parallelConversion.close();
+		}
 		m_iterator.close();
 	}
 
 	/**
+	 * Writes the data values of a single row in the tensors.
+	 *
 	 * @param dataValues the data values which to write in the tensors
 	 * @param tensors the tensors in which to write the data values
 	 * @throws DLBufferOverflowExceptionForTensor if writing in a tensor exceeds its buffer's capacity. The affected
 	 *             tensor can be retrieved via {@link DLBufferOverflowExceptionForTensor#getTensor()}.
+	 * @throws IllegalStateException if values that were buffered by {@link #bufferDataValuesInTensors(Map, Map)} have
+	 *             not been flushed yet, since they would end up behind this row in the tensors
 	 */
 	protected final void writeDataValuesInTensors(final Map<DLTensorId, List<DataValue>> dataValues,
 			final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> tensors)
 			throws DLBufferOverflowExceptionForTensor {
+		checkNoBufferedDataValues();
+		for (final Entry<DLTensorId, DLTensor<? extends DLWritableBuffer>> entry : tensors.entrySet()) {
+			final DLTensorId identifier = entry.getKey();
+			final DLTensor<? extends DLWritableBuffer> tensor = entry.getValue();
+			final DLDataValueToTensorConverter converter = m_converters.get(identifier);
+			try {
+				converter.convert(dataValues.get(identifier), tensor);
+			} catch (final BufferOverflowException ex) {
+				throw new DLBufferOverflowExceptionForTensor(ex, tensor);
+			}
+		}
+	}
+
+	/**
+	 * Writes the data values of a single row in the tensors, deferring the values of tensors whose converters support
+	 * {@link DLBulkDataValueToTensorConverter bulk conversion} and, if {@link #setNumPreparationThreads(int) parallel
+	 * preparation} is enabled, of all tensors until the batch is complete. Callers must invoke
+	 * {@link #flushDataValuesInTensors(Map)} after the last row of each batch, before the tensors are consumed.
+	 *
+	 * @param dataValues the data values which to write in the tensors
+	 * @param tensors the tensors in which to write the data values
+	 * @throws DLBufferOverflowExceptionForTensor if writing in a tensor exceeds its buffer's capacity. The affected
+	 *             tensor can be retrieved via {@link DLBufferOverflowExceptionForTensor#getTensor()}.
+	 * @since 4.5
+	 */
+	protected final void bufferDataValuesInTensors(final Map<DLTensorId, List<DataValue>> dataValues,
+			final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> tensors)
+			throws DLBufferOverflowExceptionForTensor {
 		for (final Entry<DLTensorId, DLTensor<? extends DLWritableBuffer>> entry : tensors.entrySet()) {
 			final DLTensorId identifier = entry.getKey();
+			final DLDataValueBlock block = m_blocks.get(identifier);
+			if (block != null) {
+				block.add(dataValues.get(identifier));
+				continue;
+			}
 			final DLTensor<? extends DLWritableBuffer> tensor = entry.getValue();
 			final DLDataValueToTensorConverter converter = m_converters.get(identifier);
 			try {
@@ -115,7 +222,121 @@ protected final void writeDataValuesInTensors(final Map<DLTensorId, List<DataVal
 	}
 
 	/**
-	 * Thrown by {@link DLAbstractKnimeNetworkInputPreparer#writeDataValuesInTensors(Map, Map)} if a
+	 * @return whether values that were buffered by {@link #bufferDataValuesInTensors(Map, Map)} have not been flushed
+	 *         yet
+	 * @since 4.5
+	 */
+	protected final boolean hasBufferedDataValues() {
+		for (final DLDataValueBlock block : m_blocks.values()) {
+			if (!block.isEmpty()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void checkNoBufferedDataValues() {
+		if (hasBufferedDataValues()) {
+			throw new IllegalStateException("Data values of the current batch were buffered but not flushed. Invoke "
+					+ "flushDataValuesInTensors before writing further values or consuming the batch.");
+		}
+	}
+
+	/**
+	 * Writes the data values that were collected by {@link #bufferDataValuesInTensors(Map, Map)} in the tensors. Does
+	 * nothing if no values were collected.
+	 *
+	 * @param tensors the tensors in which to write the data values
+	 * @throws DLBufferOverflowExceptionForTensor if writing in a tensor exceeds its buffer's capacity. The affected
+	 *             tensor can be retrieved via {@link DLBufferOverflowExceptionForTensor#getTensor()}.
+	 * @throws DLCanceledExecutionException if parallel preparation was interrupted
+	 */
+	protected final void flushDataValuesInTensors(final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> tensors)
+			throws DLBufferOverflowExceptionForTensor, DLCanceledExecutionException {
+		try {
+			Map<DLTensorId, List<ArrayList<DataValue>>> parallelRows = null;
+			for (final Entry<DLTensorId, DLDataValueBlock> entry : m_blocks.entrySet()) {
+				final DLDataValueBlock block = entry.getValue();
+				if (block.isEmpty()) {
+					continue;
+				}
+				final DLTensor<? extends DLWritableBuffer> tensor = tensors.get(entry.getKey());
+				if (m_parallelConversion != null && DLParallelDataValueConversion.isSupported(tensor)) {
+					if (parallelRows == null) {
+						parallelRows = new HashMap<>(m_blocks.size());
+					}
+					parallelRows.put(entry.getKey(), block.getRows());
+					continue;
+				}
+				final DLDataValueToTensorConverter converter = m_converters.get(entry.getKey());
+				try {
+					if (converter instanceof DLBulkDataValueToTensorConverter) {
+						((DLBulkDataValueToTensorConverter) converter).convertBulk(block.getRows(), tensor);
+					} else {
+						for (final List<DataValue> row : block.getRows()) {
+							converter.convert(row, tensor);
+						}
+					}
+				} catch (final BufferOverflowException ex) {
+					throw new DLBufferOverflowExceptionForTensor(ex, tensor);
+				}
+			}
+			if (parallelRows != null) {
+				m_parallelConversion.convert(parallelRows, tensors);
+			}
+		} finally {
+			// also discard the values of partially prepared batches, e.g. if preparation failed
+			for (final DLDataValueBlock block : m_blocks.values()) {
+				block.clear();
+			}
+		}
+	}
+
+	/**
+	 * The data values of the rows of a batch that belong to a single tensor. The per-row lists are reused across
+	 * batches since {@link DLRowIterator#groupByTensor(org.knime.core.data.DataRow)} does not hand out fresh lists.
+	 */
+	private static final class DLDataValueBlock {
+
+		private final ArrayList<ArrayList<DataValue>> m_rows;
+
+		private int m_size;
+
+		private DLDataValueBlock(final int batchSize) {
+			m_rows = new ArrayList<>(batchSize);
+		}
+
+		private void add(final List<DataValue> values) {
+			if (m_size < m_rows.size()) {
+				final ArrayList<DataValue> row = m_rows.get(m_size);
+				row.clear();
+				// not addAll, which copies the values into a temporary array
+				for (int i = 0; i < values.size(); i++) {
+					row.add(values.get(i));
+				}
+			} else {
+				m_rows.add(new ArrayList<>(values));
+			}
+			m_size++;
+		}
+
+		private List<ArrayList<DataValue>> getRows() {
+			return m_rows.subList(0, m_size);
+		}
+
+		private boolean isEmpty() {
+			return m_size == 0;
+		}
+
+		private void clear() {
+			m_size = 0;
+		}
+	}
+
+	/**
+	 * Thrown by {@link DLAbstractKnimeNetworkInputPreparer#writeDataValuesInTensors(Map, Map)},
+	 * {@link DLAbstractKnimeNetworkInputPreparer#bufferDataValuesInTensors(Map, Map)} or
+	 * {@link DLAbstractKnimeNetworkInputPreparer#flushDataValuesInTensors(Map)} if a
 	 * <code>BufferOverflowException</code> occurs while filling a tensor.
 	 */
 	protected static class DLBufferOverflowExceptionForTensor extends Exception {
@@ -124,7 +345,7 @@ protected static class DLBufferOverflowExceptionForTensor extends Exception {
 
 		private final DLTensor<?> m_tensor;
 
-		private DLBufferOverflowExceptionForTensor(final BufferOverflowException cause, final DLTensor<?> tensor) {
+		DLBufferOverflowExceptionForTensor(final BufferOverflowException cause, final DLTensor<?> tensor) {
 			super(cause);
 			m_tensor = tensor;
 		}
@@ -48,18 +48,25 @@
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import org.knime.core.data.BooleanValue;
 import org.knime.core.data.DataCell;
 import org.knime.core.data.DataRow;
 import org.knime.core.data.DataTableSpec;
 import org.knime.core.data.DataType;
 import org.knime.core.data.DataValue;
+import org.knime.core.data.DoubleValue;
+import org.knime.core.data.IntValue;
+import org.knime.core.data.LongValue;
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
 
 /**
  * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
@@ -73,33 +80,116 @@ public abstract class DLAbstractRowIterator implements DLRowIterator {
 
 	protected final Map<DLTensorId, List<DataValue>> m_temp;
 
+	/**
+	 * The column indices of each tensor, resolved once at construction. Index-aligned with {@link #m_values}.
+	 */
+	private final int[][] m_tensorColumns;
+
+	/**
+	 * The value slots of each tensor which back the lists of {@link #m_temp}. Grouping a row only writes the row's
+	 * cells into these arrays and therefore does not allocate.
+	 */
+	private final DataValue[][] m_values;
+
+	private DLMissingValueStrategy m_missingValueStrategy = DLMissingValueStrategy.FAIL;
+
+	private double m_fillValue;
+
+	/**
+	 * The cells that replace missing cells if the strategy is {@link DLMissingValueStrategy#FILL}. Index-aligned with
+	 * {@link #m_tensorColumns}, created lazily per column as its type determines the type of the fill cell.
+	 */
+	private DataCell[][] m_fillCells;
+
+	private long m_numSkippedRows;
+
 	protected DLAbstractRowIterator(final DataTableSpec tableSpec, final Map<DLTensorId, int[]> columns) {
 		m_tableSpec = checkNotNull(tableSpec);
 		m_columns = new HashMap<>(checkNotNull(columns));
 		m_temp = new HashMap<>(columns.size());
+		m_tensorColumns = new int[columns.size()][];
+		m_values = new DataValue[columns.size()][];
+		int i = 0;
 		for (final Entry<DLTensorId, int[]> entry : columns.entrySet()) {
-			final int numColumns = entry.getValue().length;
-			final ArrayList<DataValue> list = new ArrayList<>(
-					Collections.nCopies(numColumns, DataType.getMissingCell()));
-			m_temp.put(entry.getKey(), list);
+			final DataValue[] values = new DataValue[entry.getValue().length];
+			Arrays.fill(values, DataType.getMissingCell());
+			m_tensorColumns[i] = entry.getValue().clone();
+			m_values[i] = values;
+			m_temp.put(entry.getKey(), Arrays.asList(values));
+			i++;
 		}
 	}
 
+	@Override
+	public void setMissingValueStrategy(final DLMissingValueStrategy strategy, final double fillValue) {
+		m_missingValueStrategy = checkNotNull(strategy);
+		m_fillValue = fillValue;
+		m_fillCells = null;
+	}
+
+	@Override
+	public long getNumSkippedRows() {
+		return m_numSkippedRows;
+	}
+
 	@Override
 	public final Map<DLTensorId, List<DataValue>> groupByTensor(final DataRow row) {
-		for (final Entry<DLTensorId, int[]> entry : m_columns.entrySet()) {
-			final int[] columns = entry.getValue();
-			final List<DataValue> list = m_temp.get(entry.getKey());
+		for (int t = 0; t < m_tensorColumns.length; t++) {
+			final int[] columns = m_tensorColumns[t];
+			final DataValue[] values = m_values[t];
 			for (int i = 0; i < columns.length; i++) {
 				final int column = columns[i];
 				final DataCell cell = row.getCell(column);
 				if (cell.isMissing()) {
-					throw new DLInvalidNetworkInputException("Missing cell in input row '" + row.getKey()
-							+ "', column '" + m_tableSpec.getColumnSpec(column).getName() + "'.");
+					switch (m_missingValueStrategy) {
+						case SKIP_ROW:
+							m_numSkippedRows++;
+							return null;
+						case FILL:
+							values[i] = getFillCell(t, i, row);
+							continue;
+						default:
+							throw new DLInvalidNetworkInputException("Missing cell in input row '" + row.getKey()
+									+ "', column '" + m_tableSpec.getColumnSpec(column).getName() + "'.");
+					}
 				}
-				list.set(i, cell);
+				values[i] = cell;
 			}
 		}
 		return m_temp;
 	}
+
+	private DataCell getFillCell(final int tensorIndex, final int columnIndex, final DataRow row) {
+		if (m_fillCells == null) {
+			m_fillCells = new DataCell[m_tensorColumns.length][];
+			for (int t = 0; t < m_tensorColumns.length; t++) {
+				m_fillCells[t] = new DataCell[m_tensorColumns[t].length];
+			}
+		}
+		DataCell fillCell = m_fillCells[tensorIndex][columnIndex];
+		if (fillCell == null) {
+			fillCell = createFillCell(m_tableSpec.getColumnSpec(m_tensorColumns[tensorIndex][columnIndex]).getType());
+			if (fillCell == null) {
+				throw new DLInvalidNetworkInputException("Missing cell in input row '" + row.getKey() + "', column '"
+						+ m_tableSpec.getColumnSpec(m_tensorColumns[tensorIndex][columnIndex]).getName()
+						+ "' cannot be filled with a constant. Only boolean and numeric columns are supported.");
+			}
+			m_fillCells[tensorIndex][columnIndex] = fillCell;
+		}
+		return fillCell;
+	}
+
+	private DataCell createFillCell(final DataType type) {
+		// check the most specific types first, e.g. an int column is also compatible to double
+		if (type.isCompatible(BooleanValue.class)) {
+			return BooleanCell.get(m_fillValue != 0);
+		} else if (type.isCompatible(IntValue.class)) {
+			return new IntCell((int)m_fillValue);
+		} else if (type.isCompatible(LongValue.class)) {
+			return new LongCell((long)m_fillValue);
+		} else if (type.isCompatible(DoubleValue.class)) {
+			return new DoubleCell(m_fillValue);
+		}
+		return null;
+	}
 }
@@ -0,0 +1,98 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.core;
+
+/**
+ * Determines how input preparation treats missing cells in the input columns of a network.
+ *
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ * @since 4.5
+ */
+public enum DLMissingValueStrategy {
+
+		/**
+		 * Input preparation fails if an input row contains a missing cell.
+		 */
+		FAIL("Fail"),
+
+		/**
+		 * Input rows that contain a missing cell are skipped. They do not appear in the output of an execution.
+		 */
+		SKIP_ROW("Skip row"),
+
+		/**
+		 * Missing cells are replaced by a constant. Only supported for boolean and numeric columns.
+		 */
+		FILL("Fill with constant");
+
+	private final String m_label;
+
+	private DLMissingValueStrategy(final String label) {
+		m_label = label;
+	}
+
+	/**
+	 * @return the human readable label of this strategy
+	 */
+	public String getLabel() {
+		return m_label;
+	}
+
+	/**
+	 * @param label the label of the strategy
+	 * @return the strategy with the given label
+	 * @throws IllegalArgumentException if there is no strategy with the given label
+	 */
+	public static DLMissingValueStrategy fromLabel(final String label) {
+		for (final DLMissingValueStrategy strategy : values()) {
+			if (strategy.m_label.equals(label)) {
+				return strategy;
+			}
+		}
+		throw new IllegalArgumentException("Unknown missing value strategy: '" + label + "'.");
+	}
+}
@@ -53,4 +53,15 @@
 public interface DLNetworkSession extends AutoCloseable {
 
 	DLNetwork getNetwork();
+
+	/**
+	 * Sets the instance that records how much time and data the stages of this session spend on their batches.
+	 * Sessions that are not instrumented ignore this setting. Must be called before the session is run.
+	 *
+	 * @param stageTimings the stage timings, {@link DLStageTimings#DISABLED} to not record anything (default)
+	 * @since 4.5
+	 */
+	default void setStageTimings(final DLStageTimings stageTimings) {
+		// no op
+	}
 }
@@ -0,0 +1,146 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.core;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.knime.dl.core.data.DLBuffer;
+import org.knime.dl.core.data.DLOffHeapDoubleBuffer;
+import org.knime.dl.core.data.DLOffHeapFloatBuffer;
+import org.knime.dl.core.data.DLReadableBuffer;
+import org.knime.dl.core.data.DLReadableDoubleBuffer;
+import org.knime.dl.core.data.DLReadableFloatBuffer;
+import org.knime.dl.core.data.DLWritableBuffer;
+import org.knime.dl.core.data.DLWritableDoubleBuffer;
+import org.knime.dl.core.data.DLWritableFloatBuffer;
+import org.knime.dl.util.DLUtils;
+
+/**
+ * Tensor factory that backs floating point tensors by {@link DLOffHeapFloatBuffer off-heap buffers} and delegates the
+ * creation of all other tensors as well as the remaining type and spec queries to another factory. The buffer types of
+ * floating point tensors are reported as the basic float and double buffer interfaces that the off-heap buffers
+ * implement.
+ * <P>
+ * Off-heap tensors are not limited to {@link Integer#MAX_VALUE} elements and keep large batches (e.g. of volumetric
+ * data) out of the Java heap. They may only be used with back ends that consume their tensors through the basic
+ * buffer interfaces (e.g. {@link DLReadableFloatBuffer}) rather than through a specific buffer
+ * implementation.
+ *
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ * @since 4.5
+ */
+public final class DLOffHeapTensorFactory implements DLTensorFactory {
+
+	private final DLTensorFactory m_delegate;
+
+	/**
+	 * @param delegate the factory to which the creation of non floating point tensors and their type queries as well
+	 *            as all spec queries are delegated
+	 */
+	public DLOffHeapTensorFactory(final DLTensorFactory delegate) {
+		m_delegate = checkNotNull(delegate);
+	}
+
+	@Override
+	public Class<? extends DLWritableBuffer> getWritableBufferType(final DLTensorSpec spec) {
+		final Class<?> t = spec.getElementType();
+		if (t.equals(double.class)) {
+			return DLWritableDoubleBuffer.class;
+		} else if (t.equals(float.class)) {
+			return DLWritableFloatBuffer.class;
+		}
+		return m_delegate.getWritableBufferType(spec);
+	}
+
+	@Override
+	public Class<? extends DLReadableBuffer> getReadableBufferType(final DLTensorSpec spec) {
+		final Class<?> t = spec.getElementType();
+		if (t.equals(double.class)) {
+			return DLReadableDoubleBuffer.class;
+		} else if (t.equals(float.class)) {
+			return DLReadableFloatBuffer.class;
+		}
+		return m_delegate.getReadableBufferType(spec);
+	}
+
+	@Override
+	public DLTensor<? extends DLWritableBuffer> createWritableTensor(final DLTensorSpec spec) {
+		return isOffHeapCapable(spec) ? createOffHeapTensor(spec) : m_delegate.createWritableTensor(spec);
+	}
+
+	@Override
+	public DLTensor<? extends DLReadableBuffer> createReadableTensor(final DLTensorSpec spec) {
+		return isOffHeapCapable(spec) ? createOffHeapTensor(spec) : m_delegate.createReadableTensor(spec);
+	}
+
+	@Override
+	public DLTensorSpec createExecutionTensorSpec(final DLTensorSpec spec, final long batchSize, final long[] shape) {
+		return m_delegate.createExecutionTensorSpec(spec, batchSize, shape);
+	}
+
+	private static boolean isOffHeapCapable(final DLTensorSpec spec) {
+		final Class<?> t = spec.getElementType();
+		return t.equals(float.class) || t.equals(double.class);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <B extends DLBuffer> DLTensor<B> createOffHeapTensor(final DLTensorSpec spec) {
+		final long[] shape = DLUtils.Shapes.getFixedShape(spec.getShape())
+				.orElseThrow(() -> new IllegalArgumentException(
+						"Tensor spec '" + spec.getName() + "' does not provide a shape. Tensor cannot be created."));
+		if (!spec.getBatchSize().isPresent()) {
+			throw new IllegalArgumentException(
+					"Tensor spec '" + spec.getName() + "' does not provide a batch size. Tensor cannot be created.");
+		}
+		final long exampleSize = DLUtils.Shapes.getSize(shape);
+		final long size = exampleSize * spec.getBatchSize().getAsLong();
+		final B buffer = spec.getElementType().equals(double.class) //
+				? (B) new DLOffHeapDoubleBuffer(size) //
+				: (B) new DLOffHeapFloatBuffer(size);
+		return new DLDefaultTensor<>(spec, buffer, exampleSize);
+	}
+}
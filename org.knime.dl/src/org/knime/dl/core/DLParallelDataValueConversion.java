@@ -0,0 +1,305 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.core;
+
+import java.nio.BufferOverflowException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.knime.core.data.DataValue;
+import org.knime.core.util.ThreadUtils;
+import org.knime.dl.core.DLAbstractKnimeNetworkInputPreparer.DLBufferOverflowExceptionForTensor;
+import org.knime.dl.core.data.DLBuffer;
+import org.knime.dl.core.data.DLDefaultBitBuffer;
+import org.knime.dl.core.data.DLDefaultByteBuffer;
+import org.knime.dl.core.data.DLDefaultDoubleBuffer;
+import org.knime.dl.core.data.DLDefaultFloatBuffer;
+import org.knime.dl.core.data.DLDefaultIntBuffer;
+import org.knime.dl.core.data.DLDefaultLongBuffer;
+import org.knime.dl.core.data.DLDefaultShortBuffer;
+import org.knime.dl.core.data.DLDefaultStringBuffer;
+import org.knime.dl.core.data.DLPackedBitBuffer;
+import org.knime.dl.core.data.DLWrappingDataBuffer;
+import org.knime.dl.core.data.DLWritableBuffer;
+import org.knime.dl.core.data.convert.DLBulkDataValueToTensorConverter;
+import org.knime.dl.core.data.convert.DLDataValueToTensorConverter;
+import org.knime.dl.core.data.convert.DLDataValueToTensorConverterFactory;
+
+/**
+ * Converts the rows of a batch on several threads. The rows are split into contiguous ranges, one per worker. Each
+ * worker converts its range into a private scratch tensor using its own converter instances. The scratch tensors are
+ * then appended to the actual tensors in range order, which preserves the row order.
+ * <P>
+ * Only tensors whose buffers {@link DLWrappingDataBuffer wrap} an array are supported, see
+ * {@link #isSupported(DLTensor)}.
+ *
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ */
+final class DLParallelDataValueConversion implements AutoCloseable {
+
+	private final int m_numThreads;
+
+	private final ExecutorService m_workers;
+
+	/**
+	 * One entry per worker. Converters are not necessarily thread-safe, so each worker gets its own instances.
+	 */
+	private final List<Map<DLTensorId, DLDataValueToTensorConverter<?, ?>>> m_converters;
+
+	/**
+	 * One entry per worker. Each map is only accessed by its worker while a batch is converted and by the calling
+	 * thread afterwards.
+	 */
+	private final List<Map<DLTensorId, DLTensor<DLWritableBuffer>>> m_scratchTensors;
+
+	/**
+	 * @param numThreads the number of worker threads, must be greater than one
+	 * @param converters the converter factories, one per supported tensor
+	 */
+	DLParallelDataValueConversion(final int numThreads,
+			final Map<DLTensorId, DLDataValueToTensorConverterFactory<?, ?>> converters) {
+		m_numThreads = numThreads;
+		m_converters = new ArrayList<>(numThreads);
+		m_scratchTensors = new ArrayList<>(numThreads);
+		for (int i = 0; i < numThreads; i++) {
+			final Map<DLTensorId, DLDataValueToTensorConverter<?, ?>> workerConverters = new HashMap<>(
+					converters.size());
+			for (final Entry<DLTensorId, DLDataValueToTensorConverterFactory<?, ?>> converter : converters
+					.entrySet()) {
+				workerConverters.put(converter.getKey(), converter.getValue().createConverter());
+			}
+			m_converters.add(workerConverters);
+			m_scratchTensors.add(new HashMap<>(converters.size()));
+		}
+		m_workers = Executors.newFixedThreadPool(numThreads, r -> {
+			final Thread thread = new Thread(r, "KNIME-DL-Input-Preparation");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * @param tensor the tensor to check
+	 * @return true if the rows of the given tensor can be converted in parallel
+	 */
+	static boolean isSupported(final DLTensor<?> tensor) {
+		return createScratchBuffer(tensor.getBuffer(), 0) != null;
+	}
+
+	/**
+	 * Converts the given rows and appends them to the tensors.
+	 *
+	 * @param rows the data values of the rows of the batch, per tensor. All tensors must be
+	 *            {@link #isSupported(DLTensor) supported} and all entries must have the same number of rows.
+	 * @param tensors the tensors in which to write the data values
+	 * @throws DLBufferOverflowExceptionForTensor if writing in a tensor exceeds its buffer's capacity
+	 * @throws DLCanceledExecutionException if the calling thread was interrupted while waiting for the workers
+	 */
+	void convert(final Map<DLTensorId, ? extends List<? extends List<DataValue>>> rows,
+			final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> tensors)
+			throws DLBufferOverflowExceptionForTensor, DLCanceledExecutionException {
+		if (rows.isEmpty()) {
+			return;
+		}
+		final int numRows = rows.values().iterator().next().size();
+		if (numRows == 0) {
+			return;
+		}
+		final int numRanges = Math.min(m_numThreads, numRows);
+		final int rangeSize = (numRows + numRanges - 1) / numRanges;
+		final List<Future<DLTensorId>> futures = new ArrayList<>(numRanges);
+		for (int i = 0; i < numRanges; i++) {
+			final int worker = i;
+			final int from = i * rangeSize;
+			final int to = Math.min(numRows, from + rangeSize);
+			futures.add(m_workers.submit(ThreadUtils
+					.callableWithContext(() -> convertRange(worker, from, to, rangeSize, rows, tensors))));
+		}
+		DLTensorId overflow = null;
+		try {
+			for (final Future<DLTensorId> future : futures) {
+				final DLTensorId id = future.get();
+				if (overflow == null) {
+					overflow = id;
+				}
+			}
+		} catch (final InterruptedException e) {
+			futures.forEach(f -> f.cancel(true));
+			Thread.currentThread().interrupt();
+			throw new DLCanceledExecutionException();
+		} catch (final ExecutionException e) {
+			futures.forEach(f -> f.cancel(true));
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException("An error occurred while preparing the network input: "
+					+ cause.getMessage(), cause);
+		}
+		if (overflow != null) {
+			throw new DLBufferOverflowExceptionForTensor(new BufferOverflowException(), tensors.get(overflow));
+		}
+		for (final DLTensorId id : rows.keySet()) {
+			final DLTensor<? extends DLWritableBuffer> tensor = tensors.get(id);
+			@SuppressWarnings("unchecked")
+			final DLWrappingDataBuffer<Object> target = (DLWrappingDataBuffer<Object>) tensor.getBuffer();
+			long position = target.size();
+			for (int i = 0; i < numRanges; i++) {
+				final DLWrappingDataBuffer<?> scratch = (DLWrappingDataBuffer<?>) m_scratchTensors.get(i).get(id)
+						.getBuffer();
+				final long length = scratch.size();
+				if (position + length > target.getCapacity()) {
+					throw new DLBufferOverflowExceptionForTensor(new BufferOverflowException(), tensor);
+				}
+				System.arraycopy(scratch.getStorageForReading(0, length), 0,
+						target.getStorageForWriting(position, length), (int) position, (int) length);
+				position += length;
+			}
+		}
+	}
+
+	@Override
+	public void close() {
+		m_workers.shutdownNow();
+		for (final Map<DLTensorId, DLTensor<DLWritableBuffer>> scratchTensors : m_scratchTensors) {
+			for (final DLTensor<DLWritableBuffer> scratch : scratchTensors.values()) {
+				scratch.close();
+			}
+			scratchTensors.clear();
+		}
+	}
+
+	/**
+	 * @return the identifier of the first tensor whose scratch buffer overflowed, null if none did
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private DLTensorId convertRange(final int worker, final int from, final int to, final int rangeSize,
+			final Map<DLTensorId, ? extends List<? extends List<DataValue>>> rows,
+			final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> tensors) {
+		final Map<DLTensorId, DLDataValueToTensorConverter<?, ?>> converters = m_converters.get(worker);
+		for (final Entry<DLTensorId, ? extends List<? extends List<DataValue>>> entry : rows.entrySet()) {
+			final DLTensorId id = entry.getKey();
+			final DLTensor<DLWritableBuffer> scratch = getScratchTensor(worker, id, tensors.get(id), rangeSize);
+			final List<? extends List<DataValue>> range = entry.getValue().subList(from, to);
+			final DLDataValueToTensorConverter converter = converters.get(id);
+			try {
+				if (converter instanceof DLBulkDataValueToTensorConverter) {
+					((DLBulkDataValueToTensorConverter) converter).convertBulk(range, scratch);
+				} else {
+					for (final List<DataValue> row : range) {
+						converter.convert(row, scratch);
+					}
+				}
+			} catch (final BufferOverflowException ex) {
+				return id;
+			}
+		}
+		return null;
+	}
+
+	private DLTensor<DLWritableBuffer> getScratchTensor(final int worker, final DLTensorId id,
+			final DLTensor<? extends DLWritableBuffer> tensor, final int rangeSize) {
+		final Map<DLTensorId, DLTensor<DLWritableBuffer>> scratchTensors = m_scratchTensors.get(worker);
+		final long capacity = rangeSize * tensor.getExampleSize();
+		DLTensor<DLWritableBuffer> scratch = scratchTensors.get(id);
+		if (scratch == null || scratch.getBuffer().getCapacity() < capacity) {
+			if (scratch != null) {
+				scratch.close();
+			}
+			scratch = new DLDefaultTensor<>(tensor.getSpec(), createScratchBuffer(tensor.getBuffer(), capacity),
+					tensor.getExampleSize());
+			scratchTensors.put(id, scratch);
+		} else {
+			scratch.getBuffer().reset();
+		}
+		return scratch;
+	}
+
+	/**
+	 * @return a buffer whose storage type matches the one of the given buffer, null if the given buffer does not wrap
+	 *         a supported storage
+	 */
+	private static DLWritableBuffer createScratchBuffer(final DLBuffer buffer, final long capacity) {
+		if (!(buffer instanceof DLWrappingDataBuffer)) {
+			return null;
+		}
+		final Object storage = ((DLWrappingDataBuffer<?>) buffer).getStorageForReading(0, 0);
+		// check the packed bit buffer first, its long[] storage must not be mistaken for the one of a long buffer
+		if (buffer instanceof DLPackedBitBuffer) {
+			// packed bit storages cannot be appended to by an element-wise array copy
+			return null;
+		} else if (storage instanceof boolean[]) {
+			return new DLDefaultBitBuffer(capacity);
+		} else if (storage instanceof float[]) {
+			return new DLDefaultFloatBuffer(capacity);
+		} else if (storage instanceof double[]) {
+			return new DLDefaultDoubleBuffer(capacity);
+		} else if (storage instanceof int[]) {
+			return new DLDefaultIntBuffer(capacity);
+		} else if (storage instanceof long[]) {
+			return new DLDefaultLongBuffer(capacity);
+		} else if (storage instanceof short[]) {
+			return new DLDefaultShortBuffer(capacity);
+		} else if (storage instanceof byte[]) {
+			// also covers unsigned byte buffers, both share the same storage representation
+			return new DLDefaultByteBuffer(capacity);
+		} else if (storage instanceof String[]) {
+			return new DLDefaultStringBuffer(capacity);
+		} else {
+			return null;
+		}
+	}
+}
@@ -77,9 +77,38 @@ public interface DLRowIterator extends Iterator<DataRow>, AutoCloseable {
 	/**
 	 * The returned map may be reused by subsequent runs of {@link #groupByTensor(DataRow)}. Thus, it is not safe to use
 	 * references to the returned values of previous calls of {@link #groupByTensor(DataRow)}.
+	 * <P>
+	 * Returns <code>null</code> if the row contains a missing cell and has to be skipped according to the iterator's
+	 * {@link DLMissingValueStrategy missing value strategy}. Callers must not write skipped rows into the network input.
 	 */
 	Map<DLTensorId, List<DataValue>> groupByTensor(DataRow row);
 
+	/**
+	 * Sets how {@link #groupByTensor(DataRow)} treats missing cells. The default is {@link DLMissingValueStrategy#FAIL}.
+	 *
+	 * @param strategy the missing value strategy
+	 * @param fillValue the constant that replaces missing cells if the strategy is {@link DLMissingValueStrategy#FILL},
+	 *            ignored otherwise
+	 * @throws UnsupportedOperationException if the iterator does not support missing value strategies other than
+	 *             {@link DLMissingValueStrategy#FAIL}
+	 * @since 4.5
+	 */
+	default void setMissingValueStrategy(final DLMissingValueStrategy strategy, final double fillValue) {
+		if (strategy != DLMissingValueStrategy.FAIL) {
+			throw new UnsupportedOperationException(
+				"Row iterator does not support missing value strategy '" + strategy.getLabel() + "'.");
+		}
+	}
+
+	/**
+	 * @return the number of rows that {@link #groupByTensor(DataRow)} skipped so far because of missing cells, rows
+	 *         that are visited multiple times (e.g. after a {@link #reset()}) are counted each time
+	 * @since 4.5
+	 */
+	default long getNumSkippedRows() {
+		return 0;
+	}
+
 	/**
 	 * @throws UnsupportedOperationException if the iterator does not support reset, e.g. when streaming
 	 */
@@ -0,0 +1,356 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.core;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.knime.dl.core.data.DLBuffer;
+
+import com.google.common.primitives.UnsignedBytes;
+
+/**
+ * Records how much time and data the individual stages of network execution and training spend on their batches.
+ * Sessions and back ends report each batch they process in a stage; the recordings are aggregated per stage.
+ * <P>
+ * Recording is thread-safe since the stages of a pipelined run are processed in different threads. The
+ * {@link #DISABLED disabled instance} ignores all recordings and does not even query the system timer, so sessions can
+ * report unconditionally.
+ *
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ * @since 4.5
+ */
+public final class DLStageTimings {
+
+	/**
+	 * The stages of network execution and training. Not every session or back end passes through every stage.
+	 */
+	public enum DLStage {
+
+			/**
+			 * Iterating the input rows and converting them into tensors.
+			 */
+			INPUT_PREPARATION("Input preparation", "input_preparation"),
+
+			/**
+			 * Serializing the input tensors and transferring them to the back end.
+			 */
+			INPUT_TRANSFER("Input transfer", "input_transfer"),
+
+			/**
+			 * Executing the network as observed by KNIME, including the overhead of the call into the back end.
+			 */
+			NETWORK_EXECUTION("Network execution", "network_execution"),
+
+			/**
+			 * The time the back end itself spent computing, as measured by the back end.
+			 */
+			BACKEND_COMPUTATION("Back end computation", "backend_computation"),
+
+			/**
+			 * Transferring the output tensors from the back end and deserializing them.
+			 */
+			OUTPUT_TRANSFER("Output transfer", "output_transfer"),
+
+			/**
+			 * Converting the output tensors into cells and rows.
+			 */
+			OUTPUT_CONSUMPTION("Output consumption", "output_consumption");
+
+		private final String m_name;
+
+		private final String m_identifier;
+
+		private DLStage(final String name, final String identifier) {
+			m_name = name;
+			m_identifier = identifier;
+		}
+
+		/**
+		 * @return the human-readable name of this stage
+		 */
+		public String getName() {
+			return m_name;
+		}
+
+		/**
+		 * @return the identifier of this stage, suitable as part of flow variable names
+		 */
+		public String getIdentifier() {
+			return m_identifier;
+		}
+	}
+
+	/**
+	 * Ignores all recordings.
+	 */
+	public static final DLStageTimings DISABLED = new DLStageTimings(false);
+
+	private static final String FLOW_VARIABLE_PREFIX = "dl_timing_";
+
+	private static final int NUM_STAGES = DLStage.values().length;
+
+	private final boolean m_enabled;
+
+	private final AtomicLongArray m_numBatches = new AtomicLongArray(NUM_STAGES);
+
+	private final AtomicLongArray m_totalNanos = new AtomicLongArray(NUM_STAGES);
+
+	private final AtomicLongArray m_minNanos = new AtomicLongArray(NUM_STAGES);
+
+	private final AtomicLongArray m_maxNanos = new AtomicLongArray(NUM_STAGES);
+
+	private final AtomicLongArray m_numBytes = new AtomicLongArray(NUM_STAGES);
+
+	/**
+	 * Creates a new instance that records timings.
+	 */
+	public DLStageTimings() {
+		this(true);
+	}
+
+	private DLStageTimings(final boolean enabled) {
+		m_enabled = enabled;
+		for (int i = 0; i < NUM_STAGES; i++) {
+			m_minNanos.set(i, Long.MAX_VALUE);
+		}
+	}
+
+	/**
+	 * @return true if this instance records timings, false if it ignores them
+	 */
+	public boolean isEnabled() {
+		return m_enabled;
+	}
+
+	/**
+	 * @return the current value of the system timer if this instance is enabled, zero otherwise. To be passed to
+	 *         {@link #stop(DLStage, long)} or {@link #stop(DLStage, long, long)} once the batch has been processed.
+	 */
+	public long start() {
+		return m_enabled ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Records that a batch was processed in the given stage since the given start time.
+	 *
+	 * @param stage the stage
+	 * @param start the start time as returned by {@link #start()}
+	 */
+	public void stop(final DLStage stage, final long start) {
+		stop(stage, start, 0);
+	}
+
+	/**
+	 * Records that a batch of the given size was processed in the given stage since the given start time.
+	 *
+	 * @param stage the stage
+	 * @param start the start time as returned by {@link #start()}
+	 * @param numBytes the size of the batch in bytes, zero if unknown
+	 */
+	public void stop(final DLStage stage, final long start, final long numBytes) {
+		if (m_enabled) {
+			record(stage, System.nanoTime() - start, numBytes);
+		}
+	}
+
+	/**
+	 * Records that a batch was processed in the given stage within the given time. Intended for timings that were
+	 * measured elsewhere, e.g. by the back end.
+	 *
+	 * @param stage the stage
+	 * @param nanos the processing time in nanoseconds
+	 * @param numBytes the size of the batch in bytes, zero if unknown
+	 */
+	public void record(final DLStage stage, final long nanos, final long numBytes) {
+		if (!m_enabled) {
+			return;
+		}
+		final int i = stage.ordinal();
+		m_numBatches.incrementAndGet(i);
+		m_totalNanos.addAndGet(i, nanos);
+		m_minNanos.accumulateAndGet(i, nanos, Math::min);
+		m_maxNanos.accumulateAndGet(i, nanos, Math::max);
+		m_numBytes.addAndGet(i, numBytes);
+	}
+
+	/**
+	 * @param tensors the tensors whose buffer contents to measure
+	 * @return the total size of the contents of the given tensors' buffers in bytes if this instance is enabled, zero
+	 *         otherwise. Buffers whose elements have no fixed size (e.g. strings) are not taken into account.
+	 */
+	public long getSizeInBytes(final Map<?, ? extends DLTensor<? extends DLBuffer>> tensors) {
+		if (!m_enabled) {
+			return 0;
+		}
+		long numBytes = 0;
+		for (final DLTensor<? extends DLBuffer> tensor : tensors.values()) {
+			numBytes += getSizeInBytes(tensor);
+		}
+		return numBytes;
+	}
+
+	/**
+	 * @param tensor the tensor whose buffer contents to measure
+	 * @return the size of the contents of the given tensor's buffer in bytes if this instance is enabled, zero
+	 *         otherwise or if the tensor's elements have no fixed size (e.g. strings)
+	 */
+	public long getSizeInBytes(final DLTensor<? extends DLBuffer> tensor) {
+		if (!m_enabled) {
+			return 0;
+		}
+		return tensor.getBuffer().size() * getElementSizeInBytes(tensor.getSpec().getElementType());
+	}
+
+	/**
+	 * @param stage the stage
+	 * @return the number of batches that were recorded for the given stage
+	 */
+	public long getNumBatches(final DLStage stage) {
+		return m_numBatches.get(stage.ordinal());
+	}
+
+	/**
+	 * @param stage the stage
+	 * @return the total time that was recorded for the given stage, in nanoseconds
+	 */
+	public long getTotalNanos(final DLStage stage) {
+		return m_totalNanos.get(stage.ordinal());
+	}
+
+	/**
+	 * @param stage the stage
+	 * @return the shortest time a batch took in the given stage, in nanoseconds, zero if no batch was recorded
+	 */
+	public long getMinNanos(final DLStage stage) {
+		return getNumBatches(stage) > 0 ? m_minNanos.get(stage.ordinal()) : 0;
+	}
+
+	/**
+	 * @param stage the stage
+	 * @return the longest time a batch took in the given stage, in nanoseconds
+	 */
+	public long getMaxNanos(final DLStage stage) {
+		return m_maxNanos.get(stage.ordinal());
+	}
+
+	/**
+	 * @param stage the stage
+	 * @return the total number of bytes that were recorded for the given stage
+	 */
+	public long getNumBytes(final DLStage stage) {
+		return m_numBytes.get(stage.ordinal());
+	}
+
+	/**
+	 * @return the total time, mean time per batch and number of bytes of each stage that was passed through, keyed by
+	 *         flow variable names. Times are in milliseconds.
+	 */
+	public Map<String, Double> getFlowVariables() {
+		final Map<String, Double> variables = new LinkedHashMap<>();
+		for (final DLStage stage : DLStage.values()) {
+			final long numBatches = getNumBatches(stage);
+			if (numBatches == 0) {
+				continue;
+			}
+			final String prefix = FLOW_VARIABLE_PREFIX + stage.getIdentifier();
+			variables.put(prefix + "_total_ms", toMillis(getTotalNanos(stage)));
+			variables.put(prefix + "_mean_ms", toMillis(getTotalNanos(stage)) / numBatches);
+			variables.put(prefix + "_bytes", (double) getNumBytes(stage));
+		}
+		return variables;
+	}
+
+	/**
+	 * @return a human-readable summary of the recorded timings, one line per stage that was passed through, or an
+	 *         empty string if nothing was recorded
+	 */
+	public String getSummary() {
+		final StringBuilder summary = new StringBuilder();
+		for (final DLStage stage : DLStage.values()) {
+			final long numBatches = getNumBatches(stage);
+			if (numBatches == 0) {
+				continue;
+			}
+			final double totalMillis = toMillis(getTotalNanos(stage));
+			summary.append(String.format("%s: %d batches, %.1f ms total, %.2f ms mean, %.2f ms min, %.2f ms max",
+					stage.getName(), numBatches, totalMillis, totalMillis / numBatches, toMillis(getMinNanos(stage)),
+					toMillis(getMaxNanos(stage))));
+			final long numBytes = getNumBytes(stage);
+			if (numBytes > 0 && totalMillis > 0) {
+				summary.append(String.format(", %.1f MB, %.1f MB/s", numBytes / 1e6,
+						numBytes / 1e6 / (totalMillis / 1e3)));
+			}
+			summary.append('\n');
+		}
+		return summary.toString();
+	}
+
+	@Override
+	public String toString() {
+		return getSummary();
+	}
+
+	private static double toMillis(final long nanos) {
+		return nanos / 1e6;
+	}
+
+	private static long getElementSizeInBytes(final Class<?> elementType) {
+		if (elementType == double.class || elementType == long.class) {
+			return Long.BYTES;
+		} else if (elementType == float.class || elementType == int.class) {
+			return Integer.BYTES;
+		} else if (elementType == short.class) {
+			return Short.BYTES;
+		} else if (elementType == byte.class || elementType == UnsignedBytes.class || elementType == boolean.class) {
+			return Byte.BYTES;
+		} else {
+			return 0;
+		}
+	}
+}
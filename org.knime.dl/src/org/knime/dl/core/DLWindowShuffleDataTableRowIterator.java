@@ -0,0 +1,152 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.core;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.knime.core.data.DataRow;
+import org.knime.core.data.container.CloseableRowIterator;
+import org.knime.core.node.BufferedDataTable;
+
+/**
+ * Shuffles the rows of a data table before each epoch without writing a shuffled copy of the table.
+ * <P>
+ * Each epoch reads the table sequentially in a single pass. The rows are passed through a window of fixed size from
+ * which a row is drawn at random whenever the next row is requested. Its slot is then refilled with the next row of the
+ * table. Each row is returned exactly once per epoch and the same seed always yields the same sequence of epochs.
+ * Compared to {@link DLShuffleDataTableRowIterator}, a row can only be moved towards the front of the table by about
+ * the size of the window, but no disk space is occupied by shuffled copies.
+ *
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ * @since 4.5
+ */
+public final class DLWindowShuffleDataTableRowIterator extends DLAbstractDataTableRowIterator {
+
+	/**
+	 * The default number of rows in the window.
+	 */
+	public static final int DEFAULT_WINDOW_SIZE = 8192;
+
+	private final Random m_random;
+
+	private final int m_windowSize;
+
+	/**
+	 * @param input the data table
+	 * @param columns a map specifying which columns belong to which tensor
+	 * @param seed seed for random number generator
+	 * @param windowSize the number of rows in the window, i.e. the maximum number of rows that are held in memory at
+	 *            once
+	 */
+	public DLWindowShuffleDataTableRowIterator(final BufferedDataTable input, final Map<DLTensorId, int[]> columns,
+			final long seed, final int windowSize) {
+		super(input, columns);
+		checkArgument(windowSize > 0, "Window size must be greater than zero.");
+		m_random = new Random(seed);
+		m_windowSize = (int) Math.min(windowSize, Math.max(input.size(), 1));
+		m_iterator = makeNewIterator();
+	}
+
+	@Override
+	protected CloseableRowIterator makeNewIterator() {
+		return new WindowShuffleRowIterator(getInputTable().iterator(), m_windowSize, new Random(m_random.nextLong()));
+	}
+
+	static final class WindowShuffleRowIterator extends CloseableRowIterator {
+
+		private final CloseableRowIterator m_source;
+
+		private final Random m_random;
+
+		private final DataRow[] m_window;
+
+		private int m_numWindowRows = 0;
+
+		WindowShuffleRowIterator(final CloseableRowIterator source, final int windowSize, final Random random) {
+			m_source = source;
+			m_random = random;
+			m_window = new DataRow[windowSize];
+			while (m_numWindowRows < windowSize && source.hasNext()) {
+				m_window[m_numWindowRows++] = source.next();
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return m_numWindowRows > 0;
+		}
+
+		@Override
+		public DataRow next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			final int i = m_random.nextInt(m_numWindowRows);
+			final DataRow row = m_window[i];
+			if (m_source.hasNext()) {
+				m_window[i] = m_source.next();
+			} else {
+				// the table is exhausted, shrink the window
+				m_window[i] = m_window[--m_numWindowRows];
+				m_window[m_numWindowRows] = null;
+			}
+			return row;
+		}
+
+		@Override
+		public void close() {
+			m_source.close();
+			Arrays.fill(m_window, null);
+			m_numWindowRows = 0;
+		}
+	}
+}
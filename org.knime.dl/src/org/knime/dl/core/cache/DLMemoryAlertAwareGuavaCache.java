@@ -61,6 +61,7 @@
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
 
 /**
  * Wrapper for a Guava Cache that listens to memory alerts from {@link MemoryAlertSystem} and cleans the cache if memory
@@ -88,7 +89,26 @@ private DLMemoryAlertAwareGuavaCache() {
 		} else {
 			m_cache = CacheBuilder.newBuilder().maximumSize(m_cacheSize).softValues().build();
 		}
+		registerMemoryAlertListener();
+	}
+
+	/**
+	 * Creates a new cache that strongly references its values and notifies the given listener about each entry that
+	 * is removed from the cache, including removals due to memory alerts. Intended for values that hold resources which
+	 * must be released explicitly.
+	 *
+	 * @param maximumSize the maximum number of entries
+	 * @param removalListener notified about each removed entry
+	 * @since 4.5
+	 */
+	public DLMemoryAlertAwareGuavaCache(final int maximumSize, final RemovalListener<UUID, Object> removalListener) {
+		final CacheBuilder<UUID, Object> builder =
+				CacheBuilder.newBuilder().maximumSize(maximumSize).removalListener(removalListener);
+		m_cache = m_enableVerbose ? builder.recordStats().build() : builder.build();
+		registerMemoryAlertListener();
+	}
 
+	private void registerMemoryAlertListener() {
 		MemoryAlertSystem.getInstance().addListener(new MemoryAlertListener() {
 			@Override
 			protected boolean memoryAlert(final MemoryAlert alert) {
@@ -0,0 +1,306 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.core.data;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Abstract base class for buffers whose contents live outside of the Java heap. The contents are stored in direct
+ * {@link ByteBuffer byte buffers} of fixed size ("segments") that are addressed by <code>long</code> positions.
+ * Buffers of this kind are therefore not limited to {@link Integer#MAX_VALUE} elements and do not burden the garbage
+ * collector with large batches.
+ * <P>
+ * The segments are allocated in {@link ByteOrder#nativeOrder() native byte order} which allows handing them to native
+ * code without conversion.
+ *
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ * @since 4.5
+ */
+public abstract class DLAbstractOffHeapBuffer implements DLReadableBuffer, DLWritableBuffer {
+
+	/**
+	 * The maximum size of a segment in bytes.
+	 */
+	public static final int MAX_SEGMENT_SIZE_IN_BYTES = 1 << 28;
+
+	/**
+	 * @param expression a boolean expression
+	 * @throws BufferOverflowException if {@code expression} is false
+	 */
+	protected static void checkOverflow(final boolean expression) throws BufferOverflowException {
+		if (!expression) {
+			throw new BufferOverflowException();
+		}
+	}
+
+	/**
+	 * @param expression a boolean expression
+	 * @throws BufferUnderflowException if {@code expression} is false *
+	 */
+	protected static void checkUnderflow(final boolean expression) throws BufferUnderflowException {
+		if (!expression) {
+			throw new BufferUnderflowException();
+		}
+	}
+
+	/**
+	 * The immutable capacity of the buffer.
+	 */
+	protected final long m_capacity;
+
+	/**
+	 * The number of elements per segment. Always a power of two.
+	 */
+	protected final int m_segmentSize;
+
+	/**
+	 * <code>log2(m_segmentSize)</code>, shift a position by this value to obtain its segment index.
+	 */
+	protected final int m_segmentShift;
+
+	/**
+	 * Mask a position by this value to obtain its index within its segment.
+	 */
+	protected final long m_segmentMask;
+
+	/**
+	 * The next write position. Equals {@link #size()}.
+	 */
+	protected long m_nextWrite = 0;
+
+	/**
+	 * The next read position.
+	 */
+	protected long m_nextRead = 0;
+
+	private ByteBuffer[] m_segments;
+
+	/**
+	 * Creates a new instance of this buffer.
+	 *
+	 * @param capacity the immutable capacity of the buffer
+	 * @param elementSizeInBytes the size of a single element in bytes
+	 * @param segmentSize the number of elements per segment, must be a power of two
+	 */
+	protected DLAbstractOffHeapBuffer(final long capacity, final int elementSizeInBytes, final int segmentSize) {
+		checkArgument(capacity >= 0, "Invalid input capacity. Capacity must not be negative.");
+		checkArgument(segmentSize > 0 && Integer.bitCount(segmentSize) == 1,
+				"Invalid segment size. Segment size must be a positive power of two.");
+		checkArgument((long) segmentSize * elementSizeInBytes <= MAX_SEGMENT_SIZE_IN_BYTES,
+				"Invalid segment size. Segments must not exceed " + MAX_SEGMENT_SIZE_IN_BYTES + " bytes.");
+		m_capacity = capacity;
+		m_segmentSize = segmentSize;
+		m_segmentShift = Integer.numberOfTrailingZeros(segmentSize);
+		m_segmentMask = segmentSize - 1L;
+		final int numSegments = (int) ((capacity + m_segmentMask) >>> m_segmentShift);
+		m_segments = new ByteBuffer[numSegments];
+		for (int i = 0; i < numSegments; i++) {
+			final long segmentCapacity = Math.min(segmentSize, capacity - ((long) i << m_segmentShift));
+			m_segments[i] = ByteBuffer.allocateDirect((int) (segmentCapacity * elementSizeInBytes))
+					.order(ByteOrder.nativeOrder());
+		}
+		initializeSegmentViews(m_segments);
+	}
+
+	/**
+	 * Returns the largest power of two number of elements that fits into a segment of
+	 * {@link #MAX_SEGMENT_SIZE_IN_BYTES}.
+	 *
+	 * @param elementSizeInBytes the size of a single element in bytes
+	 * @return the default segment size in elements
+	 */
+	protected static int getDefaultSegmentSize(final int elementSizeInBytes) {
+		return Integer.highestOneBit(MAX_SEGMENT_SIZE_IN_BYTES / elementSizeInBytes);
+	}
+
+	/**
+	 * Called once during construction of the instance. Implementing classes create their typed views of the segments
+	 * here.
+	 *
+	 * @param segments the byte segments of this buffer
+	 */
+	protected abstract void initializeSegmentViews(ByteBuffer[] segments);
+
+	/**
+	 * Called once when the buffer is closed. Implementing classes release their typed views of the segments here.
+	 */
+	protected abstract void releaseSegmentViews();
+
+	/**
+	 * @param position an element position
+	 * @return the index of the segment that contains the position
+	 */
+	protected final int segmentIndex(final long position) {
+		return (int) (position >>> m_segmentShift);
+	}
+
+	/**
+	 * @param position an element position
+	 * @return the index of the position within its segment
+	 */
+	protected final int indexInSegment(final long position) {
+		return (int) (position & m_segmentMask);
+	}
+
+	/**
+	 * Returns the number of segments of this buffer.
+	 *
+	 * @return the number of segments
+	 */
+	public int getNumSegments() {
+		return m_segments.length;
+	}
+
+	/**
+	 * Returns a read-only view of the segment at the given index in native byte order. Intended to be handed to
+	 * native transports without copying. The view must not be used after the buffer was closed.
+	 *
+	 * @param index the index of the segment
+	 * @return a view of the segment
+	 */
+	public ByteBuffer getSegment(final int index) {
+		return m_segments[index].asReadOnlyBuffer().order(ByteOrder.nativeOrder());
+	}
+
+	/**
+	 * Returns a writable view of the segment at the given index in native byte order. Intended to let native
+	 * transports fill the buffer without copying. Elements written to the view only become part of the buffer's
+	 * contents once they are {@link #commitWrite(long) committed}. The view must not be used after the buffer was
+	 * closed.
+	 *
+	 * @param index the index of the segment
+	 * @return a view of the segment
+	 */
+	public ByteBuffer getSegmentForWriting(final int index) {
+		return m_segments[index].duplicate().order(ByteOrder.nativeOrder());
+	}
+
+	/**
+	 * Appends the given number of elements that were written to the buffer's segments via
+	 * {@link #getSegmentForWriting(int)}, starting at the current {@link #size() size}, to the buffer's contents.
+	 *
+	 * @param length the number of written elements
+	 * @throws BufferOverflowException if the elements exceed the buffer's capacity
+	 */
+	public void commitWrite(final long length) throws BufferOverflowException {
+		checkArgument(length >= 0);
+		checkOverflow(m_nextWrite + length <= m_capacity);
+		m_nextWrite += length;
+	}
+
+	/**
+	 * Returns the number of elements per segment. All segments but the last one are of this size.
+	 *
+	 * @return the number of elements per segment, a power of two
+	 */
+	public int getSegmentSize() {
+		return m_segmentSize;
+	}
+
+	@Override
+	public long size() {
+		return m_nextWrite;
+	}
+
+	@Override
+	public long getCapacity() {
+		return m_capacity;
+	}
+
+	/**
+	 * @return the next read position
+	 */
+	public long getNextReadPosition() {
+		return m_nextRead;
+	}
+
+	@Override
+	public void resetRead() {
+		m_nextRead = 0;
+	}
+
+	@Override
+	public void resetWrite() {
+		m_nextWrite = 0;
+	}
+
+	@Override
+	public void reset() {
+		resetRead();
+		resetWrite();
+	}
+
+	@Override
+	public void close() {
+		// The native memory is freed once the segments become unreachable. Unlike heap arrays of the same size, this
+		// does not involve copying or scanning their contents.
+		releaseSegmentViews();
+		m_segments = new ByteBuffer[0];
+	}
+
+	/**
+	 * Checks whether the contents of this buffer fit into a Java array.
+	 *
+	 * @throws IllegalStateException if the capacity of this buffer exceeds {@link Integer#MAX_VALUE}
+	 */
+	protected void checkArrayConvertible() {
+		if (m_capacity > Integer.MAX_VALUE) {
+			throw new IllegalStateException("Buffer capacity (" + m_capacity
+					+ ") exceeds the maximum size of a Java array. Read the buffer in chunks instead.");
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "Off-heap buffer with capacity: " + m_capacity;
+	}
+}
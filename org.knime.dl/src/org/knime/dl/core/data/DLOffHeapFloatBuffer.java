@@ -0,0 +1,243 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.core.data;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+/**
+ * Float type implementation of {@link DLAbstractOffHeapBuffer}.
+ *
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ * @since 4.5
+ */
+public class DLOffHeapFloatBuffer extends DLAbstractOffHeapBuffer
+		implements DLWritableFloatBuffer, DLReadableFloatBuffer {
+
+	private FloatBuffer[] m_views;
+
+	/**
+	 * Creates a new instance of this buffer.
+	 *
+	 * @param capacity the immutable capacity of the buffer
+	 */
+	public DLOffHeapFloatBuffer(final long capacity) {
+		this(capacity, getDefaultSegmentSize(Float.BYTES));
+	}
+
+	/**
+	 * Creates a new instance of this buffer.
+	 *
+	 * @param capacity the immutable capacity of the buffer
+	 * @param segmentSize the number of elements per segment, must be a power of two
+	 */
+	public DLOffHeapFloatBuffer(final long capacity, final int segmentSize) {
+		super(capacity, Float.BYTES, segmentSize);
+	}
+
+	@Override
+	protected void initializeSegmentViews(final ByteBuffer[] segments) {
+		m_views = new FloatBuffer[segments.length];
+		for (int i = 0; i < segments.length; i++) {
+			m_views[i] = segments[i].asFloatBuffer();
+		}
+	}
+
+	@Override
+	protected void releaseSegmentViews() {
+		m_views = new FloatBuffer[0];
+	}
+
+	private void putNext(final float value) {
+		m_views[segmentIndex(m_nextWrite)].put(indexInSegment(m_nextWrite), value);
+		m_nextWrite++;
+	}
+
+	private float getNext() {
+		final float value = m_views[segmentIndex(m_nextRead)].get(indexInSegment(m_nextRead));
+		m_nextRead++;
+		return value;
+	}
+
+	@Override
+	public float readNextFloat() throws BufferUnderflowException {
+		checkUnderflow(m_nextRead < m_nextWrite);
+		return getNext();
+	}
+
+	@Override
+	public double readNextDouble() throws BufferUnderflowException {
+		return readNextFloat();
+	}
+
+	@Override
+	public float[] toFloatArray() {
+		checkArrayConvertible();
+		final float[] array = new float[(int) m_capacity];
+		int destPos = 0;
+		for (final FloatBuffer view : m_views) {
+			final int length = view.capacity();
+			view.position(0);
+			view.get(array, destPos, length);
+			destPos += length;
+		}
+		return array;
+	}
+
+	@Override
+	public double[] toDoubleArray() {
+		final float[] floats = toFloatArray();
+		final double[] array = new double[floats.length];
+		for (int i = 0; i < floats.length; i++) {
+			array[i] = floats[i];
+		}
+		return array;
+	}
+
+	@Override
+	public void readToFloatArray(final float[] dest, final int destPos, final int length) {
+		checkArgument(destPos >= 0);
+		checkArgument(length > 0);
+		checkUnderflow(m_nextRead + length <= m_nextWrite);
+		int copied = 0;
+		while (copied < length) {
+			final FloatBuffer view = m_views[segmentIndex(m_nextRead)];
+			final int indexInSegment = indexInSegment(m_nextRead);
+			final int chunk = Math.min(length - copied, view.capacity() - indexInSegment);
+			view.position(indexInSegment);
+			view.get(dest, destPos + copied, chunk);
+			copied += chunk;
+			m_nextRead += chunk;
+		}
+	}
+
+	@Override
+	public void readToDoubleArray(final double[] dest, final int destPos, final int length) {
+		checkArgument(destPos >= 0);
+		checkArgument(length > 0);
+		checkUnderflow(m_nextRead + length <= m_nextWrite);
+		for (int i = 0; i < length; i++) {
+			dest[destPos + i] = getNext();
+		}
+	}
+
+	@Override
+	public void put(final boolean value) throws BufferOverflowException {
+		checkOverflow(m_nextWrite < m_capacity);
+		putNext(value ? 1f : 0f);
+	}
+
+	@Override
+	public void putAll(final boolean[] values) throws BufferOverflowException {
+		checkOverflow(m_nextWrite + values.length <= m_capacity);
+		for (int i = 0; i < values.length; i++) {
+			putNext(values[i] ? 1f : 0f);
+		}
+	}
+
+	@Override
+	public void put(final byte value) throws BufferOverflowException {
+		checkOverflow(m_nextWrite < m_capacity);
+		putNext(value);
+	}
+
+	@Override
+	public void putAll(final byte[] values) throws BufferOverflowException {
+		checkOverflow(m_nextWrite + values.length <= m_capacity);
+		for (int i = 0; i < values.length; i++) {
+			putNext(values[i]);
+		}
+	}
+
+	@Override
+	public void put(final float value) throws BufferOverflowException {
+		checkOverflow(m_nextWrite < m_capacity);
+		putNext(value);
+	}
+
+	@Override
+	public void putAll(final float[] values) throws BufferOverflowException {
+		checkOverflow(m_nextWrite + values.length <= m_capacity);
+		int copied = 0;
+		while (copied < values.length) {
+			final FloatBuffer view = m_views[segmentIndex(m_nextWrite)];
+			final int indexInSegment = indexInSegment(m_nextWrite);
+			final int chunk = Math.min(values.length - copied, view.capacity() - indexInSegment);
+			view.position(indexInSegment);
+			view.put(values, copied, chunk);
+			copied += chunk;
+			m_nextWrite += chunk;
+		}
+	}
+
+	@Override
+	public void put(final short value) throws BufferOverflowException {
+		checkOverflow(m_nextWrite < m_capacity);
+		putNext(value);
+	}
+
+	@Override
+	public void putAll(final short[] values) throws BufferOverflowException {
+		checkOverflow(m_nextWrite + values.length <= m_capacity);
+		for (int i = 0; i < values.length; i++) {
+			putNext(values[i]);
+		}
+	}
+
+	@Override
+	public void zeroPad(final long length) throws IllegalArgumentException, BufferOverflowException {
+		checkArgument(length > 0);
+		checkOverflow(m_nextWrite + length <= m_capacity);
+		for (long i = 0; i < length; i++) {
+			putNext(0f);
+		}
+	}
+}
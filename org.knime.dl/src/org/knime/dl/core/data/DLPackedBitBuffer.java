@@ -0,0 +1,428 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.core.data;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+
+/**
+ * Bit type implementation of {@link DLWrappingDataBuffer} that packs 64 elements into each <code>long</code> word of
+ * its storage. Element <code>i</code> is stored in bit <code>i % 64</code> (counted from the least significant bit) of
+ * word <code>i / 64</code>. Compared to {@link DLDefaultBitBuffer}, this takes an eighth of the memory.
+ * <P>
+ * In addition to the element-wise methods, the buffer can be read from and written to in the packed byte format of
+ * NumPy's <code>packbits</code>/<code>unpackbits</code>: element <code>j</code> of a range is stored in bit
+ * <code>7 - j % 8</code> of byte <code>j / 8</code>, the last byte is padded with zeros. See
+ * {@link #pack(long[], long, long, byte[], int)} and {@link #unpack(byte[], int, long, long[], long)}.
+ *
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ * @since 4.5
+ */
+public class DLPackedBitBuffer extends DLAbstractFlatWrappingDataBuffer<long[]>
+    implements DLWritableBitBuffer, DLReadableBitBuffer {
+
+    /**
+     * @param numBits the number of bits
+     * @return the number of <code>long</code> words needed to store the given number of bits
+     */
+    public static int getNumWords(final long numBits) {
+        return (int)((numBits + 63) >>> 6);
+    }
+
+    /**
+     * @param numBits the number of bits
+     * @return the number of bytes needed to store the given number of bits in packed byte format
+     */
+    public static int getNumPackedBytes(final long numBits) {
+        return (int)((numBits + 7) >>> 3);
+    }
+
+    /**
+     * Packs a range of bits of the given storage into bytes.
+     *
+     * @param words the storage of a packed bit buffer
+     * @param start the index of the first bit to pack
+     * @param length the number of bits to pack
+     * @param dest the destination array, must provide {@link #getNumPackedBytes(long)} bytes starting at
+     *            <b>destPos</b>
+     * @param destPos the position at which to start writing in <b>dest</b>
+     */
+    public static void pack(final long[] words, final long start, final long length, final byte[] dest,
+        final int destPos) {
+        final int numBytes = getNumPackedBytes(length);
+        if ((start & 7) == 0) {
+            // byte-aligned ranges never straddle word boundaries, so each byte can be extracted in one go
+            for (int k = 0; k < numBytes; k++) {
+                final long index = start + ((long)k << 3);
+                final int numBitsInByte = (int)Math.min(8, length - ((long)k << 3));
+                final int bits = (int)(words[(int)(index >>> 6)] >>> (index & 63)) & ((1 << numBitsInByte) - 1);
+                dest[destPos + k] = (byte)(Integer.reverse(bits) >>> 24);
+            }
+        } else {
+            for (int k = 0; k < numBytes; k++) {
+                dest[destPos + k] = 0;
+            }
+            for (long j = 0; j < length; j++) {
+                final long index = start + j;
+                if ((words[(int)(index >>> 6)] & (1L << index)) != 0) {
+                    dest[destPos + (int)(j >>> 3)] |= 0x80 >>> (j & 7);
+                }
+            }
+        }
+    }
+
+    /**
+     * Unpacks bytes into a range of bits of the given storage. Bits outside of the range are left untouched.
+     *
+     * @param src the source array in packed byte format
+     * @param srcPos the position at which to start reading in <b>src</b>
+     * @param length the number of bits to unpack
+     * @param words the storage of a packed bit buffer
+     * @param start the index of the first bit to write
+     */
+    public static void unpack(final byte[] src, final int srcPos, final long length, final long[] words,
+        final long start) {
+        final int numBytes = getNumPackedBytes(length);
+        if ((start & 7) == 0) {
+            for (int k = 0; k < numBytes; k++) {
+                final long index = start + ((long)k << 3);
+                final int numBitsInByte = (int)Math.min(8, length - ((long)k << 3));
+                final long mask = ((1L << numBitsInByte) - 1) << (index & 63);
+                final long bits = ((long)(Integer.reverse(src[srcPos + k] & 0xFF) >>> 24)) << (index & 63);
+                final int w = (int)(index >>> 6);
+                words[w] = (words[w] & ~mask) | (bits & mask);
+            }
+        } else {
+            for (long j = 0; j < length; j++) {
+                final long index = start + j;
+                final int w = (int)(index >>> 6);
+                if ((src[srcPos + (int)(j >>> 3)] & (0x80 >>> (j & 7))) != 0) {
+                    words[w] |= 1L << index;
+                } else {
+                    words[w] &= ~(1L << index);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a new instance of this buffer.
+     *
+     * @param capacity the immutable capacity of the buffer in bits
+     */
+    public DLPackedBitBuffer(final long capacity) {
+        super(capacity);
+    }
+
+    @Override
+    public void setStorage(final long[] storage, final long storageSize) throws IllegalArgumentException {
+        checkArgument(storage.length == getNumWords(m_capacity),
+            "Input storage capacity does not match buffer capacity.");
+        m_storage = storage;
+        m_nextWrite = (int)storageSize;
+        resetRead();
+    }
+
+    @Override
+    public void zeroPad(final long length) throws IllegalArgumentException, BufferOverflowException {
+        checkArgument(length > 0);
+        checkOverflow(m_nextWrite + length <= m_capacity);
+        for (int i = 0; i < length; i++) {
+            set(m_nextWrite++, false);
+        }
+    }
+
+    /**
+     * Packs the next <b>length</b> bits of the buffer into the given array in packed byte format.
+     *
+     * @param dest the destination array, must provide {@link #getNumPackedBytes(long)} bytes starting at
+     *            <b>destPos</b>
+     * @param destPos the position at which to start writing in <b>dest</b>
+     * @param length the number of bits to read from the buffer
+     * @throws BufferUnderflowException if the buffer's {@link #size() size} is exceeded.
+     */
+    public void readToPackedByteArray(final byte[] dest, final int destPos, final int length)
+        throws BufferUnderflowException {
+        checkArgument(destPos >= 0);
+        checkArgument(length >= 0);
+        checkUnderflow(m_nextRead + length <= m_nextWrite);
+        pack(m_storage, m_nextRead, length, dest, destPos);
+        m_nextRead += length;
+    }
+
+    /**
+     * Unpacks <b>length</b> bits from the given array in packed byte format into the buffer.
+     *
+     * @param src the source array
+     * @param srcPos the position at which to start reading in <b>src</b>
+     * @param length the number of bits to write into the buffer
+     * @throws BufferOverflowException if the buffer's {@link #getCapacity() capacity} is exceeded.
+     */
+    public void putAllPacked(final byte[] src, final int srcPos, final int length) throws BufferOverflowException {
+        checkArgument(srcPos >= 0);
+        checkArgument(length >= 0);
+        checkOverflow(m_nextWrite + length <= m_capacity);
+        unpack(src, srcPos, length, m_storage, m_nextWrite);
+        m_nextWrite += length;
+    }
+
+    @Override
+    public boolean readNextBit() throws BufferUnderflowException {
+        checkUnderflow(m_nextRead < m_nextWrite);
+        return get(m_nextRead++);
+    }
+
+    @Override
+    public boolean[] toBitArray() {
+        final boolean[] tmp = new boolean[m_capacity];
+        for (int i = 0; i < m_capacity; i++) {
+            tmp[i] = get(i);
+        }
+        return tmp;
+    }
+
+    @Override
+    public void readToBitArray(final boolean[] dest, final int destPos, final int length) {
+        checkArgument(destPos >= 0);
+        checkArgument(length > 0);
+        checkUnderflow(m_nextRead + length <= m_nextWrite);
+        for (int i = 0; i < length; i++) {
+            dest[destPos + i] = get(m_nextRead + i);
+        }
+        m_nextRead += length;
+    }
+
+    @Override
+    public byte readNextByte() throws BufferUnderflowException {
+        checkUnderflow(m_nextRead < m_nextWrite);
+        return (byte)(get(m_nextRead++) ? 1 : 0);
+    }
+
+    @Override
+    public byte[] toByteArray() {
+        final byte[] tmp = new byte[m_capacity];
+        for (int i = 0; i < m_capacity; i++) {
+            tmp[i] = (byte)(get(i) ? 1 : 0);
+        }
+        return tmp;
+    }
+
+    @Override
+    public void readToByteArray(final byte[] dest, final int destPos, final int length) {
+        checkArgument(destPos >= 0);
+        checkArgument(length > 0);
+        checkUnderflow(m_nextRead + length <= m_nextWrite);
+        for (int i = 0; i < length; i++) {
+            dest[destPos + i] = (byte)(get(m_nextRead + i) ? 1 : 0);
+        }
+        m_nextRead += length;
+    }
+
+    @Override
+    public short readNextShort() throws BufferUnderflowException {
+        checkUnderflow(m_nextRead < m_nextWrite);
+        return (short)(get(m_nextRead++) ? 1 : 0);
+    }
+
+    @Override
+    public short[] toShortArray() {
+        final short[] tmp = new short[m_capacity];
+        for (int i = 0; i < m_capacity; i++) {
+            tmp[i] = (short)(get(i) ? 1 : 0);
+        }
+        return tmp;
+    }
+
+    @Override
+    public void readToShortArray(final short[] dest, final int destPos, final int length) {
+        checkArgument(destPos >= 0);
+        checkArgument(length > 0);
+        checkUnderflow(m_nextRead + length <= m_nextWrite);
+        for (int i = 0; i < length; i++) {
+            dest[destPos + i] = (short)(get(m_nextRead + i) ? 1 : 0);
+        }
+        m_nextRead += length;
+    }
+
+    @Override
+    public int readNextInt() throws BufferUnderflowException {
+        checkUnderflow(m_nextRead < m_nextWrite);
+        return get(m_nextRead++) ? 1 : 0;
+    }
+
+    @Override
+    public int[] toIntArray() {
+        final int[] tmp = new int[m_capacity];
+        for (int i = 0; i < m_capacity; i++) {
+            tmp[i] = get(i) ? 1 : 0;
+        }
+        return tmp;
+    }
+
+    @Override
+    public void readToIntArray(final int[] dest, final int destPos, final int length) {
+        checkArgument(destPos >= 0);
+        checkArgument(length > 0);
+        checkUnderflow(m_nextRead + length <= m_nextWrite);
+        for (int i = 0; i < length; i++) {
+            dest[destPos + i] = get(m_nextRead + i) ? 1 : 0;
+        }
+        m_nextRead += length;
+    }
+
+    @Override
+    public long readNextLong() throws BufferUnderflowException {
+        checkUnderflow(m_nextRead < m_nextWrite);
+        return get(m_nextRead++) ? 1L : 0L;
+    }
+
+    @Override
+    public long[] toLongArray() {
+        final long[] tmp = new long[m_capacity];
+        for (int i = 0; i < m_capacity; i++) {
+            tmp[i] = get(i) ? 1L : 0L;
+        }
+        return tmp;
+    }
+
+    @Override
+    public void readToLongArray(final long[] dest, final int destPos, final int length) {
+        checkArgument(destPos >= 0);
+        checkArgument(length > 0);
+        checkUnderflow(m_nextRead + length <= m_nextWrite);
+        for (int i = 0; i < length; i++) {
+            dest[destPos + i] = get(m_nextRead + i) ? 1L : 0L;
+        }
+        m_nextRead += length;
+    }
+
+    @Override
+    public float readNextFloat() throws BufferUnderflowException {
+        checkUnderflow(m_nextRead < m_nextWrite);
+        return get(m_nextRead++) ? 1f : 0f;
+    }
+
+    @Override
+    public float[] toFloatArray() {
+        final float[] tmp = new float[m_capacity];
+        for (int i = 0; i < m_capacity; i++) {
+            tmp[i] = get(i) ? 1f : 0f;
+        }
+        return tmp;
+    }
+
+    @Override
+    public void readToFloatArray(final float[] dest, final int destPos, final int length) {
+        checkArgument(destPos >= 0);
+        checkArgument(length > 0);
+        checkUnderflow(m_nextRead + length <= m_nextWrite);
+        for (int i = 0; i < length; i++) {
+            dest[destPos + i] = get(m_nextRead + i) ? 1f : 0f;
+        }
+        m_nextRead += length;
+    }
+
+    @Override
+    public double readNextDouble() throws BufferUnderflowException {
+        checkUnderflow(m_nextRead < m_nextWrite);
+        return get(m_nextRead++) ? 1. : 0.;
+    }
+
+    @Override
+    public double[] toDoubleArray() {
+        final double[] tmp = new double[m_capacity];
+        for (int i = 0; i < m_capacity; i++) {
+            tmp[i] = get(i) ? 1. : 0.;
+        }
+        return tmp;
+    }
+
+    @Override
+    public void readToDoubleArray(final double[] dest, final int destPos, final int length) {
+        checkArgument(destPos >= 0);
+        checkArgument(length > 0);
+        checkUnderflow(m_nextRead + length <= m_nextWrite);
+        for (int i = 0; i < length; i++) {
+            dest[destPos + i] = get(m_nextRead + i) ? 1. : 0.;
+        }
+        m_nextRead += length;
+    }
+
+    @Override
+    public void put(final boolean value) throws BufferOverflowException {
+        checkOverflow(m_nextWrite < m_capacity);
+        set(m_nextWrite++, value);
+    }
+
+    @Override
+    public void putAll(final boolean[] values) throws BufferOverflowException {
+        checkOverflow(m_nextWrite + values.length <= m_capacity);
+        for (int i = 0; i < values.length; i++) {
+            set(m_nextWrite++, values[i]);
+        }
+    }
+
+    @Override
+    protected long[] createStorage() {
+        return new long[getNumWords(m_capacity)];
+    }
+
+    private boolean get(final int index) {
+        return (m_storage[index >>> 6] & (1L << index)) != 0;
+    }
+
+    // NB: bits are explicitly cleared as well, the storage is reused once the buffer was reset
+    private void set(final int index, final boolean value) {
+        if (value) {
+            m_storage[index >>> 6] |= 1L << index;
+        } else {
+            m_storage[index >>> 6] &= ~(1L << index);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.core.data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataCellDataInput;
+import org.knime.core.data.DataCellDataOutput;
+import org.knime.core.data.DataCellSerializer;
+import org.knime.core.data.DataColumnProperties;
+import org.knime.core.data.DataColumnSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.vector.doublevector.DoubleVectorValue;
+
+/**
+ * Compact cell that holds an entire tensor in a single primitive array instead of one cell per element. The shape of
+ * the tensor is stored once in the properties of the column, see {@link #createColumnProperties(long[])}.
+ * <P>
+ * Tensor cells are also {@link DoubleVectorValue double vectors}, which makes them accessible to the nodes that
+ * process standard vector and collection types, e.g. to expand them into one double column per element.
+ * <P>
+ * The array that is passed to the constructor is not copied and must not be modified afterwards.
+ *
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ * @since 4.5
+ */
+public final class DLTensorCell extends DataCell implements DLTensorValue, DoubleVectorValue {
+
+	/**
+	 * The data type of tensor cells.
+	 */
+	public static final DataType TYPE = DataType.getType(DLTensorCell.class);
+
+	/**
+	 * The key of the column property that holds the shape of the tensors in a column.
+	 */
+	public static final String SHAPE_PROPERTY_KEY = "dl_tensor_shape";
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int MAX_ELEMENTS_IN_STRING = 10;
+
+	/**
+	 * Non-null iff the element type is <code>float</code>.
+	 */
+	private final float[] m_floats;
+
+	/**
+	 * Non-null iff the element type is <code>double</code>.
+	 */
+	private final double[] m_doubles;
+
+	/**
+	 * @param shape the shape of the tensors of a column, without batch dimension
+	 * @return column properties that store the given shape
+	 */
+	public static DataColumnProperties createColumnProperties(final long[] shape) {
+		return new DataColumnProperties(Collections.singletonMap(SHAPE_PROPERTY_KEY, Arrays.toString(shape)));
+	}
+
+	/**
+	 * @param columnSpec the spec of a column that contains tensor cells
+	 * @return the shape of the tensors in the given column, without batch dimension, or an empty optional if the
+	 *         column does not provide a shape
+	 */
+	public static Optional<long[]> getShape(final DataColumnSpec columnSpec) {
+		final String shape = columnSpec.getProperties().getProperty(SHAPE_PROPERTY_KEY);
+		if (shape == null || shape.length() < 2) {
+			return Optional.empty();
+		}
+		final String dimensions = shape.substring(1, shape.length() - 1).trim();
+		if (dimensions.isEmpty()) {
+			return Optional.of(new long[0]);
+		}
+		try {
+			return Optional.of(Arrays.stream(dimensions.split(",")).mapToLong(d -> Long.parseLong(d.trim())).toArray());
+		} catch (final NumberFormatException e) {
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * @param values the elements of the tensor
+	 */
+	public DLTensorCell(final float[] values) {
+		m_floats = values;
+		m_doubles = null;
+	}
+
+	/**
+	 * @param values the elements of the tensor
+	 */
+	public DLTensorCell(final double[] values) {
+		m_floats = null;
+		m_doubles = values;
+	}
+
+	@Override
+	public Class<?> getElementType() {
+		return m_floats != null ? float.class : double.class;
+	}
+
+	@Override
+	public int size() {
+		return m_floats != null ? m_floats.length : m_doubles.length;
+	}
+
+	@Override
+	public double getDouble(final int index) {
+		return m_floats != null ? m_floats[index] : m_doubles[index];
+	}
+
+	@Override
+	public int getLength() {
+		return size();
+	}
+
+	@Override
+	public double getValue(final int index) {
+		return getDouble(index);
+	}
+
+	@Override
+	public double[] toDoubleArray() {
+		if (m_doubles != null) {
+			return m_doubles.clone();
+		}
+		final double[] values = new double[m_floats.length];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = m_floats[i];
+		}
+		return values;
+	}
+
+	@Override
+	public float[] toFloatArray() {
+		if (m_floats != null) {
+			return m_floats.clone();
+		}
+		final float[] values = new float[m_doubles.length];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = (float) m_doubles[i];
+		}
+		return values;
+	}
+
+	@Override
+	public String toString() {
+		final int size = size();
+		final StringBuilder b = new StringBuilder("[");
+		for (int i = 0; i < Math.min(size, MAX_ELEMENTS_IN_STRING); i++) {
+			if (i > 0) {
+				b.append(", ");
+			}
+			b.append(m_floats != null ? Float.toString(m_floats[i]) : Double.toString(m_doubles[i]));
+		}
+		if (size > MAX_ELEMENTS_IN_STRING) {
+			b.append(", ... (").append(size).append(" elements)");
+		}
+		return b.append(']').toString();
+	}
+
+	@Override
+	protected boolean equalsDataCell(final DataCell dc) {
+		final DLTensorCell other = (DLTensorCell) dc;
+		return Arrays.equals(m_floats, other.m_floats) && Arrays.equals(m_doubles, other.m_doubles);
+	}
+
+	@Override
+	public int hashCode() {
+		return m_floats != null ? Arrays.hashCode(m_floats) : Arrays.hashCode(m_doubles);
+	}
+
+	/**
+	 * Writes the elements as one block of raw bytes instead of element by element.
+	 */
+	public static final class DLTensorCellSerializer implements DataCellSerializer<DLTensorCell> {
+
+		@Override
+		public void serialize(final DLTensorCell cell, final DataCellDataOutput output) throws IOException {
+			final boolean isFloat = cell.m_floats != null;
+			output.writeBoolean(isFloat);
+			output.writeInt(cell.size());
+			final ByteBuffer bytes;
+			if (isFloat) {
+				bytes = ByteBuffer.allocate(cell.m_floats.length * Float.BYTES);
+				bytes.asFloatBuffer().put(cell.m_floats);
+			} else {
+				bytes = ByteBuffer.allocate(cell.m_doubles.length * Double.BYTES);
+				bytes.asDoubleBuffer().put(cell.m_doubles);
+			}
+			output.write(bytes.array());
+		}
+
+		@Override
+		public DLTensorCell deserialize(final DataCellDataInput input) throws IOException {
+			final boolean isFloat = input.readBoolean();
+			final int size = input.readInt();
+			final byte[] bytes = new byte[size * (isFloat ? Float.BYTES : Double.BYTES)];
+			input.readFully(bytes);
+			if (isFloat) {
+				final float[] values = new float[size];
+				ByteBuffer.wrap(bytes).asFloatBuffer().get(values);
+				return new DLTensorCell(values);
+			} else {
+				final double[] values = new double[size];
+				ByteBuffer.wrap(bytes).asDoubleBuffer().get(values);
+				return new DLTensorCell(values);
+			}
+		}
+	}
+}
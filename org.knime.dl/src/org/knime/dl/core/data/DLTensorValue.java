@@ -0,0 +1,115 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.core.data;
+
+import org.knime.core.data.DataValue;
+import org.knime.core.data.ExtensibleUtilityFactory;
+
+/**
+ * A deep learning tensor (e.g. one example of a network output) whose elements are stored in a single flat primitive
+ * array. The shape of the tensor is not part of the value, it is stored once in the properties of the column that
+ * contains the values, see {@link DLTensorCell#getShape(org.knime.core.data.DataColumnSpec)}.
+ *
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ * @since 4.5
+ */
+public interface DLTensorValue extends DataValue {
+
+	/**
+	 * Meta information about tensor values.
+	 */
+	UtilityFactory UTILITY = new DLTensorUtilityFactory();
+
+	/**
+	 * @return the primitive type of the elements of this tensor, either <code>float.class</code> or
+	 *         <code>double.class</code>
+	 */
+	Class<?> getElementType();
+
+	/**
+	 * @return the number of elements of this tensor
+	 */
+	int size();
+
+	/**
+	 * @param index the index of the element in the flattened tensor
+	 * @return the element at the given index
+	 * @throws IndexOutOfBoundsException if the index is negative or not less than {@link #size()}
+	 */
+	double getDouble(int index);
+
+	/**
+	 * @return a copy of the elements of this tensor
+	 */
+	double[] toDoubleArray();
+
+	/**
+	 * @return a copy of the elements of this tensor, narrowed to floats if the {@link #getElementType() element type}
+	 *         is <code>double</code>
+	 */
+	float[] toFloatArray();
+
+	/**
+	 * Utility factory for tensor values.
+	 */
+	final class DLTensorUtilityFactory extends ExtensibleUtilityFactory {
+
+		private DLTensorUtilityFactory() {
+			super(DLTensorValue.class);
+		}
+
+		@Override
+		public String getName() {
+			return "Tensor";
+		}
+
+		@Override
+		public String getGroupName() {
+			return "Deep Learning";
+		}
+	}
+}
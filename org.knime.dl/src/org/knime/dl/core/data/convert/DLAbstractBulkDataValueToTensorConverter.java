@@ -0,0 +1,177 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.core.data.convert;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.knime.core.data.DataValue;
+import org.knime.core.data.collection.CollectionDataValue;
+import org.knime.dl.core.DLTensor;
+import org.knime.dl.core.data.DLWritableBuffer;
+
+/**
+ * Base class of {@link DLBulkDataValueToTensorConverter bulk converters}. Provides primitive arrays that are reused
+ * across batches of the same size and delegates single-row conversion to {@link #convertBulk(List, DLTensor)}.
+ *
+ * @param <I> the input {@link DataValue data value type}
+ * @param <O> the output {@link DLWritableBuffer buffer type}
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ * @since 4.5
+ */
+public abstract class DLAbstractBulkDataValueToTensorConverter<I extends DataValue, O extends DLWritableBuffer>
+		implements DLBulkDataValueToTensorConverter<I, O> {
+
+	private short[] m_shorts;
+
+	private int[] m_ints;
+
+	private long[] m_longs;
+
+	private float[] m_floats;
+
+	private double[] m_doubles;
+
+	@Override
+	public void convert(final Iterable<? extends I> input, final DLTensor<O> output) {
+		convertBulk(Collections.singletonList(input), output);
+	}
+
+	/**
+	 * @param input the rows
+	 * @return the total number of data values of all rows
+	 */
+	protected static int countValues(final List<? extends Iterable<?>> input) {
+		int count = 0;
+		for (final Iterable<?> row : input) {
+			if (row instanceof Collection) {
+				count += ((Collection<?>) row).size();
+			} else if (row instanceof CollectionDataValue) {
+				count += ((CollectionDataValue) row).size();
+			} else {
+				for (final Iterator<?> it = row.iterator(); it.hasNext(); it.next()) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @param row the data values of a single row
+	 * @return the single data value of the row
+	 * @throws IllegalArgumentException if the row does not contain exactly one data value
+	 */
+	protected static <V> V getSingleValue(final Iterable<? extends V> row) {
+		final Iterator<? extends V> it = row.iterator();
+		if (!it.hasNext()) {
+			throw new IllegalArgumentException("Input row does not contain any data value.");
+		}
+		final V value = it.next();
+		if (it.hasNext()) {
+			throw new IllegalArgumentException(DLAbstractTensorDataValueToTensorConverter.ERROR_MSG);
+		}
+		return value;
+	}
+
+	/**
+	 * @param length the length of the array
+	 * @return an array of exactly the given length, its content is undefined
+	 */
+	protected final short[] getShortArray(final int length) {
+		if (m_shorts == null || m_shorts.length != length) {
+			m_shorts = new short[length];
+		}
+		return m_shorts;
+	}
+
+	/**
+	 * @param length the length of the array
+	 * @return an array of exactly the given length, its content is undefined
+	 */
+	protected final int[] getIntArray(final int length) {
+		if (m_ints == null || m_ints.length != length) {
+			m_ints = new int[length];
+		}
+		return m_ints;
+	}
+
+	/**
+	 * @param length the length of the array
+	 * @return an array of exactly the given length, its content is undefined
+	 */
+	protected final long[] getLongArray(final int length) {
+		if (m_longs == null || m_longs.length != length) {
+			m_longs = new long[length];
+		}
+		return m_longs;
+	}
+
+	/**
+	 * @param length the length of the array
+	 * @return an array of exactly the given length, its content is undefined
+	 */
+	protected final float[] getFloatArray(final int length) {
+		if (m_floats == null || m_floats.length != length) {
+			m_floats = new float[length];
+		}
+		return m_floats;
+	}
+
+	/**
+	 * @param length the length of the array
+	 * @return an array of exactly the given length, its content is undefined
+	 */
+	protected final double[] getDoubleArray(final int length) {
+		if (m_doubles == null || m_doubles.length != length) {
+			m_doubles = new double[length];
+		}
+		return m_doubles;
+	}
+}
@@ -64,7 +64,8 @@
  * @author Benjamin Wilhelm, KNIME GmbH, Konstanz, Germany
  */
 public class DLByteVectorToByteTensorConverterFactory
-	extends DLAbstractTensorDataValueToTensorConverterFactory<ByteVectorValue, DLWritableUnsignedByteBuffer> {
+	extends DLAbstractTensorDataValueToTensorConverterFactory<ByteVectorValue, DLWritableUnsignedByteBuffer>
+	implements DLBulkDataValueToTensorConverterFactory<ByteVectorValue, DLWritableUnsignedByteBuffer> {
 
 	@Override
 	public String getName() {
@@ -87,15 +88,29 @@ public OptionalLong getDestCount(final List<DataColumnSpec> spec) {
 	}
 
 	@Override
-	public DLDataValueToTensorConverter<ByteVectorValue, DLWritableUnsignedByteBuffer> createConverter() {
-		return new DLAbstractTensorDataValueToTensorConverter<ByteVectorValue, DLWritableUnsignedByteBuffer>() {
+	public DLBulkDataValueToTensorConverter<ByteVectorValue, DLWritableUnsignedByteBuffer> createConverter() {
+		return new DLAbstractBulkDataValueToTensorConverter<ByteVectorValue, DLWritableUnsignedByteBuffer>() {
 
 			@Override
-			public void convertInternal(final ByteVectorValue input, final DLTensor<DLWritableUnsignedByteBuffer> output) {
-				final DLWritableUnsignedByteBuffer buf = output.getBuffer();
-				for (int i = 0; i < input.length(); i++) {
-					buf.put((short)input.get(i));
+			public void convertBulk(final List<? extends Iterable<? extends ByteVectorValue>> input,
+					final DLTensor<DLWritableUnsignedByteBuffer> output) {
+				long length = 0;
+				for (final Iterable<? extends ByteVectorValue> row : input) {
+					length += getSingleValue(row).length();
 				}
+				if (length > Integer.MAX_VALUE) {
+					throw new IllegalArgumentException("The provided byte vectors are too large, "
+							+ "currently a batch of byte vectors may have a maximal total length of 2^31-1.");
+				}
+				final short[] values = getShortArray((int) length);
+				int i = 0;
+				for (final Iterable<? extends ByteVectorValue> row : input) {
+					final ByteVectorValue vector = getSingleValue(row);
+					for (long j = 0; j < vector.length(); j++) {
+						values[i++] = (short) vector.get(j);
+					}
+				}
+				output.getBuffer().putAll(values);
 			}
 		};
 	}
@@ -46,6 +46,7 @@
  */
 package org.knime.dl.core.data.convert;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.OptionalLong;
 import java.util.stream.Collectors;
@@ -65,7 +66,8 @@
  * @author Christian Dietz, KNIME GmbH, Konstanz, Germany
  */
 public final class DLCollectionDataValueToTensorConverterFactory<IE extends DataValue, O extends DLWritableBuffer>
-	extends DLAbstractTensorDataValueToTensorConverterFactory<CollectionDataValue, O> {
+	extends DLAbstractTensorDataValueToTensorConverterFactory<CollectionDataValue, O>
+	implements DLBulkDataValueToTensorConverterFactory<CollectionDataValue, O> {
 
 	private final DLDataValueToTensorConverterFactory<IE, O> m_elementConverterFactory;
 
@@ -97,6 +99,14 @@ public Class<IE> getSourceElementType() {
 		return m_elementConverterFactory.getSourceType();
 	}
 
+	/**
+	 * @return the converter factory that is responsible for converting the elements of the input collection
+	 * @since 4.5
+	 */
+	public DLDataValueToTensorConverterFactory<IE, O> getElementConverterFactory() {
+		return m_elementConverterFactory;
+	}
+
 	@Override
 	public Class<O> getBufferType() {
 		return m_elementConverterFactory.getBufferType();
@@ -107,15 +117,39 @@ public OptionalLong getDestCount(final List<DataColumnSpec> spec) {
 		return OptionalLong.empty();
 	}
 
+	/**
+	 * If the element converter supports bulk conversion, the elements of all collections of a batch are handed to it
+	 * at once. Numeric element converters then write the entire batch via a single primitive bulk put.
+	 */
 	@Override
-	public DLDataValueToTensorConverter<CollectionDataValue, O> createConverter() {
+	public DLBulkDataValueToTensorConverter<CollectionDataValue, O> createConverter() {
 		final DLDataValueToTensorConverter<IE, O> elementConverter = m_elementConverterFactory.createConverter();
-		return new DLAbstractTensorDataValueToTensorConverter<CollectionDataValue, O>() {
+		return new DLAbstractBulkDataValueToTensorConverter<CollectionDataValue, O>() {
+
+			private final List<Iterable<? extends IE>> m_collections = new ArrayList<>();
 
 			@Override
-			public void convertInternal(final CollectionDataValue input, final DLTensor<O> output) {
-				final Iterable<? extends IE> casted = ((Iterable<? extends IE>) input);
-				elementConverter.convert(casted, output);
+			public void convertBulk(final List<? extends Iterable<? extends CollectionDataValue>> input,
+					final DLTensor<O> output) {
+				if (!(elementConverter instanceof DLBulkDataValueToTensorConverter)) {
+					for (final Iterable<? extends CollectionDataValue> row : input) {
+						elementConverter.convert(asElements(getSingleValue(row)), output);
+					}
+					return;
+				}
+				try {
+					for (final Iterable<? extends CollectionDataValue> row : input) {
+						m_collections.add(asElements(getSingleValue(row)));
+					}
+					((DLBulkDataValueToTensorConverter<IE, O>) elementConverter).convertBulk(m_collections, output);
+				} finally {
+					m_collections.clear();
+				}
+			}
+
+			@SuppressWarnings("unchecked")
+			private Iterable<? extends IE> asElements(final CollectionDataValue collection) {
+				return (Iterable<? extends IE>) collection;
 			}
 		};
 	}
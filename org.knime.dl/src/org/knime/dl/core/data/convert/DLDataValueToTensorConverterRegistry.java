@@ -160,7 +160,8 @@ private DLDataValueToTensorConverterRegistry() {
 	/**
      * Returns the preferred deep learning {@link DLDataValueToTensorConverterFactory converter factory} that creates
      * converters which convert a specific source type into a specific destination buffer. Doesn't return deprecated
-     * converters.
+     * converters. Among otherwise equally suited converter factories, {@link DLBulkDataValueToTensorConverterFactory
+     * bulk converter factories} are preferred.
      *
      * @param sourceType the source type
      * @param bufferType the destination type
@@ -171,6 +172,7 @@ private DLDataValueToTensorConverterRegistry() {
 			final DataType sourceType, final Class<? extends DLWritableBuffer> bufferType) {
 		final List<DLDataValueToTensorConverterFactory<? extends DataValue, ?>> convs = getConverterFactories(
 				sourceType, bufferType);
+		DLDataValueToTensorConverterFactory<?, ?> exactMatch = null;
 		DLDataValueToTensorConverterFactory<?, ?> sourceMatch = null;
 		final DataType theSourceType = sourceType.isCollectionType() ? sourceType.getCollectionElementType()
 				: sourceType;
@@ -184,13 +186,20 @@ private DLDataValueToTensorConverterRegistry() {
 			}
 			if (theSourceType.getPreferredValueClass().equals(theConvSourceType)) {
 				if (conv.getBufferType() == bufferType) {
-					return Optional.of(conv);
-				}
-				if (sourceMatch == null || sourceMatch.getBufferType().isAssignableFrom(conv.getBufferType())) {
+					if (supportsBulkConversion(conv)) {
+						return Optional.of(conv);
+					}
+					if (exactMatch == null) {
+						exactMatch = conv;
+					}
+				} else if (sourceMatch == null || isPreferredOver(conv, sourceMatch)) {
 					sourceMatch = conv;
 				}
 			}
 		}
+		if (exactMatch != null) {
+			return Optional.of(exactMatch);
+		}
 		return sourceMatch != null ? Optional.of(sourceMatch) : convs.stream().findFirst();
 	}
 
@@ -249,6 +258,25 @@ private static boolean isCollectionConverter(final String identifier) {
         return identifier.startsWith(DLCollectionDataValueToTensorConverterFactory.class.getName());
     }
 
+    private static boolean isPreferredOver(final DLDataValueToTensorConverterFactory<?, ?> candidate,
+        final DLDataValueToTensorConverterFactory<?, ?> current) {
+        if (candidate.getBufferType() == current.getBufferType()) {
+            // never trade a bulk converter for a non-bulk one
+            return supportsBulkConversion(candidate) || !supportsBulkConversion(current);
+        }
+        // more specific buffer types are preferred
+        return current.getBufferType().isAssignableFrom(candidate.getBufferType());
+    }
+
+    private static boolean supportsBulkConversion(final DLDataValueToTensorConverterFactory<?, ?> factory) {
+        if (factory instanceof DLCollectionDataValueToTensorConverterFactory) {
+            // collection converters are always bulk converters, what matters is their element converter
+            return supportsBulkConversion(
+                ((DLCollectionDataValueToTensorConverterFactory<?, ?>)factory).getElementConverterFactory());
+        }
+        return factory instanceof DLBulkDataValueToTensorConverterFactory;
+    }
+
     private static String extractElementConverter(final String identifier) {
         return identifier.substring(DLCollectionDataValueToTensorConverterFactory.class.getName().length() + 1,
             identifier.length() - 1);
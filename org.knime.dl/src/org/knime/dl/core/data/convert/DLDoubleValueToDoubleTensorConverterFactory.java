@@ -62,7 +62,8 @@
  * @author Christian Dietz, KNIME GmbH, Konstanz, Germany
  */
 public class DLDoubleValueToDoubleTensorConverterFactory
-	extends DLAbstractScalarDataValueToTensorConverterFactory<DoubleValue, DLWritableDoubleBuffer> {
+	extends DLAbstractScalarDataValueToTensorConverterFactory<DoubleValue, DLWritableDoubleBuffer>
+	implements DLBulkDataValueToTensorConverterFactory<DoubleValue, DLWritableDoubleBuffer> {
 
 	@Override
 	public String getName() {
@@ -85,16 +86,20 @@ public OptionalLong getDestCount(final List<DataColumnSpec> spec) {
 	}
 
 	@Override
-	public DLDataValueToTensorConverter<DoubleValue, DLWritableDoubleBuffer> createConverter() {
-		return new DLAbstractScalarDataValueToTensorConverter<DoubleValue, DLWritableDoubleBuffer>() {
+	public DLBulkDataValueToTensorConverter<DoubleValue, DLWritableDoubleBuffer> createConverter() {
+		return new DLAbstractBulkDataValueToTensorConverter<DoubleValue, DLWritableDoubleBuffer>() {
 
 			@Override
-			public void convert(final Iterable<? extends DoubleValue> input,
+			public void convertBulk(final List<? extends Iterable<? extends DoubleValue>> input,
 					final DLTensor<DLWritableDoubleBuffer> output) {
-				final DLWritableDoubleBuffer buf = output.getBuffer();
-				for (final DoubleValue val : input) {
-					buf.put(val.getDoubleValue());
+				final double[] values = getDoubleArray(countValues(input));
+				int i = 0;
+				for (final Iterable<? extends DoubleValue> row : input) {
+					for (final DoubleValue val : row) {
+						values[i++] = val.getDoubleValue();
+					}
 				}
+				output.getBuffer().putAll(values);
 			}
 		};
 	}
@@ -62,7 +62,8 @@
  * @author Christian Dietz, KNIME GmbH, Konstanz, Germany
  */
 public class DLDoubleValueToFloatTensorConverterFactory
-	extends DLAbstractScalarDataValueToTensorConverterFactory<DoubleValue, DLWritableFloatBuffer> {
+	extends DLAbstractScalarDataValueToTensorConverterFactory<DoubleValue, DLWritableFloatBuffer>
+	implements DLBulkDataValueToTensorConverterFactory<DoubleValue, DLWritableFloatBuffer> {
 
 	@Override
 	public String getName() {
@@ -85,17 +86,21 @@ public OptionalLong getDestCount(final List<DataColumnSpec> spec) {
 	}
 
 	@Override
-	public DLDataValueToTensorConverter<DoubleValue, DLWritableFloatBuffer> createConverter() {
-		return new DLAbstractScalarDataValueToTensorConverter<DoubleValue, DLWritableFloatBuffer>() {
+	public DLBulkDataValueToTensorConverter<DoubleValue, DLWritableFloatBuffer> createConverter() {
+		return new DLAbstractBulkDataValueToTensorConverter<DoubleValue, DLWritableFloatBuffer>() {
 
 			@Override
-			public void convert(final Iterable<? extends DoubleValue> input,
+			public void convertBulk(final List<? extends Iterable<? extends DoubleValue>> input,
 					final DLTensor<DLWritableFloatBuffer> output) {
-				final DLWritableFloatBuffer buf = output.getBuffer();
-				for (final DoubleValue val : input) {
-					// explicitly lossy cast
-					buf.put((float) val.getDoubleValue());
+				final float[] values = getFloatArray(countValues(input));
+				int i = 0;
+				for (final Iterable<? extends DoubleValue> row : input) {
+					for (final DoubleValue val : row) {
+						// explicitly lossy cast
+						values[i++] = (float) val.getDoubleValue();
+					}
 				}
+				output.getBuffer().putAll(values);
 			}
 		};
 	}
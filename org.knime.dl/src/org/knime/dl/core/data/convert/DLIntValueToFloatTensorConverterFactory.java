@@ -60,7 +60,8 @@
  * @author Christian Dietz, KNIME GmbH, Konstanz, Germany
  */
 public class DLIntValueToFloatTensorConverterFactory
-	extends DLAbstractScalarDataValueToTensorConverterFactory<IntValue, DLWritableFloatBuffer> {
+	extends DLAbstractScalarDataValueToTensorConverterFactory<IntValue, DLWritableFloatBuffer>
+	implements DLBulkDataValueToTensorConverterFactory<IntValue, DLWritableFloatBuffer> {
 
 	@Override
 	public String getName() {
@@ -83,19 +84,23 @@ public OptionalLong getDestCount(final List<DataColumnSpec> spec) {
 	}
 
 	@Override
-	public DLDataValueToTensorConverter<IntValue, DLWritableFloatBuffer> createConverter() {
-		return new DLAbstractScalarDataValueToTensorConverter<IntValue, DLWritableFloatBuffer>() {
+	public DLBulkDataValueToTensorConverter<IntValue, DLWritableFloatBuffer> createConverter() {
+		return new DLAbstractBulkDataValueToTensorConverter<IntValue, DLWritableFloatBuffer>() {
 
 			@Override
-			public void convert(final Iterable<? extends IntValue> input,
+			public void convertBulk(final List<? extends Iterable<? extends IntValue>> input,
 					final DLTensor<DLWritableFloatBuffer> output) {
-				final DLWritableFloatBuffer buf = output.getBuffer();
-				for (final IntValue val : input) {
-					// implicit widening primitive conversion from int to float; loss of precision
-					// NB: our type system treats int and float as incompatible, that's why we need this converter
-					// explicitly (for UX reasons)
-					buf.put(val.getIntValue());
+				final float[] values = getFloatArray(countValues(input));
+				int i = 0;
+				for (final Iterable<? extends IntValue> row : input) {
+					for (final IntValue val : row) {
+						// implicit widening primitive conversion from int to float; loss of precision
+						// NB: our type system treats int and float as incompatible, that's why we need this converter
+						// explicitly (for UX reasons)
+						values[i++] = val.getIntValue();
+					}
 				}
+				output.getBuffer().putAll(values);
 			}
 		};
 	}
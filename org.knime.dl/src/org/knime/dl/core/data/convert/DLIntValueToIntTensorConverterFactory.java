@@ -62,7 +62,8 @@
  * @author Christian Dietz, KNIME GmbH, Konstanz, Germany
  */
 public class DLIntValueToIntTensorConverterFactory
-	extends DLAbstractScalarDataValueToTensorConverterFactory<IntValue, DLWritableIntBuffer> {
+	extends DLAbstractScalarDataValueToTensorConverterFactory<IntValue, DLWritableIntBuffer>
+	implements DLBulkDataValueToTensorConverterFactory<IntValue, DLWritableIntBuffer> {
 
 	@Override
 	public String getName() {
@@ -85,15 +86,20 @@ public OptionalLong getDestCount(final List<DataColumnSpec> spec) {
 	}
 
 	@Override
-	public DLDataValueToTensorConverter<IntValue, DLWritableIntBuffer> createConverter() {
-		return new DLAbstractScalarDataValueToTensorConverter<IntValue, DLWritableIntBuffer>() {
+	public DLBulkDataValueToTensorConverter<IntValue, DLWritableIntBuffer> createConverter() {
+		return new DLAbstractBulkDataValueToTensorConverter<IntValue, DLWritableIntBuffer>() {
 
 			@Override
-			public void convert(final Iterable<? extends IntValue> input, final DLTensor<DLWritableIntBuffer> output) {
-				final DLWritableIntBuffer buf = output.getBuffer();
-				for (final IntValue val : input) {
-					buf.put(val.getIntValue());
+			public void convertBulk(final List<? extends Iterable<? extends IntValue>> input,
+					final DLTensor<DLWritableIntBuffer> output) {
+				final int[] values = getIntArray(countValues(input));
+				int i = 0;
+				for (final Iterable<? extends IntValue> row : input) {
+					for (final IntValue val : row) {
+						values[i++] = val.getIntValue();
+					}
 				}
+				output.getBuffer().putAll(values);
 			}
 		};
 	}
@@ -60,7 +60,8 @@
  * @author Christian Dietz, KNIME GmbH, Konstanz, Germany
  */
 public class DLLongValueToDoubleTensorConverterFactory
-	extends DLAbstractScalarDataValueToTensorConverterFactory<LongValue, DLWritableDoubleBuffer> {
+	extends DLAbstractScalarDataValueToTensorConverterFactory<LongValue, DLWritableDoubleBuffer>
+	implements DLBulkDataValueToTensorConverterFactory<LongValue, DLWritableDoubleBuffer> {
 
 	@Override
 	public String getName() {
@@ -83,19 +84,23 @@ public OptionalLong getDestCount(final List<DataColumnSpec> spec) {
 	}
 
 	@Override
-	public DLDataValueToTensorConverter<LongValue, DLWritableDoubleBuffer> createConverter() {
-		return new DLAbstractScalarDataValueToTensorConverter<LongValue, DLWritableDoubleBuffer>() {
+	public DLBulkDataValueToTensorConverter<LongValue, DLWritableDoubleBuffer> createConverter() {
+		return new DLAbstractBulkDataValueToTensorConverter<LongValue, DLWritableDoubleBuffer>() {
 
 			@Override
-			public void convert(final Iterable<? extends LongValue> input,
+			public void convertBulk(final List<? extends Iterable<? extends LongValue>> input,
 					final DLTensor<DLWritableDoubleBuffer> output) {
-				final DLWritableDoubleBuffer buf = output.getBuffer();
-				for (final LongValue val : input) {
-					// explicit widening primitive conversion from long to double; loss of precision
-					// NB: our type system treats long and double as incompatible, that's why we need this converter
-					// explicitly (for UX reasons)
-					buf.put((double) val.getLongValue());
+				final double[] values = getDoubleArray(countValues(input));
+				int i = 0;
+				for (final Iterable<? extends LongValue> row : input) {
+					for (final LongValue val : row) {
+						// explicit widening primitive conversion from long to double; loss of precision
+						// NB: our type system treats long and double as incompatible, that's why we need this converter
+						// explicitly (for UX reasons)
+						values[i++] = (double) val.getLongValue();
+					}
 				}
+				output.getBuffer().putAll(values);
 			}
 		};
 	}
@@ -60,7 +60,8 @@
  * @author Christian Dietz, KNIME GmbH, Konstanz, Germany
  */
 public class DLLongValueToLongTensorConverterFactory
-	extends DLAbstractScalarDataValueToTensorConverterFactory<LongValue, DLWritableLongBuffer> {
+	extends DLAbstractScalarDataValueToTensorConverterFactory<LongValue, DLWritableLongBuffer>
+	implements DLBulkDataValueToTensorConverterFactory<LongValue, DLWritableLongBuffer> {
 
 	@Override
 	public String getName() {
@@ -83,16 +84,20 @@ public OptionalLong getDestCount(final List<DataColumnSpec> spec) {
 	}
 
 	@Override
-	public DLDataValueToTensorConverter<LongValue, DLWritableLongBuffer> createConverter() {
-		return new DLAbstractScalarDataValueToTensorConverter<LongValue, DLWritableLongBuffer>() {
+	public DLBulkDataValueToTensorConverter<LongValue, DLWritableLongBuffer> createConverter() {
+		return new DLAbstractBulkDataValueToTensorConverter<LongValue, DLWritableLongBuffer>() {
 
 			@Override
-			public void convert(final Iterable<? extends LongValue> input,
+			public void convertBulk(final List<? extends Iterable<? extends LongValue>> input,
 					final DLTensor<DLWritableLongBuffer> output) {
-				final DLWritableLongBuffer buf = output.getBuffer();
-				for (final LongValue val : input) {
-					buf.put(val.getLongValue());
+				final long[] values = getLongArray(countValues(input));
+				int i = 0;
+				for (final Iterable<? extends LongValue> row : input) {
+					for (final LongValue val : row) {
+						values[i++] = val.getLongValue();
+					}
 				}
+				output.getBuffer().putAll(values);
 			}
 		};
 	}
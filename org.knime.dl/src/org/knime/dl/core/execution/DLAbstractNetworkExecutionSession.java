@@ -47,10 +47,13 @@
 package org.knime.dl.core.execution;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -59,6 +62,8 @@
 import org.knime.dl.core.DLCanceledExecutionException;
 import org.knime.dl.core.DLNetwork;
 import org.knime.dl.core.DLNetworkInputPreparer;
+import org.knime.dl.core.DLStageTimings;
+import org.knime.dl.core.DLStageTimings.DLStage;
 import org.knime.dl.core.DLTensor;
 import org.knime.dl.core.DLTensorFactory;
 import org.knime.dl.core.DLTensorId;
@@ -124,6 +129,27 @@ private static boolean areOutputSpecsValid(final DLNetwork network, final Set<DL
 	 */
 	protected Map<DLTensorId, DLTensor<? extends DLReadableBuffer>> m_output;
 
+	/**
+	 * The number of batches that may be in flight per stage. A depth of one means that batches are prepared, executed
+	 * and consumed strictly one after another.
+	 */
+	protected int m_pipelineDepth = 1;
+
+	/**
+	 * Records the time and data spent in the stages of this session. Disabled by default.
+	 */
+	protected DLStageTimings m_stageTimings = DLStageTimings.DISABLED;
+
+	/**
+	 * The input tensors of the pipeline, including {@link #m_input}. Only used if execution is pipelined.
+	 */
+	private List<Map<DLTensorId, DLTensor<? extends DLWritableBuffer>>> m_pipelineInputs;
+
+	/**
+	 * The output tensors of the pipeline. Only used if execution is pipelined.
+	 */
+	private List<Map<DLTensorId, DLTensor<? extends DLReadableBuffer>>> m_pipelineOutputs;
+
 	protected DLAbstractNetworkExecutionSession(final N network, final Set<DLTensorSpec> executionInputSpecs,
 			final Set<DLTensorId> requestedOutputs, final DLNetworkInputPreparer inputPreparer,
 			final DLNetworkOutputConsumer outputConsumer, final DLTensorFactory tensorFactory) {
@@ -150,6 +176,17 @@ public N getNetwork() {
 		return m_network;
 	}
 
+	@Override
+	public void setPipelineDepth(final int pipelineDepth) {
+		checkArgument(pipelineDepth > 0, "Pipeline depth must be positive.");
+		m_pipelineDepth = pipelineDepth;
+	}
+
+	@Override
+	public void setStageTimings(final DLStageTimings stageTimings) {
+		m_stageTimings = checkNotNull(stageTimings);
+	}
+
 	@Override
 	public void run(final DLExecutionMonitor monitor) throws DLCanceledExecutionException, Exception {
 		// lazily preallocate input tensors
@@ -170,5 +207,80 @@ public void close() throws Exception {
 		if (m_output != null) {
 			m_output.values().forEach(DLTensor::close);
 		}
+		if (m_pipelineInputs != null) {
+			// the first entry is m_input which was closed above
+			m_pipelineInputs.stream().skip(1).forEach(i -> i.values().forEach(DLTensor::close));
+		}
+		if (m_pipelineOutputs != null) {
+			m_pipelineOutputs.forEach(o -> o.values().forEach(DLTensor::close));
+		}
+	}
+
+	/**
+	 * Prepares all input batches, executes them using the given batch executor and feeds the outputs to the output
+	 * consumer. If the {@link #setPipelineDepth(int) pipeline depth} is greater than one, input preparation, execution
+	 * and output consumption run concurrently. Otherwise, they run one after another in the calling thread.
+	 *
+	 * @param monitor the execution monitor
+	 * @param executor the back end specific part of executing a single batch
+	 * @throws DLCanceledExecutionException if execution was canceled
+	 * @throws Exception if any other exception occurs during execution
+	 */
+	protected void executeBatches(final DLExecutionMonitor monitor, final DLBatchExecutor executor)
+			throws DLCanceledExecutionException, Exception {
+		if (m_pipelineDepth > 1) {
+			executeBatchesPipelined(monitor, executor);
+			return;
+		}
+		final DLExecutionStatus status = monitor.getExecutionStatus();
+		long currentInBatchSize = m_expectedBatchSize;
+		while (m_inputPreparer.hasNext()) {
+			monitor.checkCanceled();
+			final long preparationStart = m_stageTimings.start();
+			m_inputPreparer.prepareNext(m_input);
+			m_stageTimings.stop(DLStage.INPUT_PREPARATION, preparationStart, m_stageTimings.getSizeInBytes(m_input));
+			monitor.checkCanceled();
+			if (!m_inputPreparer.hasNext()) {
+				// last batch might be incomplete
+				final DLTensor<? extends DLWritableBuffer> tensor = m_input.values().stream().findAny().get();
+				currentInBatchSize = tensor.getBuffer().size() / tensor.getExampleSize();
+			}
+			executor.execute(m_input, currentInBatchSize, monitor);
+			monitor.checkCanceled();
+			for (final DLTensor<?> input : m_input.values()) {
+				input.getBuffer().reset();
+			}
+			if (m_output == null) {
+				m_output = executor.createOutput(monitor);
+			}
+			executor.fetchOutput(m_output, monitor);
+			monitor.checkCanceled();
+			final long consumptionStart = m_stageTimings.start();
+			m_outputConsumer.accept(m_output);
+			m_stageTimings.stop(DLStage.OUTPUT_CONSUMPTION, consumptionStart);
+			for (final DLTensor<?> output : m_output.values()) {
+				output.getBuffer().reset();
+			}
+			status.batchEnded().raise(null);
+		}
+	}
+
+	private void executeBatchesPipelined(final DLExecutionMonitor monitor, final DLBatchExecutor executor)
+			throws DLCanceledExecutionException, Exception {
+		if (m_pipelineInputs == null) {
+			m_pipelineInputs = new ArrayList<>(m_pipelineDepth);
+			m_pipelineInputs.add(m_input);
+			for (int i = 1; i < m_pipelineDepth; i++) {
+				final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> input = new HashMap<>(
+						m_executionInputSpecs.size());
+				for (final DLTensorSpec spec : m_executionInputSpecs) {
+					input.put(spec.getIdentifier(), m_tensorFactory.createWritableTensor(spec));
+				}
+				m_pipelineInputs.add(input);
+			}
+			m_pipelineOutputs = new ArrayList<>(m_pipelineDepth);
+		}
+		new DLPipelinedBatchExecution(m_inputPreparer, m_outputConsumer, executor, monitor, m_expectedBatchSize,
+				m_pipelineInputs, m_pipelineOutputs, m_stageTimings).run();
 	}
 }
@@ -0,0 +1,107 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.core.execution;
+
+import java.util.Map;
+
+import org.knime.dl.core.DLCanceledExecutionException;
+import org.knime.dl.core.DLTensor;
+import org.knime.dl.core.DLTensorId;
+import org.knime.dl.core.data.DLReadableBuffer;
+import org.knime.dl.core.data.DLWritableBuffer;
+
+/**
+ * Back end specific part of executing a single batch. Used by
+ * {@link DLAbstractNetworkExecutionSession#executeBatches(DLExecutionMonitor, DLBatchExecutor)} which takes care of
+ * preparing the input batches, consuming the outputs and (optionally) pipelining these stages.
+ * <P>
+ * The methods of this interface are always called by the thread that called
+ * {@link DLNetworkExecutionSession#run(DLExecutionMonitor)}, even if execution is pipelined.
+ *
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ */
+public interface DLBatchExecutor {
+
+    /**
+     * Executes the network on the given input batch. Once this method returns, the input tensors are reset and may be
+     * reused to prepare the next batch. Implementations must therefore either consume the input data or copy it.
+     *
+     * @param input the prepared input tensors
+     * @param batchSize the number of examples in the batch, might be smaller than the expected batch size for the last
+     *            batch
+     * @param monitor the execution monitor
+     * @throws DLCanceledExecutionException if execution was canceled
+     * @throws Exception if any other exception occurs during execution
+     */
+    void execute(Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> input, long batchSize,
+        DLExecutionMonitor monitor) throws DLCanceledExecutionException, Exception;
+
+    /**
+     * Creates a new set of output tensors. This method is called after the first call of
+     * {@link #execute(Map, long, DLExecutionMonitor)} which allows implementations to take the actual output shapes
+     * into account. It may be called multiple times if several output batches are in flight at once.
+     *
+     * @param monitor the execution monitor
+     * @return the output tensors
+     * @throws DLCanceledExecutionException if execution was canceled
+     * @throws Exception if any other exception occurs while creating the output tensors
+     */
+    Map<DLTensorId, DLTensor<? extends DLReadableBuffer>> createOutput(DLExecutionMonitor monitor)
+        throws DLCanceledExecutionException, Exception;
+
+    /**
+     * Fills the given output tensors with the results of the last call of
+     * {@link #execute(Map, long, DLExecutionMonitor)}.
+     *
+     * @param output the output tensors, created via {@link #createOutput(DLExecutionMonitor)}
+     * @param monitor the execution monitor
+     * @throws DLCanceledExecutionException if execution was canceled
+     * @throws Exception if any other exception occurs while fetching the output
+     */
+    void fetchOutput(Map<DLTensorId, DLTensor<? extends DLReadableBuffer>> output, DLExecutionMonitor monitor)
+        throws DLCanceledExecutionException, Exception;
+}
@@ -0,0 +1,936 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.core.execution;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataCellDataInput;
+import org.knime.core.data.DataCellDataOutput;
+import org.knime.core.data.DataCellSerializer;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.DataTypeRegistry;
+import org.knime.core.data.append.AppendedColumnRow;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.filestore.FileStoreCell;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.node.streamable.RowInput;
+import org.knime.core.node.streamable.RowOutput;
+import org.knime.core.util.FileUtil;
+import org.knime.dl.core.DLExternalNetwork;
+import org.knime.dl.core.DLNetwork;
+import org.knime.dl.core.DLTensorId;
+
+import com.google.common.hash.Funnels;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingInputStream;
+import com.google.common.primitives.Longs;
+
+/**
+ * Persistent cache of the output cells of a network execution, keyed by the content of the network, the execution
+ * configuration and the input cells of each row. Rows whose results are cached are not passed to the network:
+ * {@link #wrapInput(RowInput, Map) the wrapped input} only returns cache misses, while
+ * {@link #wrapOutput(RowOutput, boolean) the wrapped output} merges the cached results back in input order.
+ * <P>
+ * Each combination of network and configuration is stored in a separate directory of append-only segment files. A
+ * segment holds the new results of one execution as records of the SHA-256 hash of the input cells followed by the
+ * serialized result cells. Opening the cache only builds an index from the hashes to the locations of the records,
+ * the result cells are read from disk on a hit. The results of an execution are written to a temporary segment while
+ * it runs and are only made visible by {@link #save(ExecutionMonitor)}, which never rewrites existing segments.
+ * <P>
+ * The cache is bounded: at most {@link #MAX_ENTRIES} results are kept per directory, the least recently written
+ * segments are deleted first. Segments are deleted after 30 days, results that are still hit are rewritten to the
+ * newest segment before that. More than {@link #MAX_SEGMENTS} segments are compacted into a single one. Input cells are
+ * identified by their serialized content. Rows with input or result cells that cannot be serialized and results that
+ * reference file stores are not cached.
+ *
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ * @since 4.5
+ */
+public final class DLExecutionResultCache implements AutoCloseable {
+
+    /**
+     * The maximum number of results that are kept per combination of network and configuration. The index of a cache
+     * requires about 100 bytes of heap per result.
+     */
+    public static final int MAX_ENTRIES = 500_000;
+
+    /**
+     * The number of segment files per combination of network and configuration above which they are compacted.
+     */
+    public static final int MAX_SEGMENTS = 16;
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(DLExecutionResultCache.class);
+
+    private static final String SEGMENT_EXTENSION = ".segment";
+
+    private static final String TMP_EXTENSION = ".tmp";
+
+    private static final int SEGMENT_MAGIC = 0x444c5243;
+
+    private static final int SEGMENT_VERSION = 1;
+
+    private static final int HASH_BYTES = 32;
+
+    /**
+     * Hash and payload length.
+     */
+    private static final int RECORD_HEADER_BYTES = HASH_BYTES + Integer.BYTES;
+
+    private static final long MAX_AGE_MS = TimeUnit.DAYS.toMillis(30);
+
+    private static final long REFRESH_AGE_MS = TimeUnit.DAYS.toMillis(7);
+
+    private static final long STALE_TMP_AGE_MS = TimeUnit.DAYS.toMillis(1);
+
+    /**
+     * Content hashes of network files, reused as long as the size and modification time of a file do not change.
+     */
+    private static final Map<File, String[]> NETWORK_HASHES = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a key that identifies the given network by content rather than by location.
+     *
+     * @param network the network
+     * @param configuration everything else that affects the results of the execution, e.g. the selected input
+     *            columns and converters
+     * @return the key, empty if the network is not backed by a local file and therefore cannot be identified by
+     *         content
+     * @throws IOException if reading the network file failed
+     */
+    public static Optional<String> createKey(final DLNetwork network, final String configuration)
+        throws IOException {
+        if (!(network instanceof DLExternalNetwork)) {
+            return Optional.empty();
+        }
+        final File file;
+        try {
+            file = FileUtil.getFileFromURL(((DLExternalNetwork)network).getSource().getURI().toURL());
+        } catch (final IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (file == null || !file.isFile()) {
+            return Optional.empty();
+        }
+        final String lastModified = Long.toString(file.lastModified());
+        final String length = Long.toString(file.length());
+        String[] cached = NETWORK_HASHES.get(file);
+        if (cached == null || !cached[0].equals(lastModified) || !cached[1].equals(length)) {
+            cached = new String[]{lastModified, length,
+                com.google.common.io.Files.asByteSource(file).hash(Hashing.sha256()).toString()};
+            NETWORK_HASHES.put(file, cached);
+        }
+        return Optional.of(Hashing.sha256().newHasher() //
+            .putString(network.getClass().getName(), StandardCharsets.UTF_8) //
+            .putString(cached[2], StandardCharsets.UTF_8) //
+            .putString(configuration, StandardCharsets.UTF_8) //
+            .hash().toString());
+    }
+
+    /**
+     * Opens the cache of the given key in the given directory. Cached results whose table structure does not match
+     * the given result spec are discarded. The cache must be {@link #close() closed} after use.
+     *
+     * @param directory the cache directory, created if it does not exist
+     * @param key the key as returned by {@link #createKey(DLNetwork, String)}
+     * @param resultSpec the spec of the output cells of a row, i.e. without any input columns
+     * @return the cache
+     */
+    public static DLExecutionResultCache open(final File directory, final String key,
+        final DataTableSpec resultSpec) {
+        return open(directory, key, resultSpec, MAX_ENTRIES, MAX_SEGMENTS);
+    }
+
+    static DLExecutionResultCache open(final File directory, final String key, final DataTableSpec resultSpec,
+        final int maxEntries, final int maxSegments) {
+        final DLExecutionResultCache cache =
+            new DLExecutionResultCache(new File(directory, key), resultSpec, maxEntries, maxSegments);
+        try {
+            cache.load();
+        } catch (final IOException e) {
+            // the cache is only an optimization, start over
+            LOGGER.warn("Network execution result cache '" + cache.m_directory + "' could not be read and is ignored: "
+                + e.getMessage(), e);
+            cache.closeSegments();
+            cache.m_segments.clear();
+            cache.m_index.clear();
+        }
+        return cache;
+    }
+
+    private final File m_directory;
+
+    private final DataTableSpec m_resultSpec;
+
+    /**
+     * Identifies the table structure of the results, segments of a different structure are ignored.
+     */
+    private final String m_fingerprint;
+
+    private final int m_maxEntries;
+
+    private final int m_maxSegments;
+
+    /**
+     * The segments of previous executions, most recently written first.
+     */
+    private final List<Segment> m_segments = new ArrayList<>();
+
+    /**
+     * The locations of the cached results, keyed by the leading bytes of the hashes of their input cells. The full
+     * hash is verified when a record is read.
+     */
+    private final Map<Long, Location> m_index = new HashMap<>();
+
+    /**
+     * The temporary segment that receives the results of this execution, <code>null</code> until the first result is
+     * written.
+     */
+    private File m_newSegmentFile;
+
+    private DataOutputStream m_newSegment;
+
+    private int m_numNewEntries;
+
+    /**
+     * Rows in input order whose results have not been pushed to the wrapped output yet. Guarded by itself.
+     */
+    private final ArrayDeque<PendingRow> m_pending = new ArrayDeque<>();
+
+    /**
+     * Ensures that rows are pushed in order if both input and output side flush.
+     */
+    private final ReentrantLock m_flushLock = new ReentrantLock();
+
+    private RowOutput m_output;
+
+    private boolean m_append;
+
+    private long m_numHits;
+
+    private long m_numMisses;
+
+    private DLExecutionResultCache(final File directory, final DataTableSpec resultSpec, final int maxEntries,
+        final int maxSegments) {
+        m_directory = directory;
+        m_resultSpec = checkNotNull(resultSpec);
+        final StringBuilder fingerprint = new StringBuilder();
+        for (int i = 0; i < resultSpec.getNumColumns(); i++) {
+            fingerprint.append(resultSpec.getColumnSpec(i).getName()).append('\n')
+                .append(resultSpec.getColumnSpec(i).getType().getCellClass()).append('\n');
+        }
+        m_fingerprint = Hashing.sha256().hashString(fingerprint, StandardCharsets.UTF_8).toString();
+        m_maxEntries = maxEntries;
+        m_maxSegments = maxSegments;
+    }
+
+    /**
+     * @return the number of input rows whose results were served from the cache
+     */
+    public synchronized long getNumHits() {
+        return m_numHits;
+    }
+
+    /**
+     * @return the number of input rows that were passed on to the network
+     */
+    public synchronized long getNumMisses() {
+        return m_numMisses;
+    }
+
+    /**
+     * Wraps the given output. Must be called before {@link #wrapInput(RowInput, Map)} is polled.
+     *
+     * @param output the output that receives all rows in input order
+     * @param append whether the output rows consist of the input row and the result cells or of the result cells only
+     * @return the output that receives the rows computed by the network
+     */
+    public RowOutput wrapOutput(final RowOutput output, final boolean append) {
+        m_output = checkNotNull(output);
+        m_append = append;
+        return new RowOutput() {
+
+            @Override
+            public void push(final DataRow row) throws InterruptedException {
+                final DataCell[] result = new DataCell[m_resultSpec.getNumColumns()];
+                final int offset = row.getNumCells() - result.length;
+                for (int i = 0; i < result.length; i++) {
+                    result[i] = row.getCell(offset + i);
+                }
+                PendingRow computed = null;
+                synchronized (m_pending) {
+                    for (final PendingRow pending : m_pending) {
+                        if (pending.isWaiting() && pending.m_input.getKey().equals(row.getKey())) {
+                            computed = pending;
+                            break;
+                        }
+                    }
+                    if (computed == null) {
+                        throw new IllegalStateException(
+                            "Network output row '" + row.getKey() + "' does not match any input row.");
+                    }
+                    // the network preserves the row order, all rows before were skipped (e.g. due to missing values)
+                    for (final PendingRow pending : m_pending) {
+                        if (pending == computed) {
+                            break;
+                        }
+                        if (pending.isWaiting()) {
+                            pending.m_skipped = true;
+                        }
+                    }
+                    computed.m_output = row;
+                }
+                put(computed.m_hash, result);
+                flush(false);
+            }
+
+            @Override
+            public void close() throws InterruptedException {
+                flush(true);
+                m_output.close();
+            }
+        };
+    }
+
+    /**
+     * Wraps the given input such that rows whose results are cached are directly forwarded to the
+     * {@link #wrapOutput(RowOutput, boolean) wrapped output}.
+     *
+     * @param input the input of the execution
+     * @param columns the indices of the input columns per network input, in the order in which they are consumed
+     * @return the input that only returns cache misses
+     */
+    public RowInput wrapInput(final RowInput input, final Map<DLTensorId, int[]> columns) {
+        final int[][] columnIndices = columns.values().toArray(new int[0][]);
+        return new RowInput() {
+
+            @Override
+            public DataTableSpec getDataTableSpec() {
+                return input.getDataTableSpec();
+            }
+
+            @Override
+            public DataRow poll() throws InterruptedException {
+                DataRow row;
+                while ((row = input.poll()) != null) {
+                    final byte[] hash = hash(row, columnIndices);
+                    final DataCell[] result = hash != null ? get(hash) : null;
+                    final PendingRow pending = new PendingRow(row, hash);
+                    if (result != null) {
+                        pending.m_output = createOutputRow(row, result);
+                    }
+                    synchronized (m_pending) {
+                        m_pending.add(pending);
+                    }
+                    if (result == null) {
+                        return row;
+                    }
+                    flush(false);
+                }
+                return null;
+            }
+
+            @Override
+            public void close() {
+                input.close();
+            }
+        };
+    }
+
+    /**
+     * Persists the results that were added since the cache was opened as a new segment and deletes or compacts old
+     * segments if the cache exceeds its bounds.
+     *
+     * @param exec to report progress and to check for cancellation
+     * @throws IOException if writing the cache failed
+     * @throws CanceledExecutionException if the execution was canceled
+     */
+    public synchronized void save(final ExecutionMonitor exec) throws IOException, CanceledExecutionException {
+        if (m_newSegment == null) {
+            return;
+        }
+        exec.checkCanceled();
+        m_newSegment.close();
+        m_newSegment = null;
+        final String name = m_newSegmentFile.getName();
+        final File segmentFile =
+            new File(m_directory, name.substring(0, name.length() - TMP_EXTENSION.length()));
+        Files.move(m_newSegmentFile.toPath(), segmentFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        m_newSegmentFile = null;
+        prune(segmentFile, exec);
+    }
+
+    /**
+     * Releases the segment files. Results that were not {@link #save(ExecutionMonitor) saved} are discarded.
+     */
+    @Override
+    public synchronized void close() {
+        closeSegments();
+        if (m_newSegment != null) {
+            try {
+                m_newSegment.close();
+                Files.deleteIfExists(m_newSegmentFile.toPath());
+            } catch (final IOException e) {
+                LOGGER.debug("Unsaved network execution result cache segment '" + m_newSegmentFile
+                    + "' could not be deleted: " + e.getMessage(), e);
+            }
+            m_newSegment = null;
+            m_newSegmentFile = null;
+        }
+    }
+
+    private void load() throws IOException {
+        final File[] files = m_directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        final List<File> segmentFiles = new ArrayList<>();
+        for (final File file : files) {
+            if (file.getName().endsWith(SEGMENT_EXTENSION)) {
+                segmentFiles.add(file);
+            } else if (file.getName().endsWith(TMP_EXTENSION) && now - file.lastModified() > STALE_TMP_AGE_MS) {
+                // left behind by an execution that did not finish
+                Files.deleteIfExists(file.toPath());
+            }
+        }
+        segmentFiles.sort(Comparator.comparingLong(File::lastModified).reversed());
+        for (final File file : segmentFiles) {
+            final Segment segment = new Segment(file);
+            // results of older segments are shadowed by the ones of newer segments
+            final boolean valid = readRecords(file, false, (hash, position, length, payload) -> {
+                if (m_index.size() >= m_maxEntries) {
+                    return false;
+                }
+                if (m_index.putIfAbsent(Longs.fromByteArray(hash), new Location(segment, position, length)) == null) {
+                    segment.m_numEntries++;
+                }
+                return true;
+            });
+            if (valid) {
+                m_segments.add(segment);
+            } else {
+                LOGGER.debug("Network execution result cache segment '" + file + "' has an outdated structure.");
+                Files.deleteIfExists(file.toPath());
+            }
+        }
+    }
+
+    /**
+     * @return the cached result of the given input hash, <code>null</code> if none is cached
+     */
+    private synchronized DataCell[] get(final byte[] hash) {
+        final Location location = m_index.get(Longs.fromByteArray(hash));
+        DataCell[] result = null;
+        if (location != null) {
+            try {
+                final byte[] record = location.read();
+                if (Arrays.equals(record, 0, HASH_BYTES, hash, 0, HASH_BYTES)) {
+                    result = readCells(record, RECORD_HEADER_BYTES, location.m_length);
+                    if (System.currentTimeMillis() - location.m_segment.m_lastModified > REFRESH_AGE_MS) {
+                        // keeps results that are still used from expiring with their segment
+                        append(record, 0, record.length);
+                    }
+                }
+            } catch (final IOException e) {
+                // the cache is only an optimization
+                LOGGER.debug("Network execution result could not be read from cache: " + e.getMessage(), e);
+                result = null;
+            }
+        }
+        if (result != null) {
+            m_numHits++;
+        } else {
+            m_numMisses++;
+        }
+        return result;
+    }
+
+    private synchronized void put(final byte[] hash, final DataCell[] result) {
+        if (hash == null || Arrays.stream(result).anyMatch(FileStoreCell.class::isInstance)) {
+            return;
+        }
+        try {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            bytes.write(hash);
+            bytes.write(new byte[Integer.BYTES]);
+            try (final CellDataOutput output = new CellDataOutput(bytes)) {
+                for (final DataCell cell : result) {
+                    output.writeDataCell(cell);
+                }
+            }
+            final byte[] record = bytes.toByteArray();
+            ByteBuffer.wrap(record, HASH_BYTES, Integer.BYTES).putInt(record.length - RECORD_HEADER_BYTES);
+            append(record, 0, record.length);
+        } catch (final IOException e) {
+            // e.g. a result cell that cannot be serialized
+            LOGGER.debug("Network execution result could not be cached: " + e.getMessage(), e);
+        }
+    }
+
+    private void append(final byte[] record, final int offset, final int length) throws IOException {
+        if (m_newSegment == null) {
+            Files.createDirectories(m_directory.toPath());
+            m_newSegmentFile = File.createTempFile("results", SEGMENT_EXTENSION + TMP_EXTENSION, m_directory);
+            m_newSegment = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(m_newSegmentFile.toPath())));
+            writeSegmentHeader(m_newSegment);
+        }
+        m_newSegment.write(record, offset, length);
+        m_numNewEntries++;
+    }
+
+    private void writeSegmentHeader(final DataOutputStream out) throws IOException {
+        out.writeInt(SEGMENT_MAGIC);
+        out.writeInt(SEGMENT_VERSION);
+        out.writeUTF(m_fingerprint);
+    }
+
+    /**
+     * Deletes segments that are expired or exceed the entry bound and compacts the remaining ones if there are too
+     * many of them.
+     */
+    private void prune(final File newSegmentFile, final ExecutionMonitor exec)
+        throws IOException, CanceledExecutionException {
+        closeSegments();
+        final long now = System.currentTimeMillis();
+        long numEntries = m_numNewEntries;
+        boolean full = false;
+        final List<File> retained = new ArrayList<>();
+        retained.add(newSegmentFile);
+        for (final Segment segment : m_segments) {
+            full |= numEntries + segment.m_numEntries > m_maxEntries;
+            if (full || segment.m_numEntries == 0 || now - segment.m_lastModified > MAX_AGE_MS) {
+                deleteSegment(segment.m_file);
+            } else {
+                retained.add(segment.m_file);
+                numEntries += segment.m_numEntries;
+            }
+        }
+        m_segments.clear();
+        m_index.clear();
+        if (retained.size() > m_maxSegments) {
+            compact(retained, exec);
+        }
+    }
+
+    /**
+     * Merges the given segments, most recently written first, into a single segment.
+     */
+    private void compact(final List<File> segmentFiles, final ExecutionMonitor exec)
+        throws IOException, CanceledExecutionException {
+        final File tmpFile = File.createTempFile("results", SEGMENT_EXTENSION + TMP_EXTENSION, m_directory);
+        final Set<Long> written = new HashSet<>();
+        try (final DataOutputStream out =
+            new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile.toPath())))) {
+            writeSegmentHeader(out);
+            for (final File segmentFile : segmentFiles) {
+                exec.checkCanceled();
+                readRecords(segmentFile, true, (hash, position, length, payload) -> {
+                    if (written.size() >= m_maxEntries) {
+                        return false;
+                    }
+                    if (written.add(Longs.fromByteArray(hash))) {
+                        out.write(hash);
+                        out.writeInt(length);
+                        out.write(payload);
+                    }
+                    return true;
+                });
+            }
+        } catch (final IOException | CanceledExecutionException e) {
+            Files.deleteIfExists(tmpFile.toPath());
+            throw e;
+        }
+        final String name = tmpFile.getName();
+        Files.move(tmpFile.toPath(), new File(m_directory, name.substring(0, name.length() - TMP_EXTENSION.length()))
+            .toPath(), StandardCopyOption.ATOMIC_MOVE);
+        for (final File segmentFile : segmentFiles) {
+            deleteSegment(segmentFile);
+        }
+    }
+
+    private static void deleteSegment(final File file) {
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (final IOException e) {
+            // e.g. still opened by another execution on Windows, retried the next time the cache is saved
+            LOGGER.debug("Network execution result cache segment '" + file + "' could not be deleted: "
+                + e.getMessage(), e);
+        }
+    }
+
+    private void closeSegments() {
+        for (final Segment segment : m_segments) {
+            segment.close();
+        }
+    }
+
+    /**
+     * Reads the records of the given segment file sequentially.
+     *
+     * @param withPayload whether the payloads of the records are passed to the consumer or skipped
+     * @return <code>false</code> if the segment does not match the structure of the results of this cache
+     */
+    private boolean readRecords(final File file, final boolean withPayload, final RecordConsumer consumer)
+        throws IOException {
+        try (final CountingInputStream counting =
+            new CountingInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())));
+                final DataInputStream in = new DataInputStream(counting)) {
+            try {
+                if (in.readInt() != SEGMENT_MAGIC || in.readInt() != SEGMENT_VERSION
+                    || !in.readUTF().equals(m_fingerprint)) {
+                    return false;
+                }
+            } catch (final EOFException e) {
+                return false;
+            }
+            while (true) {
+                final long position = counting.getCount();
+                final byte[] hash = new byte[HASH_BYTES];
+                final int length;
+                byte[] payload = null;
+                try {
+                    in.readFully(hash);
+                    length = in.readInt();
+                    if (length < 0) {
+                        throw new IOException(
+                            "Network execution result cache segment '" + file + "' is corrupted.");
+                    }
+                    if (withPayload) {
+                        payload = new byte[length];
+                        in.readFully(payload);
+                    } else {
+                        ByteStreams.skipFully(in, length);
+                    }
+                } catch (final EOFException e) {
+                    // end of segment
+                    return true;
+                }
+                if (!consumer.accept(hash, position, length, payload)) {
+                    return true;
+                }
+            }
+        }
+    }
+
+    private DataCell[] readCells(final byte[] record, final int offset, final int length) throws IOException {
+        final DataCell[] cells = new DataCell[m_resultSpec.getNumColumns()];
+        try (final CellDataInput input = new CellDataInput(new ByteArrayInputStream(record, offset, length))) {
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] = input.readDataCell();
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Pushes the rows at the head of the pending queue whose output is known and drops the skipped ones. On close, all
+     * remaining rows without output are dropped as well.
+     */
+    private void flush(final boolean close) throws InterruptedException {
+        m_flushLock.lock();
+        try {
+            final List<DataRow> ready = new ArrayList<>();
+            synchronized (m_pending) {
+                while (!m_pending.isEmpty()) {
+                    final PendingRow head = m_pending.peek();
+                    if (head.m_output != null) {
+                        ready.add(head.m_output);
+                    } else if (!head.m_skipped && !close) {
+                        break;
+                    }
+                    m_pending.poll();
+                }
+            }
+            for (final DataRow row : ready) {
+                m_output.push(row);
+            }
+        } finally {
+            m_flushLock.unlock();
+        }
+    }
+
+    private DataRow createOutputRow(final DataRow input, final DataCell[] result) {
+        return m_append ? new AppendedColumnRow(input, result) : new DefaultRow(input.getKey(), result);
+    }
+
+    /**
+     * @return the hash of the serialized content of the given cells, <code>null</code> if a cell cannot be serialized
+     *         in which case the row is not cached
+     */
+    private static byte[] hash(final DataRow row, final int[][] columnIndices) {
+        final Hasher hasher = Hashing.sha256().newHasher();
+        try (final CellDataOutput output = new CellDataOutput(Funnels.asOutputStream(hasher))) {
+            for (final int[] indices : columnIndices) {
+                output.writeInt(indices.length);
+                for (final int index : indices) {
+                    output.writeDataCell(row.getCell(index));
+                }
+            }
+        } catch (final IOException e) {
+            return null;
+        }
+        return hasher.hash().asBytes();
+    }
+
+    @FunctionalInterface
+    private interface RecordConsumer {
+
+        /**
+         * @param payload <code>null</code> if payloads are skipped
+         * @return <code>false</code> to stop reading
+         */
+        boolean accept(byte[] hash, long position, int length, byte[] payload) throws IOException;
+    }
+
+    /**
+     * Writes cells by their serialized content. Unlike {@link DataCell#toString()} or {@link DataCell#hashCode()}, the
+     * serialized content identifies a cell completely, which also makes it suitable for hashing.
+     */
+    private static final class CellDataOutput extends DataOutputStream implements DataCellDataOutput {
+
+        private CellDataOutput(final OutputStream out) {
+            super(out);
+        }
+
+        /**
+         * @throws IOException if the cell has no {@link DataCellSerializer} or references a file store, whose content
+         *             is not part of the serialized cell
+         */
+        @Override
+        public void writeDataCell(final DataCell cell) throws IOException {
+            if (cell.isMissing()) {
+                writeByte(0);
+                return;
+            }
+            if (cell instanceof FileStoreCell) {
+                throw new IOException("File store cells cannot be serialized by content.");
+            }
+            @SuppressWarnings("unchecked")
+            final Class<DataCell> cellClass = (Class<DataCell>)cell.getClass();
+            final Optional<DataCellSerializer<DataCell>> serializer =
+                DataTypeRegistry.getInstance().getSerializer(cellClass);
+            if (!serializer.isPresent()) {
+                throw new IOException("Cells of type '" + cellClass.getName() + "' cannot be serialized.");
+            }
+            writeByte(1);
+            writeUTF(cellClass.getName());
+            serializer.get().serialize(cell, this);
+        }
+    }
+
+    /**
+     * Reads cells that were written by {@link CellDataOutput}.
+     */
+    private static final class CellDataInput extends DataInputStream implements DataCellDataInput {
+
+        private CellDataInput(final InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public DataCell readDataCell() throws IOException {
+            if (readByte() == 0) {
+                return DataType.getMissingCell();
+            }
+            final String cellClassName = readUTF();
+            final Optional<Class<? extends DataCell>> cellClass =
+                DataTypeRegistry.getInstance().getCellClass(cellClassName);
+            if (!cellClass.isPresent()) {
+                throw new IOException("Cells of type '" + cellClassName + "' are not available.");
+            }
+            @SuppressWarnings("unchecked")
+            final Optional<DataCellSerializer<DataCell>> serializer =
+                DataTypeRegistry.getInstance().getSerializer((Class<DataCell>)cellClass.get());
+            if (!serializer.isPresent()) {
+                throw new IOException("Cells of type '" + cellClassName + "' cannot be deserialized.");
+            }
+            return serializer.get().deserialize(this);
+        }
+    }
+
+    /**
+     * A segment file of a previous execution. Its channel is opened on the first read.
+     */
+    private static final class Segment {
+
+        private final File m_file;
+
+        private final long m_lastModified;
+
+        /**
+         * The number of results of this segment that are in the index.
+         */
+        private int m_numEntries;
+
+        private FileChannel m_channel;
+
+        private Segment(final File file) {
+            m_file = file;
+            m_lastModified = file.lastModified();
+        }
+
+        private synchronized FileChannel getChannel() throws IOException {
+            if (m_channel == null) {
+                m_channel = FileChannel.open(m_file.toPath(), StandardOpenOption.READ);
+            }
+            return m_channel;
+        }
+
+        private synchronized void close() {
+            if (m_channel != null) {
+                try {
+                    m_channel.close();
+                } catch (final IOException e) {
+                    LOGGER.debug("Network execution result cache segment '" + m_file + "' could not be closed: "
+                        + e.getMessage(), e);
+                }
+                m_channel = null;
+            }
+        }
+    }
+
+    /**
+     * The location of a record in a segment.
+     */
+    private static final class Location {
+
+        private final Segment m_segment;
+
+        private final long m_position;
+
+        /**
+         * The length of the payload of the record, i.e. without header.
+         */
+        private final int m_length;
+
+        private Location(final Segment segment, final long position, final int length) {
+            m_segment = segment;
+            m_position = position;
+            m_length = length;
+        }
+
+        /**
+         * @return the complete record including its header
+         */
+        private byte[] read() throws IOException {
+            final ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + m_length);
+            final FileChannel channel = m_segment.getChannel();
+            while (record.hasRemaining()) {
+                if (channel.read(record, m_position + record.position()) < 0) {
+                    throw new EOFException("Network execution result cache segment '" + m_segment.m_file
+                        + "' is truncated.");
+                }
+            }
+            return record.array();
+        }
+    }
+
+    private static final class PendingRow {
+
+        private final DataRow m_input;
+
+        /**
+         * <code>null</code> if the row cannot be cached.
+         */
+        private final byte[] m_hash;
+
+        /**
+         * <code>null</code> until the result of the row is known.
+         */
+        private DataRow m_output;
+
+        private boolean m_skipped;
+
+        private PendingRow(final DataRow input, final byte[] hash) {
+            m_input = input;
+            m_hash = hash;
+        }
+
+        private boolean isWaiting() {
+            return m_output == null && !m_skipped;
+        }
+    }
+}
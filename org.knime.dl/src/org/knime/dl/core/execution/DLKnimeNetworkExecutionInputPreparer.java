@@ -46,13 +46,15 @@
  */
 package org.knime.dl.core.execution;
 
-import java.util.ArrayDeque;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.OptionalLong;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.knime.core.data.DataRow;
+import org.knime.core.data.DataValue;
 import org.knime.dl.core.DLAbstractKnimeNetworkInputPreparer;
 import org.knime.dl.core.DLCanceledExecutionException;
 import org.knime.dl.core.DLInvalidNetworkInputException;
@@ -71,8 +73,24 @@ public final class DLKnimeNetworkExecutionInputPreparer extends DLAbstractKnimeN
 
 	private final boolean m_isPredefinedBatchSize;
 
+	/**
+	 * Concurrent since the rows may be consumed by a different thread than the one that prepares the batches (see
+	 * {@link DLNetworkExecutionSession#setPipelineDepth(int)}).
+	 */
 	private final Queue<DataRow> m_baseRows;
 
+	/**
+	 * The next row that is not skipped due to missing values, if {@link #hasNext()} already looked ahead. Otherwise
+	 * null.
+	 */
+	private DataRow m_pendingRow;
+
+	/**
+	 * The grouped values of {@link #m_pendingRow}. Only valid until the next call of
+	 * {@link DLRowIterator#groupByTensor(DataRow)}.
+	 */
+	private Map<DLTensorId, List<DataValue>> m_pendingValues;
+
 	/**
 	 * @param iterator provides the input data rows that are used by this instance to prepare (fill) the network tensors
 	 *            fed to {@link #prepare(Map, long)}. The iterator must know its size. It must be in a proper initial
@@ -89,7 +107,7 @@ public DLKnimeNetworkExecutionInputPreparer(final DLRowIterator iterator, final
 			final Map<DLTensorId, DLDataValueToTensorConverterFactory<?, ?>> converters) {
 		super(iterator, batchSize, converters);
 		m_isPredefinedBatchSize = isPredefinedBatchSize;
-		m_baseRows = new ArrayDeque<>(batchSize);
+		m_baseRows = new ConcurrentLinkedQueue<>();
 	}
 
     public OptionalLong getNumBatches() {
@@ -107,36 +125,50 @@ public Queue<DataRow> getBaseRows() {
 
     @Override
     public boolean hasNext() {
-        return m_iterator.hasNext();
+        // look ahead past rows that are skipped due to missing values, else the last batch could end up empty
+        while (m_pendingRow == null && m_iterator.hasNext()) {
+            final DataRow row = m_iterator.next();
+            final Map<DLTensorId, List<DataValue>> values = m_iterator.groupByTensor(row);
+            if (values != null) {
+                m_pendingRow = row;
+                m_pendingValues = values;
+            }
+        }
+        return m_pendingRow != null;
     }
 
     @Override
     public void prepareNext(final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> input)
         throws DLCanceledExecutionException {
 		long i;
-		for (i = 0; i < m_batchSize; i++) {
-			if (!m_iterator.hasNext()) {
-				// last batch will be incomplete, handled below
-				break;
-			}
-			final DataRow row = m_iterator.next();
-			m_baseRows.add(row);
-			try {
-				writeDataValuesInTensors(m_iterator.groupByTensor(row), input);
-			} catch (final DLBufferOverflowExceptionForTensor e) {
-				final DLTensor<?> tensor = e.getTensor();
-				// must be present
-				final long exampleSize = DLUtils.Shapes.getFixedSize(tensor.getSpec().getShape()).getAsLong();
-				// must be present
-				final long batchSize = tensor.getSpec().getBatchSize().getAsLong();
-				throw new DLInvalidNetworkInputException(
-						"Node input data size exceeds the expected size of network input '" + tensor.getSpec().getName()
-								+ "'. Neuron count is " + exampleSize + ", batch size is " + batchSize
-								+ ". Thus, expected input data size is " + exampleSize * batchSize
-								+ ". Please check the column selection for this input "
-								+ "and validate the node's input data.",
-						e);
+		try {
+			for (i = 0; i < m_batchSize; i++) {
+				// skips rows with missing values if configured, those do not occupy a slot in the batch
+				if (!hasNext()) {
+					// last batch will be incomplete, handled below
+					break;
+				}
+				final DataRow row = m_pendingRow;
+				final Map<DLTensorId, List<DataValue>> values = m_pendingValues;
+				m_pendingRow = null;
+				m_pendingValues = null;
+				m_baseRows.add(row);
+				bufferDataValuesInTensors(values, input);
 			}
+			flushDataValuesInTensors(input);
+		} catch (final DLBufferOverflowExceptionForTensor e) {
+			final DLTensor<?> tensor = e.getTensor();
+			// must be present
+			final long exampleSize = DLUtils.Shapes.getFixedSize(tensor.getSpec().getShape()).getAsLong();
+			// must be present
+			final long batchSize = tensor.getSpec().getBatchSize().getAsLong();
+			throw new DLInvalidNetworkInputException(
+					"Node input data size exceeds the expected size of network input '" + tensor.getSpec().getName()
+							+ "'. Neuron count is " + exampleSize + ", batch size is " + batchSize
+							+ ". Thus, expected input data size is " + exampleSize * batchSize
+							+ ". Please check the column selection for this input "
+							+ "and validate the node's input data.",
+					e);
 		}
 		// check if tensors were filled correctly
 		for (final Entry<DLTensorId, DLTensor<? extends DLWritableBuffer>> entry : input.entrySet()) {
@@ -173,5 +205,7 @@ public void prepareNext(final Map<DLTensorId, DLTensor<? extends DLWritableBuffe
 	public void close() throws Exception {
 		super.close();
 		m_baseRows.clear();
+		m_pendingRow = null;
+		m_pendingValues = null;
 	}
 }
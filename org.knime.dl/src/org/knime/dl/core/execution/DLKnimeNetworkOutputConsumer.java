@@ -142,16 +142,15 @@ public void accept(final Map<DLTensorId, DLTensor<? extends DLReadableBuffer>> t
 		final DLTensor<? extends DLReadableBuffer> tensor = tensors.values().iterator().next();
 		final long batchSize = tensor.getBuffer().size() / tensor.getExampleSize();
 		for (int r = 0; r < batchSize; r++) {
+			// appended rows keep a reference to their cell array, default rows copy it
+			final DataCell[] cells = m_append ? new DataCell[m_temp.length] : m_temp;
 			int c = 0;
 	        for (final Entry<DLTensorId, DLKnimeOutputConsumerHelperStruct> entry : m_helpers.entrySet()) {
 	            final DLKnimeOutputConsumerHelperStruct helper = entry.getValue();
-				final DataCell[] temp = helper.m_temp;
 				// casting is fine here as we are already performing exact multiplication in the initialize method
-				final int o = (int) (r * helper.m_numOutputElements);
-				for (int i = 0; i < helper.m_numOutputElements; i++) {
-					m_temp[c + i] = temp[o + i];
-				}
-				c += helper.m_numOutputElements;
+				final int numOutputElements = (int) helper.m_numOutputElements;
+				System.arraycopy(helper.m_temp, r * numOutputElements, cells, c, numOutputElements);
+				c += numOutputElements;
 			}
 			DataRow baseRow;
 			try {
@@ -162,9 +161,9 @@ public void accept(final Map<DLTensorId, DLTensor<? extends DLReadableBuffer>> t
 			}
 			try {
 				if (m_append) {
-					m_output.push(new AppendedColumnRow(baseRow, m_temp.clone()));
+					m_output.push(new AppendedColumnRow(baseRow, cells));
 				} else {
-					m_output.push(new DefaultRow(baseRow.getKey(), m_temp));
+					m_output.push(new DefaultRow(baseRow.getKey(), cells));
 				}
 			} catch (final InterruptedException ex) {
 				Thread.currentThread().interrupt();
@@ -60,4 +60,18 @@
 public interface DLNetworkExecutionSession extends DLNetworkSession {
 
 	void run(DLExecutionMonitor monitor) throws DLCanceledExecutionException, Exception;
+
+	/**
+	 * Sets the number of batches that may be in flight per execution stage. If greater than one, input preparation,
+	 * network execution and output consumption are pipelined, i.e. the next batch is prepared and the outputs of the
+	 * previous batch are consumed while the current batch is being executed. The order of the batches is retained.
+	 * <P>
+	 * Sessions that do not support pipelined execution ignore this setting. Must be called before
+	 * {@link #run(DLExecutionMonitor)}.
+	 *
+	 * @param pipelineDepth the pipeline depth, must be positive. A depth of one disables pipelining.
+	 */
+	default void setPipelineDepth(final int pipelineDepth) {
+		// no op
+	}
 }
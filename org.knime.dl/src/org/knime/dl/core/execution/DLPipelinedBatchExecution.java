@@ -0,0 +1,296 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.core.execution;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.knime.core.util.ThreadUtils;
+import org.knime.dl.core.DLCanceledExecutionException;
+import org.knime.dl.core.DLNetworkInputPreparer;
+import org.knime.dl.core.DLStageTimings;
+import org.knime.dl.core.DLStageTimings.DLStage;
+import org.knime.dl.core.DLTensor;
+import org.knime.dl.core.DLTensorId;
+import org.knime.dl.core.data.DLReadableBuffer;
+import org.knime.dl.core.data.DLWritableBuffer;
+
+/**
+ * Executes batches in three concurrently running stages: input preparation, network execution and output consumption.
+ * While batch <code>n</code> is executed by the back end, batch <code>n+1</code> is prepared and the outputs of batch
+ * <code>n-1</code> are consumed. The stages hand off batches via bounded pools of preallocated tensors, the order of
+ * the batches is retained.
+ * <P>
+ * Network execution runs in the calling thread, input preparation and output consumption run in worker threads that
+ * inherit the calling thread's node context.
+ *
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ */
+final class DLPipelinedBatchExecution {
+
+    private static final long POLL_INTERVAL_MS = 100;
+
+    private static final DLPipelinedBatch END_OF_BATCHES = new DLPipelinedBatch(null, null, -1);
+
+    private final DLNetworkInputPreparer m_inputPreparer;
+
+    private final DLNetworkOutputConsumer m_outputConsumer;
+
+    private final DLBatchExecutor m_executor;
+
+    private final DLExecutionMonitor m_monitor;
+
+    private final long m_expectedBatchSize;
+
+    private final int m_depth;
+
+    /**
+     * Output tensors are created lazily by {@link DLBatchExecutor#createOutput(DLExecutionMonitor)}. Newly created
+     * tensors are added to this list to allow the owning session to close them.
+     */
+    private final List<Map<DLTensorId, DLTensor<? extends DLReadableBuffer>>> m_outputs;
+
+    private final BlockingQueue<Map<DLTensorId, DLTensor<? extends DLWritableBuffer>>> m_freeInputs;
+
+    private final BlockingQueue<Map<DLTensorId, DLTensor<? extends DLReadableBuffer>>> m_freeOutputs;
+
+    private final BlockingQueue<DLPipelinedBatch> m_preparedBatches;
+
+    private final BlockingQueue<DLPipelinedBatch> m_executedBatches;
+
+    private final DLStageTimings m_stageTimings;
+
+    private final AtomicReference<Throwable> m_failure = new AtomicReference<>();
+
+    /**
+     * @param inputs the input tensors, one map per batch that may be in flight at once. The size of this list
+     *            determines the depth of the pipeline.
+     * @param outputs the output tensors that were created by earlier runs, may be empty. Output tensors that are
+     *            created during this run are added to the list.
+     * @param stageTimings records the time spent in input preparation and output consumption
+     */
+    DLPipelinedBatchExecution(final DLNetworkInputPreparer inputPreparer,
+        final DLNetworkOutputConsumer outputConsumer, final DLBatchExecutor executor,
+        final DLExecutionMonitor monitor, final long expectedBatchSize,
+        final List<Map<DLTensorId, DLTensor<? extends DLWritableBuffer>>> inputs,
+        final List<Map<DLTensorId, DLTensor<? extends DLReadableBuffer>>> outputs,
+        final DLStageTimings stageTimings) {
+        m_inputPreparer = inputPreparer;
+        m_outputConsumer = outputConsumer;
+        m_executor = executor;
+        m_monitor = monitor;
+        m_expectedBatchSize = expectedBatchSize;
+        m_depth = inputs.size();
+        m_outputs = outputs;
+        m_stageTimings = stageTimings;
+        m_freeInputs = new ArrayBlockingQueue<>(m_depth, false, inputs);
+        m_freeOutputs = new ArrayBlockingQueue<>(m_depth);
+        m_freeOutputs.addAll(outputs);
+        // +1: end-of-batches marker
+        m_preparedBatches = new ArrayBlockingQueue<>(m_depth + 1);
+        m_executedBatches = new ArrayBlockingQueue<>(m_depth + 1);
+    }
+
+    void run() throws DLCanceledExecutionException, Exception {
+        final ExecutorService workers = Executors.newFixedThreadPool(2, r -> {
+            final Thread thread = new Thread(r, "KNIME-DL-Pipelined-Execution");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            final Future<Void> preparation = workers.submit(ThreadUtils.callableWithContext(this::prepareBatches));
+            final Future<Void> consumption = workers.submit(ThreadUtils.callableWithContext(this::consumeBatches));
+            try {
+                executeBatches();
+            } catch (final Throwable t) {
+                m_failure.compareAndSet(null, t);
+            }
+            awaitTermination(preparation);
+            awaitTermination(consumption);
+            final Throwable failure = m_failure.get();
+            if (failure instanceof Exception) {
+                throw (Exception)failure;
+            } else if (failure instanceof Error) {
+                throw (Error)failure;
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private Void prepareBatches() throws Exception {
+        try {
+            while (true) {
+                final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> input = take(m_freeInputs);
+                if (!m_inputPreparer.hasNext()) {
+                    break;
+                }
+                final long preparationStart = m_stageTimings.start();
+                m_inputPreparer.prepareNext(input);
+                m_stageTimings.stop(DLStage.INPUT_PREPARATION, preparationStart, m_stageTimings.getSizeInBytes(input));
+                m_monitor.checkCanceled();
+                long batchSize = m_expectedBatchSize;
+                if (!m_inputPreparer.hasNext()) {
+                    // last batch might be incomplete
+                    final DLTensor<? extends DLWritableBuffer> tensor = input.values().stream().findAny().get();
+                    batchSize = tensor.getBuffer().size() / tensor.getExampleSize();
+                }
+                m_preparedBatches.put(new DLPipelinedBatch(input, null, batchSize));
+            }
+            m_preparedBatches.put(END_OF_BATCHES);
+        } catch (final Throwable t) {
+            m_failure.compareAndSet(null, t);
+            throw t;
+        }
+        return null;
+    }
+
+    private void executeBatches() throws DLCanceledExecutionException, Exception {
+        DLPipelinedBatch batch;
+        while ((batch = take(m_preparedBatches)) != END_OF_BATCHES) {
+            m_monitor.checkCanceled();
+            m_executor.execute(batch.m_input, batch.m_batchSize, m_monitor);
+            m_monitor.checkCanceled();
+            for (final DLTensor<?> input : batch.m_input.values()) {
+                input.getBuffer().reset();
+            }
+            m_freeInputs.put(batch.m_input);
+            final Map<DLTensorId, DLTensor<? extends DLReadableBuffer>> output = nextFreeOutput();
+            m_executor.fetchOutput(output, m_monitor);
+            m_monitor.checkCanceled();
+            m_executedBatches.put(new DLPipelinedBatch(null, output, batch.m_batchSize));
+        }
+        m_executedBatches.put(END_OF_BATCHES);
+    }
+
+    private Void consumeBatches() throws Exception {
+        try {
+            final DLExecutionStatus status = m_monitor.getExecutionStatus();
+            DLPipelinedBatch batch;
+            while ((batch = take(m_executedBatches)) != END_OF_BATCHES) {
+                final long consumptionStart = m_stageTimings.start();
+                m_outputConsumer.accept(batch.m_output);
+                m_stageTimings.stop(DLStage.OUTPUT_CONSUMPTION, consumptionStart);
+                for (final DLTensor<?> output : batch.m_output.values()) {
+                    output.getBuffer().reset();
+                }
+                m_freeOutputs.put(batch.m_output);
+                status.batchEnded().raise(null);
+            }
+        } catch (final Throwable t) {
+            m_failure.compareAndSet(null, t);
+            throw t;
+        }
+        return null;
+    }
+
+    private Map<DLTensorId, DLTensor<? extends DLReadableBuffer>> nextFreeOutput()
+        throws DLCanceledExecutionException, Exception {
+        final Map<DLTensorId, DLTensor<? extends DLReadableBuffer>> output = m_freeOutputs.poll();
+        if (output != null) {
+            return output;
+        }
+        if (m_outputs.size() < m_depth) {
+            final Map<DLTensorId, DLTensor<? extends DLReadableBuffer>> newOutput = m_executor.createOutput(m_monitor);
+            m_outputs.add(newOutput);
+            return newOutput;
+        }
+        return take(m_freeOutputs);
+    }
+
+    /**
+     * Waits for the next element of the given queue. Gives up if one of the other stages failed or if execution was
+     * canceled.
+     */
+    private <T> T take(final BlockingQueue<T> queue) throws DLCanceledExecutionException, InterruptedException {
+        T element;
+        while ((element = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) == null) {
+            if (m_failure.get() != null) {
+                throw new CancellationException("Pipelined execution was aborted because another stage failed.");
+            }
+            m_monitor.checkCanceled();
+        }
+        return element;
+    }
+
+    private void awaitTermination(final Future<Void> stage) {
+        try {
+            stage.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            m_failure.compareAndSet(null, new DLCanceledExecutionException());
+        } catch (final ExecutionException e) {
+            // the cause was already recorded by the stage itself
+            m_failure.compareAndSet(null, e.getCause());
+        }
+    }
+
+    private static final class DLPipelinedBatch {
+
+        private final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> m_input;
+
+        private final Map<DLTensorId, DLTensor<? extends DLReadableBuffer>> m_output;
+
+        private final long m_batchSize;
+
+        private DLPipelinedBatch(final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> input,
+            final Map<DLTensorId, DLTensor<? extends DLReadableBuffer>> output, final long batchSize) {
+            m_input = input;
+            m_output = output;
+            m_batchSize = batchSize;
+        }
+    }
+}
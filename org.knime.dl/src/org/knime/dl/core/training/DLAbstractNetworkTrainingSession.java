@@ -49,9 +49,12 @@
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.ArrayUtils;
@@ -61,6 +64,8 @@
 import org.knime.dl.core.DLNetwork;
 import org.knime.dl.core.DLNetworkFixedSizeInputPreparer;
 import org.knime.dl.core.DLNetworkInputProvider;
+import org.knime.dl.core.DLStageTimings;
+import org.knime.dl.core.DLStageTimings.DLStage;
 import org.knime.dl.core.DLTensor;
 import org.knime.dl.core.DLTensorFactory;
 import org.knime.dl.core.DLTensorId;
@@ -155,6 +160,45 @@ private static boolean doExecInputsSpecsMatchConfig(final DLTrainingConfig train
 	 */
 	protected Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> m_validationInput;
 
+	/**
+	 * The number of batches that are prepared in advance while the back end processes the current batch. Zero means
+	 * that each batch is prepared on request.
+	 */
+	protected int m_prefetchDepth = 0;
+
+	/**
+	 * Records the time and data spent in the stages of this session. Disabled by default. If prefetching is enabled,
+	 * input preparation only accounts for the time the back end had to wait for a prefetched batch.
+	 */
+	protected DLStageTimings m_stageTimings = DLStageTimings.DISABLED;
+
+	private final DLNetworkFixedSizeInputPreparer m_trainingInputPreparer;
+
+	private final DLNetworkFixedSizeInputPreparer m_validationInputPreparer;
+
+	/**
+	 * Non-null while a prefetching training run is in progress.
+	 */
+	private volatile DLPrefetchingNetworkInputProvider m_trainingPrefetcher;
+
+	/**
+	 * Non-null while a prefetching training run with validation is in progress.
+	 */
+	private volatile DLPrefetchingNetworkInputProvider m_validationPrefetcher;
+
+	/**
+	 * The training input/target tensors that are used for prefetching, including {@link #m_trainingInput}.
+	 * Initialized during the first prefetching call of {@link #run(DLTrainingMonitor)}.
+	 */
+	private List<Map<DLTensorId, DLTensor<? extends DLWritableBuffer>>> m_trainingPrefetchInputs;
+
+	/**
+	 * The validation input/target tensors that are used for prefetching, including {@link #m_validationInput}.
+	 * Initialized during the first prefetching call of {@link #run(DLTrainingMonitor)} if {@link #m_doValidation} is
+	 * true.
+	 */
+	private List<Map<DLTensorId, DLTensor<? extends DLWritableBuffer>>> m_validationPrefetchInputs;
+
 	/**
 	 * @param network the network to train
 	 * @param trainingConfig the training configuration that specifies how the network will be trained
@@ -179,7 +223,8 @@ protected DLAbstractNetworkTrainingSession(final N network, final CFG trainingCo
 		m_network = network;
 		m_trainingConfig = checkNotNull(trainingConfig);
 		m_executionInputSpecs = executionInputSpecs;
-		checkNotNull(trainingInputPreparer);
+		m_trainingInputPreparer = checkNotNull(trainingInputPreparer);
+		m_validationInputPreparer = validationInputPreparer;
 		m_trainingInputProvider = new DLNetworkInputProvider() {
 
 			@Override
@@ -190,8 +235,16 @@ public long getNumBatches() {
 			@Override
 			public Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> get(final long batchIndex)
 					throws DLCanceledExecutionException, DLInvalidNetworkInputException {
-				trainingInputPreparer.prepare(m_trainingInput, batchIndex);
-				return m_trainingInput;
+				final long start = m_stageTimings.start();
+				final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> input;
+				if (m_trainingPrefetcher != null) {
+					input = m_trainingPrefetcher.get(batchIndex);
+				} else {
+					trainingInputPreparer.prepare(m_trainingInput, batchIndex);
+					input = m_trainingInput;
+				}
+				m_stageTimings.stop(DLStage.INPUT_PREPARATION, start, m_stageTimings.getSizeInBytes(input));
+				return input;
 			}
 
 			@Override
@@ -210,8 +263,16 @@ public long getNumBatches() {
 			@Override
 			public Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> get(final long batchIndex)
 					throws DLCanceledExecutionException, DLInvalidNetworkInputException {
-				validationInputPreparer.prepare(m_validationInput, batchIndex);
-				return m_validationInput;
+				final long start = m_stageTimings.start();
+				final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> input;
+				if (m_validationPrefetcher != null) {
+					input = m_validationPrefetcher.get(batchIndex);
+				} else {
+					validationInputPreparer.prepare(m_validationInput, batchIndex);
+					input = m_validationInput;
+				}
+				m_stageTimings.stop(DLStage.INPUT_PREPARATION, start, m_stageTimings.getSizeInBytes(input));
+				return input;
 			}
 
 			@Override
@@ -248,29 +309,36 @@ public DLTrainingConfig getTrainingConfig() {
 		return m_trainingConfig;
 	}
 
+	@Override
+	public void setPrefetchDepth(final int prefetchDepth) {
+		checkArgument(prefetchDepth >= 0, "Prefetch depth must not be negative.");
+		m_prefetchDepth = prefetchDepth;
+	}
+
+	@Override
+	public void setStageTimings(final DLStageTimings stageTimings) {
+		m_stageTimings = checkNotNull(stageTimings);
+	}
+
 	@Override
 	public void run(final DLTrainingMonitor<? extends S> monitor) throws DLCanceledExecutionException, Exception {
 		monitor.getTrainingStatus().trainingStarted().raise(null);
 		// lazily preallocate training input/target tensors
 		if (m_trainingInput == null) {
-			m_trainingInput = new HashMap<>(m_executionInputSpecs.size());
-			for (final DLTensorSpec spec : m_executionInputSpecs) {
-				m_trainingInput.put(spec.getIdentifier(), m_tensorFactory.createWritableTensor(spec));
-			}
+			m_trainingInput = createTrainingInputTensors();
 		}
 		// lazily preallocate validation input/target tensors
 		if (m_doValidation && m_validationInput == null) {
-			m_validationInput = new HashMap<>(m_executionInputSpecs.size());
-			for (final DLTensorSpec spec : m_executionInputSpecs) {
-				// we need to replace the training data batch size by the validation data batch size. Specs are fully
-				// defined, no need to check if optionals are present.
-				final DLTensorSpec validationSpec = m_tensorFactory.createExecutionTensorSpec(spec,
-						m_trainingConfig.getValidationBatchSize(), DLUtils.Shapes.getFixedShape(spec.getShape()).get());
-				m_validationInput.put(validationSpec.getIdentifier(),
-						m_tensorFactory.createWritableTensor(validationSpec));
-			}
+			m_validationInput = createValidationInputTensors();
+		}
+		if (m_prefetchDepth > 0) {
+			startPrefetching();
+		}
+		try {
+			trainInternal(monitor);
+		} finally {
+			stopPrefetching();
 		}
-		trainInternal(monitor);
 		monitor.getTrainingStatus().trainingEnded().raise(null);
 	}
 
@@ -282,5 +350,76 @@ public void close() throws Exception {
 		if (m_validationInput != null) {
 			m_validationInput.values().forEach(DLTensor::close);
 		}
+		// the first entries are m_trainingInput and m_validationInput which were closed above
+		if (m_trainingPrefetchInputs != null) {
+			m_trainingPrefetchInputs.stream().skip(1).forEach(i -> i.values().forEach(DLTensor::close));
+		}
+		if (m_validationPrefetchInputs != null) {
+			m_validationPrefetchInputs.stream().skip(1).forEach(i -> i.values().forEach(DLTensor::close));
+		}
+	}
+
+	private void startPrefetching() {
+		m_trainingPrefetchInputs = createPrefetchInputs(m_trainingPrefetchInputs, m_trainingInput,
+				this::createTrainingInputTensors);
+		m_trainingPrefetcher = new DLPrefetchingNetworkInputProvider(m_trainingInputPreparer,
+				m_trainingPrefetchInputs);
+		if (m_doValidation) {
+			m_validationPrefetchInputs = createPrefetchInputs(m_validationPrefetchInputs, m_validationInput,
+					this::createValidationInputTensors);
+			m_validationPrefetcher = new DLPrefetchingNetworkInputProvider(m_validationInputPreparer,
+					m_validationPrefetchInputs);
+		}
+	}
+
+	private List<Map<DLTensorId, DLTensor<? extends DLWritableBuffer>>> createPrefetchInputs(
+			final List<Map<DLTensorId, DLTensor<? extends DLWritableBuffer>>> existingInputs,
+			final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> input,
+			final Supplier<Map<DLTensorId, DLTensor<? extends DLWritableBuffer>>> inputCreator) {
+		// the back end may hold one batch while the next batches are prefetched
+		final int numInputs = m_prefetchDepth + 1;
+		final List<Map<DLTensorId, DLTensor<? extends DLWritableBuffer>>> inputs = existingInputs != null
+				? existingInputs
+				: new ArrayList<>(numInputs);
+		if (inputs.isEmpty()) {
+			inputs.add(input);
+		}
+		while (inputs.size() < numInputs) {
+			inputs.add(inputCreator.get());
+		}
+		return inputs;
+	}
+
+	private void stopPrefetching() {
+		if (m_trainingPrefetcher != null) {
+			m_trainingPrefetcher.close();
+			m_trainingPrefetcher = null;
+		}
+		if (m_validationPrefetcher != null) {
+			m_validationPrefetcher.close();
+			m_validationPrefetcher = null;
+		}
+	}
+
+	private Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> createTrainingInputTensors() {
+		final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> input = new HashMap<>(
+				m_executionInputSpecs.size());
+		for (final DLTensorSpec spec : m_executionInputSpecs) {
+			input.put(spec.getIdentifier(), m_tensorFactory.createWritableTensor(spec));
+		}
+		return input;
+	}
+
+	private Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> createValidationInputTensors() {
+		final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> input = new HashMap<>(
+				m_executionInputSpecs.size());
+		for (final DLTensorSpec spec : m_executionInputSpecs) {
+			// we need to replace the training data batch size by the validation data batch size. Specs are fully
+			// defined, no need to check if optionals are present.
+			final DLTensorSpec validationSpec = m_tensorFactory.createExecutionTensorSpec(spec,
+					m_trainingConfig.getValidationBatchSize(), DLUtils.Shapes.getFixedShape(spec.getShape()).get());
+			input.put(validationSpec.getIdentifier(), m_tensorFactory.createWritableTensor(validationSpec));
+		}
+		return input;
 	}
 }
@@ -46,10 +46,12 @@
  */
 package org.knime.dl.core.training;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
 import org.knime.core.data.DataRow;
+import org.knime.core.data.DataValue;
 import org.knime.core.node.NodeLogger;
 import org.knime.dl.core.DLCanceledExecutionException;
 import org.knime.dl.core.DLInvalidNetworkInputException;
@@ -99,28 +101,41 @@ public long getNumBatches() {
 	@Override
 	public void prepare(final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> input, final long batchIndex)
 			throws DLCanceledExecutionException, DLInvalidNetworkInputException {
-		for (long i = 0; i < m_batchSize; i++) {
-			if (!m_iterator.hasNext()) {
-				// continue at the beginning of the table to fill up incomplete batch
-				m_iterator.reset();
-			}
-			final DataRow row = m_iterator.next();
-			try {
-				writeDataValuesInTensors(m_iterator.groupByTensor(row), input);
-			} catch (final DLBufferOverflowExceptionForTensor ex) {
-				final DLTensor<?> tensor = ex.getTensor();
-				// must be present
-				final long exampleSize = DLUtils.Shapes.getFixedSize(tensor.getSpec().getShape()).getAsLong();
-				// must be present
-				final long batchSize = tensor.getSpec().getBatchSize().getAsLong();
-				throw new DLInvalidNetworkInputException(
-						"Node training data size for input/target '" + tensor.getSpec().getName()
-								+ "' exceeds the expected size. Neuron count of this input/target is " + exampleSize
-								+ ", batch size is " + batchSize + ". Thus, expected training data size is "
-								+ exampleSize * batchSize + ". Please check the column selection for this input/target "
-								+ "and validate the node's training data.",
-						ex);
+		try {
+			long numSkippedRows = 0;
+			for (long i = 0; i < m_batchSize;) {
+				if (!m_iterator.hasNext()) {
+					// continue at the beginning of the table to fill up incomplete batch
+					m_iterator.reset();
+				}
+				final DataRow row = m_iterator.next();
+				final Map<DLTensorId, List<DataValue>> values = m_iterator.groupByTensor(row);
+				if (values == null) {
+					// row is skipped due to missing values, make sure we do not cycle through the table forever
+					if (++numSkippedRows > m_iterator.size()) {
+						throw new DLInvalidNetworkInputException("All rows of the training data contain missing values and "
+								+ "were skipped. Please check the missing value handling of the node.");
+					}
+					continue;
+				}
+				numSkippedRows = 0;
+				bufferDataValuesInTensors(values, input);
+				i++;
 			}
+			flushDataValuesInTensors(input);
+		} catch (final DLBufferOverflowExceptionForTensor ex) {
+			final DLTensor<?> tensor = ex.getTensor();
+			// must be present
+			final long exampleSize = DLUtils.Shapes.getFixedSize(tensor.getSpec().getShape()).getAsLong();
+			// must be present
+			final long batchSize = tensor.getSpec().getBatchSize().getAsLong();
+			throw new DLInvalidNetworkInputException(
+					"Node training data size for input/target '" + tensor.getSpec().getName()
+							+ "' exceeds the expected size. Neuron count of this input/target is " + exampleSize
+							+ ", batch size is " + batchSize + ". Thus, expected training data size is "
+							+ exampleSize * batchSize + ". Please check the column selection for this input/target "
+							+ "and validate the node's training data.",
+					ex);
 		}
 		// check if tensors were filled correctly
 		for (final Entry<DLTensorId, DLTensor<? extends DLWritableBuffer>> entry : input.entrySet()) {
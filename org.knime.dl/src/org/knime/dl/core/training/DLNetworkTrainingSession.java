@@ -60,4 +60,16 @@
 	DLTrainingConfig getTrainingConfig();
 
 	void run(DLTrainingMonitor<? extends S> monitor) throws DLCanceledExecutionException, Exception;
+
+	/**
+	 * Sets the number of batches that are prepared in advance while the back end processes the current batch. A depth
+	 * of zero means that each batch is prepared when it is requested by the back end. Implementations that do not
+	 * support prefetching may ignore this setting.
+	 *
+	 * @param prefetchDepth the number of batches to prepare in advance, must not be negative
+	 * @since 4.5
+	 */
+	default void setPrefetchDepth(final int prefetchDepth) {
+		// no op
+	}
 }
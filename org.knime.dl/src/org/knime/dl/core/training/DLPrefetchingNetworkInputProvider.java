@@ -0,0 +1,228 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ---------------------------------------------------------------------
+ *
+ */
+package org.knime.dl.core.training;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.knime.core.util.ThreadUtils;
+import org.knime.dl.core.DLCanceledExecutionException;
+import org.knime.dl.core.DLInvalidNetworkInputException;
+import org.knime.dl.core.DLNetworkFixedSizeInputPreparer;
+import org.knime.dl.core.DLNetworkInputProvider;
+import org.knime.dl.core.DLTensor;
+import org.knime.dl.core.DLTensorId;
+import org.knime.dl.core.data.DLWritableBuffer;
+
+/**
+ * Input provider that prepares the next batches in a background thread while the previously requested batch is
+ * processed by the back end. Batches are prepared in ascending order of their indices, starting over at index zero
+ * after the last batch of an epoch. Requests must follow the same order.
+ * <P>
+ * A batch that was returned by {@link #get(long)} must not be used anymore after the next call of {@link #get(long)}
+ * since its tensors are then reused to prefetch further batches.
+ *
+ * @author Marcel Wiedenmann, KNIME GmbH, Konstanz, Germany
+ */
+final class DLPrefetchingNetworkInputProvider implements DLNetworkInputProvider {
+
+	private static final long POLL_INTERVAL_MS = 100;
+
+	private final DLNetworkFixedSizeInputPreparer m_preparer;
+
+	private final BlockingQueue<Map<DLTensorId, DLTensor<? extends DLWritableBuffer>>> m_freeInputs;
+
+	private final BlockingQueue<DLPrefetchedBatch> m_preparedBatches;
+
+	private final AtomicReference<Throwable> m_failure = new AtomicReference<>();
+
+	private ExecutorService m_producer;
+
+	private volatile boolean m_closed;
+
+	private Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> m_current;
+
+	/**
+	 * @param preparer the preparer that fills the prefetched batches
+	 * @param inputs the input tensors, one map per batch that may be prefetched or in use at once. Must contain at
+	 *            least two entries.
+	 */
+	DLPrefetchingNetworkInputProvider(final DLNetworkFixedSizeInputPreparer preparer,
+			final List<Map<DLTensorId, DLTensor<? extends DLWritableBuffer>>> inputs) {
+		m_preparer = preparer;
+		m_freeInputs = new ArrayBlockingQueue<>(inputs.size(), false, inputs);
+		m_preparedBatches = new ArrayBlockingQueue<>(inputs.size());
+	}
+
+	@Override
+	public long getNumBatches() {
+		return m_preparer.getNumBatches();
+	}
+
+	@Override
+	public synchronized Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> get(final long batchIndex)
+			throws DLCanceledExecutionException, DLInvalidNetworkInputException {
+		if (m_producer == null) {
+			m_producer = Executors.newSingleThreadExecutor(r -> {
+				final Thread thread = new Thread(r, "KNIME-DL-Batch-Prefetcher");
+				thread.setDaemon(true);
+				return thread;
+			});
+			m_producer.submit(ThreadUtils.callableWithContext(this::prefetchBatches));
+		}
+		if (m_current != null) {
+			// the back end is done with the previous batch, it can be reused
+			m_freeInputs.add(m_current);
+			m_current = null;
+		}
+		final DLPrefetchedBatch batch = takePreparedBatch();
+		if (batch.m_batchIndex != batchIndex) {
+			throw new IllegalStateException("Batch " + batchIndex + " was requested but batch " + batch.m_batchIndex
+					+ " was prefetched. Batches must be requested in order.");
+		}
+		m_current = batch.m_input;
+		return m_current;
+	}
+
+	/**
+	 * Stops prefetching and waits until the background thread has terminated. Does not close the underlying preparer
+	 * which is owned by the caller.
+	 */
+	@Override
+	public synchronized void close() {
+		if (m_producer != null) {
+			m_closed = true;
+			m_producer.shutdownNow();
+			// the producer may still be preparing a batch, i.e. writing to the tensors and reading from the preparer's
+			// rows, both of which are released by the caller once this method returns
+			boolean interrupted = false;
+			while (true) {
+				try {
+					if (m_producer.awaitTermination(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+						break;
+					}
+				} catch (final InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private Void prefetchBatches() throws Exception {
+		try {
+			final long numBatches = m_preparer.getNumBatches();
+			long i = 0;
+			// poll instead of blocking indefinitely, the preparer may have swallowed the interrupt that stops us
+			while (!m_closed) {
+				final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> input = m_freeInputs.poll(POLL_INTERVAL_MS,
+						TimeUnit.MILLISECONDS);
+				if (input != null) {
+					m_preparer.prepare(input, i);
+					final DLPrefetchedBatch batch = new DLPrefetchedBatch(i, input);
+					while (!m_preparedBatches.offer(batch, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+						if (m_closed) {
+							return null;
+						}
+					}
+					i = (i + 1) % numBatches;
+				}
+			}
+			return null;
+		} catch (final InterruptedException e) {
+			// stopped
+			return null;
+		} catch (final Throwable t) {
+			m_failure.compareAndSet(null, t);
+			throw t;
+		}
+	}
+
+	private DLPrefetchedBatch takePreparedBatch() throws DLCanceledExecutionException, DLInvalidNetworkInputException {
+		try {
+			DLPrefetchedBatch batch;
+			while ((batch = m_preparedBatches.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) == null) {
+				final Throwable failure = m_failure.get();
+				if (failure != null) {
+					if (failure instanceof DLCanceledExecutionException) {
+						throw (DLCanceledExecutionException)failure;
+					} else if (failure instanceof DLInvalidNetworkInputException) {
+						throw (DLInvalidNetworkInputException)failure;
+					} else {
+						throw new IllegalStateException(
+								"An error occurred while prefetching the next batch: " + failure.getMessage(), failure);
+					}
+				}
+			}
+			return batch;
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DLCanceledExecutionException();
+		}
+	}
+
+	private static final class DLPrefetchedBatch {
+
+		private final long m_batchIndex;
+
+		private final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> m_input;
+
+		private DLPrefetchedBatch(final long batchIndex,
+				final Map<DLTensorId, DLTensor<? extends DLWritableBuffer>> input) {
+			m_batchIndex = batchIndex;
+			m_input = input;
+		}
+	}
+}